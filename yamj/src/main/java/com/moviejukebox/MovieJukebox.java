@@ -46,8 +46,13 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import javax.xml.bind.annotation.XmlElement;
@@ -875,8 +880,23 @@ public class MovieJukebox {
             }
         }
 
+        // Read the directory listings of the last run
+        ScanStateIndex.readStateFile(jukebox);
+        XMLSnapshot.readSnapshot(jukebox);
+        IndexState.readStateFile(jukebox);
+        ImageFetcher.readCacheFile(jukebox);
+
         ThreadExecutor<Void> tasks = new ThreadExecutor<>(maxThreadsProcess, maxThreadsDownload);
 
+        // Walk the sub-directories of each library path in parallel rather than one thread per library path
+        final ForkJoinPool walkerPool;
+        if (PropertiesUtil.getBooleanProperty("mjb.scanner.parallelWalk", Boolean.FALSE)) {
+            LOG.debug("Using {} threads to walk the media library directories", maxThreadsProcess);
+            walkerPool = new ForkJoinPool(maxThreadsProcess);
+        } else {
+            walkerPool = null;
+        }
+
         final Library library = new Library();
         for (final MediaLibraryPath mediaLibraryPath : mediaLibraryPaths) {
             // Multi-thread parallel processing
@@ -884,7 +904,7 @@ public class MovieJukebox {
                 @Override
                 public Void call() {
                     LOG.debug("Scanning media library {}", mediaLibraryPath.getPath());
-                    MovieDirectoryScanner mds = new MovieDirectoryScanner();
+                    MovieDirectoryScanner mds = new MovieDirectoryScanner(walkerPool);
                     // scan uses synchronized method Library.addMovie
                     mds.scan(mediaLibraryPath, library);
                     System.out.print("\n");
@@ -894,6 +914,10 @@ public class MovieJukebox {
         }
         tasks.waitFor();
 
+        if (walkerPool != null) {
+            walkerPool.shutdown();
+        }
+
         SystemTools.showMemory();
 
         // If the user asked to preserve the existing movies, scan the output directory as well
@@ -924,6 +948,7 @@ public class MovieJukebox {
 
             LOG.info("Searching for information on the video files...");
             int movieCounter = 0;
+            SeriesTaskGroups seriesTasks = new SeriesTaskGroups();
             for (final Movie movie : library.values()) {
                 // Issue 997: Skip the processing of extras if not required
                 if (movie.isExtra() && !processExtras) {
@@ -941,8 +966,8 @@ public class MovieJukebox {
                     JukeboxStatistics.increment(JukeboxStatistic.MOVIES);
                 }
 
-                // Multi-thread parallel processing
-                tasks.submit(new Callable<Void>() {
+                // Multi-thread parallel processing, the seasons of a series are processed together if required
+                seriesTasks.add(movie, new Callable<Void>() {
                     @Override
                     public Void call() throws FileNotFoundException, XMLStreamException {
 
@@ -1064,6 +1089,7 @@ public class MovieJukebox {
                     }
                 });
             }
+            seriesTasks.submitTo(tasks);
             tasks.waitFor();
 
             // Add the new extra files (like trailers that were downloaded) to the library and to the corresponding movies
@@ -1468,15 +1494,10 @@ public class MovieJukebox {
                                 continue;
                             }
 
-                            if (createPosters) {
-                                // Create/update a detail poster for setMaster
-                                LOG.debug("Create/update detail poster for set: {}", movie.getBaseName());
-                                createPoster(tools.imagePlugin, jukebox, SkinProperties.getSkinHome(), movie, Boolean.TRUE);
-                            }
-
-                            // Create/update a thumbnail for setMaster
-                            LOG.debug("Create/update thumbnail for set: {}, isTV: {}, isHD: {}", movie.getBaseName(), movie.isTVShow(), movie.isHD());
-                            createThumbnail(tools.imagePlugin, jukebox, SkinProperties.getSkinHome(), movie, Boolean.TRUE);
+                            // Create/update a detail poster and a thumbnail for setMaster
+                            LOG.debug("Create/update {}thumbnail for set: {}, isTV: {}, isHD: {}", createPosters ? "detail poster and " : "",
+                                    movie.getBaseName(), movie.isTVShow(), movie.isHD());
+                            createArtwork(tools.imagePlugin, jukebox, SkinProperties.getSkinHome(), movie, createPosters, Boolean.TRUE, Boolean.TRUE);
 
                             for (int inx = 0; inx < footerCount; inx++) {
                                 if (FOOTER_ENABLE.get(inx)) {
@@ -1530,13 +1551,9 @@ public class MovieJukebox {
                         LOG.debug("Writing index data to movie: {}", movie.getBaseName());
                         xmlWriter.writeMovieXML(jukebox, movie, library);
 
-                        // Create a detail poster for each movie
-                        LOG.debug("Creating detail poster for movie: {}", movie.getBaseName());
-                        createPoster(tools.imagePlugin, jukebox, SkinProperties.getSkinHome(), movie, forcePosterOverwrite);
-
-                        // Create a thumbnail for each movie
-                        LOG.debug("Creating thumbnails for movie: {}", movie.getBaseName());
-                        createThumbnail(tools.imagePlugin, jukebox, SkinProperties.getSkinHome(), movie, forceThumbnailOverwrite);
+                        // Create a detail poster and a thumbnail for each movie
+                        LOG.debug("Creating detail poster and thumbnails for movie: {}", movie.getBaseName());
+                        createArtwork(tools.imagePlugin, jukebox, SkinProperties.getSkinHome(), movie, Boolean.TRUE, forcePosterOverwrite, forceThumbnailOverwrite);
 
                         if (!skipIndexGeneration && !skipHtmlGeneration) {
                             // write the movie details HTML
@@ -1648,7 +1665,12 @@ public class MovieJukebox {
             LOG.info("Copying new files to Jukebox directory...");
             String index = getProperty("mjb.indexFile", "index.htm");
 
-            FileTools.copyDir(jukebox.getJukeboxTempLocationDetails(), jukebox.getJukeboxRootLocationDetails(), Boolean.TRUE);
+            if (JukeboxPublisher.isEnabled()) {
+                // Only copy the files that have changed
+                JukeboxPublisher.publish(jukebox.getJukeboxTempLocationDetails(), jukebox.getJukeboxRootLocationDetails());
+            } else {
+                FileTools.copyDir(jukebox.getJukeboxTempLocationDetails(), jukebox.getJukeboxRootLocationDetails(), Boolean.TRUE);
+            }
             FileTools.copyFile(new File(jukebox.getJukeboxTempLocation() + File.separator + index), new File(jukebox.getJukeboxRootLocation() + File.separator + index));
 
             String skinDate = jukebox.getJukeboxRootLocationDetails() + File.separator + "pictures" + File.separator + "skin.date";
@@ -1734,7 +1756,16 @@ public class MovieJukebox {
         // Write the jukebox details file at the END of the run (Issue 1830)
         JukeboxProperties.writeFile(jukebox, library, mediaLibraryPaths);
 
+        // Save the directory listings for the next run
+        ScanStateIndex.writeStateFile(jukebox);
+        XMLSnapshot.writeSnapshot(jukebox);
+        IndexState.writeStateFile(jukebox);
+        ImageFetcher.writeCacheFile(jukebox);
+        OverlayCache.clear();
+
         // Output the statistics
+        ThreadExecutor.showStatistics();
+        CacheMemory.updateStatistics();
         JukeboxStatistics.writeFile(jukebox, library, mediaLibraryPaths);
 
         LOG.info("");
@@ -1778,10 +1809,10 @@ public class MovieJukebox {
             return;
         }
 
-        Collection<String> generatedFileNames = FileTools.getJukeboxFiles();
+        Set<String> generatedFileNames = FileTools.getJukeboxFiles();
 
-        File[] cleanList = jukebox.getJukeboxRootLocationDetailsFile().listFiles();
         int cleanDeletedTotal = 0;
+        int cleanTotal = 0;
         boolean skip;
 
         String skipPattStr = getProperty("mjb.clean.skip");
@@ -1799,28 +1830,43 @@ public class MovieJukebox {
         } else {
             skipPatt = null;
         }
-        for (File cleanList1 : cleanList) {
-            // Scan each file in here
-            if (cleanList1.isFile() && !generatedFileNames.contains(cleanList1.getName())) {
-                skip = Boolean.FALSE;
-                // If the file is in the skin's exclusion regex, skip it
-                if (skipPatt != null) {
-                    skip = skipPatt.matcher(cleanList1.getName()).matches();
-                }
-                // If the file isn't skipped and it's not part of the library, delete it
-                if (!skip) {
-                    if (jukeboxClean) {
-                        LOG.debug("Deleted: {} from library", cleanList1.getName());
-                        cleanList1.delete();
-                    } else {
-                        LOG.debug("Unused: {}", cleanList1.getName());
+
+        // Read the directory one entry at a time, rather than holding the whole listing in memory
+        long startTime = System.currentTimeMillis();
+        try (DirectoryStream<Path> cleanList = Files.newDirectoryStream(jukebox.getJukeboxRootLocationDetailsFile().toPath())) {
+            for (Path cleanPath : cleanList) {
+                cleanTotal++;
+                String cleanName = cleanPath.getFileName().toString();
+                // Scan each file in here, the generated files don't need to be checked on disk
+                if (!generatedFileNames.contains(cleanName) && Files.isRegularFile(cleanPath)) {
+                    skip = Boolean.FALSE;
+                    // If the file is in the skin's exclusion regex, skip it
+                    if (skipPatt != null) {
+                        skip = skipPatt.matcher(cleanName).matches();
+                    }
+                    // If the file isn't skipped and it's not part of the library, delete it
+                    if (!skip) {
+                        if (jukeboxClean) {
+                            LOG.debug("Deleted: {} from library", cleanName);
+                            try {
+                                Files.deleteIfExists(cleanPath);
+                            } catch (IOException ex) {
+                                LOG.debug("Failed to delete {}: {}", cleanName, ex.getMessage());
+                            }
+                        } else {
+                            LOG.debug("Unused: {}", cleanName);
+                        }
+                        cleanDeletedTotal++;
                     }
-                    cleanDeletedTotal++;
                 }
             }
+        } catch (IOException | DirectoryIteratorException ex) {
+            LOG.warn("Failed to read the jukebox directory: {}", ex.getMessage());
         }
+        long cleanTime = Math.max(1, System.currentTimeMillis() - startTime);
 
-        LOG.info("{} files in the jukebox directory", cleanList.length);
+        LOG.info("{} files in the jukebox directory", cleanTotal);
+        LOG.debug("Checked {} files in {}ms ({} files per second)", cleanTotal, cleanTime, cleanTotal * 1000L / cleanTime);
         if (cleanDeletedTotal > 0) {
             if (jukeboxClean) {
                 LOG.info("Deleted {} unused file{} from the jukebox directory", cleanDeletedTotal, cleanDeletedTotal == 1 ? "" : "s");
@@ -2256,6 +2302,101 @@ public class MovieJukebox {
         return new MovieListingPluginBase();
     } // getListingPlugin()
 
+    /**
+     * Create the detail poster and the thumbnail from the original poster file.
+     *
+     * The original poster is only decoded once when both images need to be created.
+     *
+     * @param imagePlugin
+     * @param jukebox
+     * @param skinHome
+     * @param movie
+     * @param createPoster Create the detail poster as well as the thumbnail
+     * @param forcePosterOverwrite
+     * @param forceThumbnailOverwrite
+     */
+    public static void createArtwork(MovieImagePlugin imagePlugin, Jukebox jukebox, String skinHome, Movie movie,
+            boolean createPoster, boolean forcePosterOverwrite, boolean forceThumbnailOverwrite) {
+        boolean posterNeeded = createPoster && isPosterNeeded(jukebox, movie, movie.getDetailPosterFilename(), forcePosterOverwrite);
+        boolean thumbnailNeeded = isPosterNeeded(jukebox, movie, movie.getThumbnailFilename(), forceThumbnailOverwrite);
+
+        BufferedImage source = null;
+        if (posterNeeded && thumbnailNeeded) {
+            File sourceFile = getPosterSourceFile(jukebox, movie);
+            try {
+                source = loadPosterImage(sourceFile);
+            } catch (IOException ex) {
+                // The poster and thumbnail will use the dummy image
+                LOG.debug("Error reading the poster file: {} - Error: {}", sourceFile.getAbsolutePath(), ex.getMessage());
+            }
+        }
+
+        if (posterNeeded) {
+            // The plugin may draw on the image, so the thumbnail needs its own copy
+            createPoster(imagePlugin, jukebox, skinHome, movie, GraphicTools.copyImage(source));
+        }
+
+        if (thumbnailNeeded) {
+            createThumbnail(imagePlugin, jukebox, skinHome, movie, source);
+        }
+    }
+
+    /**
+     * Check if the image created from the original poster file needs to be (re)created
+     *
+     * @param jukebox
+     * @param movie
+     * @param imageFilename the filename of the detail poster or thumbnail
+     * @param forceOverwrite
+     * @return
+     */
+    private static boolean isPosterNeeded(Jukebox jukebox, Movie movie, String imageFilename, boolean forceOverwrite) {
+        File tmpPosterFile = new File(appendToPath(jukebox.getJukeboxTempLocationDetails(), movie.getPosterFilename()));
+        String jkbImageFile = appendToPath(jukebox.getJukeboxRootLocationDetails(), imageFilename);
+
+        return movie.isDirty(DirtyFlag.POSTER)
+                || forceOverwrite
+                || !FileTools.fileCache.fileExists(jkbImageFile)
+                || tmpPosterFile.exists();
+    }
+
+    /**
+     * Get the original poster file, the new one in the temporary jukebox or the old one in the jukebox
+     *
+     * @param jukebox
+     * @param movie
+     * @return
+     */
+    private static File getPosterSourceFile(Jukebox jukebox, Movie movie) {
+        // Issue 228: If the PNG files are deleted before running the jukebox this fails.
+        // Therefore check to see if they exist in the original directory
+        File tmpPosterFile = new File(appendToPath(jukebox.getJukeboxTempLocationDetails(), movie.getPosterFilename()));
+        if (tmpPosterFile.exists()) {
+            return tmpPosterFile;
+        }
+        return FileTools.fileCache.getFile(appendToPath(jukebox.getJukeboxRootLocationDetails(), movie.getPosterFilename()));
+    }
+
+    /**
+     * Read the original poster file.
+     *
+     * With mjb.scaling.subsampledDecode only as many pixels are read as needed for the detail poster and the thumbnail.
+     *
+     * @param posterFile
+     * @return
+     * @throws IOException
+     */
+    private static BufferedImage loadPosterImage(File posterFile) throws IOException {
+        if (!PropertiesUtil.getBooleanProperty("mjb.scaling.subsampledDecode", Boolean.FALSE)) {
+            return GraphicTools.loadJPEGImage(posterFile);
+        }
+
+        // The same defaults as the image plugin
+        int maxWidth = Math.max(PropertiesUtil.getIntProperty("posters.width", 400), PropertiesUtil.getIntProperty("thumbnails.width", 400));
+        int maxHeight = Math.max(PropertiesUtil.getIntProperty("posters.height", 600), PropertiesUtil.getIntProperty("thumbnails.height", 600));
+        return GraphicTools.loadJPEGImage(posterFile, maxWidth, maxHeight);
+    }
+
     /**
      * Create a thumbnail from the original poster file.
      *
@@ -2267,87 +2408,84 @@ public class MovieJukebox {
      */
     public static void createThumbnail(MovieImagePlugin imagePlugin, Jukebox jukebox, String skinHome, Movie movie,
             boolean forceThumbnailOverwrite) {
+        if (isPosterNeeded(jukebox, movie, movie.getThumbnailFilename(), forceThumbnailOverwrite)) {
+            createThumbnail(imagePlugin, jukebox, skinHome, movie, null);
+        }
+    }
 
+    /**
+     * Create a thumbnail from the decoded original poster
+     *
+     * @param imagePlugin
+     * @param jukebox
+     * @param skinHome
+     * @param movie
+     * @param source the decoded original poster, or null to read it from the poster file
+     */
+    private static void createThumbnail(MovieImagePlugin imagePlugin, Jukebox jukebox, String skinHome, Movie movie, BufferedImage source) {
         // TODO Move all temp directory code to FileTools for a cleaner method
         // Issue 201 : we now download to local temp directory
-        String safePosterFilename = movie.getPosterFilename();
         String safeThumbnailFilename = movie.getThumbnailFilename();
-
-        File tmpPosterFile = new File(appendToPath(jukebox.getJukeboxTempLocationDetails(), safePosterFilename));
-        File jkbPosterFile = FileTools.fileCache.getFile(appendToPath(jukebox.getJukeboxRootLocationDetails(), safePosterFilename));
+        File tmpPosterFile = new File(appendToPath(jukebox.getJukeboxTempLocationDetails(), movie.getPosterFilename()));
         String tmpThumbnailFile = appendToPath(jukebox.getJukeboxTempLocationDetails(), safeThumbnailFilename);
-        String jkbThumbnailFile = appendToPath(jukebox.getJukeboxRootLocationDetails(), safeThumbnailFilename);
-        File destinationFile;
-
-        if (movie.isDirty(DirtyFlag.POSTER)
-                || forceThumbnailOverwrite
-                || !FileTools.fileCache.fileExists(jkbThumbnailFile)
-                || tmpPosterFile.exists()) {
-            // Issue 228: If the PNG files are deleted before running the jukebox this fails.
-            // Therefore check to see if they exist in the original directory
-            if (tmpPosterFile.exists()) {
-                // logger.debug("Use new file: " + tmpPosterFile.getAbsolutePath());
-                destinationFile = tmpPosterFile;
-            } else {
-                // logger.debug("Use jukebox file: " + jkbPosterFile.getAbsolutePath());
-                destinationFile = jkbPosterFile;
-            }
 
-            BufferedImage bi = null;
+        BufferedImage bi = source;
+        if (bi == null) {
+            File destinationFile = getPosterSourceFile(jukebox, movie);
             try {
-                bi = GraphicTools.loadJPEGImage(destinationFile);
+                bi = loadPosterImage(destinationFile);
             } catch (IOException ex) {
                 LOG.warn("Error reading the thumbnail file: {} - Error: {}", destinationFile.getAbsolutePath(), ex.getMessage());
             }
+        }
 
-            if (bi == null) {
-                LOG.info("Using dummy thumbnail image for {}", movie.getBaseName());
-                // There was an error with the URL, assume it's a bad URL and clear it so we try again
-                movie.setPosterURL(Movie.UNKNOWN);
-                FileTools.copyFile(new File(skinHome + File.separator + LIT_RESOURCES + File.separator + DUMMY_JPG), tmpPosterFile);
-                try {
-                    bi = GraphicTools.loadJPEGImage(tmpPosterFile);
-                } catch (IOException ex) {
-                    LOG.warn("Error reading the dummy file: {} - Error: {}", tmpPosterFile.getAbsolutePath(), ex.getMessage());
-                }
+        if (bi == null) {
+            LOG.info("Using dummy thumbnail image for {}", movie.getBaseName());
+            // There was an error with the URL, assume it's a bad URL and clear it so we try again
+            movie.setPosterURL(Movie.UNKNOWN);
+            FileTools.copyFile(new File(skinHome + File.separator + LIT_RESOURCES + File.separator + DUMMY_JPG), tmpPosterFile);
+            try {
+                bi = GraphicTools.loadJPEGImage(tmpPosterFile);
+            } catch (IOException ex) {
+                LOG.warn("Error reading the dummy file: {} - Error: {}", tmpPosterFile.getAbsolutePath(), ex.getMessage());
             }
+        }
 
-            // Perspective code.
-            String perspectiveDirection = getProperty("thumbnails.perspectiveDirection", RIGHT);
+        // Perspective code.
+        String perspectiveDirection = getProperty("thumbnails.perspectiveDirection", RIGHT);
 
-            // Generate and save both images
-            if (BOTH.equalsIgnoreCase(perspectiveDirection)) {
-                // Calculate mirror thumbnail name.
-                String dstMirror = tmpThumbnailFile.substring(0, tmpThumbnailFile.lastIndexOf('.')) + "_mirror" + tmpThumbnailFile.substring(tmpThumbnailFile.lastIndexOf('.'));
+        // Generate and save both images
+        if (BOTH.equalsIgnoreCase(perspectiveDirection)) {
+            // Calculate mirror thumbnail name.
+            String dstMirror = tmpThumbnailFile.substring(0, tmpThumbnailFile.lastIndexOf('.')) + "_mirror" + tmpThumbnailFile.substring(tmpThumbnailFile.lastIndexOf('.'));
 
-                // Generate left & save as copy
-                LOG.debug("Generating mirror thumbnail from {} to {}", tmpPosterFile, dstMirror);
-                BufferedImage biMirror = imagePlugin.generate(movie, bi, THUMBNAILS, LEFT);
-                GraphicTools.saveImageToDisk(biMirror, dstMirror);
+            // Generate left & save as copy
+            LOG.debug("Generating mirror thumbnail from {} to {}", tmpPosterFile, dstMirror);
+            BufferedImage biMirror = imagePlugin.generate(movie, GraphicTools.copyImage(bi), THUMBNAILS, LEFT);
+            GraphicTools.saveImageToDisk(biMirror, dstMirror);
 
-                // Generate right as per normal
-                LOG.debug("Generating right thumbnail from {} to {}", tmpPosterFile, tmpThumbnailFile);
-                bi = imagePlugin.generate(movie, bi, THUMBNAILS, RIGHT);
-                GraphicTools.saveImageToDisk(bi, tmpThumbnailFile);
-            }
+            // Generate right as per normal
+            LOG.debug("Generating right thumbnail from {} to {}", tmpPosterFile, tmpThumbnailFile);
+            bi = imagePlugin.generate(movie, bi, THUMBNAILS, RIGHT);
+            GraphicTools.saveImageToDisk(bi, tmpThumbnailFile);
+        }
 
-            // Only generate the right image
-            if (RIGHT.equalsIgnoreCase(perspectiveDirection)) {
-                bi = imagePlugin.generate(movie, bi, THUMBNAILS, RIGHT);
+        // Only generate the right image
+        if (RIGHT.equalsIgnoreCase(perspectiveDirection)) {
+            bi = imagePlugin.generate(movie, bi, THUMBNAILS, RIGHT);
 
-                // Save the right perspective image.
-                GraphicTools.saveImageToDisk(bi, tmpThumbnailFile);
-                LOG.debug("Generating right thumbnail from {} to {}", tmpPosterFile, tmpThumbnailFile);
-            }
+            // Save the right perspective image.
+            GraphicTools.saveImageToDisk(bi, tmpThumbnailFile);
+            LOG.debug("Generating right thumbnail from {} to {}", tmpPosterFile, tmpThumbnailFile);
+        }
 
-            // Only generate the left image
-            if (LEFT.equalsIgnoreCase(perspectiveDirection)) {
-                bi = imagePlugin.generate(movie, bi, THUMBNAILS, LEFT);
+        // Only generate the left image
+        if (LEFT.equalsIgnoreCase(perspectiveDirection)) {
+            bi = imagePlugin.generate(movie, bi, THUMBNAILS, LEFT);
 
-                // Save the right perspective image.
-                GraphicTools.saveImageToDisk(bi, tmpThumbnailFile);
-                LOG.debug("Generating left thumbnail from {} to {}", tmpPosterFile, tmpThumbnailFile);
-            }
+            // Save the right perspective image.
+            GraphicTools.saveImageToDisk(bi, tmpThumbnailFile);
+            LOG.debug("Generating left thumbnail from {} to {}", tmpPosterFile, tmpThumbnailFile);
         }
     }
 
@@ -2362,87 +2500,88 @@ public class MovieJukebox {
      */
     public static void createPoster(MovieImagePlugin posterManager, Jukebox jukebox, String skinHome, Movie movie,
             boolean forcePosterOverwrite) {
+        if (isPosterNeeded(jukebox, movie, movie.getDetailPosterFilename(), forcePosterOverwrite)) {
+            createPoster(posterManager, jukebox, skinHome, movie, null);
+        }
+    }
 
+    /**
+     * Create a detailed poster file from the decoded original poster
+     *
+     * @param posterManager
+     * @param jukebox
+     * @param skinHome
+     * @param movie
+     * @param source the decoded original poster, or null to read it from the poster file
+     */
+    private static void createPoster(MovieImagePlugin posterManager, Jukebox jukebox, String skinHome, Movie movie, BufferedImage source) {
         // Issue 201 : we now download to local temporary directory
-        String safePosterFilename = movie.getPosterFilename();
         String safeDetailPosterFilename = movie.getDetailPosterFilename();
-        File tmpPosterFile = new File(appendToPath(jukebox.getJukeboxTempLocationDetails(), safePosterFilename));
-        File jkbPosterFile = FileTools.fileCache.getFile(appendToPath(jukebox.getJukeboxRootLocationDetails(), safePosterFilename));
+        File tmpPosterFile = new File(appendToPath(jukebox.getJukeboxTempLocationDetails(), movie.getPosterFilename()));
+        File jkbPosterFile = FileTools.fileCache.getFile(appendToPath(jukebox.getJukeboxRootLocationDetails(), movie.getPosterFilename()));
         String tmpThumbnailFile = appendToPath(jukebox.getJukeboxTempLocationDetails(), safeDetailPosterFilename);
-        String jkbThumbnailFile = appendToPath(jukebox.getJukeboxRootLocationDetails(), safeDetailPosterFilename);
-        File destinationFile;
-
-        if (movie.isDirty(DirtyFlag.POSTER)
-                || forcePosterOverwrite
-                || !FileTools.fileCache.fileExists(jkbThumbnailFile)
-                || tmpPosterFile.exists()) {
-            // Issue 228: If the PNG files are deleted before running the jukebox this fails. Therefore check to see if they exist in the original directory
-            if (tmpPosterFile.exists()) {
-                LOG.debug("CreatePoster: New file exists ({})", tmpPosterFile);
-                destinationFile = tmpPosterFile;
-            } else {
-                LOG.debug("CreatePoster: Using old file ({})", jkbPosterFile);
-                destinationFile = jkbPosterFile;
-            }
 
-            BufferedImage bi = null;
+        BufferedImage bi = source;
+        if (bi == null) {
+            File destinationFile = getPosterSourceFile(jukebox, movie);
+            LOG.debug("CreatePoster: Using {}", destinationFile);
             try {
-                bi = GraphicTools.loadJPEGImage(destinationFile);
+                bi = loadPosterImage(destinationFile);
             } catch (IOException ex) {
                 LOG.warn("Error processing the poster file: {}", destinationFile.getAbsolutePath());
                 LOG.error(SystemTools.getStackTrace(ex));
             }
+        }
 
-            if (bi == null) {
-                // There was an error with the URL, assume it's a bad URL and clear it so we try again
-                movie.setPosterURL(Movie.UNKNOWN);
-                FileTools.copyFile(new File(skinHome + File.separator + LIT_RESOURCES + File.separator + DUMMY_JPG), jkbPosterFile);
-                try {
-                    bi = GraphicTools.loadJPEGImage(tmpPosterFile);
-                    LOG.info("Using dummy poster image for {}", movie.getOriginalTitle());
-                } catch (IOException ex) {
-                    LOG.warn("Error processing the dummy poster file: {}", tmpPosterFile.getAbsolutePath());
-                    LOG.error(SystemTools.getStackTrace(ex));
-                }
+        if (bi == null) {
+            // There was an error with the URL, assume it's a bad URL and clear it so we try again
+            movie.setPosterURL(Movie.UNKNOWN);
+            FileTools.copyFile(new File(skinHome + File.separator + LIT_RESOURCES + File.separator + DUMMY_JPG), jkbPosterFile);
+            try {
+                bi = GraphicTools.loadJPEGImage(tmpPosterFile);
+                LOG.info("Using dummy poster image for {}", movie.getOriginalTitle());
+            } catch (IOException ex) {
+                LOG.warn("Error processing the dummy poster file: {}", tmpPosterFile.getAbsolutePath());
+                LOG.error(SystemTools.getStackTrace(ex));
             }
-            LOG.debug("Generating poster from {} to {}", tmpPosterFile, tmpThumbnailFile);
+        }
+        LOG.debug("Generating poster from {} to {}", tmpPosterFile, tmpThumbnailFile);
 
-            // Perspective code.
-            String perspectiveDirection = getProperty("posters.perspectiveDirection", RIGHT);
+        // Perspective code.
+        String perspectiveDirection = getProperty("posters.perspectiveDirection", RIGHT);
 
-            // Generate and save both images
-            if (BOTH.equalsIgnoreCase(perspectiveDirection)) {
-                // Calculate mirror poster name.
-                String dstMirror = FilenameUtils.removeExtension(tmpThumbnailFile) + "_mirror." + FilenameUtils.getExtension(tmpThumbnailFile);
+        // Generate and save both images
+        if (BOTH.equalsIgnoreCase(perspectiveDirection)) {
+            // Calculate mirror poster name.
+            String dstMirror = FilenameUtils.removeExtension(tmpThumbnailFile) + "_mirror." + FilenameUtils.getExtension(tmpThumbnailFile);
 
-                // Generate left & save as copy
-                LOG.debug("Generating mirror poster from {} to {}", tmpPosterFile, dstMirror);
-                BufferedImage biMirror = posterManager.generate(movie, bi, POSTERS, LEFT);
-                GraphicTools.saveImageToDisk(biMirror, dstMirror);
+            // Generate left & save as copy
+            LOG.debug("Generating mirror poster from {} to {}", tmpPosterFile, dstMirror);
+            BufferedImage biMirror = posterManager.generate(movie, GraphicTools.copyImage(bi), POSTERS, LEFT);
+            GraphicTools.saveImageToDisk(biMirror, dstMirror);
 
-                // Generate right as per normal
-                LOG.debug("Generating right poster from {} to {}", tmpPosterFile, tmpThumbnailFile);
-                bi = posterManager.generate(movie, bi, POSTERS, RIGHT);
-                GraphicTools.saveImageToDisk(bi, tmpThumbnailFile);
-            }
+            // Generate right as per normal
+            LOG.debug("Generating right poster from {} to {}", tmpPosterFile, tmpThumbnailFile);
+            bi = posterManager.generate(movie, bi, POSTERS, RIGHT);
+            GraphicTools.saveImageToDisk(bi, tmpThumbnailFile);
+        }
 
-            // Only generate the right image
-            if (RIGHT.equalsIgnoreCase(perspectiveDirection)) {
-                bi = posterManager.generate(movie, bi, POSTERS, RIGHT);
+        // Only generate the right image
+        if (RIGHT.equalsIgnoreCase(perspectiveDirection)) {
+            bi = posterManager.generate(movie, bi, POSTERS, RIGHT);
 
-                // Save the right perspective image.
-                GraphicTools.saveImageToDisk(bi, tmpThumbnailFile);
-                LOG.debug("Generating right poster from {} to {}", tmpPosterFile, tmpThumbnailFile);
-            }
+            // Save the right perspective image.
+            GraphicTools.saveImageToDisk(bi, tmpThumbnailFile);
+            LOG.debug("Generating right poster from {} to {}", tmpPosterFile, tmpThumbnailFile);
+        }
 
-            // Only generate the left image
-            if (LEFT.equalsIgnoreCase(perspectiveDirection)) {
-                bi = posterManager.generate(movie, bi, POSTERS, LEFT);
+        // Only generate the left image
+        if (LEFT.equalsIgnoreCase(perspectiveDirection)) {
+            bi = posterManager.generate(movie, bi, POSTERS, LEFT);
 
-                // Save the right perspective image.
-                GraphicTools.saveImageToDisk(bi, tmpThumbnailFile);
-                LOG.debug("Generating left poster from {} to {}", tmpPosterFile, tmpThumbnailFile);
-            }
+            // Save the right perspective image.
+            GraphicTools.saveImageToDisk(bi, tmpThumbnailFile);
+            LOG.debug("Generating left poster from {} to {}", tmpPosterFile, tmpThumbnailFile);
         }
     }
 
@@ -23,7 +23,6 @@
 package com.moviejukebox.model;
 
 import com.moviejukebox.tools.StringTools;
-import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.TreeMap;
@@ -66,7 +65,7 @@ public class Index extends TreeMap<String, List<Movie>> {
             if (maxCategories > 0 && size() >= maxCategories) {
                 return;
             }
-            list = new ArrayList<>();
+            list = new IndexList();
             put(category, list);
         }
 
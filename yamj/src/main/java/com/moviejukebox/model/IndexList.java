@@ -0,0 +1,231 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.model;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The videos of an index category in the order they were added, without duplicates.
+ *
+ * The members are also kept in an identity map, so contains, add and remove don't have to search the list. The list can be
+ * sorted and changed through its iterators and sub lists as usual.
+ */
+public class IndexList extends ArrayList<Movie> {
+
+    private static final long serialVersionUID = -2837463859240124953L;
+    // The number of times each video is in the list, only more than once while the list is being sorted
+    private transient Map<Movie, int[]> members = new IdentityHashMap<>();
+
+    public IndexList() {
+        super();
+    }
+
+    public IndexList(Collection<? extends Movie> movies) {
+        super(movies.size());
+        addAll(movies);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return members.containsKey(o);
+    }
+
+    /**
+     * Add the video to the end of the list, if it's not already in the list
+     *
+     * @param movie
+     * @return true if the video was added
+     */
+    @Override
+    public boolean add(Movie movie) {
+        if (members.containsKey(movie)) {
+            return false;
+        }
+        super.add(movie);
+        addMember(movie);
+        return true;
+    }
+
+    /**
+     * Insert the video into the list, if it's not already in the list
+     *
+     * @param index
+     * @param movie
+     */
+    @Override
+    public void add(int index, Movie movie) {
+        if (!members.containsKey(movie)) {
+            super.add(index, movie);
+            addMember(movie);
+        }
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Movie> movies) {
+        ensureCapacity(size() + movies.size());
+        boolean changed = false;
+        for (Movie movie : movies) {
+            changed |= add(movie);
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Movie> movies) {
+        ArrayList<Movie> newMovies = new ArrayList<>(movies.size());
+        for (Movie movie : movies) {
+            if (!members.containsKey(movie)) {
+                newMovies.add(movie);
+                addMember(movie);
+            }
+        }
+        return super.addAll(index, newMovies);
+    }
+
+    @Override
+    public Movie set(int index, Movie movie) {
+        Movie old = super.set(index, movie);
+        removeMember(old);
+        addMember(movie);
+        return old;
+    }
+
+    @Override
+    public Movie remove(int index) {
+        Movie old = super.remove(index);
+        removeMember(old);
+        return old;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!members.containsKey(o)) {
+            return false;
+        }
+        super.remove(o);
+        removeMember((Movie) o);
+        return true;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        return retain(c, false);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        return retain(c, true);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        members.clear();
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            removeMember(get(i));
+        }
+        super.removeRange(fromIndex, toIndex);
+    }
+
+    @Override
+    public IndexList clone() {
+        IndexList clone = (IndexList) super.clone();
+        clone.members = new IdentityHashMap<>(members.size());
+        for (Map.Entry<Movie, int[]> entry : members.entrySet()) {
+            clone.members.put(entry.getKey(), new int[]{entry.getValue()[0]});
+        }
+        return clone;
+    }
+
+    /**
+     * Keep or remove the videos that are in the collection, in a single pass over the list
+     *
+     * @param c
+     * @param keep true to keep the videos in the collection, false to remove them
+     * @return true if the list changed
+     */
+    private boolean retain(Collection<?> c, boolean keep) {
+        Map<Object, Boolean> lookup;
+        if (c instanceof IndexList) {
+            lookup = null;
+        } else {
+            lookup = new IdentityHashMap<>(c.size());
+            for (Object o : c) {
+                lookup.put(o, Boolean.TRUE);
+            }
+        }
+
+        ArrayList<Movie> kept = new ArrayList<>(size());
+        for (Movie movie : this) {
+            boolean inCollection = lookup == null ? c.contains(movie) : lookup.containsKey(movie);
+            if (inCollection == keep) {
+                kept.add(movie);
+            }
+        }
+
+        if (kept.size() == size()) {
+            return false;
+        }
+
+        super.clear();
+        super.addAll(kept);
+        members.clear();
+        for (Movie movie : kept) {
+            addMember(movie);
+        }
+        return true;
+    }
+
+    private void addMember(Movie movie) {
+        int[] count = members.get(movie);
+        if (count == null) {
+            members.put(movie, new int[]{1});
+        } else {
+            count[0]++;
+        }
+    }
+
+    private void removeMember(Movie movie) {
+        int[] count = members.get(movie);
+        if (count != null && --count[0] <= 0) {
+            members.remove(movie);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        members = new IdentityHashMap<>();
+        for (Movie movie : this) {
+            addMember(movie);
+        }
+    }
+}
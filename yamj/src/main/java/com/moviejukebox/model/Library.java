@@ -42,6 +42,7 @@ import java.io.File;
 import java.text.DecimalFormat;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.HierarchicalConfiguration;
@@ -75,6 +76,10 @@ public class Library implements Map<String, Movie> {
     private List<Movie> moviesList = new ArrayList<>();
     private final Map<String, Index> indexes;
     private Map<String, Index> unCompressedIndexes = new LinkedHashMap<>();
+    // Lookups for the indexes and people, built when they are first needed
+    private final Map<String, Set<Movie>> unCompressedMembers = new ConcurrentHashMap<>();
+    private volatile Map<String, List<Movie>> indexKeyLookup = null;
+    private volatile PersonLookup personLookup = null;
     private static final DecimalFormat PADDED_FORMAT = new DecimalFormat("000"); // Issue 190
     private static int categoryMinCountMaster = 3;
     private static int categoryMaxCountMaster = 0;
@@ -579,6 +584,7 @@ public class Library implements Map<String, Movie> {
     public void buildIndex(ThreadExecutor<Void> tasks) throws Throwable {
         moviesList.clear();
         indexes.clear();
+        clearIndexLookups();
 
         tasks.restart();
         final List<Movie> indexMovies = new ArrayList<>(library.values());
@@ -788,6 +794,17 @@ public class Library implements Map<String, Movie> {
             tasks.waitFor();
             SystemTools.showMemory();
         }
+
+        // The indexes have been changed while they were built
+        clearIndexLookups();
+    }
+
+    /**
+     * Clear the lookups of the indexes, they are built again when needed
+     */
+    private void clearIndexLookups() {
+        unCompressedMembers.clear();
+        indexKeyLookup = null;
     }
 
     /**
@@ -1407,6 +1424,7 @@ public class Library implements Map<String, Movie> {
     public void clear() {
         library.clear();
         people.clear();
+        personLookup = null;
     }
 
     @Override
@@ -1486,14 +1504,30 @@ public class Library implements Map<String, Movie> {
         this.moviesList = moviesList;
     }
 
+    /**
+     * Get the movies of the first index with the key
+     *
+     * @param key
+     * @return
+     */
     public List<Movie> getMoviesByIndexKey(String key) {
-        for (Map<String, List<Movie>> index : indexes.values()) {
-            List<Movie> movies = index.get(key);
-            if (movies != null) {
-                return movies;
+        Map<String, List<Movie>> lookup = indexKeyLookup;
+        if (lookup == null) {
+            lookup = new HashMap<>();
+            for (Map<String, List<Movie>> index : indexes.values()) {
+                for (Map.Entry<String, List<Movie>> entry : index.entrySet()) {
+                    if (!lookup.containsKey(entry.getKey())) {
+                        lookup.put(entry.getKey(), entry.getValue());
+                    }
+                }
             }
+            indexKeyLookup = lookup;
         }
 
+        List<Movie> movies = lookup.get(key);
+        if (movies != null) {
+            return movies;
+        }
         return new ArrayList<>();
     }
 
@@ -1795,14 +1829,14 @@ public class Library implements Map<String, Movie> {
 
     public List<Movie> getMatchingMoviesList(String indexName, List<Movie> boxedSetMovies, String categorie) {
         List<Movie> response = new ArrayList<>();
-        List<Movie> list = this.unCompressedIndexes.get(indexName).get(categorie);
+        Set<Movie> members = getUnCompressedMembers(indexName, categorie);
 
-        if (list == null) {
+        if (members == null) {
             return response;
         }
 
         for (Movie movie : boxedSetMovies) {
-            if (list.contains(movie)) {
+            if (members.contains(movie)) {
                 LOG.debug("Movie {} match for {}[{}]", movie.getTitle(), indexName, categorie);
                 response.add(movie);
             }
@@ -1811,6 +1845,28 @@ public class Library implements Map<String, Movie> {
         return response;
     }
 
+    /**
+     * Get the movies of the uncompressed index as a set, so the sets can be matched without searching the list for every movie
+     *
+     * @param indexName
+     * @param categorie
+     * @return the movies, or null if there is no such index
+     */
+    private Set<Movie> getUnCompressedMembers(String indexName, String categorie) {
+        String memberKey = indexName + '\u0000' + categorie;
+        Set<Movie> members = unCompressedMembers.get(memberKey);
+        if (members == null) {
+            List<Movie> list = unCompressedIndexes.get(indexName).get(categorie);
+            if (list == null) {
+                return null;
+            }
+            members = Collections.newSetFromMap(new IdentityHashMap<Movie, Boolean>(list.size()));
+            members.addAll(list);
+            unCompressedMembers.put(memberKey, members);
+        }
+        return members;
+    }
+
     public void addGeneratedIndex(IndexInfo index) {
         generatedIndexes.add(index);
     }
@@ -1830,6 +1886,7 @@ public class Library implements Map<String, Movie> {
             Person existingPerson = getPerson(key);
             if (existingPerson == null) {
                 people.put(key, person);
+                personLookup = null;
             }
         }
     }
@@ -1857,13 +1914,34 @@ public class Library implements Map<String, Movie> {
         return people.get(getPersonKey(person));
     }
 
+    /**
+     * Get the first person with the name, ignoring case
+     *
+     * @param name
+     * @return the person or null if not found
+     */
     public Person getPersonByName(String name) {
-        for (Person person : people.values()) {
-            if (person.getName().equalsIgnoreCase(name)) {
-                return person;
-            }
+        return getPersonLookup().find(name, false, false);
+    }
+
+    /**
+     * Get the first person whose name or title matches the index key, ignoring case
+     *
+     * @param key
+     * @param includeAka also check the other names of the people
+     * @return the person or null if not found
+     */
+    public Person getPersonByIndexKey(String key, boolean includeAka) {
+        return getPersonLookup().find(key, true, includeAka);
+    }
+
+    private PersonLookup getPersonLookup() {
+        PersonLookup lookup = personLookup;
+        if (lookup == null) {
+            lookup = new PersonLookup(people.values());
+            personLookup = lookup;
         }
-        return null;
+        return lookup;
     }
 
     public boolean isDirty() {
@@ -1892,4 +1970,63 @@ public class Library implements Map<String, Movie> {
     public boolean isDirtyLibrary(String name) {
         return StringTools.isValidString(name) && DIRTY_LIBRARIES.contains(name);
     }
+
+    /**
+     * Lookup of the people by their names, giving the same person as searching the people in order.
+     *
+     * Note: The names are taken when the lookup is built, so the lookup should only be used once the people are complete.
+     */
+    private static class PersonLookup {
+
+        private final Map<Person, Integer> order = new IdentityHashMap<>();
+        private final Map<String, Person> byName = new HashMap<>();
+        private final Map<String, Person> byTitle = new HashMap<>();
+        private final Map<String, Person> byAka = new HashMap<>();
+
+        public PersonLookup(Collection<Person> people) {
+            for (Person person : people) {
+                order.put(person, order.size());
+                addFirst(byName, person.getName(), person);
+                addFirst(byTitle, person.getTitle(), person);
+                for (String aka : person.getAka()) {
+                    addFirst(byAka, aka, person);
+                }
+            }
+        }
+
+        private static void addFirst(Map<String, Person> map, String name, Person person) {
+            if (name != null) {
+                String key = name.toLowerCase(Locale.ENGLISH);
+                if (!map.containsKey(key)) {
+                    map.put(key, person);
+                }
+            }
+        }
+
+        public Person find(String name, boolean includeTitle, boolean includeAka) {
+            if (name == null) {
+                return null;
+            }
+
+            String key = name.toLowerCase(Locale.ENGLISH);
+            Person found = byName.get(key);
+            if (includeTitle) {
+                found = first(found, byTitle.get(key));
+            }
+            if (includeAka) {
+                found = first(found, byAka.get(key));
+            }
+            return found;
+        }
+
+        private Person first(Person person1, Person person2) {
+            if (person1 == null) {
+                return person2;
+            }
+            if (person2 == null) {
+                return person1;
+            }
+            return order.get(person1) <= order.get(person2) ? person1 : person2;
+        }
+    }
 }
@@ -22,6 +22,7 @@
  */
 package com.moviejukebox.model;
 
+import com.moviejukebox.tools.ExclusionMatcher;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -33,6 +34,7 @@ public class MediaLibraryPath {
     private String path;
     private String playerRootPath;
     private final Collection<String> excludes = Collections.synchronizedCollection(new ArrayList<String>());
+    private volatile ExclusionMatcher exclusionMatcher = null;
     private String description;
     private boolean scrapeLibrary = true;
     private long prebuf = -1;
@@ -65,6 +67,23 @@ public class MediaLibraryPath {
                 this.excludes.add((String) excludeObject);
             }
         }
+        this.exclusionMatcher = null;
+    }
+
+    /**
+     * Get the compiled form of the excludes
+     *
+     * @return
+     */
+    public ExclusionMatcher getExclusionMatcher() {
+        ExclusionMatcher matcher = exclusionMatcher;
+        if (matcher == null) {
+            synchronized (excludes) {
+                matcher = new ExclusionMatcher(new ArrayList<>(excludes));
+            }
+            exclusionMatcher = matcher;
+        }
+        return matcher;
     }
 
     public String getDescription() {
@@ -26,6 +26,8 @@ import com.moviejukebox.model.enumerations.*;
 import com.moviejukebox.plugin.MovieDatabasePlugin;
 import com.moviejukebox.tools.*;
 import java.io.File;
+import java.text.CollationKey;
+import java.text.Collator;
 import java.util.*;
 import java.util.Map.Entry;
 import javax.xml.bind.annotation.*;
@@ -74,6 +76,7 @@ public class Movie implements Comparable<Movie>, Identifiable, IMovieBasicInform
      * Properties that control the object
      */
     private static final List<String> SORT_IGNORE_PREFIXES = new ArrayList<>();
+    private static final Collator SORT_COLLATOR = createSortCollator();
     private final int highdef720 = PropertiesUtil.getIntProperty("highdef.720.width", 1280);    // Get the minimum width for a high-definition movies
     private final int highdef1080 = PropertiesUtil.getIntProperty("highdef.1080.width", 1920);  // Get the minimum width for a high-definition movies
     private final String[] ratingSource = PropertiesUtil.getProperty("mjb.rating.source", "average").split(",");
@@ -99,6 +102,7 @@ public class Movie implements Comparable<Movie>, Identifiable, IMovieBasicInform
     private String title = UNKNOWN;
     private String titleSort = UNKNOWN;
     private String strippedTitleSort = UNKNOWN; // Not saved, used to speedup the sort
+    private transient CollationKey titleCollationKey = null; // Not saved, used to speedup the sort
     private String originalTitle = UNKNOWN;
     private String year = UNKNOWN;
     private String releaseDate = UNKNOWN;
@@ -468,6 +472,47 @@ public class Movie implements Comparable<Movie>, Identifiable, IMovieBasicInform
         return strippedTitleSort;
     }
 
+    /**
+     * Get the collation key of the stripped sort title, using the collation rules of the language of mjb.locale.
+     *
+     * Comparing the keys is much faster than comparing the titles with a collator.
+     *
+     * @return the key, or null if the titles are not sorted by collation (mjb.sorting.collation)
+     */
+    @XmlTransient
+    public CollationKey getTitleCollationKey() {
+        if (SORT_COLLATOR == null) {
+            return null;
+        }
+
+        if (titleCollationKey == null) {
+            titleCollationKey = SORT_COLLATOR.getCollationKey(getStrippedTitleSort());
+        }
+        return titleCollationKey;
+    }
+
+    /**
+     * Create the collator for the titles, if the titles should be sorted by collation
+     *
+     * @return the collator or null
+     */
+    private static Collator createSortCollator() {
+        if (!PropertiesUtil.getBooleanProperty("mjb.sorting.collation", Boolean.FALSE)) {
+            return null;
+        }
+
+        String locale = PropertiesUtil.getProperty("mjb.locale", "en_US");
+        Collator collator;
+        if (StringTools.isValidString(locale) && (locale.length() == 2 || locale.length() == 5)) {
+            collator = Collator.getInstance(new Locale(locale.substring(0, 2), locale.length() == 2 ? "" : locale.substring(3, 5)));
+        } else {
+            collator = Collator.getInstance(Locale.ENGLISH);
+        }
+        // Ignore the case and the accents, as the titles are already lower case
+        collator.setStrength(Collator.SECONDARY);
+        return collator;
+    }
+
     /**
      * Remove the sorting strip prefix from the title
      *
@@ -488,6 +533,9 @@ public class Movie implements Comparable<Movie>, Identifiable, IMovieBasicInform
 
     @Override
     public int compareTo(Movie anotherMovie) {
+        if (SORT_COLLATOR != null) {
+            return getTitleCollationKey().compareTo(anotherMovie.getTitleCollationKey());
+        }
         return this.getStrippedTitleSort().compareToIgnoreCase(anotherMovie.getStrippedTitleSort());
     }
 
@@ -27,6 +27,7 @@ import com.moviejukebox.model.Movie;
 import com.moviejukebox.tools.FileTools;
 import java.io.Serializable;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -38,6 +39,8 @@ public class IndexComparator implements Comparator<Map.Entry<String, List<Movie>
     private static final long serialVersionUID = 1L;
     private transient Library library = null;
     private transient String categoryName = null;
+    // The movie count of each index, looked up once per sort
+    private transient Map<String, Integer> countKeys = null;
 
     public IndexComparator(Library library, String categoryName) {
         this.library = library;
@@ -49,6 +52,19 @@ public class IndexComparator implements Comparator<Map.Entry<String, List<Movie>
         if (library == null || categoryName == null) {
             return 0;
         }
-        return library.getMovieCountForIndex(categoryName, FileTools.createCategoryKey(second.getKey())) - library.getMovieCountForIndex(categoryName, FileTools.createCategoryKey(first.getKey()));
+        return getCountKey(second.getKey()) - getCountKey(first.getKey());
+    }
+
+    private int getCountKey(String indexName) {
+        if (countKeys == null) {
+            countKeys = new HashMap<>();
+        }
+
+        Integer count = countKeys.get(indexName);
+        if (count == null) {
+            count = library.getMovieCountForIndex(categoryName, FileTools.createCategoryKey(indexName));
+            countKeys.put(indexName, count);
+        }
+        return count;
     }
 }
@@ -25,6 +25,8 @@ package com.moviejukebox.model.comparator;
 import com.moviejukebox.model.Movie;
 import java.io.Serializable;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 /**
  * @author altman.matthew
@@ -33,6 +35,8 @@ public class MovieRatingComparator implements Comparator<Movie>, Serializable {
 
     private static final long serialVersionUID = 1L;
     private final boolean ascending;
+    // The rating of each movie, calculated once per sort
+    private transient Map<Movie, Integer> ratingKeys = null;
 
     public MovieRatingComparator() {
         this.ascending = Boolean.FALSE;
@@ -56,6 +60,27 @@ public class MovieRatingComparator implements Comparator<Movie>, Serializable {
      * @return
      */
     public int compare(Movie movie1, Movie movie2, boolean ascending) {
-        return ascending ? (movie1.getRating() - movie2.getRating()) : (movie2.getRating() - movie1.getRating());
+        int rating1 = getRatingKey(movie1);
+        int rating2 = getRatingKey(movie2);
+        return ascending ? (rating1 - rating2) : (rating2 - rating1);
+    }
+
+    /**
+     * Get the rating of the movie, the rating is only calculated on the first comparison of the movie
+     *
+     * @param movie
+     * @return
+     */
+    private int getRatingKey(Movie movie) {
+        if (ratingKeys == null) {
+            ratingKeys = new IdentityHashMap<>();
+        }
+
+        Integer key = ratingKeys.get(movie);
+        if (key == null) {
+            key = movie.getRating();
+            ratingKeys.put(movie, key);
+        }
+        return key;
     }
 }
@@ -26,7 +26,10 @@ import static com.moviejukebox.tools.StringTools.isValidString;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -43,8 +46,24 @@ public class MovieReleaseComparator extends MovieYearComparator {
 
     private static final long serialVersionUID = 1L;
     private static final Logger LOG = LoggerFactory.getLogger(MovieReleaseComparator.class);
+    private static final int INVALID_RELEASE = Integer.MIN_VALUE;
+    // pattern for date: 05 December 1993
+    private static final Pattern DATE_DAY_MONTH_YEAR = Pattern.compile("(\\d{2}) (\\S+) (\\d{4})");
+    // pattern for date: December 1993
+    private static final Pattern DATE_MONTH_YEAR = Pattern.compile("(\\S+) (\\d{4})");
+    // pattern for date: 1993-12-05
+    private static final Pattern DATE_ISO = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+    // pattern for date: 05.12.1993
+    private static final Pattern DATE_DOTS = Pattern.compile("\\d{2}\\.\\d{2}\\.\\d{4}");
+    // pattern for date: 05.12.93
+    private static final Pattern DATE_DOTS_SHORT = Pattern.compile("\\d{2}\\.\\d{2}\\.\\d{2}");
+    // pattern for date: 05/12/1993
+    private static final Pattern DATE_SLASHES = Pattern.compile("\\d{2}/\\d{2}/\\d{4}");
     private Locale locale = Locale.ENGLISH;
     private final String dateLocale = PropertiesUtil.getProperty("mjb.locale", "en_US");
+    // The converted release date of each movie, converted once per sort
+    private transient Map<Movie, Integer> releaseKeys = null;
+    private transient Map<String, SimpleDateFormat> dateFormats = null;
 
     public MovieReleaseComparator() {
         super(Boolean.TRUE);
@@ -68,27 +87,69 @@ public class MovieReleaseComparator extends MovieYearComparator {
         String date1 = movie1.getReleaseDate();
         String date2 = movie2.getReleaseDate();
         if (res == 0 && isValidString(date1) && isValidString(date2)) {
-            date1 = convertDate(date1);
-            date2 = convertDate(date2);
-            if (isValidString(date1) && isValidString(date2)) {
+            int release1 = getReleaseKey(movie1);
+            int release2 = getReleaseKey(movie2);
+            if (release1 != INVALID_RELEASE && release2 != INVALID_RELEASE) {
+                return ascending ? release1 - release2 : release2 - release1;
+            }
+            return release1 != INVALID_RELEASE ? ascending ? 1 : - 1 : release2 != INVALID_RELEASE ? ascending ? -1 : 1 : 0;
+        }
+        return res;
+    }
+
+    /**
+     * Get the converted release date of the movie, the date is only converted on the first comparison of the movie
+     *
+     * @param movie
+     * @return the date as yyyyMMdd number or INVALID_RELEASE
+     */
+    private int getReleaseKey(Movie movie) {
+        if (releaseKeys == null) {
+            releaseKeys = new IdentityHashMap<>();
+        }
+
+        Integer key = releaseKeys.get(movie);
+        if (key == null) {
+            key = INVALID_RELEASE;
+            String date = convertDate(movie.getReleaseDate());
+            if (isValidString(date)) {
                 try {
-                    return ascending ? Integer.parseInt(date1) - Integer.parseInt(date2) : Integer.parseInt(date2) - Integer.parseInt(date1);
+                    key = Integer.parseInt(date);
                 } catch (NumberFormatException e) { /* ignore */ }
             }
-            return isValidString(date1) ? ascending ? 1 : - 1 : isValidString(date2) ? ascending ? -1 : 1 : 0;
+            releaseKeys.put(movie, key);
         }
-        return res;
+        return key;
+    }
+
+    /**
+     * Get the date format, the formats are created once per sort
+     *
+     * @param pattern
+     * @param dateFormatLocale
+     * @return
+     */
+    private SimpleDateFormat getDateFormat(String pattern, Locale dateFormatLocale) {
+        if (dateFormats == null) {
+            dateFormats = new HashMap<>();
+        }
+
+        String key = pattern + "@" + dateFormatLocale;
+        SimpleDateFormat dateFormat = dateFormats.get(key);
+        if (dateFormat == null) {
+            dateFormat = new SimpleDateFormat(pattern, dateFormatLocale);
+            dateFormats.put(key, dateFormat);
+        }
+        return dateFormat;
     }
 
     private String convertDate(String date) {
         // output date pattern: 19931205
-        SimpleDateFormat dstDate = new SimpleDateFormat("yyyyMMdd");
+        SimpleDateFormat dstDate = getDateFormat("yyyyMMdd", Locale.ENGLISH);
 
-        // pattern for date: 05 December 1993
-        Pattern dateRegex = Pattern.compile("(\\d{2}) (\\S+) (\\d{4})");
-        Matcher dateMatch = dateRegex.matcher(date);
+        Matcher dateMatch = DATE_DAY_MONTH_YEAR.matcher(date);
         if (dateMatch.find()) {
-            SimpleDateFormat srcDate = new SimpleDateFormat("dd MMM yyyy", locale);
+            SimpleDateFormat srcDate = getDateFormat("dd MMM yyyy", locale);
             try {
                 return dstDate.format(srcDate.parse(dateMatch.group(0)));
             } catch (ParseException ex) { /* ignore */ }
@@ -97,7 +158,7 @@ public class MovieReleaseComparator extends MovieYearComparator {
                 return dstDate.format(srcDate.parse(dateMatch.group(1) + " " + correctShortMonth(dateMatch.group(2).substring(0, 3)) + " " + dateMatch.group(3)));
             } catch (ParseException ex) { /* ignore */ }
 
-            srcDate = new SimpleDateFormat("dd MMM yyyy", Locale.ENGLISH);
+            srcDate = getDateFormat("dd MMM yyyy", Locale.ENGLISH);
             try {
                 return dstDate.format(srcDate.parse(dateMatch.group(0)));
             } catch (ParseException e) {
@@ -107,11 +168,9 @@ public class MovieReleaseComparator extends MovieYearComparator {
             return Movie.UNKNOWN;
         }
         
-        // pattern for date: December 1993
-        dateRegex = Pattern.compile("(\\S+) (\\d{4})");
-        dateMatch = dateRegex.matcher(date);
+        dateMatch = DATE_MONTH_YEAR.matcher(date);
         if (dateMatch.find()) {
-            SimpleDateFormat srcDate = new SimpleDateFormat("MMM yyyy", locale);
+            SimpleDateFormat srcDate = getDateFormat("MMM yyyy", locale);
             try {
                 return dstDate.format(srcDate.parse(dateMatch.group(0)));
             } catch (ParseException ex) { /* ignore */ }
@@ -120,7 +179,7 @@ public class MovieReleaseComparator extends MovieYearComparator {
                 return dstDate.format(srcDate.parse(correctShortMonth(dateMatch.group(1).substring(0, 3)) + " " + dateMatch.group(2)));
             } catch (ParseException ex) { /* ignore */ }
 
-            srcDate = new SimpleDateFormat("MMM yyyy", Locale.ENGLISH);
+            srcDate = getDateFormat("MMM yyyy", Locale.ENGLISH);
             try {
                 return dstDate.format(srcDate.parse(dateMatch.group(0)));
             } catch (ParseException ex) {
@@ -130,41 +189,33 @@ public class MovieReleaseComparator extends MovieYearComparator {
             return Movie.UNKNOWN;
         }
 
-        // pattern for date: 1993-12-05
-        dateRegex = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
-        dateMatch = dateRegex.matcher(date);
+        dateMatch = DATE_ISO.matcher(date);
         if (dateMatch.find()) {
-            SimpleDateFormat srcDate = new SimpleDateFormat("yyyy-MM-dd", locale);
+            SimpleDateFormat srcDate = getDateFormat("yyyy-MM-dd", locale);
             try {
                 return dstDate.format(srcDate.parse(dateMatch.group(0)));
             } catch (ParseException e) { /* ignore */ }
         }
 
-        // pattern for date: 05.12.1993
-        dateRegex = Pattern.compile("\\d{2}\\.\\d{2}\\.\\d{4}");
-        dateMatch = dateRegex.matcher(date);
+        dateMatch = DATE_DOTS.matcher(date);
         if (dateMatch.find()) {
-            SimpleDateFormat srcDate = new SimpleDateFormat("dd.MM.yyyy", locale);
+            SimpleDateFormat srcDate = getDateFormat("dd.MM.yyyy", locale);
             try {
                 return dstDate.format(srcDate.parse(dateMatch.group(0)));
             } catch (ParseException e) { /* ignore */ }
         }
 
-        // pattern for date: 05.12.93
-        dateRegex = Pattern.compile("\\d{2}\\.\\d{2}\\.\\d{2}");
-        dateMatch = dateRegex.matcher(date);
+        dateMatch = DATE_DOTS_SHORT.matcher(date);
         if (dateMatch.find()) {
-            SimpleDateFormat srcDate = new SimpleDateFormat("dd.MM.yy", locale);
+            SimpleDateFormat srcDate = getDateFormat("dd.MM.yy", locale);
             try {
                 return dstDate.format(srcDate.parse(dateMatch.group(0)));
             } catch (ParseException e) { /* ignore */ }
         }
 
-        // pattern for date: 05/12/1993
-        dateRegex = Pattern.compile("\\d{2}/\\d{2}/\\d{4}");
-        dateMatch = dateRegex.matcher(date);
+        dateMatch = DATE_SLASHES.matcher(date);
         if (dateMatch.find()) {
-            SimpleDateFormat srcDate = new SimpleDateFormat("dd/MM/yyyy", locale);
+            SimpleDateFormat srcDate = getDateFormat("dd/MM/yyyy", locale);
             try {
                 return dstDate.format(srcDate.parse(dateMatch.group(0)));
             } catch (ParseException e) { /* ignore */ }
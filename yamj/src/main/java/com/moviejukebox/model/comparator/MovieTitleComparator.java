@@ -23,6 +23,7 @@
 package com.moviejukebox.model.comparator;
 
 import java.io.Serializable;
+import java.text.CollationKey;
 import java.util.Comparator;
 
 import com.moviejukebox.model.Movie;
@@ -42,6 +43,11 @@ public class MovieTitleComparator implements Comparator<Movie>, Serializable {
 
     @Override
     public int compare(Movie movie1, Movie movie2) {
+        CollationKey key1 = movie1.getTitleCollationKey();
+        if (key1 != null) {
+            return ascending ? key1.compareTo(movie2.getTitleCollationKey()) : movie2.getTitleCollationKey().compareTo(key1);
+        }
+
         if (ascending) {
             return movie1.getStrippedTitleSort().compareTo(movie2.getStrippedTitleSort());
         }
@@ -27,6 +27,8 @@ import com.moviejukebox.tools.DateTimeTools;
 import static com.moviejukebox.tools.StringTools.isValidString;
 import java.io.Serializable;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 /**
  * @author ilgizar
@@ -34,7 +36,10 @@ import java.util.Comparator;
 public class MovieYearComparator implements Comparator<Movie>, Serializable {
 
     private static final long serialVersionUID = 1L;
+    private static final int INVALID_YEAR = Integer.MIN_VALUE;
     private boolean ascending = Boolean.TRUE;
+    // The year of each movie, extracted once per sort
+    private transient Map<Movie, Integer> yearKeys = null;
 
     public MovieYearComparator(boolean ascending) {
         this.ascending = ascending;
@@ -54,8 +59,10 @@ public class MovieYearComparator implements Comparator<Movie>, Serializable {
      * @return
      */
     public int compare(Movie movie1, Movie movie2, boolean ascending) {
-        boolean valid1 = isValidString(movie1.getYear());
-        boolean valid2 = isValidString(movie2.getYear());
+        int year1 = getYearKey(movie1);
+        int year2 = getYearKey(movie2);
+        boolean valid1 = year1 != INVALID_YEAR;
+        boolean valid2 = year2 != INVALID_YEAR;
 
         if (!valid1 && !valid2) {
             return 0;
@@ -69,8 +76,25 @@ public class MovieYearComparator implements Comparator<Movie>, Serializable {
             return ascending ? 1 : -1;
         }
 
-        int year1 = DateTimeTools.extractYear(movie1.getYear());
-        int year2 = DateTimeTools.extractYear(movie2.getYear());
         return ascending ? (year1 - year2) : (year2 - year1);
     }
+
+    /**
+     * Get the year of the movie, the year is only extracted on the first comparison of the movie
+     *
+     * @param movie
+     * @return the year or INVALID_YEAR
+     */
+    private int getYearKey(Movie movie) {
+        if (yearKeys == null) {
+            yearKeys = new IdentityHashMap<>();
+        }
+
+        Integer key = yearKeys.get(movie);
+        if (key == null) {
+            key = isValidString(movie.getYear()) ? DateTimeTools.extractYear(movie.getYear()) : INVALID_YEAR;
+            yearKeys.put(movie, key);
+        }
+        return key;
+    }
 }
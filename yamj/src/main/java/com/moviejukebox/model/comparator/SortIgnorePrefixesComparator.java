@@ -26,7 +26,9 @@ import com.moviejukebox.tools.PropertiesUtil;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.StringTokenizer;
 
 public class SortIgnorePrefixesComparator implements Comparator<Object>, Serializable {
@@ -34,6 +36,8 @@ public class SortIgnorePrefixesComparator implements Comparator<Object>, Seriali
     private static final long serialVersionUID = 1L;
     private final List<String> sortIgnorePrefixes = new ArrayList<>();
     private boolean inited = false;
+    // The stripped title of each key, the keys are compared many times when used in a TreeMap
+    private transient Map<String, String> strippedTitles = null;
 
     @Override
     public int compare(Object o1, Object o2) {
@@ -45,10 +49,22 @@ public class SortIgnorePrefixesComparator implements Comparator<Object>, Seriali
     }
 
     private String getStrippedTitle(String title) {
-        String lowerTitle = title.toLowerCase();
+        if (strippedTitles == null) {
+            strippedTitles = new HashMap<>();
+        }
+
+        String stripped = strippedTitles.get(title);
+        if (stripped == null) {
+            stripped = stripTitle(title);
+            strippedTitles.put(title, stripped);
+        }
+        return stripped;
+    }
 
+    private String stripTitle(String title) {
         for (String prefix : sortIgnorePrefixes) {
-            if (lowerTitle.startsWith(prefix.toLowerCase())) {
+            // The prefixes are lower case
+            if (title.regionMatches(true, 0, prefix, 0, prefix.length())) {
                 return title.substring(prefix.length());
             }
         }
@@ -112,7 +112,23 @@ public enum JukeboxStatistic {
     /**
      * How many videos are in the "Ratings" index
      */
-    INDEX_RATINGS;
+    INDEX_RATINGS,
+    /**
+     * How many objects were found in the cache
+     */
+    CACHE_HITS,
+    /**
+     * How many objects were not found in the cache
+     */
+    CACHE_MISSES,
+    /**
+     * How many objects were removed from the full cache
+     */
+    CACHE_EVICTIONS,
+    /**
+     * How many requests waited for the same running request instead of fetching it again
+     */
+    CACHE_COALESCED;
 
     /**
      * Convert a string into an Enum type
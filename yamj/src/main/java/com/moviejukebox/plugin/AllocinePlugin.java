@@ -28,6 +28,7 @@ import static com.moviejukebox.tools.StringTools.isValidString;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 import org.apache.commons.lang3.math.NumberUtils;
 import org.slf4j.Logger;
@@ -54,6 +55,7 @@ import com.moviejukebox.tools.StringTools;
 import com.moviejukebox.tools.SystemTools;
 import com.moviejukebox.tools.YamjHttpClientBuilder;
 import com.moviejukebox.tools.cache.CacheMemory;
+import com.moviejukebox.tools.cache.SingleFlight;
 
 public class AllocinePlugin extends ImdbPlugin {
 
@@ -117,14 +119,21 @@ public class AllocinePlugin extends ImdbPlugin {
         return allocineId;
     }
 
-    private String getAllocineSerieId(String title, String year) throws Exception {
-        String cacheKey = CacheMemory.generateCacheKey(CACHE_SEARCH_SERIES, title);
-        Search search = (Search) CacheMemory.getFromCache(cacheKey);
-        if (search == null) {
-            search = allocineApi.searchTvSeries(title);
-            // Add to the cache
-            CacheMemory.addToCache(cacheKey, search);
-        }
+    private String getAllocineSerieId(final String title, String year) throws Exception {
+        final String cacheKey = CacheMemory.generateCacheKey(CACHE_SEARCH_SERIES, title);
+        // The seasons of a show are scanned at the same time, only the first of them searches
+        Search search = SingleFlight.execute(cacheKey, new Callable<Search>() {
+            @Override
+            public Search call() throws AllocineException {
+                Search search = (Search) CacheMemory.getFromCache(cacheKey);
+                if (search == null) {
+                    search = allocineApi.searchTvSeries(title);
+                    // Add to the cache
+                    CacheMemory.addToCache(cacheKey, search);
+                }
+                return search;
+            }
+        });
 
         if (!search.isValid()) {
             return Movie.UNKNOWN;
@@ -162,14 +171,20 @@ public class AllocinePlugin extends ImdbPlugin {
         return Movie.UNKNOWN;
     }
 
-    private String getAllocineMovieId(String title, String year) throws Exception {
-        String cacheKey = CacheMemory.generateCacheKey(CACHE_SEARCH_MOVIE, title);
-        Search search = (Search) CacheMemory.getFromCache(cacheKey);
-        if (search == null) {
-            search = allocineApi.searchMovies(title);
-            // Add to the cache
-            CacheMemory.addToCache(cacheKey, search);
-        }
+    private String getAllocineMovieId(final String title, String year) throws Exception {
+        final String cacheKey = CacheMemory.generateCacheKey(CACHE_SEARCH_MOVIE, title);
+        Search search = SingleFlight.execute(cacheKey, new Callable<Search>() {
+            @Override
+            public Search call() throws AllocineException {
+                Search search = (Search) CacheMemory.getFromCache(cacheKey);
+                if (search == null) {
+                    search = allocineApi.searchMovies(title);
+                    // Add to the cache
+                    CacheMemory.addToCache(cacheKey, search);
+                }
+                return search;
+            }
+        });
 
         if (!search.isValid()) {
             return Movie.UNKNOWN;
@@ -390,13 +405,7 @@ public class AllocinePlugin extends ImdbPlugin {
         }
 
         try {
-            String cacheKey = CacheMemory.generateCacheKey(CACHE_SERIES, allocineId);
-            TvSeriesInfos tvSeriesInfos = (TvSeriesInfos) CacheMemory.getFromCache(cacheKey);
-            if (tvSeriesInfos == null) {
-                tvSeriesInfos = allocineApi.getTvSeriesInfos(allocineId);
-                // Add to the cache
-                CacheMemory.addToCache(cacheKey, tvSeriesInfos);
-            }
+            TvSeriesInfos tvSeriesInfos = getTvSeriesInfos(allocineId);
 
             if (tvSeriesInfos.isNotValid()) {
                 LOG.error("Can't find informations for TvShow with id: {}", allocineId);
@@ -560,31 +569,62 @@ public class AllocinePlugin extends ImdbPlugin {
         }
     }
 
+    /**
+     * Get the TV series informations from the cache or AlloCine.
+     *
+     * The seasons of a show are scanned at the same time, so the series is only fetched by the first of them and the others wait
+     * for it.
+     *
+     * @param allocineId The AlloCine ID of the TV series
+     * @return
+     * @throws Exception
+     */
+    private TvSeriesInfos getTvSeriesInfos(final String allocineId) throws Exception {
+        final String cacheKey = CacheMemory.generateCacheKey(CACHE_SERIES, allocineId);
+
+        return SingleFlight.execute(cacheKey, new Callable<TvSeriesInfos>() {
+            @Override
+            public TvSeriesInfos call() throws AllocineException {
+                TvSeriesInfos tvSeriesInfos = (TvSeriesInfos) CacheMemory.getFromCache(cacheKey);
+                if (tvSeriesInfos == null) {
+                    tvSeriesInfos = allocineApi.getTvSeriesInfos(allocineId);
+                    // Add to the cache
+                    CacheMemory.addToCache(cacheKey, tvSeriesInfos);
+                }
+                return tvSeriesInfos;
+            }
+        });
+    }
+
     /**
      * Get Movie Informations from AlloCine ID
      *
      * @param allocineId The AlloCine ID of the Movie
      * @return The MovieInfo object
      */
-    public MovieInfos getMovieInfos(String allocineId) {
-        MovieInfos movieInfos;
+    public MovieInfos getMovieInfos(final String allocineId) {
+        final String cacheKey = CacheMemory.generateCacheKey(CACHE_MOVIE, allocineId);
 
-        String cacheKey = CacheMemory.generateCacheKey(CACHE_MOVIE, allocineId);
-        movieInfos = (MovieInfos) CacheMemory.getFromCache(cacheKey);
-        if (movieInfos == null) {
-            try {
-                movieInfos = allocineApi.getMovieInfos(allocineId);
-            } catch (Exception error) {
-                LOG.error("Failed retrieving Allocine infos for movie : {}", allocineId);
-                LOG.error(SystemTools.getStackTrace(error));
-            }
-            if (movieInfos != null && movieInfos.isValid()) {
-                // Add to the cache
-                CacheMemory.addToCache(cacheKey, movieInfos);
-            }
+        try {
+            return SingleFlight.execute(cacheKey, new Callable<MovieInfos>() {
+                @Override
+                public MovieInfos call() throws AllocineException {
+                    MovieInfos movieInfos = (MovieInfos) CacheMemory.getFromCache(cacheKey);
+                    if (movieInfos == null) {
+                        movieInfos = allocineApi.getMovieInfos(allocineId);
+                        if (movieInfos != null && movieInfos.isValid()) {
+                            // Add to the cache
+                            CacheMemory.addToCache(cacheKey, movieInfos);
+                        }
+                    }
+                    return movieInfos;
+                }
+            });
+        } catch (Exception error) {
+            LOG.error("Failed retrieving Allocine infos for movie : {}", allocineId);
+            LOG.error(SystemTools.getStackTrace(error));
+            return null;
         }
-
-        return movieInfos;
     }
 
     @Override
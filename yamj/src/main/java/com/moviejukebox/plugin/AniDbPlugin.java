@@ -41,6 +41,7 @@ import com.moviejukebox.model.MovieFile;
 import com.moviejukebox.model.Person;
 import com.moviejukebox.tools.*;
 import com.moviejukebox.tools.cache.CacheMemory;
+import com.moviejukebox.tools.cache.SingleFlight;
 import com.omertron.thetvdbapi.TheTVDBApi;
 import com.omertron.thetvdbapi.TvDbException;
 import com.omertron.thetvdbapi.model.Banners;
@@ -1010,7 +1011,47 @@ public class AniDbPlugin implements MovieDatabasePlugin {
         return null;
     }
 
-    private AnidbAnime loadAnidbAnime(long aid) throws SQLException, UdpConnectionException, AniDbException {
+    private AnidbAnime loadAnidbAnime(final long aid) throws SQLException, UdpConnectionException, AniDbException {
+        return loadCoalesced(CacheMemory.generateCacheKey(ANIDB_PLUGIN_ID, "AnimeLoad", Long.toString(aid)), new Callable<AnidbAnime>() {
+            @Override
+            public AnidbAnime call() throws SQLException, UdpConnectionException, AniDbException {
+                return fetchAnidbAnime(aid);
+            }
+        });
+    }
+
+    private AnidbAnime loadAnidbAnime(final String name) throws SQLException, UdpConnectionException, AniDbException {
+        return loadCoalesced(CacheMemory.generateCacheKey(ANIDB_PLUGIN_ID, "AnimeLoadName", name), new Callable<AnidbAnime>() {
+            @Override
+            public AnidbAnime call() throws SQLException, UdpConnectionException, AniDbException {
+                return fetchAnidbAnime(name);
+            }
+        });
+    }
+
+    /**
+     * Load the anime, concurrent loads of the same anime wait for the first one. Otherwise each of them would fetch the anime
+     * from AniDb and create it in the database.
+     *
+     * @param key
+     * @param loader
+     * @return
+     * @throws SQLException
+     * @throws UdpConnectionException
+     * @throws AniDbException
+     */
+    private static AnidbAnime loadCoalesced(String key, Callable<AnidbAnime> loader) throws SQLException, UdpConnectionException, AniDbException {
+        try {
+            return SingleFlight.execute(key, loader);
+        } catch (SQLException | UdpConnectionException | AniDbException | RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            LOG.warn("Interrupted while waiting for anime {}: {}", key, ex.getMessage());
+            return null;
+        }
+    }
+
+    private AnidbAnime fetchAnidbAnime(long aid) throws SQLException, UdpConnectionException, AniDbException {
         AnidbAnime res = getAnimeFromCache(aid);
         if (res != null) {
             return res;
@@ -1038,7 +1079,7 @@ public class AniDbPlugin implements MovieDatabasePlugin {
         return anime;
     }
 
-    private AnidbAnime loadAnidbAnime(String name) throws SQLException, UdpConnectionException, AniDbException {
+    private AnidbAnime fetchAnidbAnime(String name) throws SQLException, UdpConnectionException, AniDbException {
         AnidbAnime anime = getAnimeFromCache(name);
         if (anime != null) {
             return anime;
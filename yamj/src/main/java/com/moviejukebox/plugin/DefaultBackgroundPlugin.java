@@ -223,7 +223,7 @@ public class DefaultBackgroundPlugin implements MovieImagePlugin {
 
         String overlayFilename = "overlay_fanart_" + source + ".png";
         try {
-            BufferedImage biOverlay = GraphicTools.loadJPEGImage(getResourcesPath() + overlayFilename);
+            BufferedImage biOverlay = OverlayCache.getImage(getResourcesPath() + overlayFilename);
 
             BufferedImage returnBI = new BufferedImage(biOverlay.getWidth(), biOverlay.getHeight(), BufferedImage.TYPE_INT_ARGB);
             Graphics2D g2BI = returnBI.createGraphics();
@@ -856,16 +856,15 @@ public class DefaultImagePlugin implements MovieImagePlugin {
                     }
 
                     try {
-                        BufferedImage biSet = GraphicTools.loadJPEGImage(overlayResources + filename);
+                        BufferedImage biSet = OverlayCache.getImage(overlayResources + filename);
+                        int setWidth = state.getWidth().matches(D_PLUS) ? Integer.parseInt(state.getWidth()) : biSet.getWidth();
+                        int setHeight = state.getHeight().matches(D_PLUS) ? Integer.parseInt(state.getHeight()) : biSet.getHeight();
+                        int setX = getOverlayX(newBi.getWidth(), biSet.getWidth(), state.getLeft(), state.getAlign());
+                        int setY = getOverlayY(newBi.getHeight(), biSet.getHeight(), state.getTop(), state.getValign());
+                        biSet = OverlayCache.getImage(overlayResources + filename, setWidth, setHeight);
 
                         Graphics2D g2d = newBi.createGraphics();
-                        g2d.drawImage(biSet,
-                                getOverlayX(newBi.getWidth(),
-                                        biSet.getWidth(),
-                                        state.getLeft(),
-                                        state.getAlign()),
-                                getOverlayY(newBi.getHeight(), biSet.getHeight(), state.getTop(), state.getValign()),
-                                state.getWidth().matches(D_PLUS) ? Integer.parseInt(state.getWidth()) : biSet.getWidth(), state.getHeight().matches(D_PLUS) ? Integer.parseInt(state.getHeight()) : biSet.getHeight(), null);
+                        g2d.drawImage(biSet, setX, setY, null);
                         g2d.dispose();
                     } catch (FileNotFoundException ex) {
                         LOG.warn("Failed to load {} {}, please ensure it is valid", overlayResources, filename);
@@ -930,7 +929,7 @@ public class DefaultImagePlugin implements MovieImagePlugin {
         }
 
         try {
-            BufferedImage biSubTitle = GraphicTools.loadJPEGImage(logoFile);
+            BufferedImage biSubTitle = OverlayCache.getImage(logoFile);
             Graphics2D g2d = bi.createGraphics();
             g2d.drawImage(biSubTitle, bi.getWidth() - biSubTitle.getWidth() - 5, 5, null);
             g2d.dispose();
@@ -981,7 +980,7 @@ public class DefaultImagePlugin implements MovieImagePlugin {
         }
 
         try {
-            BufferedImage biHd = GraphicTools.loadJPEGImage(getResourcesPath() + logoFilename);
+            BufferedImage biHd = OverlayCache.getImage(getResourcesPath() + logoFilename);
             Graphics2D g2d = bi.createGraphics();
 
             if (addOtherLogo && (movie.isTVShow())) {
@@ -1015,7 +1014,7 @@ public class DefaultImagePlugin implements MovieImagePlugin {
     private BufferedImage drawLogoTV(Movie movie, BufferedImage bi, Boolean addOtherLogo) {
         if (movie.isTVShow()) {
             try {
-                BufferedImage biTV = GraphicTools.loadJPEGImage(getResourcesPath() + FILENAME_TV);
+                BufferedImage biTV = OverlayCache.getImage(getResourcesPath() + FILENAME_TV);
                 Graphics2D g2d = bi.createGraphics();
 
                 if (addOtherLogo && movie.isHD()) {
@@ -1073,7 +1072,7 @@ public class DefaultImagePlugin implements MovieImagePlugin {
         String overlayFilename = source + "_overlay_" + imageType + ".png";
 
         try {
-            BufferedImage biOverlay = GraphicTools.loadJPEGImage(getResourcesPath() + overlayFilename);
+            BufferedImage biOverlay = OverlayCache.getImage(getResourcesPath() + overlayFilename);
 
             BufferedImage returnBI = new BufferedImage(biOverlay.getWidth(), biOverlay.getHeight(), BufferedImage.TYPE_INT_ARGB);
             Graphics2D g2BI = returnBI.createGraphics();
@@ -1132,7 +1131,7 @@ public class DefaultImagePlugin implements MovieImagePlugin {
                 Graphics2D g2d = bi.createGraphics();
                 File imageFile = new File(getResourcesPath() + languageFilename);
                 if (imageFile.exists()) {
-                    BufferedImage biLang = GraphicTools.loadJPEGImage(imageFile);
+                    BufferedImage biLang = OverlayCache.getImage(imageFile);
                     g2d.drawImage(biLang, 1, 1, null);
                 } else if (languages.length == 1) {
                     LOG.warn("Failed drawing Language logo to thumbnail file: {}", movie.getBaseName());
@@ -1152,7 +1151,7 @@ public class DefaultImagePlugin implements MovieImagePlugin {
                         imageFile = new File(getResourcesPath() + languageFilename);
                         if (imageFile.exists()) {
 
-                            BufferedImage biLang = GraphicTools.loadJPEGImage(imageFile);
+                            BufferedImage biLang = OverlayCache.getImage(imageFile);
                             imageFiles[i] = biLang;
 
                             // Determine image size.
@@ -1194,7 +1193,7 @@ public class DefaultImagePlugin implements MovieImagePlugin {
             String[] filenames = files.split(Movie.SPACE_SLASH_SPACE);
             try {
                 Graphics2D g2d = bi.createGraphics();
-                BufferedImage biSet = GraphicTools.loadJPEGImage(overlayResources + filenames[currentFilenameNumber]);
+                BufferedImage biSet = OverlayCache.getImage(overlayResources + filenames[currentFilenameNumber]);
                 List<String> uniqueFiles = new ArrayList<>();
                 uniqueFiles.add(filenames[0]);
                 int lWidth = width.matches(D_PLUS) ? Integer.parseInt(width) : biSet.getWidth();
@@ -1219,7 +1218,8 @@ public class DefaultImagePlugin implements MovieImagePlugin {
                 }
                 int maxWidth = lWidth;
                 int maxHeight = lHeight;
-                g2d.drawImage(biSet, getOverlayX(bi.getWidth(), lWidth, left, align), getOverlayY(bi.getHeight(), lHeight, top, valign), lWidth, lHeight, null);
+                g2d.drawImage(OverlayCache.getImage(overlayResources + filenames[currentFilenameNumber], lWidth, lHeight),
+                        getOverlayX(bi.getWidth(), lWidth, left, align), getOverlayY(bi.getHeight(), lHeight, top, valign), null);
                 if (filenames.length > 1) {
                     int col = 0;
                     int row = 0;
@@ -1253,7 +1253,7 @@ public class DefaultImagePlugin implements MovieImagePlugin {
                         }
 
                         currentFilenameNumber = i;
-                        biSet = GraphicTools.loadJPEGImage(overlayResources + filenames[currentFilenameNumber]);
+                        biSet = OverlayCache.getImage(overlayResources + filenames[currentFilenameNumber]);
                         if (block.isSize() || width.equalsIgnoreCase(EQUAL) || width.matches(D_PLUS)) {
                             offsetX = (left > 0 ? 1 : -1) * col * (lWidth + block.gethMargin());
                         } else if (width.equalsIgnoreCase(AUTO)) {
@@ -1266,9 +1266,9 @@ public class DefaultImagePlugin implements MovieImagePlugin {
                             lHeight = biSet.getHeight();
                             offsetY = block.isDir() ? col == 0 ? (offsetY + maxHeight) : offsetY : row == 0 ? 0 : offsetY;
                         }
-                        g2d.drawImage(biSet, getOverlayX(bi.getWidth(), lWidth, left + offsetX, align),
-                                getOverlayY(bi.getHeight(), lHeight, top + offsetY, valign),
-                                lWidth, lHeight, null);
+                        g2d.drawImage(OverlayCache.getImage(overlayResources + filenames[currentFilenameNumber], lWidth, lHeight),
+                                getOverlayX(bi.getWidth(), lWidth, left + offsetX, align),
+                                getOverlayY(bi.getHeight(), lHeight, top + offsetY, valign), null);
                         if (!block.isSize() && width.equalsIgnoreCase(AUTO)) {
                             if (block.isDir()) {
                                 offsetX += (left > 0 ? 1 : -1) * lWidth;
@@ -1304,7 +1304,7 @@ public class DefaultImagePlugin implements MovieImagePlugin {
      */
     private BufferedImage drawSet(Movie movie, BufferedImage bi) {
         try {
-            BufferedImage biSet = GraphicTools.loadJPEGImage(getResourcesPath() + FILENAME_SET);
+            BufferedImage biSet = OverlayCache.getImage(getResourcesPath() + FILENAME_SET);
 
             Graphics2D g2d = bi.createGraphics();
             g2d.drawImage(biSet, bi.getWidth() - biSet.getWidth() - 5, 1, null);
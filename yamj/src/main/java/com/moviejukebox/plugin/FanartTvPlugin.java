@@ -26,6 +26,7 @@ import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
@@ -37,6 +38,7 @@ import com.moviejukebox.tools.PropertiesUtil;
 import com.moviejukebox.tools.StringTools;
 import com.moviejukebox.tools.YamjHttpClientBuilder;
 import com.moviejukebox.tools.cache.CacheMemory;
+import com.moviejukebox.tools.cache.SingleFlight;
 import com.omertron.fanarttvapi.FanartTvApi;
 import com.omertron.fanarttvapi.FanartTvException;
 import com.omertron.fanarttvapi.enumeration.FTArtworkType;
@@ -301,25 +303,31 @@ public class FanartTvPlugin {
      * @param tvdbId
      * @return
      */
-    public FTSeries getTvArtwork(int tvdbId) {
-        String key = CacheMemory.generateCacheKey(FANARTTV_PLUGIN_ID, String.valueOf(tvdbId));
+    public FTSeries getTvArtwork(final int tvdbId) {
+        final String key = CacheMemory.generateCacheKey(FANARTTV_PLUGIN_ID, String.valueOf(tvdbId));
 
-        FTSeries ftArtwork = (FTSeries) CacheMemory.getFromCache(key);
-        if (ftArtwork == null || ftArtwork.hasArtwork()) {
-            try {
-                ftArtwork = ft.getTvArtwork(Integer.toString(tvdbId));
-
-                if (ftArtwork != null && ftArtwork.hasArtwork()) {
-                    CacheMemory.addToCache(key, ftArtwork);
+        try {
+            // The seasons of a show are scanned at the same time, only the first of them gets the artwork
+            return SingleFlight.execute(key, new Callable<FTSeries>() {
+                @Override
+                public FTSeries call() throws FanartTvException {
+                    FTSeries ftArtwork = (FTSeries) CacheMemory.getFromCache(key);
+
+                    // If we get nothing back from the cache or it's empty, check for artwork
+                    if (ftArtwork == null || !ftArtwork.hasArtwork()) {
+                        ftArtwork = ft.getTvArtwork(Integer.toString(tvdbId));
+
+                        if (ftArtwork != null && ftArtwork.hasArtwork()) {
+                            CacheMemory.addToCache(key, ftArtwork);
+                        }
+                    }
+                    return ftArtwork;
                 }
-
-                return ftArtwork;
-            } catch (FanartTvException ex) {
-                LOG.warn("Failed to get fanart information for TVDB ID: {}. Error: {}", tvdbId, ex.getMessage(), ex);
-                return new FTSeries();
-            }
+            });
+        } catch (Exception ex) {
+            LOG.warn("Failed to get fanart information for TVDB ID: {}. Error: {}", tvdbId, ex.getMessage(), ex);
+            return new FTSeries();
         }
-        return ftArtwork;
     }
 
     /**
@@ -329,8 +337,8 @@ public class FanartTvPlugin {
      * @param imdbId
      * @return
      */
-    public FTMovie getMovieArtwork(int tmdbId, String imdbId) {
-        String key;
+    public FTMovie getMovieArtwork(final int tmdbId, final String imdbId) {
+        final String key;
 
         if (StringTools.isValidString(imdbId)) {
             key = CacheMemory.generateCacheKey(FANARTTV_PLUGIN_ID, imdbId);
@@ -341,28 +349,31 @@ public class FanartTvPlugin {
             return new FTMovie();
         }
 
-        FTMovie ftArtwork = (FTMovie) CacheMemory.getFromCache(key);
-
-        // If we get nothing back from the cache or it's empty, check for artwork
-        if (ftArtwork == null || !ftArtwork.hasArtwork()) {
-            try {
-                if (StringTools.isValidString(imdbId)) {
-                    ftArtwork = ft.getMovieArtwork(imdbId);
-                } else {
-                    ftArtwork = ft.getMovieArtwork(Integer.toString(tmdbId));
-                }
-
-                if (ftArtwork != null && ftArtwork.hasArtwork()) {
-                    CacheMemory.addToCache(key, ftArtwork);
+        try {
+            return SingleFlight.execute(key, new Callable<FTMovie>() {
+                @Override
+                public FTMovie call() throws FanartTvException {
+                    FTMovie ftArtwork = (FTMovie) CacheMemory.getFromCache(key);
+
+                    // If we get nothing back from the cache or it's empty, check for artwork
+                    if (ftArtwork == null || !ftArtwork.hasArtwork()) {
+                        if (StringTools.isValidString(imdbId)) {
+                            ftArtwork = ft.getMovieArtwork(imdbId);
+                        } else {
+                            ftArtwork = ft.getMovieArtwork(Integer.toString(tmdbId));
+                        }
+
+                        if (ftArtwork != null && ftArtwork.hasArtwork()) {
+                            CacheMemory.addToCache(key, ftArtwork);
+                        }
+                    }
+                    return ftArtwork;
                 }
-
-                return ftArtwork;
-            } catch (FanartTvException ex) {
-                LOG.warn("Failed to get fanart information for IMDB ID: {} / TMDB ID: {}. Error: {}", imdbId, tmdbId, ex.getMessage(), ex);
-                return new FTMovie();
-            }
+            });
+        } catch (Exception ex) {
+            LOG.warn("Failed to get fanart information for IMDB ID: {} / TMDB ID: {}. Error: {}", imdbId, tmdbId, ex.getMessage(), ex);
+            return new FTMovie();
         }
-        return ftArtwork;
     }
 
     /**
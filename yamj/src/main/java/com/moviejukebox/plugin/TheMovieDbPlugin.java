@@ -28,6 +28,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
@@ -46,6 +47,7 @@ import com.moviejukebox.tools.PropertiesUtil;
 import com.moviejukebox.tools.StringTools;
 import com.moviejukebox.tools.YamjHttpClientBuilder;
 import com.moviejukebox.tools.cache.CacheMemory;
+import com.moviejukebox.tools.cache.SingleFlight;
 import com.omertron.themoviedbapi.Compare;
 import com.omertron.themoviedbapi.MovieDbException;
 import com.omertron.themoviedbapi.TheMovieDbApi;
@@ -820,38 +822,45 @@ public class TheMovieDbPlugin implements MovieDatabasePlugin {
      * @param languageCode
      * @return
      */
-    public CollectionInfo getCollectionInfo(int collectionId, String languageCode) {
-        String cacheKey = getCollectionCacheKey(collectionId, languageCode);
-        CollectionInfo collInfo = (CollectionInfo) CacheMemory.getFromCache(cacheKey);
+    public CollectionInfo getCollectionInfo(final int collectionId, final String languageCode) {
+        final String cacheKey = getCollectionCacheKey(collectionId, languageCode);
 
-        if (collInfo == null) {
-            // Not found in cache, so look online
-            try {
-                collInfo = tmdb.getCollectionInfo(collectionId, languageCode);
-                if (collInfo != null) {
-                    URL newUrl;
-
-                    // Update the URL to be the full URL
-                    if (collInfo.getPosterPath() != null) {
-                        newUrl = tmdb.createImageUrl(collInfo.getPosterPath(), ORIGINAL);
-                        collInfo.setPosterPath(newUrl.toString());
-                    }
-
-                    // Update the URL to be the full URL
-                    if (collInfo.getBackdropPath() != null) {
-                        newUrl = tmdb.createImageUrl(collInfo.getBackdropPath(), ORIGINAL);
-                        collInfo.setBackdropPath(newUrl.toString());
+        try {
+            // The movies of a collection are scanned at the same time, only the first of them gets the collection
+            return SingleFlight.execute(cacheKey, new Callable<CollectionInfo>() {
+                @Override
+                public CollectionInfo call() throws MovieDbException {
+                    CollectionInfo collInfo = (CollectionInfo) CacheMemory.getFromCache(cacheKey);
+
+                    if (collInfo == null) {
+                        // Not found in cache, so look online
+                        collInfo = tmdb.getCollectionInfo(collectionId, languageCode);
+                        if (collInfo != null) {
+                            URL newUrl;
+
+                            // Update the URL to be the full URL
+                            if (collInfo.getPosterPath() != null) {
+                                newUrl = tmdb.createImageUrl(collInfo.getPosterPath(), ORIGINAL);
+                                collInfo.setPosterPath(newUrl.toString());
+                            }
+
+                            // Update the URL to be the full URL
+                            if (collInfo.getBackdropPath() != null) {
+                                newUrl = tmdb.createImageUrl(collInfo.getBackdropPath(), ORIGINAL);
+                                collInfo.setBackdropPath(newUrl.toString());
+                            }
+
+                            // Add to the cache
+                            CacheMemory.addToCache(cacheKey, collInfo);
+                        }
                     }
-
-                    // Add to the cache
-                    CacheMemory.addToCache(cacheKey, collInfo);
+                    return collInfo;
                 }
-            } catch (MovieDbException error) {
-                LOG.warn("Error getting CollectionInfo: {}", error.getMessage());
-            }
+            });
+        } catch (Exception error) {
+            LOG.warn("Error getting CollectionInfo: {}", error.getMessage());
+            return null;
         }
-
-        return collInfo;
     }
 
     /**
@@ -896,6 +905,44 @@ public class TheMovieDbPlugin implements MovieDatabasePlugin {
         return getCollectionImage(collectionId, ArtworkType.BACKDROP, languageCode);
     }
 
+    /**
+     * Get the images of the collection from the cache or online
+     *
+     * @param collectionId
+     * @param languageCode
+     * @return
+     */
+    private List<Artwork> getCollectionImages(final int collectionId, final String languageCode) {
+        final String cacheKey = getCollectionImagesCacheKey(collectionId, languageCode);
+
+        try {
+            return SingleFlight.execute(cacheKey, new Callable<List<Artwork>>() {
+                @Override
+                public List<Artwork> call() throws MovieDbException {
+                    @SuppressWarnings("unchecked")
+                    List<Artwork> results = (ArrayList<Artwork>) CacheMemory.getFromCache(cacheKey);
+
+                    if (results == null) {
+                        // Pass the language as null so that we get all images returned, even those without a language.
+                        ResultList<Artwork> collResults = tmdb.getCollectionImages(collectionId, null);
+
+                        if (collResults != null && collResults.getResults() != null && !collResults.getResults().isEmpty()) {
+                            results = new ArrayList<>(collResults.getResults());
+                            // Add to the cache
+                            CacheMemory.addToCache(cacheKey, results);
+                        } else {
+                            LOG.debug("No results found for {}-{}", collectionId, languageCode);
+                        }
+                    }
+                    return results;
+                }
+            });
+        } catch (Exception error) {
+            LOG.warn("Error getting CollectionImages: {}", error.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Generic method to get the artwork for a collection.
      *
@@ -906,29 +953,10 @@ public class TheMovieDbPlugin implements MovieDatabasePlugin {
      */
     private String getCollectionImage(int collectionId, ArtworkType artworkType, String languageCode) {
         String returnUrl = Movie.UNKNOWN;
-        String cacheKey = getCollectionImagesCacheKey(collectionId, languageCode);
 
         LOG.debug("Getting {} for collection ID {}, language '{}'", artworkType, collectionId, languageCode);
 
-        @SuppressWarnings("unchecked")
-        List<Artwork> results = (ArrayList<Artwork>) CacheMemory.getFromCache(cacheKey);
-
-        if (results == null) {
-            try {
-                // Pass the language as null so that we get all images returned, even those without a language.
-                ResultList<Artwork> collResults = tmdb.getCollectionImages(collectionId, null);
-
-                if (collResults != null && collResults.getResults() != null && !collResults.getResults().isEmpty()) {
-                    results = new ArrayList<>(collResults.getResults());
-                    // Add to the cache
-                    CacheMemory.addToCache(cacheKey, results);
-                } else {
-                    LOG.debug("No results found for {}-{}", collectionId, languageCode);
-                }
-            } catch (MovieDbException error) {
-                LOG.warn("Error getting CollectionImages: {}", error.getMessage());
-            }
-        }
+        List<Artwork> results = getCollectionImages(collectionId, languageCode);
 
         // Check we got some results
         if (results != null && !results.isEmpty()) {
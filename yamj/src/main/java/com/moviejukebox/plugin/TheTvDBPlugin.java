@@ -26,6 +26,7 @@ import static com.moviejukebox.tools.StringTools.isNotValidString;
 import static com.moviejukebox.tools.StringTools.isValidString;
 
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
@@ -42,6 +43,7 @@ import com.moviejukebox.tools.PropertiesUtil;
 import com.moviejukebox.tools.StringTools;
 import com.moviejukebox.tools.YamjHttpClientBuilder;
 import com.moviejukebox.tools.cache.CacheMemory;
+import com.moviejukebox.tools.cache.SingleFlight;
 import com.omertron.thetvdbapi.TheTVDBApi;
 import com.omertron.thetvdbapi.TvDbException;
 import com.omertron.thetvdbapi.model.Banner;
@@ -60,6 +62,8 @@ public class TheTvDBPlugin extends ImdbPlugin {
     private static final String LANGUAGE_DEFAULT = "en";
     public static final String CACHE_SERIES = "Series";
     public static final String CACHE_BANNERS = "Banners";
+    private static final String CACHE_SEARCH = "SeriesSearch";
+    private static final String CACHE_EPISODES = "Episodes";
     private static final TheTVDBApi TVDB;
     private static final String LANGUAGE_PRIMARY = PropertiesUtil.getProperty("thetvdb.language", LANGUAGE_DEFAULT).trim();
     private static final String LANGUAGE_SECONDARY = initLanguage2();
@@ -278,10 +282,10 @@ public class TheTvDBPlugin extends ImdbPlugin {
         List<Episode> episodeList2ndLanguage = null;
 
         try {
-            episodeList = TVDB.getSeasonEpisodes(id, (dvdEpisodes ? -1 : movie.getSeason()), LANGUAGE_PRIMARY);
+            episodeList = getSeasonEpisodes(id, (dvdEpisodes ? -1 : movie.getSeason()), LANGUAGE_PRIMARY);
 
             if (!LANGUAGE_PRIMARY.equalsIgnoreCase(LANGUAGE_SECONDARY) && StringTools.isValidString(LANGUAGE_SECONDARY)) {
-                episodeList2ndLanguage = TVDB.getSeasonEpisodes(id, (dvdEpisodes ? -1 : movie.getSeason()), LANGUAGE_SECONDARY);
+                episodeList2ndLanguage = getSeasonEpisodes(id, (dvdEpisodes ? -1 : movie.getSeason()), LANGUAGE_SECONDARY);
             }
         } catch (Exception error) {
             LOG.warn("Error getting episode information: {}", error.getMessage());
@@ -521,34 +525,96 @@ public class TheTvDBPlugin extends ImdbPlugin {
      * @return
      */
     public static Series getSeries(String id) {
-        Series series = (Series) CacheMemory.getFromCache(CacheMemory.generateCacheKey(CACHE_SERIES, id, LANGUAGE_PRIMARY));
+        Series series = null;
 
-        if (series == null) {
-            // Not found in cache, so look online
-            try {
-                series = TVDB.getSeries(id, LANGUAGE_PRIMARY);
-                if (series != null) {
-                    // Add to the cache
-                    CacheMemory.addToCache(CacheMemory.generateCacheKey(CACHE_SERIES, id, LANGUAGE_PRIMARY), series);
-                }
+        try {
+            series = getSeries(id, LANGUAGE_PRIMARY);
+            if (series == null && !LANGUAGE_SECONDARY.isEmpty()) {
+                series = getSeries(id, LANGUAGE_SECONDARY);
+            }
+        } catch (Exception error) {
+            LOG.warn("Error getting Series: {}", error.getMessage());
+        }
 
-                if (series == null && !LANGUAGE_SECONDARY.isEmpty()) {
-                    series = (Series) CacheMemory.getFromCache(CacheMemory.generateCacheKey(CACHE_SERIES, id, LANGUAGE_SECONDARY));
+        return series;
+    }
 
-                    if (series == null) {
-                        series = TVDB.getSeries(id, LANGUAGE_SECONDARY);
-                        if (series != null) {
-                            // Add to the cache
-                            CacheMemory.addToCache(CacheMemory.generateCacheKey(CACHE_SERIES, id, LANGUAGE_SECONDARY), series);
-                        }
+    /**
+     * Get the series in the language from the cache or TheTVDb.
+     *
+     * The seasons of a show are scanned at the same time, so the series is only fetched by the first of them and the others wait
+     * for it.
+     *
+     * @param id
+     * @param language
+     * @return
+     * @throws Exception
+     */
+    private static Series getSeries(final String id, final String language) throws Exception {
+        final String cacheKey = CacheMemory.generateCacheKey(CACHE_SERIES, id, language);
+
+        return SingleFlight.execute(cacheKey, new Callable<Series>() {
+            @Override
+            public Series call() throws TvDbException {
+                Series series = (Series) CacheMemory.getFromCache(cacheKey);
+                if (series == null) {
+                    // Not found in cache, so look online
+                    series = TVDB.getSeries(id, language);
+                    if (series != null) {
+                        // Add to the cache
+                        CacheMemory.addToCache(cacheKey, series);
                     }
                 }
-            } catch (Exception error) {
-                LOG.warn("Error getting Series: {}", error.getMessage());
+                return series;
             }
-        }
+        });
+    }
 
-        return series;
+    /**
+     * Get the episodes of the season from the cache or TheTVDb.
+     *
+     * With DVD episodes all the episodes of the series are fetched (season -1), these are the same for every season.
+     *
+     * @param id
+     * @param season
+     * @param language
+     * @return
+     * @throws Exception
+     */
+    private static List<Episode> getSeasonEpisodes(final String id, final int season, final String language) throws Exception {
+        final String cacheKey = CacheMemory.generateCacheKey(CACHE_EPISODES, id, Integer.toString(season), language);
+
+        return SingleFlight.execute(cacheKey, new Callable<List<Episode>>() {
+            @Override
+            public List<Episode> call() throws TvDbException {
+                @SuppressWarnings("unchecked")
+                List<Episode> episodes = (List<Episode>) CacheMemory.getFromCache(cacheKey);
+                if (episodes == null) {
+                    episodes = TVDB.getSeasonEpisodes(id, season, language);
+                    if (episodes != null) {
+                        CacheMemory.addToCache(cacheKey, episodes);
+                    }
+                }
+                return episodes;
+            }
+        });
+    }
+
+    /**
+     * Search for the series, concurrent searches for the same title are only sent once
+     *
+     * @param title
+     * @param language
+     * @return
+     * @throws Exception
+     */
+    private static List<Series> searchSeries(final String title, final String language) throws Exception {
+        return SingleFlight.execute(CacheMemory.generateCacheKey(CACHE_SEARCH, title, language), new Callable<List<Series>>() {
+            @Override
+            public List<Series> call() throws TvDbException {
+                return TVDB.searchSeries(title, language);
+            }
+        });
     }
 
     /**
@@ -565,16 +631,16 @@ public class TheTvDBPlugin extends ImdbPlugin {
 
             try {
                 if (!movie.getTitle().equals(Movie.UNKNOWN)) {
-                    seriesList = TVDB.searchSeries(movie.getTitle(), LANGUAGE_PRIMARY);
+                    seriesList = searchSeries(movie.getTitle(), LANGUAGE_PRIMARY);
                     if ((seriesList == null || seriesList.isEmpty()) && !LANGUAGE_SECONDARY.isEmpty()) {
-                        seriesList = TVDB.searchSeries(movie.getTitle(), LANGUAGE_SECONDARY);
+                        seriesList = searchSeries(movie.getTitle(), LANGUAGE_SECONDARY);
                     }
                 }
 
                 if (seriesList == null || seriesList.isEmpty()) {
-                    seriesList = TVDB.searchSeries(movie.getBaseName(), LANGUAGE_PRIMARY);
+                    seriesList = searchSeries(movie.getBaseName(), LANGUAGE_PRIMARY);
                     if ((seriesList == null || seriesList.isEmpty()) && !LANGUAGE_SECONDARY.isEmpty()) {
-                        seriesList = TVDB.searchSeries(movie.getBaseName(), LANGUAGE_SECONDARY);
+                        seriesList = searchSeries(movie.getBaseName(), LANGUAGE_SECONDARY);
                     }
                 }
             } catch (Exception error) {
@@ -643,18 +709,26 @@ public class TheTvDBPlugin extends ImdbPlugin {
      * @param id
      * @return
      */
-    public static Banners getBanners(String id) {
-        Banners banners = (Banners) CacheMemory.getFromCache(CacheMemory.generateCacheKey(CACHE_BANNERS, id, LANGUAGE_PRIMARY));
+    public static Banners getBanners(final String id) {
+        final String cacheKey = CacheMemory.generateCacheKey(CACHE_BANNERS, id, LANGUAGE_PRIMARY);
 
-        if (banners == null) {
-            try {
-                banners = TVDB.getBanners(id);
-                CacheMemory.addToCache(CacheMemory.generateCacheKey(CACHE_BANNERS, id, LANGUAGE_PRIMARY), banners);
-            } catch (Exception error) {
-                LOG.warn("Error getting Banners: {}", error.getMessage());
-            }
+        try {
+            return SingleFlight.execute(cacheKey, new Callable<Banners>() {
+                @Override
+                public Banners call() throws TvDbException {
+                    Banners banners = (Banners) CacheMemory.getFromCache(cacheKey);
+                    if (banners == null) {
+                        banners = TVDB.getBanners(id);
+                        if (banners != null) {
+                            CacheMemory.addToCache(cacheKey, banners);
+                        }
+                    }
+                    return banners;
+                }
+            });
+        } catch (Exception error) {
+            LOG.warn("Error getting Banners: {}", error.getMessage());
+            return null;
         }
-
-        return banners;
     }
 }
@@ -23,6 +23,12 @@
 package com.moviejukebox.plugin.trailer;
 
 import java.io.File;
+import java.io.FilenameFilter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -41,6 +47,7 @@ import com.moviejukebox.tools.ThreadExecutor;
 import com.moviejukebox.tools.YamjHttpClient;
 import com.moviejukebox.tools.YamjHttpClientBuilder;
 import com.moviejukebox.tools.downloader.Downloader;
+import com.moviejukebox.tools.downloader.ResumableDownloader;
 
 public class TrailerPlugin implements ITrailerPlugin {
 
@@ -54,6 +61,11 @@ public class TrailerPlugin implements ITrailerPlugin {
     private static final boolean OVERWRITE = PropertiesUtil.getBooleanProperty("mjb.forceTrailersOverwrite", Boolean.FALSE);
     private static final boolean SHOW_PROGRESS = PropertiesUtil.getBooleanProperty("trailers.showProgress", Boolean.TRUE);
     private static final boolean SCAN_LOCAL_ONLY = PropertiesUtil.getBooleanProperty("trailers.scanHdOnly", Boolean.FALSE);
+    private static final String TRAILER_TOKEN = ".[TRAILER-";
+    // The dates of some file systems are only precise to two seconds
+    private static final long DATE_PRECISION = 2000L;
+    // The names of the saved download states in each trailer directory, listed once per run
+    private static final Map<String, Set<String>> STATE_FILES = new ConcurrentHashMap<>();
     // Resolutions Available
     protected static final String RESOLUTION_1080P = "1080p";
     protected static final String RESOLUTION_720P = "720p";
@@ -117,28 +129,13 @@ public class TrailerPlugin implements ITrailerPlugin {
         boolean isExchangeOk = Boolean.FALSE;
 
         MovieFile mf = movie.getFirstFile();
-        String parentPath = mf.getFile().getParent();
-        String name = mf.getFile().getName();
-        String basename;
-
-        if (mf.getFilename().toUpperCase().endsWith("/VIDEO_TS")) {
-            parentPath += File.separator + name;
-            basename = name;
-        } else if (mf.getFile().getAbsolutePath().toUpperCase().contains("BDMV")) {
-            parentPath = parentPath.substring(0, parentPath.toUpperCase().indexOf("BDMV") - 1);
-            basename = parentPath.substring(parentPath.lastIndexOf(File.separator) + 1);
-        } else {
-            int index = name.lastIndexOf('.');
-            basename = index == -1 ? name : name.substring(0, index);
-        }
-
+        String parentPath = getTrailerPath(mf);
         if (StringTools.isValidString(SCANNER_PATH)) {
-            parentPath = SCANNER_PATH;
             FileTools.makeDirs(new File(parentPath));
         }
 
         String trailerExt = FilenameUtils.getExtension(trailerUrl);
-        String trailerBasename = basename + ".[TRAILER-" + title + "]." + trailerExt;
+        String trailerBasename = getVideoBasename(mf) + TRAILER_TOKEN + title + "]." + trailerExt;
         if (SAFE_FILENAME) {
             trailerBasename = FileTools.makeSafeFilename(trailerBasename);
         }
@@ -176,6 +173,151 @@ public class TrailerPlugin implements ITrailerPlugin {
         return isExchangeOk;
     }
 
+    /**
+     * Is there an unfinished trailer download of the video that should be continued
+     *
+     * @param movie
+     * @return
+     */
+    public boolean hasPartialDownload(Movie movie) {
+        MovieFile mf = movie.getFirstFile();
+        if (mf == null || mf.getFile() == null) {
+            return Boolean.FALSE;
+        }
+
+        String prefix = getTrailerPrefix(mf);
+        for (String name : getStateFiles(getTrailerPath(mf))) {
+            if (name.startsWith(prefix)) {
+                return Boolean.TRUE;
+            }
+        }
+        return Boolean.FALSE;
+    }
+
+    /**
+     * Delete the unfinished trailer downloads of the video that were not continued since the time, because the trailer is
+     * not offered anymore or has a different URL now
+     *
+     * @param movie
+     * @param since
+     */
+    public void deleteStaleDownloads(Movie movie, long since) {
+        MovieFile mf = movie.getFirstFile();
+        if (mf == null || mf.getFile() == null) {
+            return;
+        }
+
+        final String prefix = getTrailerPrefix(mf);
+        File[] stateFiles = new File(getTrailerPath(mf)).listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith(prefix) && ResumableDownloader.isStateFile(name);
+            }
+        });
+        if (stateFiles == null) {
+            return;
+        }
+
+        Set<String> names = getStateFiles(getTrailerPath(mf));
+        for (File stateFile : stateFiles) {
+            if (stateFile.lastModified() < since - DATE_PRECISION) {
+                LOG.debug("Deleting the abandoned trailer download {}", stateFile.getName());
+                ResumableDownloader.deletePartial(stateFile);
+                names.remove(stateFile.getName());
+            }
+        }
+    }
+
+    /**
+     * Get the names of the saved download states in the directory. The directory is only listed the first time, so that a
+     * shared trailer directory is not listed again for every video
+     *
+     * @param directory
+     * @return
+     */
+    private static Set<String> getStateFiles(String directory) {
+        Set<String> names = STATE_FILES.get(directory);
+        if (names == null) {
+            names = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+            String[] stateFiles = new File(directory).list(new FilenameFilter() {
+                @Override
+                public boolean accept(File dir, String name) {
+                    return ResumableDownloader.isStateFile(name);
+                }
+            });
+            if (stateFiles != null) {
+                names.addAll(Arrays.asList(stateFiles));
+            }
+
+            Set<String> listed = STATE_FILES.putIfAbsent(directory, names);
+            if (listed != null) {
+                names = listed;
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Get the start of the trailer file names of the video
+     *
+     * @param mf
+     * @return
+     */
+    private static String getTrailerPrefix(MovieFile mf) {
+        String prefix = getVideoBasename(mf) + TRAILER_TOKEN;
+        if (SAFE_FILENAME) {
+            prefix = FileTools.makeSafeFilename(prefix);
+        }
+        return prefix;
+    }
+
+    /**
+     * Get the directory the trailers of the video are saved to
+     *
+     * @param mf
+     * @return
+     */
+    private static String getTrailerPath(MovieFile mf) {
+        if (StringTools.isValidString(SCANNER_PATH)) {
+            return SCANNER_PATH;
+        }
+        return getVideoPath(mf);
+    }
+
+    /**
+     * Get the directory of the video, for DVD and BluRay folders this is the folder of the disc
+     *
+     * @param mf
+     * @return
+     */
+    private static String getVideoPath(MovieFile mf) {
+        String parentPath = mf.getFile().getParent();
+        if (mf.getFilename().toUpperCase().endsWith("/VIDEO_TS")) {
+            return parentPath + File.separator + mf.getFile().getName();
+        } else if (mf.getFile().getAbsolutePath().toUpperCase().contains("BDMV")) {
+            return parentPath.substring(0, parentPath.toUpperCase().indexOf("BDMV") - 1);
+        }
+        return parentPath;
+    }
+
+    /**
+     * Get the name of the video the trailer file names start with
+     *
+     * @param mf
+     * @return
+     */
+    private static String getVideoBasename(MovieFile mf) {
+        String name = mf.getFile().getName();
+        if (mf.getFilename().toUpperCase().endsWith("/VIDEO_TS")) {
+            return name;
+        } else if (mf.getFile().getAbsolutePath().toUpperCase().contains("BDMV")) {
+            String videoPath = getVideoPath(mf);
+            return videoPath.substring(videoPath.lastIndexOf(File.separator) + 1);
+        }
+        int index = name.lastIndexOf('.');
+        return index == -1 ? name : name.substring(0, index);
+    }
+
     public boolean existsTrailerFiles(Movie movie) {
         boolean fileExists = Boolean.TRUE;
         if (!movie.getExtraFiles().isEmpty() && DOWNLOAD) {
@@ -37,6 +37,7 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.util.*;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.pojava.datetime.DateTime;
@@ -62,710 +63,571 @@ public class MovieJukeboxXMLReader {
      */
     public boolean parseMovieXML(File xmlFile, Movie movie) {
         boolean forceDirtyFlag = Boolean.FALSE; // force dirty flag for example when extras have been deleted
-        Document xmlDoc;
+        // Unchanged files are decoded from the snapshot of the last run
+        XMLElement xmlRoot = XMLSnapshot.getElement(xmlFile);
 
         try {
-            xmlDoc = DOMHelper.getDocFromFile(xmlFile);
-        } catch (MalformedURLException error) {
-            LOG.error(ERROR_FIXIT, xmlFile.getName());
-            LOG.error(SystemTools.getStackTrace(error));
-            return Boolean.FALSE;
+            if (xmlRoot == null) {
+                // Read the file in a single pass, this is much quicker than building the DOM document
+                xmlRoot = XMLElement.parse(xmlFile);
+            }
         } catch (IOException error) {
             LOG.error(ERROR_FIXIT, xmlFile.getName());
             LOG.error(SystemTools.getStackTrace(error));
             return Boolean.FALSE;
-        } catch (ParserConfigurationException | SAXException error) {
-            LOG.error(ERROR_FIXIT, xmlFile.getName());
-            LOG.error(SystemTools.getStackTrace(error));
-            return Boolean.FALSE;
+        } catch (XMLStreamException error) {
+            // Let the DOM parser have a go, it can also handle some files that are not well formed XML
+            LOG.trace("Failed streaming {}, using DOM parser: {}", xmlFile.getName(), error.getMessage());
+            xmlRoot = null;
         }
 
-        NodeList nlMovies;  // Main list of movies, there should only be 1
-        Node nMovie;        // Node for the movie
+        if (xmlRoot == null) {
+            try {
+                xmlRoot = XMLElement.fromDOM(DOMHelper.getDocFromFile(xmlFile).getDocumentElement());
+            } catch (MalformedURLException error) {
+                LOG.error(ERROR_FIXIT, xmlFile.getName());
+                LOG.error(SystemTools.getStackTrace(error));
+                return Boolean.FALSE;
+            } catch (IOException error) {
+                LOG.error(ERROR_FIXIT, xmlFile.getName());
+                LOG.error(SystemTools.getStackTrace(error));
+                return Boolean.FALSE;
+            } catch (ParserConfigurationException | SAXException error) {
+                LOG.error(ERROR_FIXIT, xmlFile.getName());
+                LOG.error(SystemTools.getStackTrace(error));
+                return Boolean.FALSE;
+            }
+        }
 
-        NodeList nlElements;    // Reusable NodeList for the other elements
-        Node nElements;         // Reusable Node for the other elements
+        // Main list of movies, there should only be 1
+        List<XMLElement> movies = new ArrayList<>();
+        if (MOVIE.equals(xmlRoot.getNodeName())) {
+            movies.add(xmlRoot);
+        }
+        movies.addAll(xmlRoot.getElementsByTagName(MOVIE));
 
-        nlMovies = xmlDoc.getElementsByTagName(MOVIE);
-        for (int loopMovie = 0; loopMovie < nlMovies.getLength(); loopMovie++) {
-            nMovie = nlMovies.item(loopMovie);
-            if (nMovie.getNodeType() == Node.ELEMENT_NODE) {
-                Element eMovie = (Element) nMovie;
+        XMLElement tagElement;  // Reusable element for the lists
 
-                // Get all the IDs associated with the movie
-                nlElements = eMovie.getElementsByTagName("id");
-                for (int looper = 0; looper < nlElements.getLength(); looper++) {
-                    nElements = nlElements.item(looper);
-                    if (nElements.getNodeType() == Node.ELEMENT_NODE) {
-                        Element eId = (Element) nElements;
+        for (XMLElement eMovie : movies) {
+            // Get all the IDs associated with the movie
+            for (XMLElement eId : eMovie.getElementsByTagName("id")) {
+                String movieDb = eId.getAttribute(MOVIEDB);
+                if (StringTools.isNotValidString(movieDb)) {
+                    movieDb = ImdbPlugin.IMDB_PLUGIN_ID;
+                }
+                movie.setId(movieDb, eId.getTextContent());
+            }   // End of ID
 
-                        String movieDb = eId.getAttribute(MOVIEDB);
-                        if (StringTools.isNotValidString(movieDb)) {
-                            movieDb = ImdbPlugin.IMDB_PLUGIN_ID;
-                        }
-                        movie.setId(movieDb, eId.getTextContent());
+            // Get the Version the XML was written with
+            movie.setMjbVersion(eMovie.getValue("mjbVersion"));
+
+            // Get the Git SHA the XML was written with
+            movie.setMjbGitSHA(eMovie.getValue("mjbGitSHA"));
+
+            // Get the date/time the XML was written
+            movie.setMjbGenerationDateString(eMovie.getValue("xmlGenerationDate"));
+
+            if (StringTools.isNotValidString(movie.getBaseFilename())) {
+                movie.setBaseFilename(eMovie.getValue("baseFilenameBase"));
+            }
+
+            if (StringTools.isNotValidString(movie.getBaseName())) {
+                movie.setBaseName(eMovie.getValue(BASE_FILENAME));
+            }
+
+            // Get the title fields
+            parseOverridableTitle(movie, eMovie);
+            parseOverridableOriginalTitle(movie, eMovie);
+            movie.setTitleSort(eMovie.getValue(SORT_TITLE));
+
+            // Get the year. We don't care about the attribute as that is the index
+            parseOverridableYear(movie, eMovie);
+
+            // Get the release date
+            parseOverridableReleaseDate(movie, eMovie);
+
+            // get the show status
+            movie.setShowStatus(eMovie.getValue("showStatus"));
+
+            // Get the ratings. We don't care about the RATING as this is a calulated value.
+            // So just get the childnodes of the "ratings" node
+            tagElement = eMovie.getElementByName("ratings");
+            if (tagElement != null) {
+                for (XMLElement eRating : tagElement.getChildElements()) {
+                    String movieDb = eRating.getAttribute(MOVIEDB);
+                    if (StringTools.isNotValidString(movieDb)) {
+                        movieDb = ImdbPlugin.IMDB_PLUGIN_ID;
                     }
-                }   // End of ID
+                    movie.addRating(movieDb, Integer.parseInt(eRating.getTextContent()));
+                }
+            }   // End of Ratings
+
+            // Get the watched flags
+            movie.setWatchedNFO(Boolean.parseBoolean(eMovie.getValue("watchedNFO")));
+            movie.setWatchedFile(Boolean.parseBoolean(eMovie.getValue("watchedFile")));
+
+            // Get artwork URLS
+            movie.setPosterURL(HTMLTools.decodeUrl(eMovie.getValue("posterURL")));
+            movie.setFanartURL(HTMLTools.decodeUrl(eMovie.getValue("fanartURL")));
+            movie.setBannerURL(HTMLTools.decodeUrl(eMovie.getValue("bannerURL")));
+            movie.setClearArtURL(HTMLTools.decodeHtml(eMovie.getValue("clearArtURL")));
+            movie.setClearLogoURL(HTMLTools.decodeHtml(eMovie.getValue("clearLogoURL")));
+            movie.setTvThumbURL(HTMLTools.decodeHtml(eMovie.getValue("tvThumbURL")));
+            movie.setSeasonThumbURL(HTMLTools.decodeHtml(eMovie.getValue("seasonThumbURL")));
+            movie.setMovieDiscURL(HTMLTools.decodeHtml(eMovie.getValue("movieDiscURL")));
+
+            // Get artwork files
+            movie.setPosterFilename(HTMLTools.decodeUrl(eMovie.getValue("posterFile")));
+            movie.setDetailPosterFilename(HTMLTools.decodeUrl(eMovie.getValue("detailPosterFile")));
+            movie.setThumbnailFilename(HTMLTools.decodeUrl(eMovie.getValue("thumbnail")));
+            movie.setFanartFilename(HTMLTools.decodeUrl(eMovie.getValue("fanartFile")));
+            movie.setBannerFilename(HTMLTools.decodeUrl(eMovie.getValue("bannerFile")));
+            movie.setWideBannerFilename(HTMLTools.decodeUrl(eMovie.getValue("wideBannerFile")));
+            movie.setClearArtFilename(HTMLTools.decodeUrl(eMovie.getValue("clearArtFile")));
+            movie.setClearLogoFilename(HTMLTools.decodeUrl(eMovie.getValue("clearLogoFile")));
+            movie.setTvThumbFilename(HTMLTools.decodeUrl(eMovie.getValue("tvThumbFile")));
+            movie.setSeasonThumbFilename(HTMLTools.decodeUrl(eMovie.getValue("seasonThumbFile")));
+            movie.setMovieDiscFilename(HTMLTools.decodeUrl(eMovie.getValue("movieDiscFile")));
+
+            // Get the plot and outline
+            parseOverridablePlot(movie, eMovie);
+            parseOverridableOutline(movie, eMovie);
+
+            // Get the quote
+            parseOverridableQuote(movie, eMovie);
+
+            // Get the tagline
+            parseOverridableTagline(movie, eMovie);
+
+            // Get the company name
+            parseOverridableCompany(movie, eMovie);
+
+            // get the runtime
+            parseOverridableRuntime(movie, eMovie);
+
+            // get the top 250
+            parseOverridableTop250(movie, eMovie);
+
+            // Get the directors
+            tagElement = eMovie.getElementByName("directors");
+            if (tagElement != null) {
+                for (XMLElement ePerson : tagElement.getChildElements()) {
+                    movie.addDirector(ePerson.getTextContent(), tagElement.getAttribute(SOURCE));
+                }
+            }
 
-                // Get the Version the XML was written with
-                movie.setMjbVersion(DOMHelper.getValueFromElement(eMovie, "mjbVersion"));
+            // Get the writers
+            tagElement = eMovie.getElementByName("writers");
+            if (tagElement != null) {
+                for (XMLElement ePerson : tagElement.getChildElements()) {
+                    movie.addWriter(ePerson.getTextContent(), tagElement.getAttribute(SOURCE));
+                }
+            }
 
-                // Get the Git SHA the XML was written with
-                movie.setMjbGitSHA(DOMHelper.getValueFromElement(eMovie, "mjbGitSHA"));
+            // Get the cast
+            tagElement = eMovie.getElementByName("cast");
+            if (tagElement != null) {
+                for (XMLElement ePerson : tagElement.getChildElements()) {
+                    movie.addActor(ePerson.getTextContent(), tagElement.getAttribute(SOURCE));
+                }
+            }
 
-                // Get the date/time the XML was written
-                movie.setMjbGenerationDateString(DOMHelper.getValueFromElement(eMovie, "xmlGenerationDate"));
+            // Get the country
+            parseOverridableCountry(movie, eMovie);
 
-                if (StringTools.isNotValidString(movie.getBaseFilename())) {
-                    movie.setBaseFilename(DOMHelper.getValueFromElement(eMovie, "baseFilenameBase"));
+            // Get the genres
+            tagElement = eMovie.getElementByName("genres");
+            if (tagElement != null) {
+                List<String> genres = new ArrayList<>();
+                for (XMLElement eGenre : tagElement.getChildElements()) {
+                    genres.add(eGenre.getTextContent());
                 }
+                movie.setGenres(genres, tagElement.getAttribute(SOURCE));
+            }
 
-                if (StringTools.isNotValidString(movie.getBaseName())) {
-                    movie.setBaseName(DOMHelper.getValueFromElement(eMovie, BASE_FILENAME));
+            // Process the sets
+            tagElement = eMovie.getElementByName("sets");
+            if (tagElement != null) {
+                for (XMLElement eSet : tagElement.getChildElements()) {
+                    String order = eSet.getAttribute(ORDER);
+                    if (StringTools.isValidString(order)) {
+                        movie.addSet(eSet.getTextContent(), Integer.parseInt(order));
+                    } else {
+                        movie.addSet(eSet.getTextContent());
+                    }
                 }
+            }
 
-                // Get the title fields
-                parseOverridableTitle(movie, eMovie);
-                parseOverridableOriginalTitle(movie, eMovie);
-                movie.setTitleSort(DOMHelper.getValueFromElement(eMovie, SORT_TITLE));
-
-                // Get the year. We don't care about the attribute as that is the index
-                parseOverridableYear(movie, eMovie);
-
-                // Get the release date
-                parseOverridableReleaseDate(movie, eMovie);
-
-                // get the show status
-                movie.setShowStatus(DOMHelper.getValueFromElement(eMovie, "showStatus"));
-
-                // Get the ratings. We don't care about the RATING as this is a calulated value.
-                // So just get the childnodes of the "ratings" node
-                nlElements = eMovie.getElementsByTagName("ratings");
-                if (nlElements.getLength() > 0) {
-                    nlElements = nlElements.item(0).getChildNodes();
-                    for (int looper = 0; looper < nlElements.getLength(); looper++) {
-                        nElements = nlElements.item(looper);
-                        if (nElements.getNodeType() == Node.ELEMENT_NODE) {
-                            Element eRating = (Element) nElements;
-
-                            String movieDb = eRating.getAttribute(MOVIEDB);
-                            if (StringTools.isNotValidString(movieDb)) {
-                                movieDb = ImdbPlugin.IMDB_PLUGIN_ID;
-                            }
-                            movie.addRating(movieDb, Integer.parseInt(eRating.getTextContent()));
+            // Get certification
+            parseOverridableCertification(movie, eMovie);
+
+            // Get language
+            parseOverridableLanguage(movie, eMovie);
+
+            // Get subtitles
+            movie.setSubtitles(eMovie.getValue("subtitles"));
+
+            // Get the TrailerExchange
+            movie.setTrailerExchange(eMovie.getValue("trailerExchange").equalsIgnoreCase(YES));
+
+            // Get trailerLastScan date/time
+            movie.setTrailerLastScan(eMovie.getValue(TRAILER_LAST_SCAN));
+
+            // Get file container
+            parseOverridableContainer(movie, eMovie);
+
+            tagElement = eMovie.getElementByName("codecs");
+            if (tagElement != null) {
+                for (XMLElement eCodecType : tagElement.getChildElements()) {
+                    String codecType = eCodecType.getNodeName();
+                    for (XMLElement eCodec : eCodecType.getChildElements()) {
+                        Codec codec;
+                        if (CodecType.VIDEO.toString().equalsIgnoreCase(codecType)) {
+                            codec = new Codec(CodecType.VIDEO);
+                        } else {
+                            codec = new Codec(CodecType.AUDIO);
                         }
-                    }
-                }   // End of Ratings
-
-                // Get the watched flags
-                movie.setWatchedNFO(Boolean.parseBoolean(DOMHelper.getValueFromElement(eMovie, "watchedNFO")));
-                movie.setWatchedFile(Boolean.parseBoolean(DOMHelper.getValueFromElement(eMovie, "watchedFile")));
-
-                // Get artwork URLS
-                movie.setPosterURL(HTMLTools.decodeUrl(DOMHelper.getValueFromElement(eMovie, "posterURL")));
-                movie.setFanartURL(HTMLTools.decodeUrl(DOMHelper.getValueFromElement(eMovie, "fanartURL")));
-                movie.setBannerURL(HTMLTools.decodeUrl(DOMHelper.getValueFromElement(eMovie, "bannerURL")));
-                movie.setClearArtURL(HTMLTools.decodeHtml(DOMHelper.getValueFromElement(eMovie, "clearArtURL")));
-                movie.setClearLogoURL(HTMLTools.decodeHtml(DOMHelper.getValueFromElement(eMovie, "clearLogoURL")));
-                movie.setTvThumbURL(HTMLTools.decodeHtml(DOMHelper.getValueFromElement(eMovie, "tvThumbURL")));
-                movie.setSeasonThumbURL(HTMLTools.decodeHtml(DOMHelper.getValueFromElement(eMovie, "seasonThumbURL")));
-                movie.setMovieDiscURL(HTMLTools.decodeHtml(DOMHelper.getValueFromElement(eMovie, "movieDiscURL")));
-
-                // Get artwork files
-                movie.setPosterFilename(HTMLTools.decodeUrl(DOMHelper.getValueFromElement(eMovie, "posterFile")));
-                movie.setDetailPosterFilename(HTMLTools.decodeUrl(DOMHelper.getValueFromElement(eMovie, "detailPosterFile")));
-                movie.setThumbnailFilename(HTMLTools.decodeUrl(DOMHelper.getValueFromElement(eMovie, "thumbnail")));
-                movie.setFanartFilename(HTMLTools.decodeUrl(DOMHelper.getValueFromElement(eMovie, "fanartFile")));
-                movie.setBannerFilename(HTMLTools.decodeUrl(DOMHelper.getValueFromElement(eMovie, "bannerFile")));
-                movie.setWideBannerFilename(HTMLTools.decodeUrl(DOMHelper.getValueFromElement(eMovie, "wideBannerFile")));
-                movie.setClearArtFilename(HTMLTools.decodeUrl(DOMHelper.getValueFromElement(eMovie, "clearArtFile")));
-                movie.setClearLogoFilename(HTMLTools.decodeUrl(DOMHelper.getValueFromElement(eMovie, "clearLogoFile")));
-                movie.setTvThumbFilename(HTMLTools.decodeUrl(DOMHelper.getValueFromElement(eMovie, "tvThumbFile")));
-                movie.setSeasonThumbFilename(HTMLTools.decodeUrl(DOMHelper.getValueFromElement(eMovie, "seasonThumbFile")));
-                movie.setMovieDiscFilename(HTMLTools.decodeUrl(DOMHelper.getValueFromElement(eMovie, "movieDiscFile")));
-
-                // Get the plot and outline
-                parseOverridablePlot(movie, eMovie);
-                parseOverridableOutline(movie, eMovie);
-
-                // Get the quote
-                parseOverridableQuote(movie, eMovie);
-
-                // Get the tagline
-                parseOverridableTagline(movie, eMovie);
-
-                // Get the company name
-                parseOverridableCompany(movie, eMovie);
-
-                // get the runtime
-                parseOverridableRuntime(movie, eMovie);
-
-                // get the top 250
-                parseOverridableTop250(movie, eMovie);
-
-                // Get the directors
-                nlElements = eMovie.getElementsByTagName("directors");
-                if (nlElements.getLength() > 0) {
-                    Element tagElement = (Element) nlElements.item(0);
-                    nlElements = tagElement.getChildNodes();
-                    for (int looper = 0; looper < nlElements.getLength(); looper++) {
-                        nElements = nlElements.item(looper);
-                        if (nElements.getNodeType() == Node.ELEMENT_NODE) {
-                            Element ePerson = (Element) nElements;
-                            movie.addDirector(ePerson.getTextContent(), tagElement.getAttribute(SOURCE));
+                        codec.setCodecId(eCodec.getAttribute("codecId"));
+                        codec.setCodecIdHint(eCodec.getAttribute("codecIdHint"));
+                        codec.setCodecFormat(eCodec.getAttribute("format"));
+                        codec.setCodecFormatProfile(eCodec.getAttribute("formatProfile"));
+                        codec.setCodecFormatVersion(eCodec.getAttribute("formatVersion"));
+                        codec.setCodecLanguage(eCodec.getAttribute(LANGUAGE));
+                        codec.setCodecBitRate(eCodec.getAttribute("bitrate"));
+                        String tmpValue = eCodec.getAttribute("channels");
+                        if (StringUtils.isNotBlank(tmpValue)) {
+                            codec.setCodecChannels(Integer.parseInt(eCodec.getAttribute("channels")));
                         }
-                    }
-                }
+                        codec.setCodec(eCodec.getTextContent().trim());
 
-                // Get the writers
-                nlElements = eMovie.getElementsByTagName("writers");
-                if (nlElements.getLength() > 0) {
-                    Element tagElement = (Element) nlElements.item(0);
-                    nlElements = tagElement.getChildNodes();
-                    for (int looper = 0; looper < nlElements.getLength(); looper++) {
-                        nElements = nlElements.item(looper);
-                        if (nElements.getNodeType() == Node.ELEMENT_NODE) {
-                            Element ePerson = (Element) nElements;
-                            movie.addWriter(ePerson.getTextContent(), tagElement.getAttribute(SOURCE));
+                        tmpValue = eCodec.getAttribute(SOURCE);
+                        if (StringTools.isValidString(tmpValue)) {
+                            codec.setCodecSource(CodecSource.fromString(tmpValue));
+                        } else {
+                            codec.setCodecSource(CodecSource.UNKNOWN);
                         }
-                    }
-                }
 
-                // Get the cast
-                nlElements = eMovie.getElementsByTagName("cast");
-                if (nlElements.getLength() > 0) {
-                    Element tagElement = (Element) nlElements.item(0);
-                    nlElements = tagElement.getChildNodes();
-                    for (int looper = 0; looper < nlElements.getLength(); looper++) {
-                        nElements = nlElements.item(looper);
-                        if (nElements.getNodeType() == Node.ELEMENT_NODE) {
-                            Element ePerson = (Element) nElements;
-                            movie.addActor(ePerson.getTextContent(), tagElement.getAttribute(SOURCE));
+                        movie.addCodec(codec);
+                    }   // END of codec information for audio/video
+                }   // END of codecs loop
+            }   // END of codecs
+
+            // get the resolution
+            parseOverridableResolution(movie, eMovie);
+
+            // get the video source
+            parseOverridableVideoSource(movie, eMovie);
+
+            // get the video output
+            parseOverridableVideoOutput(movie, eMovie);
+
+            // get aspect ratio
+            parseOverridableAspectRatio(movie, eMovie);
+
+            // get frames per second
+            parseOverridableFramesPerSecond(movie, eMovie);
+
+            // Get navigation info
+            movie.setFirst(HTMLTools.decodeUrl(eMovie.getValue("first")));
+            movie.setPrevious(HTMLTools.decodeUrl(eMovie.getValue("previous")));
+            movie.setNext(HTMLTools.decodeUrl(eMovie.getValue("next")));
+            movie.setLast(HTMLTools.decodeUrl(eMovie.getValue("last")));
+
+            // Get the library description, if it's not been set elsewhere (e.g. scanner)
+            String tempLibraryDescription = eMovie.getValue("libraryDescription");
+            if (StringTools.isNotValidString(movie.getLibraryDescription())) {
+                movie.setLibraryDescription(tempLibraryDescription);
+            } else if (!movie.getLibraryDescription().equals(tempLibraryDescription)) {
+                // The current description is different to the one in the XML
+                LOG.debug("Different library description! Setting dirty INFO");
+                forceDirtyFlag = Boolean.TRUE;
+            }
+
+            // Get prebuf
+            movie.setPrebuf(Long.parseLong(eMovie.getValue("prebuf")));
+
+            // Issue 1901: Awards
+            tagElement = eMovie.getElementByName("awards");
+            if (tagElement != null) {
+                for (XMLElement eAwardEvent : tagElement.getChildElements()) {
+                    AwardEvent awardEvent = new AwardEvent();
+                    awardEvent.setName(eAwardEvent.getAttribute(NAME));
+
+                    for (XMLElement eAward : eAwardEvent.getChildElements()) {
+                        Award award = new Award();
+
+                        award.setName(eAward.getTextContent());
+                        award.setNominated(Integer.parseInt(eAward.getAttribute("nominated")));
+                        award.setWon(Integer.parseInt(eAward.getAttribute(WON)));
+                        award.setYear(Integer.parseInt(eAward.getAttribute(YEAR)));
+                        String tmpAward = eAward.getAttribute("wons");
+                        if (StringTools.isValidString(tmpAward)) {
+                            award.setWons(Arrays.asList(tmpAward.split(Movie.SPACE_SLASH_SPACE)));
+                        }
+                        tmpAward = eAward.getAttribute("nominations");
+                        if (StringTools.isValidString(tmpAward)) {
+                            award.setNominations(Arrays.asList(tmpAward.split(Movie.SPACE_SLASH_SPACE)));
                         }
-                    }
-                }
 
-                // Get the country
-                parseOverridableCountry(movie, eMovie);
-
-                // Get the genres
-                nlElements = eMovie.getElementsByTagName("genres");
-                if (nlElements.getLength() > 0) {
-                    Element tagElement = (Element) nlElements.item(0);
-                    nlElements = tagElement.getChildNodes();
-                    List<String> genres = new ArrayList<>();
-                    for (int looper = 0; looper < nlElements.getLength(); looper++) {
-                        nElements = nlElements.item(looper);
-                        if (nElements.getNodeType() == Node.ELEMENT_NODE) {
-                            Element eGenre = (Element) nElements;
-                            genres.add(eGenre.getTextContent());
+                        awardEvent.addAward(award);
+                    }   // End of Awards
+
+                    movie.addAward(awardEvent);
+                }
+            }   // End of AwardEvents
+
+            // Issue 1897: Cast enhancement
+            tagElement = eMovie.getElementByName("people");
+            if (tagElement != null) {
+                for (XMLElement ePerson : tagElement.getChildElements()) {
+                    Filmography person = new Filmography();
+
+                    person.setCastId(ePerson.getAttribute("cast_id"));
+                    person.setCharacter(ePerson.getAttribute(CHARACTER));
+                    person.setDepartment(ePerson.getAttribute(DEPARTMENT));
+                    person.setDoublage(ePerson.getAttribute("doublage"));
+                    person.setId(ePerson.getAttribute("id"));
+                    person.setJob(ePerson.getAttribute(JOB));
+                    person.setName(ePerson.getAttribute(NAME));
+                    person.setOrder(ePerson.getAttribute(ORDER));
+                    person.setTitle(ePerson.getAttribute(TITLE));
+                    person.setUrl(ePerson.getAttribute(URL));
+                    person.setPhotoFilename(ePerson.getAttribute("photoFile"));
+                    person.setFilename(ePerson.getTextContent());
+
+                    // Get any "id_???" values
+                    for (Map.Entry<String, String> personAttr : ePerson.getAttributes().entrySet()) {
+                        if (personAttr.getKey().startsWith(ID)) {
+                            String name = personAttr.getKey().replace(ID, "");
+                            person.setId(name, personAttr.getValue());
                         }
                     }
-                    movie.setGenres(genres, tagElement.getAttribute(SOURCE));
-                }
 
-                // Process the sets
-                nlElements = eMovie.getElementsByTagName("sets");
-                if (nlElements.getLength() > 0) {
-                    nlElements = nlElements.item(0).getChildNodes();
-                    for (int looper = 0; looper < nlElements.getLength(); looper++) {
-                        nElements = nlElements.item(looper);
-                        if (nElements.getNodeType() == Node.ELEMENT_NODE) {
-                            Element eSet = (Element) nElements;
-                            String order = eSet.getAttribute(ORDER);
-                            if (StringTools.isValidString(order)) {
-                                movie.addSet(eSet.getTextContent(), Integer.parseInt(order));
-                            } else {
-                                movie.addSet(eSet.getTextContent());
-                            }
+                    String source = ePerson.getAttribute(SOURCE);
+                    if (StringTools.isValidString(source)) {
+                        person.setSource(source);
+                        if (person.getDepartment().equalsIgnoreCase(Filmography.DEPT_DIRECTING)) {
+                            movie.setOverrideSource(OverrideFlag.PEOPLE_DIRECTORS, source);
+                        } else if (person.getDepartment().equalsIgnoreCase(Filmography.DEPT_WRITING)) {
+                            movie.setOverrideSource(OverrideFlag.PEOPLE_WRITERS, source);
+                        } else if (person.getDepartment().equalsIgnoreCase(Filmography.DEPT_ACTORS)) {
+                            movie.setOverrideSource(OverrideFlag.PEOPLE_ACTORS, source);
                         }
+                    } else {
+                        person.setSource(Movie.UNKNOWN);
                     }
+                    movie.addPerson(person);
                 }
+            }   // End of Cast
 
-                // Get certification
-                parseOverridableCertification(movie, eMovie);
-
-                // Get language
-                parseOverridableLanguage(movie, eMovie);
-
-                // Get subtitles
-                movie.setSubtitles(DOMHelper.getValueFromElement(eMovie, "subtitles"));
-
-                // Get the TrailerExchange
-                movie.setTrailerExchange(DOMHelper.getValueFromElement(eMovie, "trailerExchange").equalsIgnoreCase(YES));
-
-                // Get trailerLastScan date/time
-                movie.setTrailerLastScan(DOMHelper.getValueFromElement(eMovie, TRAILER_LAST_SCAN));
-
-                // Get file container
-                parseOverridableContainer(movie, eMovie);
-
-                nlElements = eMovie.getElementsByTagName("codecs");
-                if (nlElements.getLength() > 0) {
-                    nlElements = nlElements.item(0).getChildNodes();
-                    for (int looper = 0; looper < nlElements.getLength(); looper++) {
-                        nElements = nlElements.item(looper);
-                        if (nElements.getNodeType() == Node.ELEMENT_NODE) {
-                            String codecType = nElements.getNodeName();
-                            if (nElements.getChildNodes().getLength() > 0) {
-                                for (int cLooper = 0; cLooper < nElements.getChildNodes().getLength(); cLooper++) {
-                                    Node nCodec = nElements.getChildNodes().item(cLooper);
-                                    if (nCodec.getNodeType() == Node.ELEMENT_NODE) {
-                                        Element eCodec = (Element) nCodec;
-
-                                        Codec codec;
-                                        if (CodecType.VIDEO.toString().equalsIgnoreCase(codecType)) {
-                                            codec = new Codec(CodecType.VIDEO);
-                                        } else {
-                                            codec = new Codec(CodecType.AUDIO);
-                                        }
-                                        codec.setCodecId(eCodec.getAttribute("codecId"));
-                                        codec.setCodecIdHint(eCodec.getAttribute("codecIdHint"));
-                                        codec.setCodecFormat(eCodec.getAttribute("format"));
-                                        codec.setCodecFormatProfile(eCodec.getAttribute("formatProfile"));
-                                        codec.setCodecFormatVersion(eCodec.getAttribute("formatVersion"));
-                                        codec.setCodecLanguage(eCodec.getAttribute(LANGUAGE));
-                                        codec.setCodecBitRate(eCodec.getAttribute("bitrate"));
-                                        String tmpValue = eCodec.getAttribute("channels");
-                                        if (StringUtils.isNotBlank(tmpValue)) {
-                                            codec.setCodecChannels(Integer.parseInt(eCodec.getAttribute("channels")));
-                                        }
-                                        codec.setCodec(eCodec.getTextContent().trim());
-
-                                        tmpValue = eCodec.getAttribute(SOURCE);
-                                        if (StringTools.isValidString(tmpValue)) {
-                                            codec.setCodecSource(CodecSource.fromString(tmpValue));
-                                        } else {
-                                            codec.setCodecSource(CodecSource.UNKNOWN);
-                                        }
-
-                                        movie.addCodec(codec);
-                                    }
-                                }   // END of codec information for audio/video
-                            }
-                        }   // END of audio/video codec
-                    }   // END of codecs loop
-                }   // END of codecs
-
-                // get the resolution
-                parseOverridableResolution(movie, eMovie);
-
-                // get the video source
-                parseOverridableVideoSource(movie, eMovie);
-
-                // get the video output
-                parseOverridableVideoOutput(movie, eMovie);
-
-                // get aspect ratio
-                parseOverridableAspectRatio(movie, eMovie);
-
-                // get frames per second
-                parseOverridableFramesPerSecond(movie, eMovie);
-
-                // Get navigation info
-                movie.setFirst(HTMLTools.decodeUrl(DOMHelper.getValueFromElement(eMovie, "first")));
-                movie.setPrevious(HTMLTools.decodeUrl(DOMHelper.getValueFromElement(eMovie, "previous")));
-                movie.setNext(HTMLTools.decodeUrl(DOMHelper.getValueFromElement(eMovie, "next")));
-                movie.setLast(HTMLTools.decodeUrl(DOMHelper.getValueFromElement(eMovie, "last")));
-
-                // Get the library description, if it's not been set elsewhere (e.g. scanner)
-                String tempLibraryDescription = DOMHelper.getValueFromElement(eMovie, "libraryDescription");
-                if (StringTools.isNotValidString(movie.getLibraryDescription())) {
-                    movie.setLibraryDescription(tempLibraryDescription);
-                } else if (!movie.getLibraryDescription().equals(tempLibraryDescription)) {
-                    // The current description is different to the one in the XML
-                    LOG.debug("Different library description! Setting dirty INFO");
-                    forceDirtyFlag = Boolean.TRUE;
+            // Issue 2012: Financial information about movie
+            for (XMLElement eBusiness : eMovie.getElementsByTagName("business")) {
+                movie.setBudget(eBusiness.getAttribute("budget"));
+
+                for (XMLElement eCountry : eBusiness.getChildElements()) {
+                    if ("gross".equalsIgnoreCase(eCountry.getNodeName())) {
+                        movie.setGross(eCountry.getAttribute(COUNTRY), eCountry.getTextContent());
+                    } else if ("openweek".equalsIgnoreCase(eCountry.getNodeName())) {
+                        movie.setOpenWeek(eCountry.getAttribute(COUNTRY), eCountry.getTextContent());
+                    }
+                }   // End of budget info
+            }   // End of business info
+
+            // Issue 2013: Add trivia
+            if (ENABLE_TRIVIA) {
+                for (XMLElement eTrivia : eMovie.getElementsByTagName("trivia")) {
+                    movie.addDidYouKnow(eTrivia.getTextContent());
                 }
+            }   // End of trivia info
 
-                // Get prebuf
-                movie.setPrebuf(Long.parseLong(DOMHelper.getValueFromElement(eMovie, "prebuf")));
-
-                // Issue 1901: Awards
-                nlElements = eMovie.getElementsByTagName("awards");
-                if (nlElements.getLength() > 0) {
-                    nlElements = nlElements.item(0).getChildNodes();
-                    for (int looper = 0; looper < nlElements.getLength(); looper++) {
-                        nElements = nlElements.item(looper);
-                        if (nElements.getNodeType() == Node.ELEMENT_NODE) {
-                            Element eAwardEvent = (Element) nElements;
-                            AwardEvent awardEvent = new AwardEvent();
-                            awardEvent.setName(eAwardEvent.getAttribute(NAME));
-
-                            Node nAward;
-                            for (int loopAwards = 0; loopAwards < eAwardEvent.getChildNodes().getLength(); loopAwards++) {
-                                nAward = eAwardEvent.getChildNodes().item(loopAwards);
-                                if (nAward.getNodeType() == Node.ELEMENT_NODE) {
-                                    Element eAward = (Element) nAward;
-                                    Award award = new Award();
-
-                                    award.setName(eAward.getTextContent());
-                                    award.setNominated(Integer.parseInt(eAward.getAttribute("nominated")));
-                                    award.setWon(Integer.parseInt(eAward.getAttribute(WON)));
-                                    award.setYear(Integer.parseInt(eAward.getAttribute(YEAR)));
-                                    String tmpAward = eAward.getAttribute("wons");
-                                    if (StringTools.isValidString(tmpAward)) {
-                                        award.setWons(Arrays.asList(tmpAward.split(Movie.SPACE_SLASH_SPACE)));
-                                    }
-                                    tmpAward = eAward.getAttribute("nominations");
-                                    if (StringTools.isValidString(tmpAward)) {
-                                        award.setNominations(Arrays.asList(tmpAward.split(Movie.SPACE_SLASH_SPACE)));
-                                    }
-
-                                    awardEvent.addAward(award);
-                                }
-                            }   // End of Awards
+            // Get the file list
+            tagElement = eMovie.getElementByName("files");
+            if (tagElement != null) {
+                for (XMLElement eFile : tagElement.getChildElements()) {
+                    MovieFile movieFile = new MovieFile();
 
-                            movie.addAward(awardEvent);
+                    try {
+                        File mfFile = new File(eFile.getValue("fileLocation"));
+                        // Check to see if the file exists, or we are preserving the jukebox
+                        if (mfFile.exists() || MovieJukebox.isJukeboxPreserve()) {
+                            // Save the file to the MovieFile
+                            movieFile.setFile(mfFile);
+                        } else {
+                            // We can't find this file anymore, so skip it.
+                            LOG.debug("Missing video file in the XML file ({}), it may have been moved or no longer exist.", mfFile.getName());
+                            continue;
                         }
+                    } catch (Exception ignore) {
+                        // If there is an error creating the file then don't save anything
+                        LOG.debug("Failed parsing file {}", xmlFile.getName());
+                        continue;
                     }
-                }   // End of AwardEvents
-
-                // Issue 1897: Cast enhancement
-                nlElements = eMovie.getElementsByTagName("people");
-                if (nlElements.getLength() > 0) {
-                    nlElements = nlElements.item(0).getChildNodes();
-
-                    for (int looper = 0; looper < nlElements.getLength(); looper++) {
-                        nElements = nlElements.item(looper);
-                        if (nElements.getNodeType() == Node.ELEMENT_NODE) {
-                            Element ePerson = (Element) nElements;
-                            Filmography person = new Filmography();
-
-                            person.setCastId(ePerson.getAttribute("cast_id"));
-                            person.setCharacter(ePerson.getAttribute(CHARACTER));
-                            person.setDepartment(ePerson.getAttribute(DEPARTMENT));
-                            person.setDoublage(ePerson.getAttribute("doublage"));
-                            person.setId(ePerson.getAttribute("id"));
-                            person.setJob(ePerson.getAttribute(JOB));
-                            person.setName(ePerson.getAttribute(NAME));
-                            person.setOrder(ePerson.getAttribute(ORDER));
-                            person.setTitle(ePerson.getAttribute(TITLE));
-                            person.setUrl(ePerson.getAttribute(URL));
-                            person.setPhotoFilename(ePerson.getAttribute("photoFile"));
-                            person.setFilename(ePerson.getTextContent());
-
-                            // Get any "id_???" values
-                            for (int loopAttr = 0; loopAttr < ePerson.getAttributes().getLength(); loopAttr++) {
-                                Node nPersonAttr = ePerson.getAttributes().item(loopAttr);
-                                if (nPersonAttr.getNodeName().startsWith(ID)) {
-                                    String name = nPersonAttr.getNodeName().replace(ID, "");
-                                    person.setId(name, nPersonAttr.getNodeValue());
-                                }
-                            }
 
-                            String source = ePerson.getAttribute(SOURCE);
-                            if (StringTools.isValidString(source)) {
-                                person.setSource(source);
-                                if (person.getDepartment().equalsIgnoreCase(Filmography.DEPT_DIRECTING)) {
-                                    movie.setOverrideSource(OverrideFlag.PEOPLE_DIRECTORS, source);
-                                } else if (person.getDepartment().equalsIgnoreCase(Filmography.DEPT_WRITING)) {
-                                    movie.setOverrideSource(OverrideFlag.PEOPLE_WRITERS, source);
-                                } else if (person.getDepartment().equalsIgnoreCase(Filmography.DEPT_ACTORS)) {
-                                    movie.setOverrideSource(OverrideFlag.PEOPLE_ACTORS, source);
-                                }
-                            } else {
-                                person.setSource(Movie.UNKNOWN);
-                            }
-                            movie.addPerson(person);
-                        }
-                    }
-                }   // End of Cast
-
-                // Issue 2012: Financial information about movie
-                nlElements = eMovie.getElementsByTagName("business");
-                for (int looper = 0; looper < nlElements.getLength(); looper++) {
-                    nElements = nlElements.item(looper);
-                    if (nElements.getNodeType() == Node.ELEMENT_NODE) {
-                        Element eBusiness = (Element) nElements;
-                        movie.setBudget(eBusiness.getAttribute("budget"));
-
-                        Node nCountry;
-                        for (int loopBus = 0; loopBus < eBusiness.getChildNodes().getLength(); loopBus++) {
-                            nCountry = eBusiness.getChildNodes().item(loopBus);
-                            if (nCountry.getNodeType() == Node.ELEMENT_NODE) {
-                                Element eCountry = (Element) nCountry;
-                                if ("gross".equalsIgnoreCase(eCountry.getNodeName())) {
-                                    movie.setGross(eCountry.getAttribute(COUNTRY), eCountry.getTextContent());
-                                } else if ("openweek".equalsIgnoreCase(eCountry.getNodeName())) {
-                                    movie.setOpenWeek(eCountry.getAttribute(COUNTRY), eCountry.getTextContent());
-                                }
-                            }
-                        }   // End of budget info
-                    }
-                }   // End of business info
-
-                // Issue 2013: Add trivia
-                if (ENABLE_TRIVIA) {
-                    nlElements = eMovie.getElementsByTagName("trivia");
-                    for (int looper = 0; looper < nlElements.getLength(); looper++) {
-                        nElements = nlElements.item(looper);
-                        movie.addDidYouKnow(nElements.getTextContent());
+                    String attr = eFile.getAttribute(TITLE);
+                    if (StringTools.isValidString(attr)) {
+                        movieFile.setTitle(attr);
                     }
-                }   // End of trivia info
-
-                // Get the file list
-                nlElements = eMovie.getElementsByTagName("files");
-                if (nlElements.getLength() > 0) {
-                    nlElements = nlElements.item(0).getChildNodes();
-                    for (int looper = 0; looper < nlElements.getLength(); looper++) {
-                        nElements = nlElements.item(looper);
-                        if (nElements.getNodeType() == Node.ELEMENT_NODE) {
-                            Element eFile = (Element) nElements;
-                            MovieFile movieFile = new MovieFile();
-
-                            try {
-                                File mfFile = new File(DOMHelper.getValueFromElement(eFile, "fileLocation"));
-                                // Check to see if the file exists, or we are preserving the jukebox
-                                if (mfFile.exists() || MovieJukebox.isJukeboxPreserve()) {
-                                    // Save the file to the MovieFile
-                                    movieFile.setFile(mfFile);
-                                } else {
-                                    // We can't find this file anymore, so skip it.
-                                    LOG.debug("Missing video file in the XML file ({}), it may have been moved or no longer exist.", mfFile.getName());
-                                    continue;
-                                }
-                            } catch (Exception ignore) {
-                                // If there is an error creating the file then don't save anything
-                                LOG.debug("Failed parsing file {}", xmlFile.getName());
-                                continue;
-                            }
-
-                            String attr = eFile.getAttribute(TITLE);
-                            if (StringTools.isValidString(attr)) {
-                                movieFile.setTitle(attr);
-                            }
 
-                            attr = eFile.getAttribute(SEASON);
-                            if (StringUtils.isNumeric(attr)) {
-                                movieFile.setSeason(Integer.parseInt(attr));
-                            }
+                    attr = eFile.getAttribute(SEASON);
+                    if (StringUtils.isNumeric(attr)) {
+                        movieFile.setSeason(Integer.parseInt(attr));
+                    }
 
-                            attr = eFile.getAttribute("firstPart");
-                            if (StringUtils.isNumeric(attr)) {
-                                movieFile.setFirstPart(Integer.parseInt(attr));
-                            }
+                    attr = eFile.getAttribute("firstPart");
+                    if (StringUtils.isNumeric(attr)) {
+                        movieFile.setFirstPart(Integer.parseInt(attr));
+                    }
 
-                            attr = eFile.getAttribute("lastPart");
-                            if (StringUtils.isNumeric(attr)) {
-                                movieFile.setLastPart(Integer.parseInt(attr));
-                            }
+                    attr = eFile.getAttribute("lastPart");
+                    if (StringUtils.isNumeric(attr)) {
+                        movieFile.setLastPart(Integer.parseInt(attr));
+                    }
 
-                            attr = eFile.getAttribute("subtitlesExchange");
-                            if (StringTools.isValidString(attr)) {
-                                movieFile.setSubtitlesExchange(attr.equalsIgnoreCase(YES));
-                            }
+                    attr = eFile.getAttribute("subtitlesExchange");
+                    if (StringTools.isValidString(attr)) {
+                        movieFile.setSubtitlesExchange(attr.equalsIgnoreCase(YES));
+                    }
 
-                            movieFile.setFilename(DOMHelper.getValueFromElement(eFile, "fileURL"));
+                    movieFile.setFilename(eFile.getValue("fileURL"));
 
-                            if (DOMHelper.getValueFromElement(eFile, "fileArchiveName") != null) {
-                                movieFile.setArchiveName(DOMHelper.getValueFromElement(eFile, "fileArchiveName"));
-                            }
+                    if (eFile.getValue("fileArchiveName") != null) {
+                        movieFile.setArchiveName(eFile.getValue("fileArchiveName"));
+                    }
 
-                            // We need to get the part from the fileTitle
-                            NodeList nlFileParts = eFile.getElementsByTagName("fileTitle");
-                            if (nlFileParts.getLength() > 0) {
-                                for (int looperFile = 0; looperFile < nlFileParts.getLength(); looperFile++) {
-                                    Node nFileParts = nlFileParts.item(looperFile);
-                                    if (nFileParts.getNodeType() == Node.ELEMENT_NODE) {
-                                        Element eFileParts = (Element) nFileParts;
-                                        String part = eFileParts.getAttribute(PART);
-                                        String source = eFileParts.getAttribute(SOURCE);
-                                        if (StringUtils.isNumeric(part)) {
-                                            movieFile.setTitle(NumberUtils.toInt(part, 0), eFileParts.getTextContent(), source);
-                                        } else {
-                                            movieFile.setTitle(eFileParts.getTextContent(), source);
-                                        }
-                                    }
-                                }
-                            }
+                    // We need to get the part from the fileTitle
+                    for (XMLElement eFileParts : eFile.getElementsByTagName("fileTitle")) {
+                        String part = eFileParts.getAttribute(PART);
+                        String source = eFileParts.getAttribute(SOURCE);
+                        if (StringUtils.isNumeric(part)) {
+                            movieFile.setTitle(NumberUtils.toInt(part, 0), eFileParts.getTextContent(), source);
+                        } else {
+                            movieFile.setTitle(eFileParts.getTextContent(), source);
+                        }
+                    }
 
-                            // Get the airs info
-                            nlFileParts = eFile.getElementsByTagName("airsInfo");
-                            if (nlFileParts.getLength() > 0) {
-                                for (int looperFile = 0; looperFile < nlFileParts.getLength(); looperFile++) {
-                                    Node nFileParts = nlFileParts.item(looperFile);
-                                    if (nFileParts.getNodeType() == Node.ELEMENT_NODE) {
-                                        Element eFileParts = (Element) nFileParts;
-                                        int part = NumberUtils.toInt(eFileParts.getAttribute(PART), 1);
-
-                                        movieFile.setAirsAfterSeason(part, eFileParts.getAttribute("afterSeason"));
-                                        movieFile.setAirsBeforeEpisode(part, eFileParts.getAttribute("beforeEpisode"));
-                                        movieFile.setAirsBeforeSeason(part, eFileParts.getAttribute("beforeSeason"));
-                                    }
-                                }
-                            }
+                    // Get the airs info
+                    for (XMLElement eFileParts : eFile.getElementsByTagName("airsInfo")) {
+                        int part = NumberUtils.toInt(eFileParts.getAttribute(PART), 1);
 
-                            // Get first aired information
-                            nlFileParts = eFile.getElementsByTagName("firstAired");
-                            if (nlFileParts.getLength() > 0) {
-                                for (int looperFile = 0; looperFile < nlFileParts.getLength(); looperFile++) {
-                                    Node nFileParts = nlFileParts.item(looperFile);
-                                    if (nFileParts.getNodeType() == Node.ELEMENT_NODE) {
-                                        Element eFileParts = (Element) nFileParts;
-                                        int part = NumberUtils.toInt(eFileParts.getAttribute(PART), 1);
-                                        String source = eFileParts.getAttribute(SOURCE);
-                                        movieFile.setFirstAired(part, eFileParts.getTextContent(), source);
-                                    }
-                                }
-                            }
+                        movieFile.setAirsAfterSeason(part, eFileParts.getAttribute("afterSeason"));
+                        movieFile.setAirsBeforeEpisode(part, eFileParts.getAttribute("beforeEpisode"));
+                        movieFile.setAirsBeforeSeason(part, eFileParts.getAttribute("beforeSeason"));
+                    }
 
-                            // get the file plot
-                            nlFileParts = eFile.getElementsByTagName("filePlot");
-                            if (nlFileParts.getLength() > 0) {
-                                for (int looperFile = 0; looperFile < nlFileParts.getLength(); looperFile++) {
-                                    Node nFileParts = nlFileParts.item(looperFile);
-                                    if (nFileParts.getNodeType() == Node.ELEMENT_NODE) {
-                                        Element eFileParts = (Element) nFileParts;
-                                        int part = NumberUtils.toInt(eFileParts.getAttribute(PART), 1);
-                                        String source = eFileParts.getAttribute(SOURCE);
-                                        movieFile.setPlot(part, eFileParts.getTextContent(), source, Boolean.TRUE);
-                                    }
-                                }
-                            }
+                    // Get first aired information
+                    for (XMLElement eFileParts : eFile.getElementsByTagName("firstAired")) {
+                        int part = NumberUtils.toInt(eFileParts.getAttribute(PART), 1);
+                        String source = eFileParts.getAttribute(SOURCE);
+                        movieFile.setFirstAired(part, eFileParts.getTextContent(), source);
+                    }
 
-                            // get the file rating
-                            nlFileParts = eFile.getElementsByTagName("fileRating");
-                            if (nlFileParts.getLength() > 0) {
-                                for (int looperFile = 0; looperFile < nlFileParts.getLength(); looperFile++) {
-                                    Node nFileParts = nlFileParts.item(looperFile);
-                                    if (nFileParts.getNodeType() == Node.ELEMENT_NODE) {
-                                        Element eFileParts = (Element) nFileParts;
-                                        int part = NumberUtils.toInt(eFileParts.getAttribute(PART), 1);
-                                        String source = eFileParts.getAttribute(SOURCE);
-                                        movieFile.setRating(part, eFileParts.getTextContent(), source);
-                                    }
-                                }
-                            }
+                    // get the file plot
+                    for (XMLElement eFileParts : eFile.getElementsByTagName("filePlot")) {
+                        int part = NumberUtils.toInt(eFileParts.getAttribute(PART), 1);
+                        String source = eFileParts.getAttribute(SOURCE);
+                        movieFile.setPlot(part, eFileParts.getTextContent(), source, Boolean.TRUE);
+                    }
 
-                            // get the file image url
-                            nlFileParts = eFile.getElementsByTagName("fileImageURL");
-                            if (nlFileParts.getLength() > 0) {
-                                for (int looperFile = 0; looperFile < nlFileParts.getLength(); looperFile++) {
-                                    Node nFileParts = nlFileParts.item(looperFile);
-                                    if (nFileParts.getNodeType() == Node.ELEMENT_NODE) {
-                                        Element eFileParts = (Element) nFileParts;
-                                        int part = NumberUtils.toInt(eFileParts.getAttribute(PART), 1);
-                                        movieFile.setVideoImageURL(part, HTMLTools.decodeUrl(eFileParts.getTextContent()));
-                                    }
-                                }
-                            }
+                    // get the file rating
+                    for (XMLElement eFileParts : eFile.getElementsByTagName("fileRating")) {
+                        int part = NumberUtils.toInt(eFileParts.getAttribute(PART), 1);
+                        String source = eFileParts.getAttribute(SOURCE);
+                        movieFile.setRating(part, eFileParts.getTextContent(), source);
+                    }
 
-                            // get the file image filename
-                            nlFileParts = eFile.getElementsByTagName("fileImageFile");
-                            if (nlFileParts.getLength() > 0) {
-                                for (int looperFile = 0; looperFile < nlFileParts.getLength(); looperFile++) {
-                                    Node nFileParts = nlFileParts.item(looperFile);
-                                    if (nFileParts.getNodeType() == Node.ELEMENT_NODE) {
-                                        Element eFileParts = (Element) nFileParts;
-                                        int part = NumberUtils.toInt(eFileParts.getAttribute(PART), 1);
-                                        movieFile.setVideoImageFilename(part, HTMLTools.decodeUrl(eFileParts.getTextContent()));
-                                    }
-                                }
-                            }
+                    // get the file image url
+                    for (XMLElement eFileParts : eFile.getElementsByTagName("fileImageURL")) {
+                        int part = NumberUtils.toInt(eFileParts.getAttribute(PART), 1);
+                        movieFile.setVideoImageURL(part, HTMLTools.decodeUrl(eFileParts.getTextContent()));
+                    }
 
-                            // get the file IDs
-                            nlFileParts = eFile.getElementsByTagName("fileId");
-                            if (nlFileParts.getLength() > 0) {
-                                for (int looperFile = 0; looperFile < nlFileParts.getLength(); looperFile++) {
-                                    Node nFileParts = nlFileParts.item(looperFile);
-                                    if (nFileParts.getNodeType() == Node.ELEMENT_NODE) {
-                                        Element eFileParts = (Element) nFileParts;
-                                        int part = NumberUtils.toInt(eFileParts.getAttribute(PART), 1);
-                                        String source = eFileParts.getAttribute(SOURCE);
-                                        movieFile.setId(part, source, eFileParts.getTextContent());
-                                    }
-                                }
-                            }
+                    // get the file image filename
+                    for (XMLElement eFileParts : eFile.getElementsByTagName("fileImageFile")) {
+                        int part = NumberUtils.toInt(eFileParts.getAttribute(PART), 1);
+                        movieFile.setVideoImageFilename(part, HTMLTools.decodeUrl(eFileParts.getTextContent()));
+                    }
 
-                            NodeList nlAttachments = eMovie.getElementsByTagName("attachments");
-                            if (nlAttachments.getLength() > 0) {
-                                nlAttachments = nlAttachments.item(0).getChildNodes();
-                                for (int looperAtt = 0; looperAtt < nlAttachments.getLength(); looperAtt++) {
-                                    Node nAttachment = nlAttachments.item(looperAtt);
-                                    if (nAttachment.getNodeType() == Node.ELEMENT_NODE) {
-                                        Element eAttachment = (Element) nAttachment;
-                                        Attachment attachment = new Attachment();
-                                        attachment.setType(AttachmentType.fromString(eAttachment.getAttribute("type")));
-                                        attachment.setAttachmentId(Integer.parseInt(DOMHelper.getValueFromElement(eAttachment, "attachmentId")));
-                                        attachment.setContentType(ContentType.fromString(DOMHelper.getValueFromElement(eAttachment, "contentType")));
-                                        attachment.setMimeType(DOMHelper.getValueFromElement(eAttachment, "mimeType"));
-                                        attachment.setPart(Integer.parseInt(DOMHelper.getValueFromElement(eAttachment, "part")));
-                                        attachment.setSourceFile(movieFile.getFile());
-                                        movieFile.addAttachment(attachment);
-                                    }
-                                }
-                            }
+                    // get the file IDs
+                    for (XMLElement eFileParts : eFile.getElementsByTagName("fileId")) {
+                        int part = NumberUtils.toInt(eFileParts.getAttribute(PART), 1);
+                        String source = eFileParts.getAttribute(SOURCE);
+                        movieFile.setId(part, source, eFileParts.getTextContent());
+                    }
 
-                            // Parse watched 
-                            String watchedDateString = DOMHelper.getValueFromElement(eFile, "watchedDate");
-                            final long watchedDate;
-                            if (StringTools.isNotValidString(watchedDateString)) {
-                                watchedDate = 0;
-                            } else {
-                                // strip milliseconds
-                                Calendar cal = Calendar.getInstance();
-                                cal.setTimeInMillis(DateTime.parse(watchedDateString).toMillis());
-                                cal.set(Calendar.MILLISECOND, 0);
-                                watchedDate = cal.getTimeInMillis();
-                            }
-                            final boolean watched = Boolean.parseBoolean(eFile.getAttribute("watched"));
-                            movieFile.setWatched(watched, watchedDate);
-                            
-                            // This is not a new file
-                            movieFile.setNewFile(Boolean.FALSE);
-
-                            // Add the movie file to the movie
-                            movie.addMovieFile(movieFile);
+                    XMLElement eAttachments = eMovie.getElementByName("attachments");
+                    if (eAttachments != null) {
+                        for (XMLElement eAttachment : eAttachments.getChildElements()) {
+                            Attachment attachment = new Attachment();
+                            attachment.setType(AttachmentType.fromString(eAttachment.getAttribute("type")));
+                            attachment.setAttachmentId(Integer.parseInt(eAttachment.getValue("attachmentId")));
+                            attachment.setContentType(ContentType.fromString(eAttachment.getValue("contentType")));
+                            attachment.setMimeType(eAttachment.getValue("mimeType"));
+                            attachment.setPart(Integer.parseInt(eAttachment.getValue("part")));
+                            attachment.setSourceFile(movieFile.getFile());
+                            movieFile.addAttachment(attachment);
                         }
                     }
-                }   // END of files
-
-                // Get the extra list
-                nlElements = eMovie.getElementsByTagName("extras");
-                if (nlElements.getLength() > 0) {
-                    nlElements = nlElements.item(0).getChildNodes();
-                    for (int looper = 0; looper < nlElements.getLength(); looper++) {
-                        nElements = nlElements.item(looper);
-                        if (nElements.getNodeType() == Node.ELEMENT_NODE) {
-                            Element eExtra = (Element) nElements;
-
-                            String extraTitle = eExtra.getAttribute(TITLE);
-                            String extraFilename = eExtra.getTextContent();
-
-                            if (!extraTitle.isEmpty() && !extraFilename.isEmpty()) {
-                                boolean exist = Boolean.FALSE;
-                                if (extraFilename.startsWith("http:")) {
-                                    // This is a URL from a NFO file
-                                    ExtraFile ef = new ExtraFile();
-                                    ef.setNewFile(Boolean.FALSE);
-                                    ef.setTitle(extraTitle);
-                                    ef.setFilename(extraFilename);
-                                    movie.addExtraFile(ef, Boolean.FALSE);  // Add to the movie, but it's not dirty
-                                    exist = Boolean.TRUE;
-                                } else {
-                                    // Check for existing files
-                                    for (ExtraFile ef : movie.getExtraFiles()) {
-                                        // Check if the movie has already the extra file
-                                        if (ef.getFilename().equals(extraFilename)) {
-                                            exist = Boolean.TRUE;
-                                            // the extra file is old
-                                            ef.setNewFile(Boolean.FALSE);
-                                            break;
-                                        }
-                                    }
-                                }
 
-                                if (!exist) {
-                                    // the extra file has been deleted so force the dirty flag
-                                    forceDirtyFlag = Boolean.TRUE;
+                    // Parse watched 
+                    String watchedDateString = eFile.getValue("watchedDate");
+                    final long watchedDate;
+                    if (StringTools.isNotValidString(watchedDateString)) {
+                        watchedDate = 0;
+                    } else {
+                        // strip milliseconds
+                        Calendar cal = Calendar.getInstance();
+                        cal.setTimeInMillis(DateTime.parse(watchedDateString).toMillis());
+                        cal.set(Calendar.MILLISECOND, 0);
+                        watchedDate = cal.getTimeInMillis();
+                    }
+                    final boolean watched = Boolean.parseBoolean(eFile.getAttribute("watched"));
+                    movieFile.setWatched(watched, watchedDate);
+                    
+                    // This is not a new file
+                    movieFile.setNewFile(Boolean.FALSE);
+
+                    // Add the movie file to the movie
+                    movie.addMovieFile(movieFile);
+                }
+            }   // END of files
+
+            // Get the extra list
+            tagElement = eMovie.getElementByName("extras");
+            if (tagElement != null) {
+                for (XMLElement eExtra : tagElement.getChildElements()) {
+                    String extraTitle = eExtra.getAttribute(TITLE);
+                    String extraFilename = eExtra.getTextContent();
+
+                    if (!extraTitle.isEmpty() && !extraFilename.isEmpty()) {
+                        boolean exist = Boolean.FALSE;
+                        if (extraFilename.startsWith("http:")) {
+                            // This is a URL from a NFO file
+                            ExtraFile ef = new ExtraFile();
+                            ef.setNewFile(Boolean.FALSE);
+                            ef.setTitle(extraTitle);
+                            ef.setFilename(extraFilename);
+                            movie.addExtraFile(ef, Boolean.FALSE);  // Add to the movie, but it's not dirty
+                            exist = Boolean.TRUE;
+                        } else {
+                            // Check for existing files
+                            for (ExtraFile ef : movie.getExtraFiles()) {
+                                // Check if the movie has already the extra file
+                                if (ef.getFilename().equals(extraFilename)) {
+                                    exist = Boolean.TRUE;
+                                    // the extra file is old
+                                    ef.setNewFile(Boolean.FALSE);
+                                    break;
                                 }
                             }
                         }
-                    }
-                }   // END of extras
 
-            }   // End of ELEMENT_NODE
+                        if (!exist) {
+                            // the extra file has been deleted so force the dirty flag
+                            forceDirtyFlag = Boolean.TRUE;
+                        }
+                    }
+                }
+            }   // END of extras
         }   // End of Movie Loop
 
         // This is a new movie, so clear the current dirty flags
@@ -997,103 +859,103 @@ public class MovieJukeboxXMLReader {
         return Boolean.FALSE;
     }
 
-    private void parseOverridableAspectRatio(Movie movie, Element element) {
+    private void parseOverridableAspectRatio(Movie movie, XMLElement element) {
         OverridableValue ov = new OverridableValue(element, "aspect");
         movie.setAspectRatio(ASPECT_TOOLS.cleanAspectRatio(ov.getValue()), ov.getSource());
     }
 
-    private void parseOverridableCertification(Movie movie, Element element) {
+    private void parseOverridableCertification(Movie movie, XMLElement element) {
         OverridableValue ov = new OverridableValue(element, "certification");
         movie.setCertification(ov.getValue(), ov.getSource());
     }
 
-    private void parseOverridableCompany(Movie movie, Element element) {
+    private void parseOverridableCompany(Movie movie, XMLElement element) {
         OverridableValue ov = new OverridableValue(element, "company");
         movie.setCompany(ov.getValue(), ov.getSource());
     }
 
-    private void parseOverridableContainer(Movie movie, Element element) {
+    private void parseOverridableContainer(Movie movie, XMLElement element) {
         OverridableValue ov = new OverridableValue(element, "container");
         movie.setContainer(ov.getValue(), ov.getSource());
     }
 
-    private void parseOverridableCountry(Movie movie, Element element) {
+    private void parseOverridableCountry(Movie movie, XMLElement element) {
         OverridableValue ov = new OverridableValue(element, "country");
         movie.setCountries(ov.getValue(), ov.getSource());
     }
 
-    private void parseOverridableFramesPerSecond(Movie movie, Element element) {
+    private void parseOverridableFramesPerSecond(Movie movie, XMLElement element) {
         OverridableValue ov = new OverridableValue(element, "fps");
         float fps = NumberUtils.toFloat(ov.getValue(), 0.0f);
         movie.setFps(fps, ov.getSource());
     }
 
-    private void parseOverridableLanguage(Movie movie, Element element) {
+    private void parseOverridableLanguage(Movie movie, XMLElement element) {
         OverridableValue ov = new OverridableValue(element, LANGUAGE);
         movie.setLanguage(ov.getValue(), ov.getSource());
     }
 
-    private void parseOverridableOriginalTitle(Movie movie, Element element) {
+    private void parseOverridableOriginalTitle(Movie movie, XMLElement element) {
         OverridableValue ov = new OverridableValue(element, ORIGINAL_TITLE);
         movie.setOriginalTitle(ov.getValue(), ov.getSource());
     }
 
-    private void parseOverridableOutline(Movie movie, Element element) {
+    private void parseOverridableOutline(Movie movie, XMLElement element) {
         OverridableValue ov = new OverridableValue(element, "outline");
         movie.setOutline(ov.getValue(), ov.getSource(), Boolean.FALSE);
     }
 
-    private void parseOverridablePlot(Movie movie, Element element) {
+    private void parseOverridablePlot(Movie movie, XMLElement element) {
         OverridableValue ov = new OverridableValue(element, "plot");
         movie.setPlot(ov.getValue(), ov.getSource(), Boolean.FALSE);
     }
 
-    private void parseOverridableQuote(Movie movie, Element element) {
+    private void parseOverridableQuote(Movie movie, XMLElement element) {
         OverridableValue ov = new OverridableValue(element, "quote");
         movie.setQuote(ov.getValue(), ov.getSource());
     }
 
-    private void parseOverridableReleaseDate(Movie movie, Element element) {
+    private void parseOverridableReleaseDate(Movie movie, XMLElement element) {
         OverridableValue ov = new OverridableValue(element, "releaseDate");
         movie.setReleaseDate(ov.getValue(), ov.getSource());
     }
 
-    private void parseOverridableResolution(Movie movie, Element element) {
+    private void parseOverridableResolution(Movie movie, XMLElement element) {
         OverridableValue ov = new OverridableValue(element, "resolution");
         movie.setResolution(ov.getValue(), ov.getSource());
     }
 
-    private void parseOverridableRuntime(Movie movie, Element element) {
+    private void parseOverridableRuntime(Movie movie, XMLElement element) {
         OverridableValue ov = new OverridableValue(element, "runtime");
         movie.setRuntime(ov.getValue(), ov.getSource());
     }
 
-    private void parseOverridableTagline(Movie movie, Element element) {
+    private void parseOverridableTagline(Movie movie, XMLElement element) {
         OverridableValue ov = new OverridableValue(element, "tagline");
         movie.setTagline(ov.getValue(), ov.getSource());
     }
 
-    private void parseOverridableTitle(Movie movie, Element element) {
+    private void parseOverridableTitle(Movie movie, XMLElement element) {
         OverridableValue ov = new OverridableValue(element, TITLE);
         movie.setTitle(ov.getValue(), ov.getSource());
     }
 
-    private void parseOverridableTop250(Movie movie, Element element) {
+    private void parseOverridableTop250(Movie movie, XMLElement element) {
         OverridableValue ov = new OverridableValue(element, "top250");
         movie.setTop250(ov.getValue(), ov.getSource());
     }
 
-    private void parseOverridableVideoOutput(Movie movie, Element element) {
+    private void parseOverridableVideoOutput(Movie movie, XMLElement element) {
         OverridableValue ov = new OverridableValue(element, "videoOutput");
         movie.setVideoOutput(ov.getValue(), ov.getSource());
     }
 
-    private void parseOverridableVideoSource(Movie movie, Element element) {
+    private void parseOverridableVideoSource(Movie movie, XMLElement element) {
         OverridableValue ov = new OverridableValue(element, "videoSource");
         movie.setVideoSource(ov.getValue(), ov.getSource());
     }
 
-    private void parseOverridableYear(Movie movie, Element element) {
+    private void parseOverridableYear(Movie movie, XMLElement element) {
         OverridableValue ov = new OverridableValue(element, YEAR);
         movie.setYear(ov.getValue(), ov.getValue());
     }
@@ -1106,22 +968,14 @@ public class MovieJukeboxXMLReader {
         private String value = "";
         private String source = "";
 
-        public OverridableValue(Element element, String tagName) {
-            NodeList nlElement = element.getElementsByTagName(tagName);
-            if (nlElement != null && nlElement.getLength() > 0) {
-                Element tagElement = (Element) nlElement.item(0);
+        public OverridableValue(XMLElement element, String tagName) {
+            XMLElement tagElement = element.getElementByName(tagName);
 
-                // Get the value if it exists
-                if (tagElement.getChildNodes() != null && tagElement.getChildNodes().getLength() > 0) {
-                    try {
-                        value = (tagElement.getChildNodes().item(0)).getNodeValue();
-                        // Get the source
-                        source = tagElement.getAttribute(SOURCE);
-                    } catch (DOMException ex) {
-                        // Log the error but otherwise ignore it
-                        LOG.trace("Failed getting '{}': {}", tagName, ex.getMessage(), ex);
-                    }
-                }
+            // Get the value if it exists
+            if (tagElement != null && tagElement.hasChildNodes()) {
+                value = tagElement.getFirstChildValue();
+                // Get the source
+                source = tagElement.getAttribute(SOURCE);
             }
         }
 
@@ -33,13 +33,18 @@ import com.moviejukebox.tools.FileTools;
 import com.moviejukebox.tools.HTMLTools;
 import com.moviejukebox.tools.OverrideTools;
 import com.moviejukebox.tools.PropertiesUtil;
+import com.moviejukebox.tools.ScanStateIndex;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.commons.lang3.StringUtils;
@@ -57,8 +62,8 @@ public class MovieDirectoryScanner {
 
     private static final String SOURCE_FILENAME = "filename";
     private static final Logger LOG = LoggerFactory.getLogger(MovieDirectoryScanner.class);
-    private static int dirCount = 1;
-    private static int fileCount = 0;
+    private static final AtomicInteger DIR_COUNT = new AtomicInteger(1);
+    private static final AtomicInteger FILE_COUNT = new AtomicInteger(0);
     private static final Pattern PATTERN_RAR_PART = Pattern.compile("\\.part(\\d+)\\.rar");
 
     private int mediaLibraryRootPathIndex; // always includes path delimiter
@@ -76,6 +81,7 @@ public class MovieDirectoryScanner {
     private final Boolean excludeMultiPartBluRay;
     private final Boolean playFullBluRayDisk;
     private final Boolean nmjCompliant;
+    private final String jukeboxName;
 
     // BD rip infos Scanner
     private final BDRipScanner localBDRipScanner;
@@ -83,7 +89,22 @@ public class MovieDirectoryScanner {
     // Archived virtual directories (f.ex. rar, zip, tar.gz etc.)
     private IArchiveScanner[] archiveScanners;
 
+    // Pool used to walk the sub-directories in parallel, null for a serial walk
+    private final ForkJoinPool walkerPool;
+
     public MovieDirectoryScanner() {
+        this(null);
+    }
+
+    /**
+     * Create a directory scanner that walks the sub-directories in parallel using the pool.
+     *
+     * Note: The order in which the videos are added to the library is not defined when scanning in parallel
+     *
+     * @param walkerPool the pool to use or null to walk the directories serially
+     */
+    public MovieDirectoryScanner(ForkJoinPool walkerPool) {
+        this.walkerPool = walkerPool;
         supportedExtensions.addAll(Arrays.asList(PropertiesUtil.getProperty("mjb.extensions", "AVI DIVX MKV WMV M2TS TS RM QT ISO VOB MPG MOV").toUpperCase().split(" ")));
         thumbnailsFormat = PropertiesUtil.getProperty("thumbnails.format", "png");
         postersFormat = PropertiesUtil.getProperty("posters.format", "png");
@@ -98,6 +119,7 @@ public class MovieDirectoryScanner {
         hashpathdepth = PropertiesUtil.getIntProperty("mjb.scanner.hashpathdepth", 0);
         playFullBluRayDisk = PropertiesUtil.getBooleanProperty("mjb.playFullBluRayDisk", Boolean.FALSE);
         nmjCompliant = PropertiesUtil.getBooleanProperty("mjb.nmjCompliant", Boolean.FALSE);
+        jukeboxName = PropertiesUtil.getProperty("mjb.detailsDirName", "Jukebox");
 
         localBDRipScanner = new BDRipScanner();
     }
@@ -122,7 +144,11 @@ public class MovieDirectoryScanner {
         // including path delimiter
         mediaLibraryRootPathIndex = FileTools.getDirPathWithSeparator(mediaLibraryRoot).length();
 
-        this.scanDirectory(srcPath, directory, library);
+        if (walkerPool == null) {
+            this.scanDirectory(srcPath, directory, library);
+        } else {
+            walkerPool.invoke(new DirectoryWalker(srcPath, directory, library));
+        }
         return library;
     }
 
@@ -134,6 +160,18 @@ public class MovieDirectoryScanner {
      * @param collection
      */
     protected void scanDirectory(MediaLibraryPath srcPath, File directory, Library collection) {
+        scanDirectory(srcPath, directory, collection, null);
+    }
+
+    /**
+     * Scan the directory for video files
+     *
+     * @param srcPath
+     * @param directory
+     * @param collection
+     * @param subDirectories if not null, the sub-directories are added to this list instead of being scanned recursively
+     */
+    private void scanDirectory(MediaLibraryPath srcPath, File directory, Library collection, List<File> subDirectories) {
         FileTools.fileCache.fileAdd(directory);
         if (directory.isFile()) {
             scanFile(srcPath, directory, collection);
@@ -145,13 +183,12 @@ public class MovieDirectoryScanner {
                 return;
             }
 
-            File[] files = directory.listFiles();
+            // restored from the scan state index if the directory hasn't changed since the last run
+            File[] files = ScanStateIndex.listFiles(directory);
 
-            if (files != null) {
-                fileCount += files.length;
-            }
+            int totalFiles = FILE_COUNT.addAndGet(files == null ? 0 : files.length);
 
-            System.out.print("\r    Scanning directory #" + dirCount++ + ", " + fileCount + " files scanned");
+            System.out.print("\r    Scanning directory #" + DIR_COUNT.getAndIncrement() + ", " + totalFiles + " files scanned");
 
             if (files != null && files.length > 0) {
                 List<File> fileList = Arrays.asList(files);
@@ -188,7 +225,11 @@ public class MovieDirectoryScanner {
                         } else if (file.isDirectory() && "BDMV".equalsIgnoreCase(file.getName())) {
                             scanFile(srcPath, file.getParentFile(), collection);
                         } else if (file.isDirectory()) {
-                            scanDirectory(srcPath, file, collection);
+                            if (subDirectories == null) {
+                                scanDirectory(srcPath, file, collection);
+                            } else {
+                                subDirectories.add(file);
+                            }
                         } else {
                             scanFile(srcPath, file, collection);
                         }
@@ -198,6 +239,37 @@ public class MovieDirectoryScanner {
         }
     }
 
+    /**
+     * Fork/join task to scan a directory, each sub-directory is scanned by its own task
+     */
+    private class DirectoryWalker extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final MediaLibraryPath srcPath;
+        private final File directory;
+        private final Library library;
+
+        public DirectoryWalker(MediaLibraryPath srcPath, File directory, Library library) {
+            this.srcPath = srcPath;
+            this.directory = directory;
+            this.library = library;
+        }
+
+        @Override
+        protected void compute() {
+            List<File> subDirectories = new ArrayList<>();
+            scanDirectory(srcPath, directory, library, subDirectories);
+
+            if (!subDirectories.isEmpty()) {
+                List<DirectoryWalker> walkers = new ArrayList<>(subDirectories.size());
+                for (File subDirectory : subDirectories) {
+                    walkers.add(new DirectoryWalker(srcPath, subDirectory, library));
+                }
+                invokeAll(walkers);
+            }
+        }
+    }
+
     /**
      * Checks the file or directory passed to determine if it should be excluded
      * from the scan
@@ -237,30 +309,13 @@ public class MovieDirectoryScanner {
         String relativeFilename = file.getAbsolutePath().substring(mediaLibraryRootPathIndex);
 
         String relativeFileNameLower = relativeFilename.toLowerCase();
-        String jukeboxName = PropertiesUtil.getProperty("mjb.detailsDirName", "Jukebox");
-
-        for (String excluded : srcPath.getExcludes()) {
-            if (excluded.length() > 0) {
-                try {
-                    Pattern excludePatt = Pattern.compile(excluded, Pattern.CASE_INSENSITIVE);
-                    if (excludePatt.matcher(relativeFileNameLower).find()) {
-                        LOG.debug("{} '{}' excluded.", isDirectory ? "Directory" : "File", relativeFilename);
-                        return true;
-                    }
-                } catch (Exception error) {
-                    LOG.info("Error processing exclusion pattern: {}, {}", excluded, error.getMessage());
-                }
 
-                excluded = excluded.replace("/", File.separator);
-                excluded = excluded.replace("\\", File.separator);
-                if (relativeFileNameLower.contains(excluded.toLowerCase())) {
-                    // Don't print a message for the exclusion of Jukebox files
-                    if (!relativeFileNameLower.contains(jukeboxName)) {
-                        LOG.debug("{} '{}' excluded.", isDirectory ? "Directory" : "File", relativeFilename);
-                    }
-                    return true;
-                }
+        if (srcPath.getExclusionMatcher().isExcluded(relativeFileNameLower)) {
+            // Don't print a message for the exclusion of Jukebox files
+            if (!relativeFileNameLower.contains(jukeboxName)) {
+                LOG.debug("{} '{}' excluded.", isDirectory ? "Directory" : "File", relativeFilename);
             }
+            return true;
         }
 
         // Handle special case of RARs. If ".rar", and it is ".partXXX.rar"
@@ -442,6 +497,7 @@ public class MovieDirectoryScanner {
             }
 
             library.addMovie(movie);
+            ScanStateIndex.setLibraryKey(file, Library.getMovieKey(movie));
 
             // Stop after first file part if full BluRay Disk
             if (isBluRay && playFullBluRayDisk) {
@@ -461,7 +517,7 @@ public class MovieDirectoryScanner {
     private long calculateFileSize(File file) {
         long total = 0;
         if (file.isDirectory()) {
-            File[] listFiles = file.listFiles();
+            File[] listFiles = ScanStateIndex.listFiles(file);
             // Check for empty directories
             if (listFiles != null && listFiles.length > 0) {
                 for (File fileTmp : listFiles) {
@@ -46,6 +46,8 @@ public class TrailerScanner {
     private static final long MILLIS_IN_DAY = 1000 * 60 * 60 * 24; // Milliseconds * Seconds * Minutes * Hours
     // Convert trailers.rescan.days from DAYS to MILLISECONDS for comparison purposes
     private static final long RESCAN_DAYS_MILLIS = PropertiesUtil.getLongProperty("trailers.rescan.days", 15) * MILLIS_IN_DAY;
+    // Unfinished downloads that were not continued for this many days are deleted, even if no site could be checked
+    private static final long PARTIAL_KEEP_MILLIS = PropertiesUtil.getLongProperty("trailers.download.keepDays", 30) * MILLIS_IN_DAY;
     private static final boolean SCANNER_ENABLE = PropertiesUtil.getBooleanProperty("trailers.scanner.enable", Boolean.TRUE);
     private static final String TRAILERS_SCANNER = PropertiesUtil.getProperty("trailers.scanner", "apple");
     private String trailerPluginList = Movie.UNKNOWN;
@@ -89,6 +91,12 @@ public class TrailerScanner {
             return Boolean.TRUE;
         }
 
+        // Continue an interrupted download, even if the trailers were checked recently
+        if (TRAILERS_PLUGIN.hasPartialDownload(movie)) {
+            LOG.debug("Movie {} has an unfinished trailer download, rescanning", movie.getBaseName());
+            return Boolean.TRUE;
+        }
+
         // Check if this movie was already checked for trailers
         if (movie.isTrailerExchange()) {
             LOG.debug("Movie {} has previously been checked for trailers, skipping.", movie.getBaseName());
@@ -112,6 +120,7 @@ public class TrailerScanner {
 
         boolean result = Boolean.FALSE;
         String trailersSearchToken;
+        long started = System.currentTimeMillis();
 
         StringTokenizer st = new StringTokenizer(TRAILERS_SCANNER, ",");
         while (st.hasMoreTokens() && !result) {
@@ -124,6 +133,14 @@ public class TrailerScanner {
             }
         }
 
+        // The unfinished downloads that were not continued, although a site offered trailers, will not be finished anymore.
+        // If no site offered any, it may just not have been reachable, so they are only deleted when they are too old
+        if (result) {
+            TRAILERS_PLUGIN.deleteStaleDownloads(movie, started);
+        } else {
+            TRAILERS_PLUGIN.deleteStaleDownloads(movie, started - PARTIAL_KEEP_MILLIS);
+        }
+
         // Update trailerExchange
         if (result == Boolean.FALSE) {
             // Set trailerExchange to true if trailersRescanDaysMillis is < 0 (disable)
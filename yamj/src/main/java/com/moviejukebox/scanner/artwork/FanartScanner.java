@@ -194,8 +194,8 @@ public final class FanartScanner {
             String finalDestinationFileName = StringTools.appendToPath(jukebox.getJukeboxRootLocationDetails(), fanartFilename);
             String destFileName = StringTools.appendToPath(jukebox.getJukeboxTempLocationDetails(), fanartFilename);
 
-            File finalDestinationFile = FileTools.fileCache.getFile(finalDestinationFileName);
-            File fullFanartFile = new File(fullFanartFilename);
+            File finalDestinationFile = new File(finalDestinationFileName);
+            File fullFanartFile = FileTools.fileCache.getFile(fullFanartFilename);
 
             // Local Fanart is newer OR ForceFanartOverwrite OR DirtyFanart
             // Can't check the file size because the jukebox fanart may have been re-sized
@@ -26,8 +26,6 @@ import java.awt.Dimension;
 import java.awt.color.CMMException;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -41,7 +39,6 @@ import javax.imageio.ImageIO;
 import javax.imageio.ImageReader;
 import javax.imageio.stream.ImageInputStream;
 
-import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,6 +54,7 @@ import com.moviejukebox.plugin.poster.IPosterPlugin;
 import com.moviejukebox.plugin.poster.ITvShowPosterPlugin;
 import com.moviejukebox.scanner.AttachmentScanner;
 import com.moviejukebox.tools.FileTools;
+import com.moviejukebox.tools.ImageFetcher;
 import com.moviejukebox.tools.PropertiesUtil;
 import com.moviejukebox.tools.StringTools;
 
@@ -455,66 +453,30 @@ public final class PosterScanner {
     /**
      * Read an URL and get the dimensions of the image.
      *
-     * This will try to determine the image type from the URL, if that fails
-     * then it will default to JPEG.
-     *
-     * If the reading of the image fails, then the other type (PNG or JPEG) will
-     * be used instead in case there was an incorrectly named extension
+     * The image is fetched once and kept for the download of the image, the type of the image is determined from its content.
      *
      * @param imageUrl
      * @return
      */
     public static Dimension getUrlDimensions(String imageUrl) {
-        String imageExtension = FilenameUtils.getExtension(imageUrl);
-        if (StringUtils.isBlank(imageExtension)) {
-            imageExtension = "jpeg";
-        }
-
-        Dimension imageDimension = getUrlDimensions(imageUrl, imageExtension);
-
-        if (imageDimension.equals(new Dimension(0, 0))) {
-            LOG.info("Looks like an invalid image, trying a different reader for URL: {}", imageUrl);
-            if ("png".equals(imageExtension)) {
-                imageExtension = "jpeg";
-            } else {
-                imageExtension = "png";
-            }
-            imageDimension = getUrlDimensions(imageUrl, imageExtension);
-        }
-
-        return imageDimension;
+        return ImageFetcher.getDimensions(imageUrl);
     }
 
     /**
      * Read an URL and get the dimensions of the image using a specific image
-     * type
+     * type if the type can't be determined from the content
      *
      * @param imageUrl
      * @param imageType
      * @return
      */
     public static Dimension getUrlDimensions(String imageUrl, String imageType) {
-        Dimension imageDimension = new Dimension(0, 0);
-
-        @SuppressWarnings("rawtypes")
-        Iterator readers = ImageIO.getImageReadersBySuffix(imageType);
-
-        if (readers.hasNext()) {
-            ImageReader reader = (ImageReader) readers.next();
-
-            try (InputStream in = new URL(imageUrl).openStream();
-                 ImageInputStream iis = ImageIO.createImageInputStream(in))
-            {
-                reader.setInput(iis, Boolean.TRUE);
-                imageDimension.setSize(reader.getWidth(0), reader.getHeight(0));
-            } catch (IOException ex) {
-                LOG.debug("getUrlDimensions error: {}: can't open url: {}", ex.getMessage(), imageUrl);
-            } finally {
-                reader.dispose();
-            }
+        byte[] imageBytes = ImageFetcher.fetch(imageUrl);
+        if (imageBytes == null) {
+            LOG.debug("getUrlDimensions error: can't open url: {}", imageUrl);
+            return new Dimension(0, 0);
         }
-
-        return imageDimension;
+        return ImageFetcher.readDimensions(imageBytes, imageType);
     }
 
     public static void register(String key, IPosterPlugin posterPlugin) {
@@ -69,6 +69,13 @@ public final class DOMHelper {
     private static final String DEFAULT_RETURN = "";
     private static final String YES = "yes";
     private static final String TYPE_ROOT = "xml";
+    // Looking up the factory is expensive and the factory is not thread safe, so keep one per thread
+    private static final ThreadLocal<DocumentBuilderFactory> BUILDER_FACTORY = new ThreadLocal<DocumentBuilderFactory>() {
+        @Override
+        protected DocumentBuilderFactory initialValue() {
+            return DocumentBuilderFactory.newInstance();
+        }
+    };
 
     private DOMHelper() {
         throw new UnsupportedOperationException("Class cannot be instantiated");
@@ -156,8 +163,7 @@ public final class DOMHelper {
      * @throws ParserConfigurationException
      */
     public static Document createDocument() throws ParserConfigurationException {
-        DocumentBuilderFactory dbfac = DocumentBuilderFactory.newInstance();
-        DocumentBuilder docBuilder = dbfac.newDocumentBuilder();
+        DocumentBuilder docBuilder = BUILDER_FACTORY.get().newDocumentBuilder();
         return docBuilder.newDocument();
     }
 
@@ -171,11 +177,8 @@ public final class DOMHelper {
      * @throws java.io.IOException
      */
     public static Document getDocFromString(String docString) throws ParserConfigurationException, SAXException, IOException {
-        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
         InputSource is = new InputSource(new StringReader(docString));
-        DocumentBuilder db;
-
-        db = dbf.newDocumentBuilder();
+        DocumentBuilder db = BUILDER_FACTORY.get().newDocumentBuilder();
         return db.parse(is);
     }
 
@@ -190,8 +193,7 @@ public final class DOMHelper {
      */
     public static Document getDocFromFile(File xmlFile) throws ParserConfigurationException, SAXException, IOException {
         URL url = xmlFile.toURI().toURL();
-        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-        DocumentBuilder db = dbf.newDocumentBuilder();
+        DocumentBuilder db = BUILDER_FACTORY.get().newDocumentBuilder();
         Document doc;
 
         // Custom error handler
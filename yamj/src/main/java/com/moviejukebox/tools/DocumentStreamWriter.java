@@ -0,0 +1,445 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stream.StreamResult;
+import net.sf.saxon.event.ReceivingContentHandler;
+import net.sf.saxon.trans.XPathException;
+import org.apache.commons.io.FileUtils;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Streaming writer for XML files.
+ *
+ * The output is passed to the same serializer with the same settings as DOMHelper.writeDocumentToFile, so the written file is
+ * the same as the file written from a Document with the same content, but without holding the whole document in memory. As
+ * in a Document, the attributes of an element are written in order of their name, and an element with an empty value is
+ * written as &lt;name&gt;&lt;/name&gt; while an element without children is written as &lt;name/&gt;. The empty value
+ * relies on the Saxon serializer, other serializers write both as &lt;name/&gt;.
+ *
+ * The output goes to a temporary file next to the target, which only replaces the target when the writer is closed after
+ * writeEndDocument. A failure part way through leaves the previous file in place instead of a truncated one.
+ *
+ * Namespaces, processing instructions, DTDs and entity references are not supported.
+ */
+public class DocumentStreamWriter implements XMLStreamWriter, AutoCloseable {
+
+    private static final String CDATA = "CDATA";
+    private static final String TEMP_EXTENSION = ".tmp";
+    private final File xmlFile;
+    private final File tempFile;
+    private final OutputStream outputStream;
+    private final TransformerHandler handler;
+    private final Deque<String> openElements = new ArrayDeque<>();
+    private String pendingElement = null;
+    private boolean pendingEmpty = false;
+    private final Map<String, String> pendingAttributes = new TreeMap<>();
+    private boolean complete = false;
+
+    /**
+     * Create a writer for the file
+     *
+     * @param xmlFile
+     * @throws XMLStreamException
+     */
+    public DocumentStreamWriter(File xmlFile) throws XMLStreamException {
+        try {
+            TransformerFactory factory = TransformerFactory.newInstance();
+            if (!factory.getFeature(SAXTransformerFactory.FEATURE)) {
+                throw new XMLStreamException("Transformer factory " + factory.getClass().getName() + " does not support SAX");
+            }
+            handler = ((SAXTransformerFactory) factory).newTransformerHandler();
+        } catch (TransformerConfigurationException ex) {
+            throw new XMLStreamException("Failed to create the XML serializer", ex);
+        }
+
+        Transformer trans = handler.getTransformer();
+        trans.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no");
+        trans.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+        trans.setOutputProperty(OutputKeys.INDENT, "yes");
+        trans.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4");
+
+        this.xmlFile = xmlFile;
+        this.tempFile = new File(xmlFile.getPath() + TEMP_EXTENSION);
+        try {
+            outputStream = new BufferedOutputStream(new FileOutputStream(tempFile));
+        } catch (IOException ex) {
+            throw new XMLStreamException("Failed to open " + tempFile.getAbsolutePath(), ex);
+        }
+        handler.setResult(new StreamResult(outputStream));
+    }
+
+    /**
+     * Write the DOM element and all of its children
+     *
+     * @param element
+     * @throws XMLStreamException
+     */
+    public void writeElement(Element element) throws XMLStreamException {
+        writeStartElement(element.getNodeName());
+        NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Node attribute = attributes.item(i);
+            writeAttribute(attribute.getNodeName(), attribute.getNodeValue());
+        }
+
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            switch (child.getNodeType()) {
+                case Node.ELEMENT_NODE:
+                    writeElement((Element) child);
+                    break;
+                case Node.TEXT_NODE:
+                    writeCharacters(child.getNodeValue());
+                    break;
+                case Node.CDATA_SECTION_NODE:
+                    writeCData(child.getNodeValue());
+                    break;
+                case Node.COMMENT_NODE:
+                    writeComment(child.getNodeValue());
+                    break;
+                default:
+                    throw new XMLStreamException("Unsupported node type " + child.getNodeType());
+            }
+        }
+        writeEndElement();
+    }
+
+    @Override
+    public void writeStartElement(String localName) throws XMLStreamException {
+        flushPending();
+        pendingElement = localName;
+        pendingEmpty = false;
+    }
+
+    @Override
+    public void writeStartElement(String namespaceURI, String localName) throws XMLStreamException {
+        writeStartElement(localName);
+    }
+
+    @Override
+    public void writeStartElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+        writeStartElement(localName);
+    }
+
+    @Override
+    public void writeEmptyElement(String localName) throws XMLStreamException {
+        writeStartElement(localName);
+        pendingEmpty = true;
+    }
+
+    @Override
+    public void writeEmptyElement(String namespaceURI, String localName) throws XMLStreamException {
+        writeEmptyElement(localName);
+    }
+
+    @Override
+    public void writeEmptyElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+        writeEmptyElement(localName);
+    }
+
+    @Override
+    public void writeEndElement() throws XMLStreamException {
+        flushPending();
+        if (openElements.isEmpty()) {
+            throw new XMLStreamException("No element to end");
+        }
+        String name = openElements.pop();
+        try {
+            handler.endElement("", name, name);
+        } catch (SAXException ex) {
+            throw new XMLStreamException(ex);
+        }
+    }
+
+    @Override
+    public void writeEndDocument() throws XMLStreamException {
+        while (pendingElement != null || !openElements.isEmpty()) {
+            writeEndElement();
+        }
+        try {
+            handler.endDocument();
+        } catch (SAXException ex) {
+            throw new XMLStreamException(ex);
+        }
+        complete = true;
+    }
+
+    /**
+     * Close the output and replace the file with the written one, if the document was completed. Otherwise the written
+     * output is discarded.
+     *
+     * @throws XMLStreamException
+     */
+    @Override
+    public void close() throws XMLStreamException {
+        try {
+            outputStream.close();
+        } catch (IOException ex) {
+            FileUtils.deleteQuietly(tempFile);
+            throw new XMLStreamException(ex);
+        }
+
+        if (!complete) {
+            FileUtils.deleteQuietly(tempFile);
+            return;
+        }
+
+        try {
+            Files.move(tempFile.toPath(), xmlFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            FileUtils.deleteQuietly(tempFile);
+            throw new XMLStreamException("Failed to rename " + tempFile.getName() + " to " + xmlFile.getName(), ex);
+        }
+    }
+
+    @Override
+    public void flush() throws XMLStreamException {
+        try {
+            outputStream.flush();
+        } catch (IOException ex) {
+            throw new XMLStreamException(ex);
+        }
+    }
+
+    @Override
+    public void writeAttribute(String localName, String value) throws XMLStreamException {
+        if (pendingElement == null) {
+            throw new XMLStreamException("Attribute '" + localName + "' written outside of a start element");
+        }
+        pendingAttributes.put(localName, value);
+    }
+
+    @Override
+    public void writeAttribute(String prefix, String namespaceURI, String localName, String value) throws XMLStreamException {
+        writeAttribute(localName, value);
+    }
+
+    @Override
+    public void writeAttribute(String namespaceURI, String localName, String value) throws XMLStreamException {
+        writeAttribute(localName, value);
+    }
+
+    @Override
+    public void writeNamespace(String prefix, String namespaceURI) throws XMLStreamException {
+        throw new XMLStreamException("Namespaces are not supported");
+    }
+
+    @Override
+    public void writeDefaultNamespace(String namespaceURI) throws XMLStreamException {
+        throw new XMLStreamException("Namespaces are not supported");
+    }
+
+    @Override
+    public void writeComment(String data) throws XMLStreamException {
+        flushPending();
+        char[] chars = data.toCharArray();
+        try {
+            handler.comment(chars, 0, chars.length);
+        } catch (SAXException ex) {
+            throw new XMLStreamException(ex);
+        }
+    }
+
+    @Override
+    public void writeProcessingInstruction(String target) throws XMLStreamException {
+        throw new XMLStreamException("Processing instructions are not supported");
+    }
+
+    @Override
+    public void writeProcessingInstruction(String target, String data) throws XMLStreamException {
+        throw new XMLStreamException("Processing instructions are not supported");
+    }
+
+    @Override
+    public void writeCData(String data) throws XMLStreamException {
+        flushPending();
+        try {
+            handler.startCDATA();
+            writeText(data);
+            handler.endCDATA();
+        } catch (SAXException ex) {
+            throw new XMLStreamException(ex);
+        }
+    }
+
+    @Override
+    public void writeDTD(String dtd) throws XMLStreamException {
+        throw new XMLStreamException("DTDs are not supported");
+    }
+
+    @Override
+    public void writeEntityRef(String name) throws XMLStreamException {
+        throw new XMLStreamException("Entity references are not supported");
+    }
+
+    @Override
+    public void writeStartDocument() throws XMLStreamException {
+        try {
+            handler.startDocument();
+        } catch (SAXException ex) {
+            throw new XMLStreamException(ex);
+        }
+    }
+
+    @Override
+    public void writeStartDocument(String version) throws XMLStreamException {
+        writeStartDocument();
+    }
+
+    @Override
+    public void writeStartDocument(String encoding, String version) throws XMLStreamException {
+        writeStartDocument();
+    }
+
+    @Override
+    public void writeCharacters(String text) throws XMLStreamException {
+        flushPending();
+        try {
+            writeText(text);
+        } catch (SAXException ex) {
+            throw new XMLStreamException(ex);
+        }
+    }
+
+    @Override
+    public void writeCharacters(char[] text, int start, int len) throws XMLStreamException {
+        flushPending();
+        try {
+            writeText(text, start, len);
+        } catch (SAXException ex) {
+            throw new XMLStreamException(ex);
+        }
+    }
+
+    @Override
+    public String getPrefix(String uri) throws XMLStreamException {
+        return null;
+    }
+
+    @Override
+    public void setPrefix(String prefix, String uri) throws XMLStreamException {
+        throw new XMLStreamException("Namespaces are not supported");
+    }
+
+    @Override
+    public void setDefaultNamespace(String uri) throws XMLStreamException {
+        throw new XMLStreamException("Namespaces are not supported");
+    }
+
+    @Override
+    public void setNamespaceContext(NamespaceContext context) throws XMLStreamException {
+        throw new XMLStreamException("Namespaces are not supported");
+    }
+
+    @Override
+    public NamespaceContext getNamespaceContext() {
+        return null;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        throw new IllegalArgumentException("Property " + name + " is not supported");
+    }
+
+    private void writeText(String text) throws SAXException {
+        char[] chars = (text == null ? new char[0] : text.toCharArray());
+        writeText(chars, 0, chars.length);
+    }
+
+    /**
+     * Write the text to the serializer.
+     *
+     * Saxon drops empty SAX text, so it is passed straight to its receiver to get the same &lt;name&gt;&lt;/name&gt; as an
+     * empty text node in a Document
+     *
+     * @param text
+     * @param start
+     * @param len
+     * @throws SAXException
+     */
+    private void writeText(char[] text, int start, int len) throws SAXException {
+        if (len == 0 && handler instanceof ReceivingContentHandler) {
+            try {
+                ((ReceivingContentHandler) handler).getReceiver().characters("", 0, 0);
+            } catch (XPathException ex) {
+                throw new SAXException(ex);
+            }
+        } else {
+            handler.characters(text, start, len);
+        }
+    }
+
+    /**
+     * Write the start of the pending element, now that all of its attributes are known
+     *
+     * @throws XMLStreamException
+     */
+    private void flushPending() throws XMLStreamException {
+        if (pendingElement == null) {
+            return;
+        }
+
+        AttributesImpl attributes = new AttributesImpl();
+        for (Map.Entry<String, String> attribute : pendingAttributes.entrySet()) {
+            attributes.addAttribute("", attribute.getKey(), attribute.getKey(), CDATA, attribute.getValue());
+        }
+
+        String name = pendingElement;
+        pendingElement = null;
+        pendingAttributes.clear();
+        try {
+            handler.startElement("", name, name, attributes);
+            if (pendingEmpty) {
+                handler.endElement("", name, name);
+            } else {
+                openElements.push(name);
+            }
+        } catch (SAXException ex) {
+            throw new XMLStreamException(ex);
+        }
+    }
+}
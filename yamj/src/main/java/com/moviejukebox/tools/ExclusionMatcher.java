@@ -0,0 +1,212 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compiled form of the exclusions of a media library path.
+ *
+ * Each exclusion matches a path if it is found as a (case insensitive) regular expression or if it is contained as plain text
+ * in the path. The regular expressions are combined into as few patterns as possible and the plain texts are searched for all
+ * at once with an Aho-Corasick automaton, so the cost of checking a path hardly depends on the number of exclusions.
+ */
+public final class ExclusionMatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExclusionMatcher.class);
+    // Characters with a special meaning in a regular expression
+    private static final String REGEX_META = "\\^$.|?*+()[]{}";
+    // Patterns that refer to their own groups or quote up to the end can't be combined with others
+    private static final Pattern PATTERN_NOT_COMBINABLE = Pattern.compile("\\\\(\\d|k<|Q)");
+    private final List<Pattern> patterns = new ArrayList<>();
+    private final TextNode textRoot = new TextNode();
+    private final int exclusionCount;
+
+    /**
+     * Compile the exclusions
+     *
+     * @param exclusions
+     */
+    public ExclusionMatcher(Collection<String> exclusions) {
+        StringBuilder combined = new StringBuilder();
+        int count = 0;
+
+        for (String exclusion : exclusions) {
+            if (exclusion == null || exclusion.isEmpty()) {
+                continue;
+            }
+            count++;
+
+            String text = exclusion.replace("/", File.separator).replace("\\", File.separator).toLowerCase();
+            addText(text);
+
+            if (!isRegex(exclusion)) {
+                // The text search covers everything the regular expression would find
+                continue;
+            }
+
+            try {
+                Pattern single = Pattern.compile(exclusion, Pattern.CASE_INSENSITIVE);
+                if (PATTERN_NOT_COMBINABLE.matcher(exclusion).find()) {
+                    patterns.add(single);
+                } else {
+                    if (combined.length() > 0) {
+                        combined.append('|');
+                    }
+                    combined.append("(?:").append(exclusion).append(')');
+                }
+            } catch (PatternSyntaxException ex) {
+                LOG.info("Error processing exclusion pattern: {}, {}", exclusion, ex.getMessage());
+            }
+        }
+
+        if (combined.length() > 0) {
+            patterns.add(Pattern.compile(combined.toString(), Pattern.CASE_INSENSITIVE));
+        }
+        exclusionCount = count;
+        buildFailureLinks();
+    }
+
+    /**
+     * Check if the path is excluded
+     *
+     * @param lowerCasePath the path in lower case
+     * @return
+     */
+    public boolean isExcluded(String lowerCasePath) {
+        if (exclusionCount == 0) {
+            return false;
+        }
+
+        if (containsText(lowerCasePath)) {
+            return true;
+        }
+
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(lowerCasePath).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Are there any exclusions
+     *
+     * @return
+     */
+    public boolean isEmpty() {
+        return exclusionCount == 0;
+    }
+
+    private static boolean isRegex(String exclusion) {
+        for (int i = 0; i < exclusion.length(); i++) {
+            if (REGEX_META.indexOf(exclusion.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addText(String text) {
+        TextNode node = textRoot;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            TextNode next = node.children.get(ch);
+            if (next == null) {
+                next = new TextNode();
+                node.children.put(ch, next);
+            }
+            node = next;
+        }
+        node.terminal = true;
+    }
+
+    private void buildFailureLinks() {
+        Queue<TextNode> queue = new LinkedList<>();
+        for (TextNode child : textRoot.children.values()) {
+            child.failure = textRoot;
+            queue.add(child);
+        }
+
+        while (!queue.isEmpty()) {
+            TextNode node = queue.remove();
+            for (Map.Entry<Character, TextNode> entry : node.children.entrySet()) {
+                TextNode child = entry.getValue();
+                TextNode fallback = node.failure;
+                while (fallback != null && !fallback.children.containsKey(entry.getKey())) {
+                    fallback = fallback.failure;
+                }
+                child.failure = (fallback == null ? textRoot : fallback.children.get(entry.getKey()));
+                // A text ending inside this one is found as well
+                child.terminal |= child.failure.terminal;
+                queue.add(child);
+            }
+        }
+    }
+
+    private boolean containsText(String value) {
+        TextNode node = textRoot;
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            TextNode next = node.children.get(ch);
+            while (next == null && node != textRoot) {
+                node = node.failure;
+                next = node.children.get(ch);
+            }
+            if (next != null) {
+                node = next;
+                if (node.terminal) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "ExclusionMatcher[exclusions=" + exclusionCount + ", patterns=" + patterns.size() + "]";
+    }
+
+    /**
+     * A node of the text automaton
+     */
+    private static class TextNode {
+
+        private final Map<Character, TextNode> children = new HashMap<>();
+        private TextNode failure;
+        private boolean terminal = false;
+    }
+}
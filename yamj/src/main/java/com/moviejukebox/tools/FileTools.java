@@ -34,6 +34,12 @@ import com.moviejukebox.scanner.IArchiveScanner;
 import java.io.*;
 import java.net.URL;
 import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
@@ -49,7 +55,8 @@ public final class FileTools {
     private static final int BUFF_SIZE = 16 * 1024;
     private static final Collection<String> SUBTITLE_EXTENSIONS = new ArrayList<>();
     private static final Collection<ReplaceEntry> UNSAFE_CHARS = new ArrayList<>();
-    private static final Collection<String> GENERATED_FILENAMES = Collections.synchronizedCollection(new ArrayList<String>());
+    // Hashed, so the jukebox cleaning can check each file directly, and spread over many segments as all threads add to it
+    private static final Set<String> GENERATED_FILENAMES = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>(4096, 0.75F, 64));
     private static boolean videoimageDownload = PropertiesUtil.getBooleanProperty("mjb.includeVideoImages", Boolean.FALSE);
     private static int footerImageEnabled = PropertiesUtil.getIntProperty("mjb.footer.count", 0);
     private static String indexFilesPrefix = getProperty("mjb.indexFilesPrefix", "");
@@ -619,11 +626,24 @@ public final class FileTools {
      * @throws IOException
      */
     public static boolean downloadImage(File imageFile, String imageURL) throws IOException {
-        URL url;
-        if (imageURL.contains(" ")) {
-            url = new URL(imageURL.replaceAll(" ", "%20"));
-        } else {
-            url = new URL(imageURL);
+        boolean downloaded = false;
+        try {
+            downloaded = copyImage(imageFile, imageURL);
+        } finally {
+            if (!downloaded) {
+                // the image may have changed or been removed, so validate it again next time
+                ImageFetcher.invalidate(imageURL);
+            }
+        }
+        return downloaded;
+    }
+
+    private static boolean copyImage(File imageFile, String imageURL) throws IOException {
+        URL url = ImageFetcher.createUrl(imageURL);
+
+        // use the image if it has already been fetched for validation
+        if (ImageFetcher.saveFetched(imageFile, url)) {
+            return true;
         }
 
         if ("file".equals(url.getProtocol())) {
@@ -752,7 +772,12 @@ public final class FileTools {
         }
     }
 
-    public static Collection<String> getJukeboxFiles() {
+    /**
+     * Get the files of the jukebox that must not be cleaned
+     *
+     * @return
+     */
+    public static Set<String> getJukeboxFiles() {
         return GENERATED_FILENAMES;
     }
 
@@ -764,6 +789,8 @@ public final class FileTools {
     public static class FileEx extends File {
 
         private static final long serialVersionUID = 1L;
+        // Read the attributes of all entries when listing a directory
+        private static final boolean PREFETCH_ATTRIBUTES = PropertiesUtil.getBooleanProperty("mjb.scanner.nio", Boolean.TRUE);
         private volatile Boolean isDir = null;
         private volatile Boolean fileExists = null;
         private volatile Boolean isfile = null;
@@ -790,6 +817,30 @@ public final class FileTools {
             fileExists = exists;
         }
 
+        /**
+         * Create an existing file with all the attributes already known, e.g. restored from the scan state index
+         *
+         * @param parent
+         * @param child
+         * @param directory
+         * @param length
+         * @param lastModified
+         * @return
+         */
+        static FileEx createKnownFile(File parent, String child, boolean directory, long length, long lastModified) {
+            FileEx fe = new FileEx(parent, child);
+            fe.setAttributes(directory, !directory, length, lastModified);
+            return fe;
+        }
+
+        private void setAttributes(boolean directory, boolean regularFile, long length, long lastModified) {
+            fileExists = Boolean.TRUE;
+            isDir = directory;
+            isfile = regularFile;
+            fileLen = length;
+            fileLastModified = lastModified;
+        }
+
         // archive scanner supporting constructors
         public FileEx(String pathname, IArchiveScanner[] archiveScanners) {
             super(pathname);
@@ -885,12 +936,22 @@ public final class FileTools {
                     return listFiles;
                 }
 
-                String[] nameStrings = list();
-                if (nameStrings == null) {
-                    return null;
+                List<String> mutableNames;
+                Map<String, BasicFileAttributes> attributes = null;
+                if (PREFETCH_ATTRIBUTES) {
+                    attributes = readDirectoryAttributes();
+                }
+
+                if (attributes != null) {
+                    mutableNames = new ArrayList<>(attributes.keySet());
+                } else {
+                    String[] nameStrings = list();
+                    if (nameStrings == null) {
+                        return null;
+                    }
+                    mutableNames = new ArrayList<>(Arrays.asList(nameStrings));
                 }
 
-                List<String> mutableNames = new ArrayList<>(Arrays.asList(nameStrings));
                 List<File> files = new ArrayList<>();
                 if (archiveScanners != null) {
                     for (IArchiveScanner as : archiveScanners) {
@@ -900,7 +961,12 @@ public final class FileTools {
 
                 for (String name : mutableNames) {
                     FileEx fe = new FileEx(this, name, archiveScanners);
-                    fe.fileExists = Boolean.TRUE;
+                    BasicFileAttributes attr = (attributes == null ? null : attributes.get(name));
+                    if (attr == null) {
+                        fe.fileExists = Boolean.TRUE;
+                    } else {
+                        fe.setAttributes(attr.isDirectory(), attr.isRegularFile(), attr.size(), attr.lastModifiedTime().toMillis());
+                    }
                     files.add(fe);
                 }
 
@@ -909,6 +975,33 @@ public final class FileTools {
             return listFiles;
         }
 
+        /**
+         * Read the directory with a single stream and the basic attributes of each entry, so that later calls to isDirectory,
+         * length, lastModified, etc. do not need to access the file system again.
+         *
+         * @return the attributes by name (null if they could not be read) or null if the directory could not be streamed, it is
+         * then listed the old way
+         */
+        private Map<String, BasicFileAttributes> readDirectoryAttributes() {
+            Map<String, BasicFileAttributes> entries = new LinkedHashMap<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(toPath())) {
+                for (Path path : stream) {
+                    BasicFileAttributes attr;
+                    try {
+                        attr = Files.readAttributes(path, BasicFileAttributes.class);
+                    } catch (IOException ex) {
+                        // e.g. a broken link, the attributes will be read when needed
+                        attr = null;
+                    }
+                    entries.put(path.getFileName().toString(), attr);
+                }
+            } catch (IOException | InvalidPathException | DirectoryIteratorException ex) {
+                LOG.debug("Failed to stream directory {}, listing it instead: {}", getPath(), ex.getMessage());
+                return null;
+            }
+            return entries;
+        }
+
         @Override
         public File[] listFiles(FilenameFilter filter) {
             File[] src = listFiles();
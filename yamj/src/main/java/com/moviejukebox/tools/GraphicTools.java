@@ -27,6 +27,8 @@ import java.awt.*;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.WritableRaster;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -40,6 +42,7 @@ import org.slf4j.LoggerFactory;
 public final class GraphicTools {
 
     private static final Logger LOG = LoggerFactory.getLogger(GraphicTools.class);
+    private static final boolean PROGRESSIVE_SCALING = PropertiesUtil.getBooleanProperty("mjb.scaling.progressive", Boolean.TRUE);
     private static float quality;
     private static int jpegQuality;
 
@@ -73,6 +76,25 @@ public final class GraphicTools {
         throw new FileNotFoundException("Image file '" + fileImage.getAbsolutePath() + "' does not exist");
     }
 
+    /**
+     * Load a JPG image from a file, reading only as many pixels as needed to scale it to the maximum size.
+     *
+     * The image is read with at least twice the maximum size, so that scaling it gives the same quality as the full image.
+     *
+     * @param fileImage
+     * @param maxWidth
+     * @param maxHeight
+     * @return
+     * @throws IOException
+     */
+    public static BufferedImage loadJPEGImage(File fileImage, int maxWidth, int maxHeight) throws IOException {
+        if (fileImage.exists()) {
+            JpegReader jr = new JpegReader();
+            return jr.readImage(fileImage, maxWidth * 2, maxHeight * 2);
+        }
+        throw new FileNotFoundException("Image file '" + fileImage.getAbsolutePath() + "' does not exist");
+    }
+
     /**
      * Load a JPG image from an URL
      *
@@ -168,6 +190,21 @@ public final class GraphicTools {
         }
     }
 
+    /**
+     * Create a copy of the image that can be drawn on without changing the original
+     *
+     * @param bi
+     * @return
+     */
+    public static BufferedImage copyImage(BufferedImage bi) {
+        if (bi == null) {
+            return null;
+        }
+        ColorModel cm = bi.getColorModel();
+        WritableRaster raster = bi.copyData(bi.getRaster().createCompatibleWritableRaster());
+        return new BufferedImage(cm, raster, cm.isAlphaPremultiplied(), null);
+    }
+
     /**
      * Bi-cubic image scaling
      *
@@ -192,7 +229,7 @@ public final class GraphicTools {
             y = nMaxHeight - tempHeight;
         }
 
-        Image temp1 = imgSrc.getScaledInstance(tempWidth, tempHeight, Image.SCALE_SMOOTH);
+        Image temp1 = getScaledImage(imgSrc, tempWidth, tempHeight);
         BufferedImage bi = new BufferedImage(nMaxWidth, nMaxHeight, BufferedImage.TYPE_INT_ARGB);
         //bi.getGraphics().drawImage(temp1, 0, y, null);
         bi.createGraphics().drawImage(temp1, 0, y, null);
@@ -208,7 +245,7 @@ public final class GraphicTools {
         tempWidth = nMaxWidth;
         tempHeight = nMaxHeight;
 
-        Image temp1 = imgSrc.getScaledInstance(tempWidth, tempHeight, Image.SCALE_SMOOTH);
+        Image temp1 = getScaledImage(imgSrc, tempWidth, tempHeight);
         BufferedImage bi = new BufferedImage(nMaxWidth, nMaxHeight, BufferedImage.TYPE_INT_ARGB);
         bi.createGraphics().drawImage(temp1, 0, 0, null);
         return bi;
@@ -225,7 +262,7 @@ public final class GraphicTools {
         tempWidth = nMaxWidth;
         tempHeight = (int) (((double) imageHeight * (double) nMaxWidth) / imageWidth);
 
-        Image temp1 = imgSrc.getScaledInstance(tempWidth, tempHeight, Image.SCALE_SMOOTH);
+        Image temp1 = getScaledImage(imgSrc, tempWidth, tempHeight);
         BufferedImage bi = new BufferedImage(tempWidth, tempHeight, BufferedImage.TYPE_INT_ARGB);
         bi.createGraphics().drawImage(temp1, 0, 0, null);
         return bi;
@@ -250,12 +287,127 @@ public final class GraphicTools {
             tempHeight = nMaxHeight;
         }
 
-        Image temp1 = imgSrc.getScaledInstance(tempWidth, tempHeight, Image.SCALE_SMOOTH);
+        Image temp1 = getScaledImage(imgSrc, tempWidth, tempHeight);
         BufferedImage bi = new BufferedImage(tempWidth, tempHeight, BufferedImage.TYPE_INT_ARGB);
         bi.createGraphics().drawImage(temp1, 0, 0, null);
         return cropToSize(nMaxWidth, nMaxHeight, bi);
     }
 
+    /**
+     * Scale the image to the width and height.
+     *
+     * With progressive scaling (mjb.scaling.progressive) the image is halved with a box filter until it is less than twice the
+     * size and then scaled with bicubic interpolation, otherwise the slower AWT area averaging is used.
+     *
+     * @param imgSrc
+     * @param width
+     * @param height
+     * @return
+     */
+    private static Image getScaledImage(BufferedImage imgSrc, int width, int height) {
+        if (PROGRESSIVE_SCALING) {
+            return scaleProgressive(imgSrc, width, height);
+        }
+        return imgSrc.getScaledInstance(width, height, Image.SCALE_SMOOTH);
+    }
+
+    /**
+     * Scale the image to the width and height in steps
+     *
+     * @param imgSrc
+     * @param width
+     * @param height
+     * @return an image of TYPE_INT_ARGB
+     */
+    public static BufferedImage scaleProgressive(BufferedImage imgSrc, int width, int height) {
+        BufferedImage current = imgSrc;
+        while (current.getWidth() >= width * 2 && current.getHeight() >= height * 2) {
+            current = halveImage(current);
+        }
+
+        if (current != imgSrc && current.getWidth() == width && current.getHeight() == height) {
+            return current;
+        }
+
+        BufferedImage bi = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = bi.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2d.drawImage(current, 0, 0, width, height, null);
+        g2d.dispose();
+        return bi;
+    }
+
+    /**
+     * Halve the size of the image, averaging each block of 2x2 pixels weighted by their alpha.
+     *
+     * The pixels are read and written as packed ARGB integers, a row pair at a time. The rasters of TYPE_INT_RGB and TYPE_INT_ARGB
+     * images are accessed directly, other opaque images are converted to TYPE_INT_RGB first and the remaining images are converted
+     * by their colour model.
+     *
+     * @param imgSrc
+     * @return an image of TYPE_INT_ARGB
+     */
+    private static BufferedImage halveImage(BufferedImage imgSrc) {
+        int srcWidth = imgSrc.getWidth();
+        int width = srcWidth / 2;
+        int height = imgSrc.getHeight() / 2;
+        boolean opaque = !imgSrc.getColorModel().hasAlpha();
+        boolean packed = imgSrc.getType() == BufferedImage.TYPE_INT_RGB || imgSrc.getType() == BufferedImage.TYPE_INT_ARGB;
+        WritableRaster srcRaster = imgSrc.getRaster();
+        if (!packed && opaque) {
+            // Converting the whole image at once is faster than converting each pixel by the colour model
+            BufferedImage converted = new BufferedImage(srcWidth, imgSrc.getHeight(), BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2d = converted.createGraphics();
+            g2d.drawImage(imgSrc, 0, 0, null);
+            g2d.dispose();
+            srcRaster = converted.getRaster();
+            packed = true;
+        }
+
+        BufferedImage bi = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        WritableRaster raster = bi.getRaster();
+        int[] rows = new int[srcWidth * 2];
+        int[] target = new int[width];
+
+        for (int y = 0; y < height; y++) {
+            if (packed) {
+                srcRaster.getDataElements(0, y * 2, srcWidth, 2, rows);
+            } else {
+                imgSrc.getRGB(0, y * 2, srcWidth, 2, rows, 0, srcWidth);
+            }
+            for (int x = 0; x < width; x++) {
+                int i = x * 2;
+                target[x] = average(rows[i], rows[i + 1], rows[srcWidth + i], rows[srcWidth + i + 1], opaque);
+            }
+            raster.setDataElements(0, y, width, 1, target);
+        }
+        return bi;
+    }
+
+    private static int average(int p1, int p2, int p3, int p4, boolean opaque) {
+        if (opaque) {
+            int r = ((p1 >> 16) & 0xFF) + ((p2 >> 16) & 0xFF) + ((p3 >> 16) & 0xFF) + ((p4 >> 16) & 0xFF);
+            int g = ((p1 >> 8) & 0xFF) + ((p2 >> 8) & 0xFF) + ((p3 >> 8) & 0xFF) + ((p4 >> 8) & 0xFF);
+            int b = (p1 & 0xFF) + (p2 & 0xFF) + (p3 & 0xFF) + (p4 & 0xFF);
+            return 0xFF000000 | (((r + 2) >> 2) << 16) | (((g + 2) >> 2) << 8) | ((b + 2) >> 2);
+        }
+
+        int a1 = p1 >>> 24;
+        int a2 = p2 >>> 24;
+        int a3 = p3 >>> 24;
+        int a4 = p4 >>> 24;
+        int a = a1 + a2 + a3 + a4;
+        if (a == 0) {
+            return 0;
+        }
+        int r = ((p1 >> 16) & 0xFF) * a1 + ((p2 >> 16) & 0xFF) * a2 + ((p3 >> 16) & 0xFF) * a3 + ((p4 >> 16) & 0xFF) * a4;
+        int g = ((p1 >> 8) & 0xFF) * a1 + ((p2 >> 8) & 0xFF) * a2 + ((p3 >> 8) & 0xFF) * a3 + ((p4 >> 8) & 0xFF) * a4;
+        int b = (p1 & 0xFF) * a1 + (p2 & 0xFF) * a2 + (p3 & 0xFF) * a3 + (p4 & 0xFF) * a4;
+        int half = a / 2;
+        return (((a + 2) >> 2) << 24) | (((r + half) / a) << 16) | (((g + half) / a) << 8) | ((b + half) / a);
+    }
+
     public static BufferedImage cropToSize(int nMaxWidth, int nMaxHeight, BufferedImage imgSrc) {
         int nHeight = imgSrc.getHeight();
         int nWidth = imgSrc.getWidth();
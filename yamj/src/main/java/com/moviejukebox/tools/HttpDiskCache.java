@@ -0,0 +1,271 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Disk cache for the content of web pages, so that pages that were downloaded by an earlier run are not downloaded again.
+ *
+ * The pages are stored per host. How long a page stays valid can be set per host, using the same regular expressions as the
+ * download slots.
+ *
+ * Only the pages requested through {@link YamjHttpClient#request(String)} are cached, these are the web sites that are scraped.
+ * The online APIs (e.g. TheTVDb, TheMovieDb, FanartTV and Allocine) use their own API clients and are not cached.
+ */
+public class HttpDiskCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HttpDiskCache.class);
+    private static final String CACHE_EXTENSION = ".cache";
+    private static final String TEMP_EXTENSION = ".tmp";
+    // The writes of the same page are serialised with one of these locks
+    private static final int LOCK_COUNT = 64;
+    private static final String DEFAULT_CHARSET = "UTF-8";
+    private final File directory;
+    private final long maxSize;
+    private final long defaultTtl;
+    private final Map<Pattern, Long> hostTtl = new LinkedHashMap<>();
+    private final AtomicLong currentSize = new AtomicLong(0);
+    private final Object[] locks = new Object[LOCK_COUNT];
+
+    /**
+     * Create the cache
+     *
+     * @param directory the cache directory
+     * @param maxSize the maximum size of the cache in bytes
+     * @param defaultTtl the default time a page stays valid in milliseconds
+     */
+    public HttpDiskCache(File directory, long maxSize, long defaultTtl) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+        this.defaultTtl = defaultTtl;
+        for (int i = 0; i < LOCK_COUNT; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Set how long the pages of the hosts matching the regular expression stay valid. The first matching rule is used.
+     *
+     * @param hostRegex
+     * @param ttl the time in milliseconds, 0 to not cache these hosts
+     */
+    public void addHostTtl(String hostRegex, long ttl) {
+        hostTtl.put(Pattern.compile(hostRegex, Pattern.CASE_INSENSITIVE), ttl);
+    }
+
+    /**
+     * Remove the expired pages and calculate the size of the cache
+     */
+    public synchronized void initialise() {
+        FileTools.makeDirs(directory);
+
+        long size = 0;
+        int expired = 0;
+        long now = System.currentTimeMillis();
+        for (File file : listFiles(TEMP_EXTENSION)) {
+            // left over by an interrupted run
+            FileUtils.deleteQuietly(file);
+        }
+        for (File file : listCacheFiles()) {
+            long ttl = getTtl(file.getParentFile().getName());
+            if (now - file.lastModified() > ttl) {
+                if (file.delete()) {
+                    expired++;
+                }
+            } else {
+                size += file.length();
+            }
+        }
+        currentSize.set(size);
+        LOG.debug("HTTP cache '{}' uses {} bytes, removed {} expired pages", directory.getAbsolutePath(), size, expired);
+    }
+
+    /**
+     * Get the cached content of the URL
+     *
+     * @param url
+     * @return the content or null if not cached or expired
+     */
+    public String get(String url) {
+        File cacheFile = getCacheFile(url);
+        if (cacheFile == null || !cacheFile.exists()) {
+            return null;
+        }
+
+        if (System.currentTimeMillis() - cacheFile.lastModified() > getTtl(cacheFile.getParentFile().getName())) {
+            return null;
+        }
+
+        try {
+            String cached = FileUtils.readFileToString(cacheFile, DEFAULT_CHARSET);
+            // The first line holds the URL, in case two URLs have the same hash
+            int index = cached.indexOf('\n');
+            if (index > 0 && url.equals(cached.substring(0, index))) {
+                LOG.trace("HTTP cache hit for {}", url);
+                return cached.substring(index + 1);
+            }
+        } catch (IOException ex) {
+            LOG.debug("Failed to read HTTP cache file {}: {}", cacheFile.getName(), ex.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Store the content of the URL
+     *
+     * @param url
+     * @param content
+     */
+    public void put(String url, String content) {
+        File cacheFile = getCacheFile(url);
+        if (cacheFile == null || getTtl(cacheFile.getParentFile().getName()) <= 0 || url.indexOf('\n') >= 0) {
+            return;
+        }
+
+        File tempFile = null;
+        boolean full = false;
+        try {
+            FileTools.makeDirs(cacheFile.getParentFile());
+            tempFile = File.createTempFile(FilenameUtils.getBaseName(cacheFile.getName()), TEMP_EXTENSION, cacheFile.getParentFile());
+            FileUtils.writeStringToFile(tempFile, url + "\n" + content, DEFAULT_CHARSET);
+
+            synchronized (getLock(cacheFile)) {
+                long oldLength = cacheFile.length();
+                if (cacheFile.exists() && !cacheFile.delete()) {
+                    LOG.debug("Failed to replace HTTP cache file {}", cacheFile.getName());
+                    return;
+                }
+                if (tempFile.renameTo(cacheFile)) {
+                    full = currentSize.addAndGet(cacheFile.length() - oldLength) > maxSize;
+                }
+            }
+        } catch (IOException ex) {
+            LOG.debug("Failed to write HTTP cache file {}: {}", cacheFile.getName(), ex.getMessage());
+        } finally {
+            if (tempFile != null && tempFile.exists() && !tempFile.delete()) {
+                LOG.trace("Failed to delete {}", tempFile.getName());
+            }
+        }
+
+        if (full) {
+            trim();
+        }
+    }
+
+    private Object getLock(File cacheFile) {
+        return locks[(cacheFile.getName().hashCode() & Integer.MAX_VALUE) % LOCK_COUNT];
+    }
+
+    /**
+     * Delete the oldest pages until the cache uses less than 90% of its maximum size
+     */
+    private synchronized void trim() {
+        if (currentSize.get() <= maxSize) {
+            return;
+        }
+
+        List<File> files = listCacheFiles();
+        Collections.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File file1, File file2) {
+                return Long.compare(file1.lastModified(), file2.lastModified());
+            }
+        });
+
+        long target = maxSize / 10 * 9;
+        int deleted = 0;
+        for (File file : files) {
+            if (currentSize.get() <= target) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                currentSize.addAndGet(-length);
+                deleted++;
+            }
+        }
+        LOG.debug("HTTP cache full, deleted {} pages", deleted);
+    }
+
+    private List<File> listCacheFiles() {
+        return listFiles(CACHE_EXTENSION);
+    }
+
+    private List<File> listFiles(String extension) {
+        List<File> files = new ArrayList<>();
+        File[] hostDirs = directory.listFiles();
+        if (hostDirs != null) {
+            for (File hostDir : hostDirs) {
+                File[] cacheFiles = hostDir.listFiles();
+                if (cacheFiles != null) {
+                    for (File cacheFile : cacheFiles) {
+                        if (cacheFile.getName().endsWith(extension)) {
+                            files.add(cacheFile);
+                        }
+                    }
+                }
+            }
+        }
+        return files;
+    }
+
+    private File getCacheFile(String url) {
+        String host;
+        try {
+            host = URI.create(url).getHost();
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+
+        if (StringUtils.isBlank(host)) {
+            return null;
+        }
+        return new File(new File(directory, host.toLowerCase()), DigestUtils.sha1Hex(url) + CACHE_EXTENSION);
+    }
+
+    private long getTtl(String host) {
+        for (Map.Entry<Pattern, Long> entry : hostTtl.entrySet()) {
+            if (entry.getKey().matcher(host).matches()) {
+                return entry.getValue();
+            }
+        }
+        return defaultTtl;
+    }
+}
@@ -0,0 +1,464 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools;
+
+import com.moviejukebox.model.Jukebox;
+import java.awt.Dimension;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fetch images once and share the bytes between the validation and the download of the image.
+ *
+ * The image is downloaded through the pooled HTTP client, the format is taken from the magic bytes and the dimensions are read
+ * from the buffered image. The last fetched images are kept, so that saving a validated image doesn't download it again.
+ *
+ * The dimensions of the URLs can be saved in the jukebox folder, so that an image is not fetched again to validate it on the
+ * next run. The saved dimensions expire after a number of days and are dropped as soon as the image can't be fetched anymore,
+ * so that a changed or removed image is validated again.
+ */
+public final class ImageFetcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ImageFetcher.class);
+    private static final String CACHE_FILENAME = "jukebox_imagedimensions.txt";
+    private static final String CACHE_VERSION = "#YAMJ image dimensions v2";
+    private static volatile boolean cacheEnabled = PropertiesUtil.getBooleanProperty("mjb.imageFetch.dimensionCache", Boolean.FALSE);
+    private static final int CACHE_DAYS = PropertiesUtil.getIntProperty("mjb.imageFetch.dimensionCache.days", 30);
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    private static final int BUFFER_SIZE = PropertiesUtil.getIntProperty("mjb.imageFetch.buffer", 8);
+    private static final String DEFAULT_CHARSET = "UTF-8";
+    private static final char SEPARATOR = '\t';
+    private static final Dimension NO_DIMENSION = new Dimension(0, 0);
+    // The dimensions of the URLs, from the last run and this run
+    private static final Map<String, CachedDimension> DIMENSIONS = new ConcurrentHashMap<>();
+    private static volatile boolean dimensionsChanged = false;
+    // The last fetched images, waiting to be saved
+    private static final Map<String, byte[]> FETCHED = new LinkedHashMap<String, byte[]>(16, 0.75F, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+            return size() > BUFFER_SIZE;
+        }
+    };
+    // Statistics
+    private static final AtomicInteger FETCH_COUNT = new AtomicInteger(0);
+    private static final AtomicInteger CACHE_COUNT = new AtomicInteger(0);
+    private static final AtomicInteger REUSE_COUNT = new AtomicInteger(0);
+
+    static {
+        FileTools.addJukeboxFile(CACHE_FILENAME);
+    }
+
+    private ImageFetcher() {
+        throw new UnsupportedOperationException("Class cannot be instantiated");
+    }
+
+    /**
+     * Turn the dimension cache on or off, overriding the property read when the class was loaded
+     *
+     * @param enabled
+     */
+    static void setCacheEnabled(boolean enabled) {
+        cacheEnabled = enabled;
+    }
+
+    /**
+     * Create the URL for the image, replacing any spaces
+     *
+     * @param imageUrl
+     * @return
+     * @throws MalformedURLException
+     */
+    public static URL createUrl(String imageUrl) throws MalformedURLException {
+        if (imageUrl.contains(" ")) {
+            return new URL(imageUrl.replaceAll(" ", "%20"));
+        }
+        return new URL(imageUrl);
+    }
+
+    /**
+     * Get the dimensions of the image at the URL.
+     *
+     * The dimensions are taken from the cache if the URL has been seen before, otherwise the image is fetched and kept for a
+     * following download.
+     *
+     * @param imageUrl
+     * @return the dimensions or 0x0 if the image could not be read
+     */
+    public static Dimension getDimensions(String imageUrl) {
+        CachedDimension cached = DIMENSIONS.get(imageUrl);
+        if (cached != null) {
+            CACHE_COUNT.incrementAndGet();
+            return new Dimension(cached.getDimension());
+        }
+
+        byte[] imageBytes = fetch(imageUrl);
+        if (imageBytes == null) {
+            // Not cached, a failed fetch could be temporary
+            return new Dimension(NO_DIMENSION);
+        }
+
+        Dimension dimension = readDimensions(imageBytes, FilenameUtils.getExtension(imageUrl));
+        if (dimension.equals(NO_DIMENSION)) {
+            LOG.debug("Failed to read the dimensions of the image at URL: {}", imageUrl);
+        } else if (cacheEnabled) {
+            DIMENSIONS.put(imageUrl, new CachedDimension(new Dimension(dimension), System.currentTimeMillis()));
+            dimensionsChanged = true;
+        }
+        return dimension;
+    }
+
+    /**
+     * Fetch the bytes of the image at the URL and keep them for a following download
+     *
+     * @param imageUrl
+     * @return the bytes or null if the image could not be fetched
+     */
+    public static byte[] fetch(String imageUrl) {
+        URL url;
+        try {
+            url = createUrl(imageUrl);
+        } catch (MalformedURLException ex) {
+            LOG.debug("Invalid image URL '{}': {}", imageUrl, ex.getMessage());
+            return null;
+        }
+
+        String key = url.toExternalForm();
+        synchronized (FETCHED) {
+            byte[] imageBytes = FETCHED.get(key);
+            if (imageBytes != null) {
+                return imageBytes;
+            }
+        }
+
+        byte[] imageBytes;
+        if ("http".equals(url.getProtocol()) || "https".equals(url.getProtocol())) {
+            imageBytes = YamjHttpClientBuilder.getHttpClient().downloadImageBytes(url);
+        } else {
+            try (InputStream in = url.openStream()) {
+                imageBytes = IOUtils.toByteArray(in);
+            } catch (IOException ex) {
+                LOG.debug("Failed to read '{}': {}", url, ex.getMessage());
+                imageBytes = null;
+            }
+        }
+
+        if (imageBytes == null) {
+            invalidate(imageUrl);
+        } else {
+            FETCH_COUNT.incrementAndGet();
+            if (BUFFER_SIZE > 0) {
+                synchronized (FETCHED) {
+                    FETCHED.put(key, imageBytes);
+                }
+            }
+        }
+        return imageBytes;
+    }
+
+    /**
+     * Forget the saved dimensions of the URL, because the image could not be fetched
+     *
+     * @param imageUrl
+     */
+    public static void invalidate(String imageUrl) {
+        if (DIMENSIONS.remove(imageUrl) != null) {
+            LOG.debug("Dropped the saved dimensions of the image at URL: {}", imageUrl);
+            dimensionsChanged = true;
+        }
+    }
+
+    /**
+     * Save an already fetched image to the file
+     *
+     * @param imageFile
+     * @param url
+     * @return true if the image was saved, false if it has not been fetched before
+     * @throws IOException
+     */
+    public static boolean saveFetched(File imageFile, URL url) throws IOException {
+        byte[] imageBytes;
+        synchronized (FETCHED) {
+            imageBytes = FETCHED.remove(url.toExternalForm());
+        }
+
+        if (imageBytes == null) {
+            return false;
+        }
+
+        try (FileOutputStream out = new FileOutputStream(imageFile)) {
+            out.write(imageBytes);
+        }
+        REUSE_COUNT.incrementAndGet();
+        LOG.debug("Saved the fetched image '{}' to '{}'", url, imageFile.getAbsolutePath());
+        return true;
+    }
+
+    /**
+     * Determine the image format from the magic bytes at the start of the image
+     *
+     * @param imageBytes
+     * @return the format name or null if the format is not known
+     */
+    public static String sniffFormat(byte[] imageBytes) {
+        if (imageBytes == null || imageBytes.length < 4) {
+            return null;
+        }
+
+        int b0 = imageBytes[0] & 0xFF;
+        int b1 = imageBytes[1] & 0xFF;
+        int b2 = imageBytes[2] & 0xFF;
+        int b3 = imageBytes[3] & 0xFF;
+
+        if (b0 == 0xFF && b1 == 0xD8 && b2 == 0xFF) {
+            return "jpeg";
+        }
+        if (b0 == 0x89 && b1 == 'P' && b2 == 'N' && b3 == 'G') {
+            return "png";
+        }
+        if (b0 == 'G' && b1 == 'I' && b2 == 'F' && b3 == '8') {
+            return "gif";
+        }
+        if (b0 == 'B' && b1 == 'M') {
+            return "bmp";
+        }
+        return null;
+    }
+
+    /**
+     * Read the dimensions of the image from its bytes.
+     *
+     * The format is taken from the magic bytes, if it is not known the extension is tried and then JPEG and PNG.
+     *
+     * @param imageBytes
+     * @param extension the extension of the URL, can be empty
+     * @return the dimensions or 0x0 if the image could not be read
+     */
+    public static Dimension readDimensions(byte[] imageBytes, String extension) {
+        String format = sniffFormat(imageBytes);
+        if (format != null) {
+            return readDimensions(imageBytes, ImageIO.getImageReadersByFormatName(format));
+        }
+
+        if (StringUtils.isNotBlank(extension)) {
+            Dimension dimension = readDimensions(imageBytes, ImageIO.getImageReadersBySuffix(extension));
+            if (!dimension.equals(NO_DIMENSION)) {
+                return dimension;
+            }
+        }
+
+        Dimension dimension = readDimensions(imageBytes, ImageIO.getImageReadersByFormatName("jpeg"));
+        if (dimension.equals(NO_DIMENSION)) {
+            dimension = readDimensions(imageBytes, ImageIO.getImageReadersByFormatName("png"));
+        }
+        return dimension;
+    }
+
+    private static Dimension readDimensions(byte[] imageBytes, Iterator<ImageReader> readers) {
+        Dimension dimension = new Dimension(0, 0);
+        if (!readers.hasNext()) {
+            return dimension;
+        }
+
+        ImageReader reader = readers.next();
+        try (ImageInputStream iis = ImageIO.createImageInputStream(new ByteArrayInputStream(imageBytes))) {
+            reader.setInput(iis, Boolean.TRUE);
+            dimension.setSize(reader.getWidth(0), reader.getHeight(0));
+        } catch (IOException | RuntimeException ex) {
+            LOG.trace("Failed to read image dimensions: {}", ex.getMessage());
+            dimension.setSize(0, 0);
+        } finally {
+            reader.dispose();
+        }
+        return dimension;
+    }
+
+    /**
+     * Read the image dimensions from the last run
+     *
+     * @param jukebox
+     */
+    public static void readCacheFile(Jukebox jukebox) {
+        if (cacheEnabled) {
+            readCacheFile(new File(jukebox.getJukeboxRootLocationDetailsFile(), CACHE_FILENAME));
+        }
+    }
+
+    /**
+     * Read the image dimensions file
+     *
+     * @param cacheFile
+     */
+    public static synchronized void readCacheFile(File cacheFile) {
+        DIMENSIONS.clear();
+        dimensionsChanged = false;
+        FETCH_COUNT.set(0);
+        CACHE_COUNT.set(0);
+        REUSE_COUNT.set(0);
+
+        if (!cacheFile.exists()) {
+            LOG.debug("No image dimensions found, images will be fetched to validate them");
+            return;
+        }
+
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(cacheFile), DEFAULT_CHARSET))) {
+            String line = in.readLine();
+            if (!CACHE_VERSION.equals(line)) {
+                LOG.info("Image dimensions file {} has an unknown format, ignoring", cacheFile.getName());
+                return;
+            }
+
+            long expired = CACHE_DAYS > 0 ? System.currentTimeMillis() - CACHE_DAYS * MILLIS_PER_DAY : Long.MIN_VALUE;
+            int expiredCount = 0;
+            while ((line = in.readLine()) != null) {
+                String[] values = StringUtils.split(line, SEPARATOR);
+                if (values.length == 4 && StringUtils.isNumeric(values[1]) && StringUtils.isNumeric(values[2]) && StringUtils.isNumeric(values[3])) {
+                    long checked = Long.parseLong(values[3]);
+                    if (checked < expired) {
+                        expiredCount++;
+                        dimensionsChanged = true;
+                    } else {
+                        DIMENSIONS.put(values[0], new CachedDimension(new Dimension(Integer.parseInt(values[1]), Integer.parseInt(values[2])), checked));
+                    }
+                } else {
+                    LOG.debug("Invalid image dimensions line '{}'", line);
+                }
+            }
+
+            if (expiredCount > 0) {
+                LOG.debug("{} image dimensions are older than {} days and will be read again", expiredCount, CACHE_DAYS);
+            }
+        } catch (IOException | NumberFormatException ex) {
+            LOG.warn("Failed to read image dimensions file {}: {}", cacheFile.getName(), ex.getMessage());
+            DIMENSIONS.clear();
+            return;
+        }
+
+        LOG.info("Read the dimensions of {} images", DIMENSIONS.size());
+    }
+
+    /**
+     * Write the image dimensions for use in the next run
+     *
+     * @param jukebox
+     */
+    public static void writeCacheFile(Jukebox jukebox) {
+        LOG.debug("Image fetch: {} images fetched, {} dimensions from cache, {} fetched images saved",
+                FETCH_COUNT.get(), CACHE_COUNT.get(), REUSE_COUNT.get());
+        synchronized (FETCHED) {
+            FETCHED.clear();
+        }
+
+        if (cacheEnabled) {
+            writeCacheFile(new File(jukebox.getJukeboxRootLocationDetailsFile(), CACHE_FILENAME));
+        }
+    }
+
+    /**
+     * Write the image dimensions file.
+     *
+     * Nothing is written if no new dimensions were found in this run.
+     *
+     * @param cacheFile
+     */
+    public static synchronized void writeCacheFile(File cacheFile) {
+        if (!dimensionsChanged) {
+            return;
+        }
+
+        File tempFile = new File(cacheFile.getAbsolutePath() + ".tmp");
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(tempFile), DEFAULT_CHARSET))) {
+            out.println(CACHE_VERSION);
+            for (Map.Entry<String, CachedDimension> entry : DIMENSIONS.entrySet()) {
+                if (!isUnsafe(entry.getKey())) {
+                    Dimension dimension = entry.getValue().getDimension();
+                    out.println(entry.getKey() + SEPARATOR + dimension.width + SEPARATOR + dimension.height + SEPARATOR + entry.getValue().getChecked());
+                }
+            }
+        } catch (IOException ex) {
+            LOG.warn("Failed to write image dimensions file {}: {}", tempFile.getName(), ex.getMessage());
+            return;
+        }
+
+        if (cacheFile.exists() && !cacheFile.delete()) {
+            LOG.warn("Failed to delete {}. Please make sure it's not read only", cacheFile.getName());
+            return;
+        }
+
+        if (tempFile.renameTo(cacheFile)) {
+            dimensionsChanged = false;
+        } else {
+            LOG.warn("Failed to rename {} to {}", tempFile.getName(), cacheFile.getName());
+        }
+    }
+
+    private static boolean isUnsafe(String value) {
+        return value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0 || value.indexOf(SEPARATOR) >= 0;
+    }
+
+    /**
+     * The dimensions of an image together with the time they were read
+     */
+    private static class CachedDimension {
+
+        private final Dimension dimension;
+        private final long checked;
+
+        public CachedDimension(Dimension dimension, long checked) {
+            this.dimension = dimension;
+            this.checked = checked;
+        }
+
+        public Dimension getDimension() {
+            return dimension;
+        }
+
+        public long getChecked() {
+            return checked;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools;
+
+import com.moviejukebox.model.Index;
+import com.moviejukebox.model.Jukebox;
+import com.moviejukebox.model.Library;
+import com.moviejukebox.model.Movie;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent membership of the index pages.
+ *
+ * For every index (e.g. Genres/Action) a fingerprint of the videos on its pages, in page order, is saved at the end of the run.
+ * On the next run an index whose videos have changed is written again, even if none of its videos is dirty. This catches the
+ * videos that have been removed from the library or have moved to another index, and the indexes that only changed order.
+ *
+ * Note: The total count of the library in each index page is not part of the fingerprint, otherwise every new video would cause
+ * all indexes to be written again.
+ */
+public final class IndexState {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IndexState.class);
+    private static final String STATE_FILENAME = "jukebox_indexstate.txt";
+    private static final String STATE_VERSION = "#YAMJ index state v1";
+    private static final boolean ENABLED = PropertiesUtil.getBooleanProperty("mjb.indexState", Boolean.FALSE);
+    private static final String DEFAULT_CHARSET = "UTF-8";
+    private static final char SEPARATOR = '\t';
+    // The state read from the last run
+    private static final Map<String, String> PREVIOUS_STATE = new ConcurrentHashMap<>();
+    private static volatile boolean previousFound = false;
+    // The state collected during this run
+    private static final Map<String, String> CURRENT_STATE = new ConcurrentHashMap<>();
+    // Statistics
+    private static final AtomicInteger CHANGED_COUNT = new AtomicInteger(0);
+    private static final AtomicInteger UNCHANGED_COUNT = new AtomicInteger(0);
+
+    static {
+        FileTools.addJukeboxFile(STATE_FILENAME);
+    }
+
+    private IndexState() {
+        throw new UnsupportedOperationException("Class cannot be instantiated");
+    }
+
+    /**
+     * Is the index state enabled
+     *
+     * @return
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Read the index state from the last run
+     *
+     * @param jukebox
+     */
+    public static void readStateFile(Jukebox jukebox) {
+        if (ENABLED) {
+            readStateFile(new File(jukebox.getJukeboxRootLocationDetailsFile(), STATE_FILENAME));
+        }
+    }
+
+    /**
+     * Read the index state file
+     *
+     * @param stateFile
+     */
+    public static synchronized void readStateFile(File stateFile) {
+        PREVIOUS_STATE.clear();
+        CURRENT_STATE.clear();
+        CHANGED_COUNT.set(0);
+        UNCHANGED_COUNT.set(0);
+        previousFound = false;
+
+        if (!stateFile.exists()) {
+            LOG.debug("No index state found, only the dirty videos will be used to find the changed indexes");
+            return;
+        }
+
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(stateFile), DEFAULT_CHARSET))) {
+            String line = in.readLine();
+            if (!STATE_VERSION.equals(line)) {
+                LOG.info("Index state file {} has an unknown format, ignoring", stateFile.getName());
+                return;
+            }
+
+            while ((line = in.readLine()) != null) {
+                int index = line.lastIndexOf(SEPARATOR);
+                if (index > 0) {
+                    PREVIOUS_STATE.put(line.substring(0, index), line.substring(index + 1));
+                } else {
+                    LOG.debug("Invalid index state line '{}'", line);
+                }
+            }
+        } catch (IOException ex) {
+            LOG.warn("Failed to read index state file {}: {}", stateFile.getName(), ex.getMessage());
+            PREVIOUS_STATE.clear();
+            return;
+        }
+
+        previousFound = true;
+        LOG.info("Read index state of {} indexes", PREVIOUS_STATE.size());
+    }
+
+    /**
+     * Create the fingerprint of the navigation between the indexes, that is all categories and their indexes that are shown.
+     *
+     * @param indexes
+     * @return
+     */
+    public static String createNavigationFingerprint(Map<String, Index> indexes) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Index> category : indexes.entrySet()) {
+            sb.append(category.getKey()).append('\n');
+            for (Map.Entry<String, List<Movie>> index : category.getValue().entrySet()) {
+                sb.append(SEPARATOR).append(index.getKey());
+                sb.append(SEPARATOR).append(index.getValue().size() >= Library.calcMinCategoryCount(index.getKey()));
+                sb.append('\n');
+            }
+        }
+        return DigestUtils.sha1Hex(sb.toString());
+    }
+
+    /**
+     * Create the fingerprint of the pages of an index
+     *
+     * @param movies the videos of the index in page order
+     * @param videosPerPage
+     * @param videosPerLine
+     * @param navigation the navigation fingerprint, or an empty string if the pages don't show the other indexes
+     * @return
+     */
+    public static String createFingerprint(List<Movie> movies, int videosPerPage, int videosPerLine, String navigation) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(videosPerPage).append(SEPARATOR).append(videosPerLine).append(SEPARATOR).append(navigation).append('\n');
+        for (Movie movie : movies) {
+            sb.append(movie.getBaseName()).append('\n');
+        }
+        return DigestUtils.sha1Hex(sb.toString());
+    }
+
+    /**
+     * Store the fingerprint of the index and check if it has changed since the last run
+     *
+     * @param baseName the base name of the index pages
+     * @param fingerprint
+     * @return true if the index has changed, false if it is unchanged or there is no state of the last run
+     */
+    public static boolean hasChanged(String baseName, String fingerprint) {
+        if (!ENABLED) {
+            return false;
+        }
+
+        CURRENT_STATE.put(baseName, fingerprint);
+        if (!previousFound) {
+            return false;
+        }
+
+        if (fingerprint.equals(PREVIOUS_STATE.get(baseName))) {
+            UNCHANGED_COUNT.incrementAndGet();
+            return false;
+        }
+        CHANGED_COUNT.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Write the index state of this run for use in the next run
+     *
+     * @param jukebox
+     */
+    public static void writeStateFile(Jukebox jukebox) {
+        if (ENABLED) {
+            writeStateFile(new File(jukebox.getJukeboxRootLocationDetailsFile(), STATE_FILENAME));
+        }
+    }
+
+    /**
+     * Write the index state file.
+     *
+     * Nothing is written if no indexes were generated in this run, so the state of the last run is kept.
+     *
+     * @param stateFile
+     */
+    public static synchronized void writeStateFile(File stateFile) {
+        if (CURRENT_STATE.isEmpty()) {
+            return;
+        }
+
+        LOG.debug("Index state: {} indexes changed, {} indexes unchanged", CHANGED_COUNT.get(), UNCHANGED_COUNT.get());
+
+        File tempFile = new File(stateFile.getAbsolutePath() + ".tmp");
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(tempFile), DEFAULT_CHARSET))) {
+            out.println(STATE_VERSION);
+            for (Map.Entry<String, String> entry : CURRENT_STATE.entrySet()) {
+                if (!isUnsafe(entry.getKey())) {
+                    out.println(StringUtils.join(new String[]{entry.getKey(), entry.getValue()}, SEPARATOR));
+                }
+            }
+        } catch (IOException ex) {
+            LOG.warn("Failed to write index state file {}: {}", tempFile.getName(), ex.getMessage());
+            return;
+        }
+
+        if (stateFile.exists() && !stateFile.delete()) {
+            LOG.warn("Failed to delete {}. Please make sure it's not read only", stateFile.getName());
+            return;
+        }
+
+        if (!tempFile.renameTo(stateFile)) {
+            LOG.warn("Failed to rename {} to {}", tempFile.getName(), stateFile.getName());
+        }
+    }
+
+    private static boolean isUnsafe(String value) {
+        return value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+    }
+}
@@ -36,6 +36,7 @@ import java.util.Iterator;
 import java.util.List;
 import javax.imageio.IIOException;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
 import javax.imageio.ImageReader;
 import javax.imageio.stream.ImageInputStream;
 import org.apache.sanselan.ImageReadException;
@@ -73,6 +74,21 @@ public class JpegReader {
      * @throws IOException
      */
     public BufferedImage readImage(File file) throws IOException {
+        return readImage(file, 0, 0);
+    }
+
+    /**
+     * Read a JPEG image to a BufferedImage, skipping pixels if the image is more than twice the minimum size.
+     *
+     * Only every n-th pixel and line is decoded, so the image is read faster and needs less memory.
+     *
+     * @param file
+     * @param minWidth the minimum width of the image read, or 0 to read the full image
+     * @param minHeight the minimum height of the image read, or 0 to read the full image
+     * @return
+     * @throws IOException
+     */
+    public BufferedImage readImage(File file, int minWidth, int minHeight) throws IOException {
         colorType = COLOR_TYPE_RGB;
         hasAdobeMarker = Boolean.FALSE;
 
@@ -94,9 +110,19 @@ public class JpegReader {
                 reader.setInput(stream);
 
                 try {
-                    image = reader.read(0);
-                } catch (CMMException | IIOException ex) {
-                    image = readImageCmyk(file, reader);
+                    ImageReadParam param = reader.getDefaultReadParam();
+                    try {
+                        if (minWidth > 0 && minHeight > 0) {
+                            int subsampling = getSubsampling(reader.getWidth(0), reader.getHeight(0), minWidth, minHeight);
+                            if (subsampling > 1) {
+                                LOG.trace("Reading every {}. pixel of {}", subsampling, file.getName());
+                                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                            }
+                        }
+                        image = reader.read(0, param);
+                    } catch (CMMException | IIOException ex) {
+                        image = readImageCmyk(file, reader, param);
+                    }
                 } finally {
                     reader.dispose();
                 }
@@ -117,13 +143,13 @@ public class JpegReader {
      * @param reader
      * @return
      */
-    private BufferedImage readImageCmyk(File file, ImageReader reader) {
+    private BufferedImage readImageCmyk(File file, ImageReader reader, ImageReadParam param) {
         colorType = COLOR_TYPE_CMYK;
         BufferedImage image;
         try {
             checkAdobeMarker(file);
             ICC_Profile profile = Sanselan.getICCProfile(file);
-            WritableRaster raster = (WritableRaster) reader.readRaster(0, null);
+            WritableRaster raster = (WritableRaster) reader.readRaster(0, param);
 
             if (colorType == COLOR_TYPE_YCCK) {
                 convertYcckToCmyk(raster);
@@ -141,6 +167,22 @@ public class JpegReader {
         return image;
     }
 
+    /**
+     * Get the largest step between the pixels that still gives the minimum size
+     *
+     * @param width
+     * @param height
+     * @param minWidth
+     * @param minHeight
+     * @return
+     */
+    static int getSubsampling(int width, int height, int minWidth, int minHeight) {
+        if (minWidth <= 0 || minHeight <= 0) {
+            return 1;
+        }
+        return Math.max(1, Math.min(width / minWidth, height / minHeight));
+    }
+
     private void checkAdobeMarker(File file) throws IOException, ImageReadException {
         JpegImageParser parser = new JpegImageParser();
         ByteSource byteSource = new ByteSourceFile(file);
@@ -0,0 +1,350 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publish the files of the temporary jukebox to the jukebox directory, copying only the files that have changed.
+ *
+ * A file is unchanged if the jukebox already has a file with the same size and content hash. The hash of each published file
+ * is kept in a manifest in the jukebox directory, so the files in the jukebox only have to be read when they were changed by
+ * something else. Changed files are copied by several threads, each to a temporary file that is then renamed over the old
+ * file, so the jukebox never holds a partly copied file.
+ */
+public final class JukeboxPublisher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JukeboxPublisher.class);
+    private static final String MANIFEST_FILENAME = "jukebox_publish.txt";
+    private static final String MANIFEST_VERSION = "#YAMJ publish manifest v1";
+    private static final boolean ENABLED = PropertiesUtil.getBooleanProperty("mjb.publish.sync", Boolean.FALSE);
+    private static final int THREADS = Math.max(1, PropertiesUtil.getIntProperty("mjb.publish.threads", 4));
+    private static final String DEFAULT_CHARSET = "UTF-8";
+    private static final String TEMP_EXTENSION = ".publish";
+    private static final char SEPARATOR = '\t';
+
+    static {
+        FileTools.addJukeboxFile(MANIFEST_FILENAME);
+    }
+
+    private JukeboxPublisher() {
+        throw new UnsupportedOperationException("Class cannot be instantiated");
+    }
+
+    /**
+     * Is publishing of the changed files enabled
+     *
+     * @return
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Publish the files of the source directory and its sub-directories to the target directory
+     *
+     * @param srcPathName the temporary jukebox directory
+     * @param dstPathName the jukebox directory
+     */
+    public static void publish(String srcPathName, String dstPathName) {
+        publish(new File(srcPathName), new File(dstPathName), THREADS);
+    }
+
+    /**
+     * Publish the files of the source directory and its sub-directories to the target directory
+     *
+     * @param srcDir
+     * @param dstDir
+     * @param threads the number of files to copy at the same time
+     */
+    public static void publish(File srcDir, File dstDir, int threads) {
+        if (!srcDir.isDirectory()) {
+            LOG.error("Source directory {} does not exist!", srcDir.getAbsolutePath());
+            return;
+        }
+
+        FileTools.makeDirs(dstDir);
+        if (!dstDir.isDirectory()) {
+            LOG.error("Target directory {} does not exist!", dstDir.getAbsolutePath());
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        File manifestFile = new File(dstDir, MANIFEST_FILENAME);
+        Map<String, ManifestEntry> manifest = readManifest(manifestFile);
+
+        List<String> paths = new ArrayList<>();
+        listFiles(srcDir, "", paths);
+
+        final AtomicInteger copied = new AtomicInteger(0);
+        final AtomicInteger unchanged = new AtomicInteger(0);
+        final AtomicInteger failed = new AtomicInteger(0);
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Future<Void>> results = new ArrayList<>(paths.size());
+            for (String path : paths) {
+                results.add(pool.submit(new PublishTask(srcDir, dstDir, path, manifest, copied, unchanged, failed)));
+            }
+            for (Future<Void> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException ex) {
+                    failed.incrementAndGet();
+                    LOG.error("Failed to publish file: {}", ex.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException ex) {
+            LOG.warn("Publishing to {} was interrupted", dstDir.getAbsolutePath());
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        writeManifest(manifestFile, manifest);
+
+        LOG.info("Published {} files in {}ms: {} copied, {} unchanged{}", paths.size(), System.currentTimeMillis() - startTime,
+                copied.get(), unchanged.get(), failed.get() > 0 ? ", " + failed.get() + " failed" : "");
+    }
+
+    /**
+     * List the files of the directory and its sub-directories, relative to the source directory
+     *
+     * @param dir
+     * @param prefix
+     * @param paths
+     */
+    private static void listFiles(File dir, String prefix, List<String> paths) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        for (File file : files) {
+            if (".svn".equals(file.getName())) {
+                continue;
+            }
+            String path = prefix + file.getName();
+            if (file.isDirectory()) {
+                listFiles(file, path + File.separator, paths);
+            } else {
+                paths.add(path);
+            }
+        }
+    }
+
+    private static String hashFile(File file) throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            return DigestUtils.sha1Hex(in);
+        }
+    }
+
+    private static Map<String, ManifestEntry> readManifest(File manifestFile) {
+        Map<String, ManifestEntry> manifest = new ConcurrentHashMap<>();
+        if (!manifestFile.exists()) {
+            return manifest;
+        }
+
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(manifestFile), DEFAULT_CHARSET))) {
+            String line = in.readLine();
+            if (!MANIFEST_VERSION.equals(line)) {
+                LOG.info("Publish manifest {} has an unknown format, ignoring", manifestFile.getName());
+                return manifest;
+            }
+
+            while ((line = in.readLine()) != null) {
+                String[] cols = StringUtils.splitPreserveAllTokens(line, SEPARATOR);
+                if (cols.length == 4) {
+                    manifest.put(cols[0], new ManifestEntry(Long.parseLong(cols[1]), Long.parseLong(cols[2]), cols[3]));
+                } else {
+                    LOG.debug("Invalid publish manifest line '{}'", line);
+                }
+            }
+        } catch (IOException | NumberFormatException ex) {
+            LOG.warn("Failed to read publish manifest {}: {}", manifestFile.getName(), ex.getMessage());
+            manifest.clear();
+        }
+        return manifest;
+    }
+
+    private static void writeManifest(File manifestFile, Map<String, ManifestEntry> manifest) {
+        File tempFile = new File(manifestFile.getAbsolutePath() + ".tmp");
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(tempFile), DEFAULT_CHARSET))) {
+            out.println(MANIFEST_VERSION);
+            for (Map.Entry<String, ManifestEntry> entry : manifest.entrySet()) {
+                String path = entry.getKey();
+                // Files in the jukebox directory that are no longer generated will be removed by the jukebox cleaning
+                if (path.indexOf(File.separatorChar) < 0 && !FileTools.getJukeboxFiles().contains(path)) {
+                    continue;
+                }
+                if (path.indexOf(SEPARATOR) >= 0 || path.indexOf('\n') >= 0 || path.indexOf('\r') >= 0) {
+                    continue;
+                }
+                ManifestEntry value = entry.getValue();
+                out.println(StringUtils.join(new Object[]{path, value.getLength(), value.getLastModified(), value.getHash()}, SEPARATOR));
+            }
+        } catch (IOException ex) {
+            LOG.warn("Failed to write publish manifest {}: {}", tempFile.getName(), ex.getMessage());
+            return;
+        }
+
+        try {
+            Files.move(tempFile.toPath(), manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            LOG.warn("Failed to rename {} to {}: {}", tempFile.getName(), manifestFile.getName(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Publish a single file
+     */
+    private static class PublishTask implements Callable<Void> {
+
+        private final File srcFile;
+        private final File dstFile;
+        private final String path;
+        private final Map<String, ManifestEntry> manifest;
+        private final AtomicInteger copied;
+        private final AtomicInteger unchanged;
+        private final AtomicInteger failed;
+
+        public PublishTask(File srcDir, File dstDir, String path, Map<String, ManifestEntry> manifest,
+                AtomicInteger copied, AtomicInteger unchanged, AtomicInteger failed) {
+            this.srcFile = new File(srcDir, path);
+            this.dstFile = new File(dstDir, path);
+            this.path = path;
+            this.manifest = manifest;
+            this.copied = copied;
+            this.unchanged = unchanged;
+            this.failed = failed;
+        }
+
+        @Override
+        public Void call() throws IOException {
+            String srcHash = hashFile(srcFile);
+            long srcLength = srcFile.length();
+
+            if (dstFile.isFile() && dstFile.length() == srcLength && srcHash.equals(getTargetHash())) {
+                // Keep the target at least as new as the generated file, some checks compare the dates of the jukebox files
+                if (srcFile.lastModified() > dstFile.lastModified() && !dstFile.setLastModified(srcFile.lastModified())) {
+                    LOG.trace("Failed to set the date of {}", dstFile.getName());
+                }
+                manifest.put(path, new ManifestEntry(dstFile.length(), dstFile.lastModified(), srcHash));
+                unchanged.incrementAndGet();
+                return null;
+            }
+
+            FileTools.makeDirs(dstFile.getParentFile());
+            File tempFile = new File(dstFile.getParentFile(), dstFile.getName() + TEMP_EXTENSION);
+            try {
+                Files.copy(srcFile.toPath(), tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                try {
+                    Files.move(tempFile.toPath(), dstFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException ex) {
+                    Files.move(tempFile.toPath(), dstFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException ex) {
+                manifest.remove(path);
+                failed.incrementAndGet();
+                LOG.error("Failed copying file '{}' to '{}': {}", srcFile, dstFile, ex.getMessage());
+                Files.deleteIfExists(tempFile.toPath());
+                return null;
+            }
+
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("Copied: {}", path);
+            }
+            manifest.put(path, new ManifestEntry(dstFile.length(), dstFile.lastModified(), srcHash));
+            copied.incrementAndGet();
+            return null;
+        }
+
+        /**
+         * Get the hash of the target file, from the manifest if the file has not changed since it was published
+         *
+         * @return
+         * @throws IOException
+         */
+        private String getTargetHash() throws IOException {
+            ManifestEntry entry = manifest.get(path);
+            if (entry != null && entry.getLength() == dstFile.length() && entry.getLastModified() == dstFile.lastModified()) {
+                return entry.getHash();
+            }
+            return hashFile(dstFile);
+        }
+    }
+
+    /**
+     * The size, date and content hash of a published file
+     */
+    private static class ManifestEntry {
+
+        private final long length;
+        private final long lastModified;
+        private final String hash;
+
+        public ManifestEntry(long length, long lastModified, String hash) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of the decoded overlay and logo images of the skin.
+ *
+ * The same logos are drawn on thousands of posters and thumbnails, so they are decoded only once and, if drawn at another size,
+ * scaled only once. The images are shared between the threads and must not be drawn on.
+ */
+public final class OverlayCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OverlayCache.class);
+    private static final int CACHE_SIZE = PropertiesUtil.getIntProperty("mjb.overlayCache.size", 200);
+    // The images by file and size, the least recently used are removed first
+    private static final Map<String, BufferedImage> IMAGES = new LinkedHashMap<String, BufferedImage>(64, 0.75F, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BufferedImage> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    // Statistics
+    private static final AtomicInteger HIT_COUNT = new AtomicInteger(0);
+    private static final AtomicInteger MISS_COUNT = new AtomicInteger(0);
+
+    private OverlayCache() {
+        throw new UnsupportedOperationException("Class cannot be instantiated");
+    }
+
+    /**
+     * Get the decoded image
+     *
+     * @param filename
+     * @return
+     * @throws IOException
+     */
+    public static BufferedImage getImage(String filename) throws IOException {
+        return getImage(new File(filename));
+    }
+
+    /**
+     * Get the decoded image
+     *
+     * @param imageFile
+     * @return
+     * @throws IOException
+     */
+    public static BufferedImage getImage(File imageFile) throws IOException {
+        String key = imageFile.getAbsolutePath();
+        BufferedImage image = get(key);
+        if (image == null) {
+            image = GraphicTools.loadJPEGImage(imageFile);
+            if (image == null) {
+                throw new FileNotFoundException("Image file '" + key + "' could not be read");
+            }
+            put(key, image);
+        }
+        return image;
+    }
+
+    /**
+     * Get the decoded image scaled to the width and height.
+     *
+     * The image is scaled the same way as drawing the original image with the width and height would do.
+     *
+     * @param filename
+     * @param width
+     * @param height
+     * @return
+     * @throws IOException
+     */
+    public static BufferedImage getImage(String filename, int width, int height) throws IOException {
+        File imageFile = new File(filename);
+        BufferedImage image = getImage(imageFile);
+        if ((image.getWidth() == width && image.getHeight() == height) || width <= 0 || height <= 0) {
+            return image;
+        }
+
+        String key = imageFile.getAbsolutePath() + "@" + width + "x" + height;
+        BufferedImage scaled = get(key);
+        if (scaled == null) {
+            scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g2d = scaled.createGraphics();
+            g2d.drawImage(image, 0, 0, width, height, null);
+            g2d.dispose();
+            put(key, scaled);
+        }
+        return scaled;
+    }
+
+    /**
+     * Remove all images from the cache, e.g. when the skin has changed
+     */
+    public static void clear() {
+        synchronized (IMAGES) {
+            IMAGES.clear();
+        }
+        LOG.debug("Overlay cache: {} hits, {} images decoded or scaled", HIT_COUNT.get(), MISS_COUNT.get());
+        HIT_COUNT.set(0);
+        MISS_COUNT.set(0);
+    }
+
+    private static BufferedImage get(String key) {
+        BufferedImage image;
+        synchronized (IMAGES) {
+            image = IMAGES.get(key);
+        }
+        if (image == null) {
+            MISS_COUNT.incrementAndGet();
+        } else {
+            HIT_COUNT.incrementAndGet();
+        }
+        return image;
+    }
+
+    private static void put(String key, BufferedImage image) {
+        if (CACHE_SIZE > 0) {
+            synchronized (IMAGES) {
+                IMAGES.put(key, image);
+            }
+        }
+    }
+}
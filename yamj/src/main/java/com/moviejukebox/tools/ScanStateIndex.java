@@ -0,0 +1,377 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools;
+
+import com.moviejukebox.model.Jukebox;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent index of the media library directory listings.
+ *
+ * The listing of each scanned directory is saved at the end of the run together with the directory date. On the next run a
+ * directory whose date has not changed is restored from the index instead of being listed again, which saves a lot of file
+ * system access on network shares.
+ *
+ * Note: Changing the content of a file does not change the date of its directory, so the size and date of such a file will only
+ * be refreshed once its directory changes.
+ */
+public final class ScanStateIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ScanStateIndex.class);
+    private static final String STATE_FILENAME = "jukebox_scanstate.txt";
+    private static final String STATE_VERSION = "#YAMJ scan state v1";
+    private static final boolean ENABLED = PropertiesUtil.getBooleanProperty("mjb.scanner.stateIndex", Boolean.FALSE);
+    private static final String DEFAULT_CHARSET = "UTF-8";
+    // Record types
+    private static final String TYPE_DIRECTORY = "D";
+    private static final String TYPE_ENTRY_FILE = "f";
+    private static final String TYPE_ENTRY_DIR = "d";
+    private static final char SEPARATOR = '\t';
+    // The state read from the last run
+    private static final Map<String, DirectoryState> PREVIOUS_STATE = new ConcurrentHashMap<>();
+    // The state collected during this run
+    private static final Map<String, DirectoryState> CURRENT_STATE = new ConcurrentHashMap<>();
+    private static final Map<String, String> CURRENT_KEYS = new ConcurrentHashMap<>();
+    // Statistics
+    private static final AtomicInteger RESTORED_COUNT = new AtomicInteger(0);
+    private static final AtomicInteger LISTED_COUNT = new AtomicInteger(0);
+
+    static {
+        FileTools.addJukeboxFile(STATE_FILENAME);
+    }
+
+    private ScanStateIndex() {
+        throw new UnsupportedOperationException("Class cannot be instantiated");
+    }
+
+    /**
+     * Is the scan state index enabled
+     *
+     * @return
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Read the scan state from the last run
+     *
+     * @param jukebox
+     */
+    public static void readStateFile(Jukebox jukebox) {
+        if (ENABLED) {
+            readStateFile(new File(jukebox.getJukeboxRootLocationDetailsFile(), STATE_FILENAME));
+        }
+    }
+
+    /**
+     * Read the scan state file
+     *
+     * @param stateFile
+     */
+    public static synchronized void readStateFile(File stateFile) {
+        PREVIOUS_STATE.clear();
+        CURRENT_STATE.clear();
+        CURRENT_KEYS.clear();
+        RESTORED_COUNT.set(0);
+        LISTED_COUNT.set(0);
+
+        if (!stateFile.exists()) {
+            LOG.debug("No scan state found, all directories will be scanned");
+            return;
+        }
+
+        int entryCount = 0;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(stateFile), DEFAULT_CHARSET))) {
+            String line = in.readLine();
+            if (!STATE_VERSION.equals(line)) {
+                LOG.info("Scan state file {} has an unknown format, ignoring", stateFile.getName());
+                return;
+            }
+
+            DirectoryState dirState = null;
+            while ((line = in.readLine()) != null) {
+                String[] cols = StringUtils.splitPreserveAllTokens(line, SEPARATOR);
+                if (TYPE_DIRECTORY.equals(cols[0]) && cols.length == 3) {
+                    dirState = new DirectoryState(Long.parseLong(cols[2]));
+                    PREVIOUS_STATE.put(cols[1], dirState);
+                } else if (dirState != null && cols.length == 5) {
+                    dirState.addEntry(new EntryState(cols[1], TYPE_ENTRY_DIR.equals(cols[0]), Long.parseLong(cols[2]), Long.parseLong(cols[3]), cols[4]));
+                    entryCount++;
+                } else {
+                    LOG.debug("Invalid scan state line '{}'", line);
+                }
+            }
+        } catch (IOException | NumberFormatException ex) {
+            LOG.warn("Failed to read scan state file {}: {}", stateFile.getName(), ex.getMessage());
+            PREVIOUS_STATE.clear();
+            return;
+        }
+
+        LOG.info("Read scan state of {} directories with {} entries", PREVIOUS_STATE.size(), entryCount);
+    }
+
+    /**
+     * List the files of the directory.
+     *
+     * If the directory has not changed since the last run, the listing is restored from the scan state, otherwise the directory
+     * is read from disk.
+     *
+     * @param directory
+     * @return the files, or null if the directory could not be read
+     */
+    public static File[] listFiles(File directory) {
+        if (!ENABLED) {
+            return directory.listFiles();
+        }
+
+        String path = directory.getAbsolutePath();
+        // A directory restored from the state holds the date of the last run, so always read the date from disk
+        long lastModified = new File(path).lastModified();
+
+        DirectoryState previous = PREVIOUS_STATE.get(path);
+        File[] files;
+        if (previous != null && lastModified > 0 && previous.getLastModified() == lastModified) {
+            files = previous.restoreFiles(directory);
+            RESTORED_COUNT.incrementAndGet();
+        } else {
+            files = directory.listFiles();
+            LISTED_COUNT.incrementAndGet();
+        }
+
+        if (files != null && lastModified > 0) {
+            CURRENT_STATE.put(path, new DirectoryState(lastModified, files));
+        }
+        return files;
+    }
+
+    /**
+     * Store the library key for the scanned file
+     *
+     * @param file
+     * @param libraryKey
+     */
+    public static void setLibraryKey(File file, String libraryKey) {
+        if (ENABLED) {
+            String path = file.getAbsolutePath();
+            String oldKey = getLibraryKey(file);
+            if (oldKey != null && !oldKey.equals(libraryKey)) {
+                LOG.debug("Library key of '{}' changed from '{}' to '{}'", path, oldKey, libraryKey);
+            }
+            CURRENT_KEYS.put(path, libraryKey);
+        }
+    }
+
+    /**
+     * Get the library key of the file from the last run
+     *
+     * @param file
+     * @return the key or null if not known
+     */
+    public static String getLibraryKey(File file) {
+        File parent = file.getParentFile();
+        if (parent != null) {
+            DirectoryState dirState = PREVIOUS_STATE.get(parent.getAbsolutePath());
+            if (dirState != null) {
+                EntryState entry = dirState.getEntry(file.getName());
+                if (entry != null) {
+                    return StringUtils.trimToNull(entry.getLibraryKey());
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Write the scan state of this run for use in the next run
+     *
+     * @param jukebox
+     */
+    public static void writeStateFile(Jukebox jukebox) {
+        if (ENABLED) {
+            writeStateFile(new File(jukebox.getJukeboxRootLocationDetailsFile(), STATE_FILENAME));
+        }
+    }
+
+    /**
+     * Write the scan state file
+     *
+     * @param stateFile
+     */
+    public static synchronized void writeStateFile(File stateFile) {
+        LOG.debug("Scan state: {} directories restored, {} directories listed", RESTORED_COUNT.get(), LISTED_COUNT.get());
+
+        File tempFile = new File(stateFile.getAbsolutePath() + ".tmp");
+
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(tempFile), DEFAULT_CHARSET))) {
+            out.println(STATE_VERSION);
+            for (Map.Entry<String, DirectoryState> dirEntry : CURRENT_STATE.entrySet()) {
+                if (isUnsafe(dirEntry.getKey())) {
+                    continue;
+                }
+
+                String dirPath = dirEntry.getKey();
+                List<String> lines = new ArrayList<>();
+                boolean valid = true;
+                for (File file : dirEntry.getValue().getFiles()) {
+                    if (isUnsafe(file.getName())) {
+                        // the directory can't be restored without this entry
+                        valid = false;
+                        break;
+                    }
+                    String key = CURRENT_KEYS.get(file.getAbsolutePath());
+                    lines.add(createLine(file.isDirectory() ? TYPE_ENTRY_DIR : TYPE_ENTRY_FILE, file.getName(), String.valueOf(file.length()),
+                            String.valueOf(file.lastModified()), (key == null || isUnsafe(key)) ? "" : key));
+                }
+
+                if (valid) {
+                    out.println(createLine(TYPE_DIRECTORY, dirPath, String.valueOf(dirEntry.getValue().getLastModified())));
+                    for (String line : lines) {
+                        out.println(line);
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            LOG.warn("Failed to write scan state file {}: {}", tempFile.getName(), ex.getMessage());
+            return;
+        }
+
+        if (stateFile.exists() && !stateFile.delete()) {
+            LOG.warn("Failed to delete {}. Please make sure it's not read only", stateFile.getName());
+            return;
+        }
+
+        if (!tempFile.renameTo(stateFile)) {
+            LOG.warn("Failed to rename {} to {}", tempFile.getName(), stateFile.getName());
+        }
+    }
+
+    private static boolean isUnsafe(String value) {
+        return value.indexOf(SEPARATOR) >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+    }
+
+    private static String createLine(String... columns) {
+        return StringUtils.join(columns, SEPARATOR);
+    }
+
+    /**
+     * The listing of one directory
+     */
+    private static class DirectoryState {
+
+        private final long lastModified;
+        private final Map<String, EntryState> entries = new LinkedHashMap<>();
+        private final File[] files;
+
+        public DirectoryState(long lastModified) {
+            this.lastModified = lastModified;
+            this.files = null;
+        }
+
+        public DirectoryState(long lastModified, File[] files) {
+            this.lastModified = lastModified;
+            this.files = files.clone();
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public void addEntry(EntryState entry) {
+            entries.put(entry.getName(), entry);
+        }
+
+        public EntryState getEntry(String name) {
+            return entries.get(name);
+        }
+
+        public File[] getFiles() {
+            return files;
+        }
+
+        public File[] restoreFiles(File directory) {
+            File[] restored = new File[entries.size()];
+            int pos = 0;
+            for (EntryState entry : entries.values()) {
+                restored[pos++] = FileTools.FileEx.createKnownFile(directory, entry.getName(), entry.isDirectory(), entry.getLength(), entry.getLastModified());
+            }
+            return restored;
+        }
+    }
+
+    /**
+     * A single file or directory in the listing
+     */
+    private static class EntryState {
+
+        private final String name;
+        private final boolean directory;
+        private final long length;
+        private final long lastModified;
+        private final String libraryKey;
+
+        public EntryState(String name, boolean directory, long length, long lastModified, String libraryKey) {
+            this.name = name;
+            this.directory = directory;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.libraryKey = libraryKey;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isDirectory() {
+            return directory;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public String getLibraryKey() {
+            return libraryKey;
+        }
+    }
+}
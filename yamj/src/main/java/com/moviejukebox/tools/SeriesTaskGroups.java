@@ -0,0 +1,184 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools;
+
+import com.moviejukebox.model.Movie;
+import com.moviejukebox.plugin.TheTvDBPlugin;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Schedule the processing tasks of the videos grouped by series.
+ *
+ * The seasons of a TV show are processed one after the other in season order by the same worker, so only the first season
+ * fetches the series data and artwork from the sites and the other seasons find it in the cache. Different series and movies
+ * still run in parallel. The largest groups are submitted first, so a long series doesn't hold up the end of the processing.
+ *
+ * Without grouping (mjb.processing.groupSeries=false) each task is submitted on its own, in the order they were added.
+ */
+public class SeriesTaskGroups {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SeriesTaskGroups.class);
+    private static final String TVDB_PREFIX = "tvdb:";
+    private static final String TITLE_PREFIX = "title:";
+    private final boolean grouped;
+    private final Map<String, List<SeasonTask>> groups = new LinkedHashMap<>();
+    private int taskCount = 0;
+
+    public SeriesTaskGroups() {
+        this(PropertiesUtil.getBooleanProperty("mjb.processing.groupSeries", Boolean.FALSE));
+    }
+
+    public SeriesTaskGroups(boolean grouped) {
+        this.grouped = grouped;
+    }
+
+    /**
+     * Add the processing task of the video
+     *
+     * @param movie
+     * @param task
+     */
+    public void add(Movie movie, Callable<Void> task) {
+        String key = grouped ? getSeriesKey(movie) : null;
+        if (key == null) {
+            // Each movie is a group of its own
+            key = Integer.toString(taskCount);
+        }
+
+        List<SeasonTask> group = groups.get(key);
+        if (group == null) {
+            group = new ArrayList<>(1);
+            groups.put(key, group);
+        }
+        group.add(new SeasonTask(movie.getSeason(), task));
+        taskCount++;
+    }
+
+    /**
+     * Submit the groups to the executor, each group as one task
+     *
+     * @param tasks
+     * @throws InterruptedException
+     */
+    public void submitTo(ThreadExecutor<Void> tasks) throws InterruptedException {
+        List<List<SeasonTask>> ordered = new ArrayList<>(groups.values());
+        if (grouped) {
+            // Stable, so groups of the same size stay in library order
+            Collections.sort(ordered, new Comparator<List<SeasonTask>>() {
+                @Override
+                public int compare(List<SeasonTask> group1, List<SeasonTask> group2) {
+                    return group2.size() - group1.size();
+                }
+            });
+            LOG.debug("Processing {} videos in {} groups", taskCount, ordered.size());
+        }
+
+        for (List<SeasonTask> group : ordered) {
+            if (group.size() == 1) {
+                tasks.submit(group.get(0).task);
+            } else {
+                tasks.submit(new GroupTask(group));
+            }
+        }
+
+        groups.clear();
+        taskCount = 0;
+    }
+
+    /**
+     * Get the key of the series of the video, the TheTVDb ID if it is known, otherwise the title
+     *
+     * @param movie
+     * @return the key or null if the video is not a TV show
+     */
+    public static String getSeriesKey(Movie movie) {
+        if (!movie.isTVShow()) {
+            return null;
+        }
+
+        String id = movie.getId(TheTvDBPlugin.THETVDB_PLUGIN_ID);
+        if (StringTools.isValidString(id)) {
+            return TVDB_PREFIX + id;
+        }
+
+        String title = StringTools.isValidString(movie.getOriginalTitle()) ? movie.getOriginalTitle() : movie.getTitle();
+        if (StringTools.isNotValidString(title)) {
+            return null;
+        }
+        return TITLE_PREFIX + StringUtils.lowerCase(title.trim());
+    }
+
+    /**
+     * The task of one season
+     */
+    private static final class SeasonTask {
+
+        private final int season;
+        private final Callable<Void> task;
+
+        public SeasonTask(int season, Callable<Void> task) {
+            this.season = season;
+            this.task = task;
+        }
+    }
+
+    /**
+     * Run the tasks of a series in season order
+     */
+    private static final class GroupTask implements Callable<Void> {
+
+        private final List<SeasonTask> group;
+
+        public GroupTask(List<SeasonTask> group) {
+            this.group = group;
+            Collections.sort(this.group, new Comparator<SeasonTask>() {
+                @Override
+                public int compare(SeasonTask task1, SeasonTask task2) {
+                    return Integer.compare(task1.season, task2.season);
+                }
+            });
+        }
+
+        @Override
+        public Void call() {
+            for (SeasonTask seasonTask : group) {
+                try {
+                    seasonTask.task.call();
+                } catch (Exception ex) {
+                    // Same as a failed task in the executor, the other seasons are still processed
+                    LOG.info(SystemTools.getStackTrace(ex));
+                }
+            }
+            return null;
+        }
+    }
+}
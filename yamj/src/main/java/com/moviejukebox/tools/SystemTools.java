@@ -75,7 +75,7 @@ public final class SystemTools {
             }
         }
 
-        // Check to see if we need to turn the cache off.
+        // Check to see if we need to shrink the cache.
         if (memoryFree < CACHE_MAX_SIZE) {
             CacheMemory.purgeCache();
         }
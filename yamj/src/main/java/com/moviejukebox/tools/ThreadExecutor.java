@@ -26,13 +26,15 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -40,8 +42,11 @@ import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -54,22 +59,28 @@ public class ThreadExecutor<T> implements ThreadFactory {
     private final int threadsRun, threadsIo, threadsTotal;
     private final boolean ignoreErrors = true;
     private Semaphore runningThreads, ioThreads;
-    private static final Map<String, String> HOST_GROUP = new HashMap<>();
-    private static final Map<String, Semaphore> GROUP_LIMITS = new HashMap<>();
+    private static final Map<String, HostGroup> HOST_GROUP = new ConcurrentHashMap<>();
+    private static final Map<String, HostGroup> GROUP_LIMITS = new LinkedHashMap<>();
+    private static final ConcurrentMap<String, HostStatistics> HOST_STATISTICS = new ConcurrentHashMap<>();
+    private static final String DEFAULT_GROUP = ".*";
+    // Run each task on its own thread with a small stack
+    private static final boolean LIGHTWEIGHT_THREADS = PropertiesUtil.getBooleanProperty("mjb.lightweightThreads", Boolean.FALSE);
+    private static final long LIGHTWEIGHT_STACK_SIZE = PropertiesUtil.getLongProperty("mjb.lightweightThreads.stackSize", 512) * 1024L;
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger(0);
 
     /**
      * Handle IO slots allocation to avoid throttling / ban on source sites
      * <p>
      * Find the proper semaphore for each host:<br/>
      * - Map each unique host to a group (hostgrp)<br/>
-     * - Max each group (rule) to a semaphore
+     * - Max each group (rule) to a semaphore and optionally a request rate
      *
      * @author Gabriel Corneanu
      */
     static {
         // First we have to read/create the rules
         // Default, can be overridden
-        GROUP_LIMITS.put(".*", new Semaphore(1));
+        GROUP_LIMITS.put(DEFAULT_GROUP, new HostGroup(DEFAULT_GROUP, 1));
         String limitsProperty = PropertiesUtil.getProperty("mjb.MaxDownloadSlots", ".*=1");
         LOG.debug("Using download limits: {}", limitsProperty);
 
@@ -78,13 +89,25 @@ public class ThreadExecutor<T> implements ThreadFactory {
         while (semaphoreMatcher.find()) {
             String group = semaphoreMatcher.group(1);
             try {
-                Pattern.compile(group);
                 LOG.debug("{}={}", group, semaphoreMatcher.group(2));
-                GROUP_LIMITS.put(group, new Semaphore(Integer.parseInt(semaphoreMatcher.group(2))));
-            } catch (NumberFormatException error) {
+                GROUP_LIMITS.put(group, new HostGroup(group, Integer.parseInt(semaphoreMatcher.group(2))));
+            } catch (NumberFormatException | PatternSyntaxException error) {
                 LOG.debug("Rule '{}' is not valid regexp, ignored", group);
             }
         }
+
+        // The maximum number of requests per second for a group
+        String rateProperty = PropertiesUtil.getProperty("mjb.MaxDownloadRate", "");
+        Matcher rateMatcher = semaphorePattern.matcher(rateProperty);
+        while (rateMatcher.find()) {
+            HostGroup hostGroup = GROUP_LIMITS.get(rateMatcher.group(1));
+            if (hostGroup == null) {
+                LOG.debug("Rate rule '{}' has no matching download slot rule, ignored", rateMatcher.group(1));
+            } else {
+                LOG.debug("{}={} requests per second", rateMatcher.group(1), rateMatcher.group(2));
+                hostGroup.setRate(Integer.parseInt(rateMatcher.group(2)));
+            }
+        }
     }
 
     /**
@@ -113,7 +136,8 @@ public class ThreadExecutor<T> implements ThreadFactory {
     private static final class ScheduledThread extends Thread {
 
         private final Semaphore sRun, sIo;
-        private Semaphore sIotarget;
+        private HostGroup sIotarget;
+        private HostStatistics ioStatistics;
         private final Stack<String> hosts = new Stack<>();
 
         private ScheduledThread(Runnable r, Semaphore sRun, Semaphore sIo) {
@@ -122,6 +146,12 @@ public class ThreadExecutor<T> implements ThreadFactory {
             this.sIo = sIo;
         }
 
+        private ScheduledThread(Runnable r, Semaphore sRun, Semaphore sIo, long stackSize) {
+            super(null, r, "ScheduledThread-" + THREAD_COUNT.incrementAndGet(), stackSize);
+            this.sRun = sRun;
+            this.sIo = sIo;
+        }
+
         @Override
         public void run() {
             sRun.acquireUninterruptibly();
@@ -143,34 +173,16 @@ public class ThreadExecutor<T> implements ThreadFactory {
                 hosts.push(host);
                 return;
             }
-            String semaphoreGroup;
-            synchronized (HOST_GROUP) {
-                semaphoreGroup = HOST_GROUP.get(host);
-                // first time not found, search for matching group
-                if (semaphoreGroup == null) {
-                    semaphoreGroup = ".*";
-                    for (String searchGroup : GROUP_LIMITS.keySet()) {
-                        if (host.matches(searchGroup)) {
-                            if (searchGroup.length() > semaphoreGroup.length()) {
-                                semaphoreGroup = searchGroup;
-                            }
-                        }
-                    }
-                    LOG.debug("IO download host: {}; rule: {}", host, semaphoreGroup);
-                    HOST_GROUP.put(host, semaphoreGroup);
-                }
-            }
 
             // there should be NO way to fail
-            //String dbgstr = "host="+host+"; thread="+getName();
-            //logger.finest("ThreadExecutor: Try EnterIO: "+dbgstr);
-            Semaphore s = GROUP_LIMITS.get(semaphoreGroup);
-            sIotarget = s;
+            sIotarget = getHostGroup(host);
+            ioStatistics = getHostStatistics(host);
+            long waitStart = ioStatistics.startWaiting();
             sRun.release(); // exit running state; another thread might be released;
-            sIotarget.acquireUninterruptibly(); // aquire URL target semaphore
+            sIotarget.acquire(); // aquire URL target semaphore and wait for the request rate
             hosts.push(host);
             sIo.acquireUninterruptibly(); // enter io state
-            //logger.finest("ThreadExecutor: EnterIO done: "+dbgstr);
+            ioStatistics.stopWaiting(waitStart);
             //ready to go...
         }
 
@@ -187,13 +199,158 @@ public class ThreadExecutor<T> implements ThreadFactory {
                 return;
             }
 
-            //String dbgstr = "host="+host+"; thread="+getName();
             sIotarget.release();
             sIo.release();
             sIotarget = null;
-            //logger.finest("ThreadExecutor: Try LeaveIO: "+dbgstr);
+            ioStatistics = null;
             sRun.acquireUninterruptibly(); //back to running state
-            //logger.finest("ThreadExecutor: LeaveIO done: "+dbgstr);
+        }
+    }
+
+    /**
+     * Find the group of the host, the longest matching rule is used
+     *
+     * @param host
+     * @return
+     */
+    private static HostGroup getHostGroup(String host) {
+        HostGroup hostGroup = HOST_GROUP.get(host);
+        // first time not found, search for matching group
+        if (hostGroup == null) {
+            hostGroup = GROUP_LIMITS.get(DEFAULT_GROUP);
+            for (HostGroup searchGroup : GROUP_LIMITS.values()) {
+                if (searchGroup.matches(host) && searchGroup.getName().length() > hostGroup.getName().length()) {
+                    hostGroup = searchGroup;
+                }
+            }
+            LOG.debug("IO download host: {}; rule: {}", host, hostGroup.getName());
+            HOST_GROUP.put(host, hostGroup);
+        }
+        return hostGroup;
+    }
+
+    private static HostStatistics getHostStatistics(String host) {
+        HostStatistics stats = HOST_STATISTICS.get(host);
+        if (stats == null) {
+            stats = new HostStatistics();
+            HostStatistics existing = HOST_STATISTICS.putIfAbsent(host, stats);
+            if (existing != null) {
+                stats = existing;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * A download slot rule: limits the concurrent downloads and optionally the requests per second of the matching hosts
+     */
+    private static final class HostGroup {
+
+        private final String name;
+        private final Pattern pattern;
+        private final Semaphore slots;
+        private volatile double rate = 0;
+        private double tokens = 0;
+        private long lastRefill = 0;
+
+        private HostGroup(String name, int maxSlots) {
+            this.name = name;
+            this.pattern = Pattern.compile(name);
+            // fair, so a busy host does not starve the other threads waiting for the group
+            this.slots = new Semaphore(maxSlots, true);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean matches(String host) {
+            return pattern.matcher(host).matches();
+        }
+
+        public void setRate(int requestsPerSecond) {
+            synchronized (this) {
+                this.rate = requestsPerSecond;
+                this.tokens = requestsPerSecond;
+                this.lastRefill = System.nanoTime();
+            }
+        }
+
+        public void acquire() {
+            slots.acquireUninterruptibly();
+            if (rate > 0) {
+                long wait = reserveToken();
+                if (wait > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }
+
+        public void release() {
+            slots.release();
+        }
+
+        /**
+         * Take a token from the bucket, which is refilled with the request rate and holds up to one second of requests
+         *
+         * @return the time in nanoseconds to wait for the token
+         */
+        private synchronized long reserveToken() {
+            long now = System.nanoTime();
+            tokens = Math.min(rate, tokens + (now - lastRefill) * rate / TimeUnit.SECONDS.toNanos(1));
+            lastRefill = now;
+            tokens -= 1;
+            if (tokens >= 0) {
+                return 0;
+            }
+            return (long) (-tokens * TimeUnit.SECONDS.toNanos(1) / rate);
+        }
+    }
+
+    /**
+     * Queue statistics of a host
+     */
+    private static final class HostStatistics {
+
+        private final AtomicInteger waiting = new AtomicInteger(0);
+        private final AtomicInteger maxWaiting = new AtomicInteger(0);
+        private final AtomicInteger requests = new AtomicInteger(0);
+        private final AtomicLong waitTime = new AtomicLong(0);
+
+        public long startWaiting() {
+            int current = waiting.incrementAndGet();
+            int max = maxWaiting.get();
+            while (current > max && !maxWaiting.compareAndSet(max, current)) {
+                max = maxWaiting.get();
+            }
+            return System.currentTimeMillis();
+        }
+
+        public void stopWaiting(long waitStart) {
+            waiting.decrementAndGet();
+            requests.incrementAndGet();
+            waitTime.addAndGet(System.currentTimeMillis() - waitStart);
+        }
+
+        @Override
+        public String toString() {
+            int count = requests.get();
+            return count + " requests, max queue " + maxWaiting.get() + ", average wait " + (count == 0 ? 0 : waitTime.get() / count) + "ms";
+        }
+    }
+
+    /**
+     * Log the download queue statistics of each host
+     */
+    public static void showStatistics() {
+        if (LOG.isDebugEnabled()) {
+            for (Map.Entry<String, HostStatistics> entry : HOST_STATISTICS.entrySet()) {
+                LOG.debug("Download host {}: {}", entry.getKey(), entry.getValue());
+            }
         }
     }
 
@@ -233,6 +390,9 @@ public class ThreadExecutor<T> implements ThreadFactory {
 
     @Override
     public Thread newThread(Runnable r) {
+        if (LIGHTWEIGHT_THREADS) {
+            return new ScheduledThread(r, runningThreads, ioThreads, LIGHTWEIGHT_STACK_SIZE);
+        }
         return new ScheduledThread(r, runningThreads, ioThreads);
     }
 
@@ -246,11 +406,21 @@ public class ThreadExecutor<T> implements ThreadFactory {
         //make it reasonable sized to avoid waiting in submit
         queue = new ArrayBlockingQueue<>(100);
 //        queue = new LinkedBlockingQueue<Runnable>();
-        //allow more threads, they are managed by semaphores
-        pool = new ThreadPoolExecutor(threadsRun, 2 * threadsTotal,
-                100, TimeUnit.MILLISECONDS,
-                queue,
-                this);
+        if (LIGHTWEIGHT_THREADS) {
+            // one thread for each running or downloading task, so a task waiting for a download never blocks another task;
+            // the semaphores still limit the running tasks and the downloads per host
+            pool = new ThreadPoolExecutor(threadsTotal, threadsTotal,
+                    1, TimeUnit.SECONDS,
+                    queue,
+                    this);
+            pool.allowCoreThreadTimeOut(true);
+        } else {
+            //allow more threads, they are managed by semaphores
+            pool = new ThreadPoolExecutor(threadsRun, 2 * threadsTotal,
+                    100, TimeUnit.MILLISECONDS,
+                    queue,
+                    this);
+        }
     }
 
     public void submit(Callable<T> c) throws InterruptedException {
@@ -0,0 +1,470 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools;
+
+import java.io.BufferedInputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Light weight, read only XML element.
+ *
+ * The elements are read in a single pass with a StAX parser and give the same values as the DOM methods that the readers
+ * use, without the cost of building a DOM document. Searching for the descendants of an element by name uses an index that
+ * is built the first time it is needed, rather than walking the whole tree for every search.
+ *
+ * An element can also be written to and read from a compact binary form, which is used by the XML snapshot.
+ */
+public final class XMLElement {
+
+    // Report CDATA sections separately, as they are separate nodes in a DOM document
+    private static final String REPORT_CDATA = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+    private static final ThreadLocal<XMLInputFactory> INPUT_FACTORY = new ThreadLocal<XMLInputFactory>() {
+        @Override
+        protected XMLInputFactory initialValue() {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+            factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+            if (factory.isPropertySupported(REPORT_CDATA)) {
+                factory.setProperty(REPORT_CDATA, Boolean.TRUE);
+            }
+            return factory;
+        }
+    };
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private final String name;
+    private final Map<String, String> attributes;
+    private final List<XMLElement> children = new ArrayList<>();
+    private final StringBuilder textContent = new StringBuilder();
+    // The position in the text content where the text of each child starts
+    private int[] childOffsets = new int[0];
+    // The value of the first child node, as returned by Node.getNodeValue(). If it is text, it is the start of the text content
+    private int firstTextLength = -1;
+    private String firstValue = null;
+    private boolean hasChildNodes = false;
+    private boolean firstValueClosed = false;
+    private Map<String, List<XMLElement>> descendants = null;
+
+    private XMLElement(String name, Map<String, String> attributes) {
+        this.name = name;
+        this.attributes = attributes;
+    }
+
+    /**
+     * Read the document element of the XML file
+     *
+     * @param xmlFile
+     * @return the document element
+     * @throws IOException
+     * @throws XMLStreamException
+     */
+    public static XMLElement parse(File xmlFile) throws IOException, XMLStreamException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(xmlFile))) {
+            XMLStreamReader reader = INPUT_FACTORY.get().createXMLStreamReader(in);
+            try {
+                return readDocument(reader);
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    private static XMLElement readDocument(XMLStreamReader reader) throws XMLStreamException {
+        XMLElement root = null;
+        Deque<XMLElement> open = new ArrayDeque<>();
+
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    Map<String, String> attributes;
+                    if (reader.getAttributeCount() == 0) {
+                        attributes = Collections.emptyMap();
+                    } else {
+                        // Sorted by name, as the attributes of a DOM element are
+                        attributes = new TreeMap<>();
+                        for (int i = 0; i < reader.getAttributeCount(); i++) {
+                            attributes.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+                        }
+                    }
+
+                    XMLElement element = new XMLElement(reader.getLocalName(), attributes);
+                    if (open.isEmpty()) {
+                        root = element;
+                    } else {
+                        open.peek().addChild(element);
+                    }
+                    open.push(element);
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    XMLElement closed = open.pop();
+                    if (!open.isEmpty()) {
+                        open.peek().textContent.append(closed.textContent);
+                    }
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                    if (!open.isEmpty()) {
+                        open.peek().addText(reader.getText(), false);
+                    }
+                    break;
+                case XMLStreamConstants.CDATA:
+                    if (!open.isEmpty()) {
+                        open.peek().addText(reader.getText(), true);
+                    }
+                    break;
+                case XMLStreamConstants.COMMENT:
+                    if (!open.isEmpty()) {
+                        open.peek().addOtherNode(reader.getText());
+                    }
+                    break;
+                default:
+                    // Processing instructions, DTDs and the like are not needed
+                    break;
+            }
+        }
+
+        if (root == null) {
+            throw new XMLStreamException("No document element found");
+        }
+        return root;
+    }
+
+    /**
+     * Create the element from a DOM element
+     *
+     * @param element
+     * @return
+     */
+    public static XMLElement fromDOM(Element element) {
+        Map<String, String> attributes;
+        NamedNodeMap nodeMap = element.getAttributes();
+        if (nodeMap.getLength() == 0) {
+            attributes = Collections.emptyMap();
+        } else {
+            attributes = new TreeMap<>();
+            for (int i = 0; i < nodeMap.getLength(); i++) {
+                attributes.put(nodeMap.item(i).getNodeName(), nodeMap.item(i).getNodeValue());
+            }
+        }
+
+        XMLElement xmlElement = new XMLElement(element.getNodeName(), attributes);
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            switch (child.getNodeType()) {
+                case Node.ELEMENT_NODE:
+                    XMLElement xmlChild = fromDOM((Element) child);
+                    xmlElement.addChild(xmlChild);
+                    xmlElement.textContent.append(xmlChild.textContent);
+                    break;
+                case Node.TEXT_NODE:
+                    xmlElement.addText(child.getNodeValue(), false);
+                    break;
+                case Node.CDATA_SECTION_NODE:
+                    xmlElement.addText(child.getNodeValue(), true);
+                    break;
+                default:
+                    xmlElement.addOtherNode(child.getNodeValue());
+                    break;
+            }
+        }
+        return xmlElement;
+    }
+
+    private void addChild(XMLElement child) {
+        hasChildNodes = true;
+        firstValueClosed = true;
+        if (children.size() == childOffsets.length) {
+            childOffsets = Arrays.copyOf(childOffsets, Math.max(4, childOffsets.length * 2));
+        }
+        childOffsets[children.size()] = textContent.length();
+        children.add(child);
+    }
+
+    private void addText(String text, boolean cdata) {
+        textContent.append(text);
+        if (!hasChildNodes) {
+            hasChildNodes = true;
+            firstTextLength = text.length();
+            firstValueClosed = cdata;
+        } else if (!firstValueClosed && !cdata) {
+            // Adjacent text is a single node in a normalised document
+            firstTextLength += text.length();
+        } else {
+            firstValueClosed = true;
+        }
+    }
+
+    private void addOtherNode(String value) {
+        if (!hasChildNodes) {
+            hasChildNodes = true;
+            firstValue = value;
+        }
+        firstValueClosed = true;
+    }
+
+    public String getNodeName() {
+        return name;
+    }
+
+    /**
+     * Get the value of the attribute
+     *
+     * @param attributeName
+     * @return the value or an empty string if the element does not have the attribute
+     */
+    public String getAttribute(String attributeName) {
+        String value = attributes.get(attributeName);
+        return value == null ? "" : value;
+    }
+
+    /**
+     * Get the attributes of the element, sorted by name
+     *
+     * @return
+     */
+    public Map<String, String> getAttributes() {
+        return Collections.unmodifiableMap(attributes);
+    }
+
+    /**
+     * The text of the element and all of its descendants
+     *
+     * @return
+     */
+    public String getTextContent() {
+        return textContent.toString();
+    }
+
+    /**
+     * Check if the element has any child nodes, including text
+     *
+     * @return
+     */
+    public boolean hasChildNodes() {
+        return hasChildNodes;
+    }
+
+    /**
+     * The value of the first child node, this is the text of an element that only contains text
+     *
+     * @return the value, or null if there are no child nodes or the first child is an element
+     */
+    public String getFirstChildValue() {
+        if (firstTextLength >= 0) {
+            return textContent.substring(0, firstTextLength);
+        }
+        return firstValue;
+    }
+
+    /**
+     * Get the child elements
+     *
+     * @return
+     */
+    public List<XMLElement> getChildElements() {
+        return Collections.unmodifiableList(children);
+    }
+
+    /**
+     * Get all descendant elements with the name, in document order
+     *
+     * @param tagName
+     * @return
+     */
+    public List<XMLElement> getElementsByTagName(String tagName) {
+        if (descendants == null) {
+            descendants = new HashMap<>();
+            indexDescendants(descendants);
+        }
+        List<XMLElement> elements = descendants.get(tagName);
+        if (elements == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(elements);
+    }
+
+    /**
+     * Get the first descendant element with the name
+     *
+     * @param tagName
+     * @return the element or null if there is none
+     */
+    public XMLElement getElementByName(String tagName) {
+        List<XMLElement> elements = getElementsByTagName(tagName);
+        return elements.isEmpty() ? null : elements.get(0);
+    }
+
+    /**
+     * Get the value of the first descendant element with the name, the same as DOMHelper.getValueFromElement
+     *
+     * @param tagName
+     * @return the value or an empty string if not found
+     */
+    public String getValue(String tagName) {
+        XMLElement element = getElementByName(tagName);
+        if (element != null && element.hasChildNodes()) {
+            return element.getFirstChildValue();
+        }
+        return "";
+    }
+
+    /**
+     * Write the element and all of its children in binary form.
+     *
+     * The text of the children is not repeated in the text of the element, only the position where it belongs.
+     *
+     * @param out
+     * @throws IOException
+     */
+    public void write(DataOutput out) throws IOException {
+        writeString(out, name);
+        out.writeInt(attributes.size());
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            writeString(out, attribute.getKey());
+            writeString(out, attribute.getValue());
+        }
+        out.writeBoolean(hasChildNodes);
+        out.writeInt(firstTextLength);
+        out.writeBoolean(firstValue != null);
+        if (firstValue != null) {
+            writeString(out, firstValue);
+        }
+
+        // Remove the text of the children from the text content
+        StringBuilder ownText = new StringBuilder();
+        int[] ownOffsets = new int[children.size()];
+        int pos = 0;
+        for (int i = 0; i < children.size(); i++) {
+            ownText.append(textContent, pos, childOffsets[i]);
+            ownOffsets[i] = ownText.length();
+            pos = childOffsets[i] + children.get(i).textContent.length();
+        }
+        ownText.append(textContent, pos, textContent.length());
+
+        writeString(out, ownText.toString());
+        out.writeInt(children.size());
+        for (int i = 0; i < children.size(); i++) {
+            out.writeInt(ownOffsets[i]);
+            children.get(i).write(out);
+        }
+    }
+
+    /**
+     * Read an element that was written by {@link #write(DataOutput)}
+     *
+     * @param in
+     * @return
+     * @throws IOException
+     */
+    public static XMLElement read(DataInput in) throws IOException {
+        String name = readString(in);
+        int attributeCount = in.readInt();
+        Map<String, String> attributes;
+        if (attributeCount == 0) {
+            attributes = Collections.emptyMap();
+        } else {
+            attributes = new TreeMap<>();
+            for (int i = 0; i < attributeCount; i++) {
+                attributes.put(readString(in), readString(in));
+            }
+        }
+
+        XMLElement element = new XMLElement(name, attributes);
+        boolean hasChildNodes = in.readBoolean();
+        int firstTextLength = in.readInt();
+        String firstValue = in.readBoolean() ? readString(in) : null;
+        String ownText = readString(in);
+
+        int childCount = in.readInt();
+        int pos = 0;
+        for (int i = 0; i < childCount; i++) {
+            int offset = in.readInt();
+            if (offset < pos || offset > ownText.length()) {
+                throw new IOException("Invalid child position " + offset + " in element '" + name + "'");
+            }
+            element.textContent.append(ownText, pos, offset);
+            pos = offset;
+
+            XMLElement child = read(in);
+            element.addChild(child);
+            element.textContent.append(child.textContent);
+        }
+        element.textContent.append(ownText, pos, ownText.length());
+
+        element.hasChildNodes = hasChildNodes;
+        element.firstTextLength = firstTextLength;
+        element.firstValue = firstValue;
+        element.firstValueClosed = true;
+        return element;
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        // DataOutput.writeUTF is limited to 64K
+        byte[] bytes = value.getBytes(UTF8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, UTF8);
+    }
+
+    private void indexDescendants(Map<String, List<XMLElement>> index) {
+        for (XMLElement child : children) {
+            List<XMLElement> elements = index.get(child.name);
+            if (elements == null) {
+                elements = new ArrayList<>();
+                index.put(child.name, elements);
+            }
+            elements.add(child);
+            child.indexDescendants(index);
+        }
+    }
+}
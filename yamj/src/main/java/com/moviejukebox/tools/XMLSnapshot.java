@@ -0,0 +1,370 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools;
+
+import com.moviejukebox.model.Jukebox;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.xml.stream.XMLStreamException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Binary snapshot of the parsed jukebox movie XML files.
+ *
+ * At the end of the run the parsed form of every movie XML file that was used is saved, together with the size and date of
+ * the file. On the next run the snapshot is memory mapped and a movie XML file that has not changed is decoded from the
+ * snapshot instead of being read and parsed again.
+ *
+ * Note: An XML file that is new or has been rewritten is parsed once more when the snapshot is saved.
+ */
+public final class XMLSnapshot {
+
+    private static final Logger LOG = LoggerFactory.getLogger(XMLSnapshot.class);
+    private static final String SNAPSHOT_FILENAME = "jukebox_snapshot.bin";
+    private static final int SNAPSHOT_MAGIC = 0x594A5853;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final boolean ENABLED = PropertiesUtil.getBooleanProperty("mjb.xmlSnapshot", Boolean.FALSE);
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    // The snapshot read from the last run
+    private static final Map<String, SnapshotEntry> PREVIOUS_ENTRIES = new ConcurrentHashMap<>();
+    private static volatile MappedByteBuffer snapshotBuffer = null;
+    // The XML files used in this run
+    private static final Set<String> USED_FILES = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    // Statistics
+    private static final AtomicInteger HIT_COUNT = new AtomicInteger(0);
+    private static final AtomicInteger MISS_COUNT = new AtomicInteger(0);
+
+    static {
+        FileTools.addJukeboxFile(SNAPSHOT_FILENAME);
+    }
+
+    private XMLSnapshot() {
+        throw new UnsupportedOperationException("Class cannot be instantiated");
+    }
+
+    /**
+     * Is the XML snapshot enabled
+     *
+     * @return
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Read the snapshot of the last run
+     *
+     * @param jukebox
+     */
+    public static void readSnapshot(Jukebox jukebox) {
+        if (ENABLED) {
+            readSnapshot(new File(jukebox.getJukeboxRootLocationDetailsFile(), SNAPSHOT_FILENAME));
+        }
+    }
+
+    /**
+     * Read the snapshot file.
+     *
+     * The file is memory mapped and only the position of each entry is read, the entries are decoded when they are needed.
+     *
+     * @param snapshotFile
+     */
+    public static synchronized void readSnapshot(File snapshotFile) {
+        PREVIOUS_ENTRIES.clear();
+        snapshotBuffer = null;
+        USED_FILES.clear();
+        HIT_COUNT.set(0);
+        MISS_COUNT.set(0);
+
+        // The last run could not replace the snapshot
+        File tempFile = getTempFile(snapshotFile);
+        if (tempFile.exists()) {
+            if (snapshotFile.exists() && !snapshotFile.delete()) {
+                LOG.warn("Failed to delete {}. Please make sure it's not read only", snapshotFile.getName());
+            } else if (!tempFile.renameTo(snapshotFile)) {
+                LOG.warn("Failed to rename {} to {}", tempFile.getName(), snapshotFile.getName());
+            }
+        }
+
+        if (!snapshotFile.exists()) {
+            LOG.debug("No XML snapshot found, all XML files will be read");
+            return;
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(snapshotFile, "r");
+                FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != SNAPSHOT_VERSION) {
+                LOG.info("XML snapshot file {} has an unknown format, ignoring", snapshotFile.getName());
+                return;
+            }
+
+            while (buffer.hasRemaining()) {
+                String path = readString(buffer);
+                long length = buffer.getLong();
+                long lastModified = buffer.getLong();
+                int size = buffer.getInt();
+                if (size < 0 || size > buffer.remaining()) {
+                    throw new IOException("Invalid entry size " + size);
+                }
+                PREVIOUS_ENTRIES.put(path, new SnapshotEntry(buffer.position(), size, length, lastModified));
+                buffer.position(buffer.position() + size);
+            }
+            snapshotBuffer = buffer;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException ex) {
+            LOG.warn("Failed to read XML snapshot file {}: {}", snapshotFile.getName(), ex.getMessage());
+            PREVIOUS_ENTRIES.clear();
+            return;
+        }
+
+        LOG.info("Read XML snapshot of {} files", PREVIOUS_ENTRIES.size());
+    }
+
+    /**
+     * Get the document element of the XML file from the snapshot.
+     *
+     * The file is added to the next snapshot, even if it was not found in this one.
+     *
+     * @param xmlFile
+     * @return the element, or null if the file is not in the snapshot or has changed since
+     */
+    public static XMLElement getElement(File xmlFile) {
+        if (!ENABLED) {
+            return null;
+        }
+
+        String path = xmlFile.getAbsolutePath();
+        USED_FILES.add(path);
+
+        SnapshotEntry entry = PREVIOUS_ENTRIES.get(path);
+        ByteBuffer buffer = snapshotBuffer;
+        if (entry != null && buffer != null && entry.matches(xmlFile.length(), xmlFile.lastModified())) {
+            try {
+                XMLElement element = XMLElement.read(new DataInputStream(new ByteBufferInputStream(entry.getBytes(buffer))));
+                HIT_COUNT.incrementAndGet();
+                return element;
+            } catch (IOException ex) {
+                LOG.debug("Failed to decode {} from the XML snapshot: {}", xmlFile.getName(), ex.getMessage());
+            }
+        }
+        MISS_COUNT.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Add the XML file to the next snapshot
+     *
+     * @param xmlFile
+     */
+    public static void markUsed(File xmlFile) {
+        if (ENABLED) {
+            USED_FILES.add(xmlFile.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Write the snapshot for use in the next run
+     *
+     * @param jukebox
+     */
+    public static void writeSnapshot(Jukebox jukebox) {
+        if (ENABLED) {
+            writeSnapshot(new File(jukebox.getJukeboxRootLocationDetailsFile(), SNAPSHOT_FILENAME));
+        }
+    }
+
+    /**
+     * Write the snapshot of all used XML files.
+     *
+     * Unchanged files are copied from the last snapshot, the others are parsed.
+     *
+     * @param snapshotFile
+     */
+    public static synchronized void writeSnapshot(File snapshotFile) {
+        LOG.debug("XML snapshot: {} files decoded, {} files read", HIT_COUNT.get(), MISS_COUNT.get());
+
+        File tempFile = getTempFile(snapshotFile);
+        int copied = 0;
+        int parsed = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            for (String path : USED_FILES) {
+                File xmlFile = new File(path);
+                long length = xmlFile.length();
+                long lastModified = xmlFile.lastModified();
+                if (!xmlFile.isFile()) {
+                    continue;
+                }
+
+                SnapshotEntry entry = PREVIOUS_ENTRIES.get(path);
+                byte[] bytes;
+                if (entry != null && snapshotBuffer != null && entry.matches(length, lastModified)) {
+                    ByteBuffer previous = entry.getBytes(snapshotBuffer);
+                    bytes = new byte[previous.remaining()];
+                    previous.get(bytes);
+                    copied++;
+                } else {
+                    try {
+                        encoded.reset();
+                        XMLElement.parse(xmlFile).write(new DataOutputStream(encoded));
+                    } catch (IOException | XMLStreamException ex) {
+                        LOG.debug("Failed to add {} to the XML snapshot: {}", xmlFile.getName(), ex.getMessage());
+                        continue;
+                    }
+                    bytes = encoded.toByteArray();
+                    parsed++;
+                }
+
+                writeString(out, path);
+                out.writeLong(length);
+                out.writeLong(lastModified);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        } catch (IOException ex) {
+            LOG.warn("Failed to write XML snapshot file {}: {}", tempFile.getName(), ex.getMessage());
+            return;
+        }
+
+        // Release the old snapshot, it can't be replaced while it is mapped on some systems
+        PREVIOUS_ENTRIES.clear();
+        snapshotBuffer = null;
+
+        if (snapshotFile.exists() && !snapshotFile.delete()) {
+            LOG.debug("Failed to delete {}, it will be replaced on the next run", snapshotFile.getName());
+            return;
+        }
+
+        if (!tempFile.renameTo(snapshotFile)) {
+            LOG.warn("Failed to rename {} to {}", tempFile.getName(), snapshotFile.getName());
+            return;
+        }
+        LOG.debug("Wrote XML snapshot of {} files, {} unchanged and {} parsed", copied + parsed, copied, parsed);
+    }
+
+    private static File getTempFile(File snapshotFile) {
+        return new File(snapshotFile.getAbsolutePath() + ".tmp");
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, UTF8);
+    }
+
+    /**
+     * The position and fingerprint of one XML file in the snapshot
+     */
+    private static class SnapshotEntry {
+
+        private final int position;
+        private final int size;
+        private final long length;
+        private final long lastModified;
+
+        public SnapshotEntry(int position, int size, long length, long lastModified) {
+            this.position = position;
+            this.size = size;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        public boolean matches(long length, long lastModified) {
+            return lastModified > 0 && this.length == length && this.lastModified == lastModified;
+        }
+
+        public ByteBuffer getBytes(ByteBuffer buffer) {
+            // Each caller gets its own view of the buffer, so the entries can be decoded by several threads
+            ByteBuffer bytes = buffer.duplicate();
+            bytes.position(position);
+            bytes.limit(position + size);
+            return bytes;
+        }
+    }
+
+    /**
+     * Input stream over the remaining bytes of a buffer
+     */
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        public ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return buffer.remaining();
+        }
+    }
+}
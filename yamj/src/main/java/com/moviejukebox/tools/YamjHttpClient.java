@@ -31,6 +31,7 @@ import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.protocol.HTTP;
+import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yamj.api.common.http.DigestedResponse;
@@ -42,6 +43,7 @@ public class YamjHttpClient extends PoolingHttpClient {
     private static final Logger LOG = LoggerFactory.getLogger(YamjHttpClient.class);
     private static final String ACCEPT_LANGUAGE = PropertiesUtil.getProperty("mjb.Accept-Language", null);
     private int imageRetryCount;
+    private HttpDiskCache diskCache = null;
     
     public YamjHttpClient(HttpClient httpClient, PoolingHttpClientConnectionManager connManager) {
         super(httpClient, connManager);
@@ -52,6 +54,15 @@ public class YamjHttpClient extends PoolingHttpClient {
         }        
     }
 
+    /**
+     * Set the disk cache for the requested pages
+     *
+     * @param diskCache the cache or null to not use a cache
+     */
+    public void setDiskCache(HttpDiskCache diskCache) {
+        this.diskCache = diskCache;
+    }
+
     @Override
     protected void prepareRequest(HttpHost target, HttpRequest request) throws ClientProtocolException {
         if (target.getHostName().contains("thetvdb")) {
@@ -77,8 +88,14 @@ public class YamjHttpClient extends PoolingHttpClient {
     }
     
     public String request(String url, Charset charset) throws IOException {
+        String cached = getCachedContent(url);
+        if (cached != null) {
+            return cached;
+        }
+
         DigestedResponse response = super.requestContent(url, charset);
         if (ResponseTools.isOK(response)) {
+            cacheContent(url, response.getContent());
             return response.getContent();
         } else if (ResponseTools.isTemporaryError(response)) {
             LOG.info("Temporary request error with status " + response.getStatusCode() + " for URL: " + url);
@@ -92,8 +109,15 @@ public class YamjHttpClient extends PoolingHttpClient {
     }
 
     public String request(HttpGet httpGet, Charset charset) throws IOException {
+        String url = httpGet.getURI().toString();
+        String cached = getCachedContent(url);
+        if (cached != null) {
+            return cached;
+        }
+
         DigestedResponse response = super.requestContent(httpGet, charset);
         if (ResponseTools.isOK(response)) {
+            cacheContent(url, response.getContent());
             return response.getContent();
         } else if (ResponseTools.isTemporaryError(response)) {
             LOG.info("Temporary request error with status " + response.getStatusCode() + " for URL: " + httpGet.getURI());
@@ -102,6 +126,47 @@ public class YamjHttpClient extends PoolingHttpClient {
         throw new IOException("Failed request with status " + response.getStatusCode() + " for URL: " + httpGet.getURI());
     }
     
+    private String getCachedContent(String url) {
+        if (diskCache == null) {
+            return null;
+        }
+        return diskCache.get(url);
+    }
+
+    private void cacheContent(String url, String content) {
+        if (diskCache != null && content != null) {
+            diskCache.put(url, content);
+        }
+    }
+
+    /**
+     * Download the image for the specified URL into memory.
+     *
+     * @param url
+     * @return the bytes of the image or null if the download failed
+     */
+    public byte[] downloadImageBytes(URL url) {
+        LOG.debug("Attempting to fetch '{}'", url);
+        int retryCount = imageRetryCount;
+
+        while (retryCount > 0) {
+            try {
+                HttpEntity entity = requestResource(url);
+                if (entity == null) {
+                    LOG.error("Failed to get content: {}", url);
+                    return null;
+                }
+                return EntityUtils.toByteArray(entity);
+            } catch (Exception e)  {
+                retryCount--;
+                LOG.debug("Image fetch attempt failed");
+            }
+        }
+
+        LOG.debug("Failed {} times to fetch image, aborting. URL: {}", imageRetryCount, url);
+        return null;
+    }
+
     /**
      * Download the image for the specified URL into the specified file.
      *
@@ -22,13 +22,18 @@
  */
 package com.moviejukebox.tools;
 
+import java.io.File;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.net.SocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpHost;
 import org.apache.http.auth.AuthScope;
@@ -60,6 +65,10 @@ public class YamjHttpClientBuilder {
     private static final int TIMEOUT_SOCKET = PropertiesUtil.getIntProperty("mjb.Timeout.Socket", 90000);
     private static final int TIMEOUT_CONNECT = PropertiesUtil.getIntProperty("mjb.Timeout.Connect", 25000);
     private static final int TIMEOUT_READ = PropertiesUtil.getIntProperty("mjb.Timeout.Read", 90000);
+    private static final boolean DISK_CACHE = PropertiesUtil.getBooleanProperty("mjb.httpCache", Boolean.FALSE);
+    private static final long DEFAULT_CACHE_HOURS = 24;
+    // Same format as the download slots
+    private static final Pattern RULE_PATTERN = Pattern.compile(",?\\s*([^=]+)=(\\d+)");
 
     private static YamjHttpClient YAMJ_HTTP_CLIENT;
     private static Lock LOCK = new ReentrantLock(true);
@@ -176,8 +185,7 @@ public class YamjHttpClientBuilder {
         if (StringUtils.isNotBlank(maxDownloadSlots)) {
             LOG.debug("Using download limits: {}", maxDownloadSlots);
     
-            Pattern pattern = Pattern.compile(",?\\s*([^=]+)=(\\d+)");
-            Matcher matcher = pattern.matcher(maxDownloadSlots);
+            Matcher matcher = RULE_PATTERN.matcher(maxDownloadSlots);
             while (matcher.find()) {
                 String group = matcher.group(1);
                 try {
@@ -190,6 +198,46 @@ public class YamjHttpClientBuilder {
             }
         }
         
+        if (DISK_CACHE) {
+            wrapper.setDiskCache(buildDiskCache());
+        }
+
         return wrapper;
     }
+
+    /**
+     * Create the disk cache for the downloaded pages
+     *
+     * @return
+     */
+    private static HttpDiskCache buildDiskCache() {
+        String directory = PropertiesUtil.getProperty("mjb.httpCache.directory", "./cache/http");
+        long maxSize = PropertiesUtil.getLongProperty("mjb.httpCache.maxSize", 500) * 1024L * 1024L;
+
+        // Read the rules, the ".*" rule is the default for all other hosts
+        Map<String, Long> rules = new LinkedHashMap<>();
+        long defaultTtl = TimeUnit.HOURS.toMillis(DEFAULT_CACHE_HOURS);
+        Matcher matcher = RULE_PATTERN.matcher(PropertiesUtil.getProperty("mjb.httpCache.hours", ""));
+        while (matcher.find()) {
+            String group = matcher.group(1).trim();
+            long ttl = TimeUnit.HOURS.toMillis(Long.parseLong(matcher.group(2)));
+            if (".*".equals(group)) {
+                defaultTtl = ttl;
+            } else {
+                rules.put(group, ttl);
+            }
+        }
+
+        HttpDiskCache diskCache = new HttpDiskCache(new File(directory), maxSize, defaultTtl);
+        for (Map.Entry<String, Long> rule : rules.entrySet()) {
+            try {
+                diskCache.addHostTtl(rule.getKey(), rule.getValue());
+                LOG.trace("Added HTTP cache rule '{}' with {} hours", rule.getKey(), TimeUnit.MILLISECONDS.toHours(rule.getValue()));
+            } catch (PatternSyntaxException ex) {
+                LOG.debug("HTTP cache rule '{}' is no valid regexp, ignored", rule.getKey());
+            }
+        }
+        diskCache.initialise();
+        return diskCache;
+    }
 }
@@ -22,12 +22,22 @@
  */
 package com.moviejukebox.tools.cache;
 
+import com.moviejukebox.model.JukeboxStatistics;
+import com.moviejukebox.model.enumerations.JukeboxStatistic;
 import com.moviejukebox.tools.PropertiesUtil;
 import com.moviejukebox.tools.StringTools;
+import java.awt.image.BufferedImage;
+import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,14 +47,27 @@ import org.slf4j.LoggerFactory;
  * database Many sites provide a "last modified" date/time attribute, so we
  * should consider also caching that in the database
  *
+ * The cache is split into namespaces by the first part of the cache key (e.g.
+ * the plugin), each namespace holds a limited weight of objects and drops the
+ * least recently used ones when it is full.
+ *
  * @author Stuart.Boston
  *
  */
 public final class CacheMemory {
 
-    private static final Map<String, Object> CACHE = new ConcurrentHashMap<>();
     private static final Logger LOG = LoggerFactory.getLogger(CacheMemory.class);
+    private static final String KEY_SEPARATOR = "-";
+    private static final String DEFAULT_NAMESPACE = "default";
+    private static final int DEFAULT_MAX_WEIGHT = PropertiesUtil.getIntProperty("mjb.cache.maxWeight", 5000);
+    // Images and binary data weigh 1 for each block of this size
+    private static final int BYTES_PER_WEIGHT = 4096;
+    private static final ConcurrentMap<String, Namespace> CACHE = new ConcurrentHashMap<>();
     private static boolean cacheEnabled = initCacheState();
+    // Statistics
+    private static final AtomicInteger HITS = new AtomicInteger(0);
+    private static final AtomicInteger MISSES = new AtomicInteger(0);
+    private static final AtomicInteger EVICTIONS = new AtomicInteger(0);
 
     private CacheMemory() {
         throw new UnsupportedOperationException("Class cannot be instantiated");
@@ -62,13 +85,21 @@ public final class CacheMemory {
             return;
         }
 
-        if (CACHE.containsKey(key)) {
+        Namespace namespace = getNamespace(key);
+        int weight = getWeight(value);
+        if (weight > namespace.getMaxWeight()) {
+            // Adding it would evict everything else, so rather don't cache it at all
+            LOG.debug("Cache (Add): Object ({}) with key '{}' is too large for the cache ({} > {}), skipping",
+                    value.getClass().getSimpleName(), key, weight, namespace.getMaxWeight());
+            namespace.remove(key);
+            return;
+        }
+
+        if (namespace.put(key, value, weight)) {
             LOG.debug("Cache (Add): Already contains object ({}) with key '{}' overwriting...", value.getClass().getSimpleName(), key);
-            CACHE.remove(key);
         } else {
             LOG.debug("Cache (Add): Adding object ({}) for key '{}'", value.getClass().getSimpleName(), key);
         }
-        CACHE.put(key, value);
     }
 
     /**
@@ -82,19 +113,15 @@ public final class CacheMemory {
             return null;
         }
 
-        if (CACHE.containsKey(key)) {
-            Object value = CACHE.get(key);
-            if (value == null) {
-                LOG.debug("Cache (Get): No object found for {}", key);
-            } else {
-                LOG.debug("Cache (Get): Got object ({}) for {}", value.getClass().getSimpleName(), key);
-                return value;
-            }
-        } else {
+        Object value = getNamespace(key).get(key);
+        if (value == null) {
+            MISSES.incrementAndGet();
             LOG.debug("Cache (Get): No object found for {}", key);
+        } else {
+            HITS.incrementAndGet();
+            LOG.debug("Cache (Get): Got object ({}) for {}", value.getClass().getSimpleName(), key);
         }
-
-        return null;
+        return value;
     }
 
     /**
@@ -107,9 +134,7 @@ public final class CacheMemory {
             return;
         }
 
-        if (CACHE.containsKey(key)) {
-            CACHE.remove(key);
-        }
+        getNamespace(key).remove(key);
     }
 
     public static String generateCacheKey(String stringOne, String stringTwo) {
@@ -148,14 +173,11 @@ public final class CacheMemory {
      * @return cache key
      */
     public static String generateCacheKey(List<String> cacheKeys) {
-        if (!cacheEnabled) {
-            return "";
-        }
-
+        // The key is also used to coalesce the requests, so it is generated even if the cache is disabled
         StringBuilder cacheKey = new StringBuilder();
         for (String value : cacheKeys) {
             if (cacheKey.length() > 0) {
-                cacheKey.append("-");
+                cacheKey.append(KEY_SEPARATOR);
             }
             cacheKey.append(value);
         }
@@ -177,14 +199,16 @@ public final class CacheMemory {
     }
 
     /**
-     * Called when running low on memory, clear the cache and turn off the
-     * caching routine Also print out a message to warn the user
+     * Called when running low on memory, drop the least recently used half of
+     * each namespace so that the most used objects stay cached
      */
     public static void purgeCache() {
         if (cacheEnabled) {
-            LOG.debug("Cache: Disabling cache due to low memory.");
-            setCacheState(false);
-            clear();
+            int evicted = 0;
+            for (Namespace namespace : CACHE.values()) {
+                evicted += namespace.shrink(namespace.getMaxWeight() / 2);
+            }
+            LOG.debug("Cache: Low memory, removed {} objects from the cache", evicted);
         }
     }
 
@@ -195,4 +219,148 @@ public final class CacheMemory {
         LOG.debug("Cache: Clearing cache");
         CACHE.clear();
     }
+
+    /**
+     * Copy the cache counters to the jukebox statistics
+     */
+    public static void updateStatistics() {
+        JukeboxStatistics.setStatistic(JukeboxStatistic.CACHE_HITS, HITS.get());
+        JukeboxStatistics.setStatistic(JukeboxStatistic.CACHE_MISSES, MISSES.get());
+        JukeboxStatistics.setStatistic(JukeboxStatistic.CACHE_EVICTIONS, EVICTIONS.get());
+        JukeboxStatistics.setStatistic(JukeboxStatistic.CACHE_COALESCED, SingleFlight.getCoalescedCount());
+    }
+
+    /**
+     * Get the namespace of the key, this is the first part of the generated key
+     *
+     * @param key
+     * @return
+     */
+    private static Namespace getNamespace(String key) {
+        String name = StringUtils.substringBefore(key, KEY_SEPARATOR);
+        if (StringUtils.isBlank(name)) {
+            name = DEFAULT_NAMESPACE;
+        }
+
+        Namespace namespace = CACHE.get(name);
+        if (namespace == null) {
+            namespace = new Namespace(PropertiesUtil.getIntProperty("mjb.cache.maxWeight." + name, DEFAULT_MAX_WEIGHT));
+            Namespace existing = CACHE.putIfAbsent(name, namespace);
+            if (existing != null) {
+                namespace = existing;
+            }
+        }
+        return namespace;
+    }
+
+    /**
+     * Estimate the weight of an object, collections count with their size and images and binary data with their size in
+     * memory
+     *
+     * @param value
+     * @return
+     */
+    private static int getWeight(Object value) {
+        long weight;
+        if (value instanceof BufferedImage) {
+            BufferedImage image = (BufferedImage) value;
+            long bytes = (long) image.getWidth() * image.getHeight() * Math.max(1, image.getColorModel().getPixelSize() / 8);
+            weight = bytes / BYTES_PER_WEIGHT;
+        } else if (value instanceof byte[]) {
+            weight = ((byte[]) value).length / BYTES_PER_WEIGHT;
+        } else if (value instanceof Collection) {
+            weight = ((Collection<?>) value).size();
+        } else if (value instanceof Map) {
+            weight = ((Map<?, ?>) value).size();
+        } else if (value.getClass().isArray()) {
+            weight = Array.getLength(value);
+        } else {
+            weight = 1;
+        }
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, weight));
+    }
+
+    /**
+     * The cached objects of one namespace, held in least recently used order
+     */
+    private static class Namespace {
+
+        private final int maxWeight;
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private int currentWeight = 0;
+
+        public Namespace(int maxWeight) {
+            this.maxWeight = Math.max(1, maxWeight);
+        }
+
+        public int getMaxWeight() {
+            return maxWeight;
+        }
+
+        /**
+         * Add the value
+         *
+         * @param key
+         * @param value
+         * @param weight
+         * @return true if an existing value was replaced
+         */
+        public synchronized boolean put(String key, Object value, int weight) {
+            Entry entry = new Entry(value, weight);
+            Entry old = entries.put(key, entry);
+            currentWeight += entry.weight;
+            if (old != null) {
+                currentWeight -= old.weight;
+            }
+
+            if (currentWeight > maxWeight) {
+                shrink(maxWeight);
+            }
+            return old != null;
+        }
+
+        public synchronized Object get(String key) {
+            Entry entry = entries.get(key);
+            return entry == null ? null : entry.value;
+        }
+
+        public synchronized void remove(String key) {
+            Entry old = entries.remove(key);
+            if (old != null) {
+                currentWeight -= old.weight;
+            }
+        }
+
+        /**
+         * Remove the least recently used entries until the weight is within the target weight
+         *
+         * @param targetWeight
+         * @return the number of removed entries
+         */
+        public synchronized int shrink(int targetWeight) {
+            int removed = 0;
+            Iterator<Entry> iter = entries.values().iterator();
+            while (currentWeight > targetWeight && iter.hasNext()) {
+                currentWeight -= iter.next().weight;
+                iter.remove();
+                removed++;
+            }
+            EVICTIONS.addAndGet(removed);
+            return removed;
+        }
+    }
+
+    /**
+     * A cached object with its weight
+     */
+    private static class Entry {
+
+        private final Object value;
+        private final int weight;
+
+        public Entry(Object value, int weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
 }
@@ -0,0 +1,137 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coalesce concurrent requests for the same key.
+ *
+ * The first thread that requests a key runs the request, any other thread that requests the same key while it is running waits
+ * for it and gets the same result (or exception). Wrap the whole "get from cache, fetch, add to cache" sequence in the request,
+ * so a thread that arrives after the request has finished finds the result in the cache.
+ *
+ * This stops the seasons of a TV show, which are scanned in parallel, from all fetching the same series from the sites.
+ */
+public final class SingleFlight {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SingleFlight.class);
+    private static final ConcurrentMap<String, Flight<?>> IN_FLIGHT = new ConcurrentHashMap<>();
+    // Statistics
+    private static final AtomicInteger COALESCED = new AtomicInteger(0);
+
+    private SingleFlight() {
+        throw new UnsupportedOperationException("Class cannot be instantiated");
+    }
+
+    /**
+     * Run the request, or wait for the running request with the same key
+     *
+     * @param <T>
+     * @param key the key of the request, usually the cache key
+     * @param request
+     * @return the result of the request
+     * @throws Exception the exception thrown by the request
+     */
+    public static <T> T execute(String key, Callable<T> request) throws Exception {
+        if (StringUtils.isBlank(key)) {
+            return request.call();
+        }
+
+        Flight<T> flight = new Flight<>(request);
+        @SuppressWarnings("unchecked")
+        Flight<T> running = (Flight<T>) IN_FLIGHT.putIfAbsent(key, flight);
+
+        if (running == null) {
+            try {
+                flight.run();
+            } finally {
+                IN_FLIGHT.remove(key, flight);
+            }
+            return getResult(flight);
+        }
+
+        if (running.isOwner(Thread.currentThread())) {
+            // Nested request for the same key, waiting for it would never end
+            return request.call();
+        }
+
+        COALESCED.incrementAndGet();
+        LOG.debug("Waiting for the running request of '{}'", key);
+        return getResult(running);
+    }
+
+    /**
+     * Get the number of requests that waited for a running request
+     *
+     * @return
+     */
+    public static int getCoalescedCount() {
+        return COALESCED.get();
+    }
+
+    private static <T> T getResult(Flight<T> flight) throws Exception {
+        try {
+            return flight.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw ex;
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * A running request and the thread running it
+     *
+     * @param <T>
+     */
+    private static final class Flight<T> extends FutureTask<T> {
+
+        private final Thread owner;
+
+        public Flight(Callable<T> request) {
+            super(request);
+            this.owner = Thread.currentThread();
+        }
+
+        public boolean isOwner(Thread thread) {
+            return owner == thread;
+        }
+    }
+}
@@ -22,13 +22,9 @@
  */
 package com.moviejukebox.tools.downloader;
 
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.net.HttpURLConnection;
+import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.nio.channels.Channels;
-import java.nio.channels.ReadableByteChannel;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.TimeZone;
@@ -36,23 +32,25 @@ import java.util.TimeZone;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.moviejukebox.tools.WebBrowser;
-import com.moviejukebox.tools.YamjHttpClientBuilder;
+import com.moviejukebox.tools.PropertiesUtil;
 
 /**
  * This is the downloader class.
  *
  * It will display the download progress of the file being processed.
  *
- * Taken from http://stackoverflow.com/a/11068356/443283
+ * The file is downloaded with the ResumableDownloader, so an interrupted download is continued on the next run.
  *
  * @author stuart.boston
  */
-public final class Downloader implements RBCWrapperDelegate {
+public final class Downloader implements ResumableDownloader.ProgressListener {
 
     private static final Logger LOG = LoggerFactory.getLogger(Downloader.class);
     private static final String FORMAT_PERCENTAGE = "\rDownload progress %,d Kb received, %.02f%%";
     private static final String FORMAT_NOPER = "\rDownload progress %,d Kb received";
+    private static final int SEGMENTS = PropertiesUtil.getIntProperty("trailers.download.segments", 1);
+    private static final int RETRIES = PropertiesUtil.getIntProperty("trailers.download.retries", 3);
+    private static final int MAX_RATE = PropertiesUtil.getIntProperty("trailers.download.maxRate", 0);
     private boolean showProgress = Boolean.TRUE;
     private boolean downloadOk;
     private long downloadTime;
@@ -67,39 +65,29 @@ public final class Downloader implements RBCWrapperDelegate {
         long startTime = System.currentTimeMillis();
 
         try {
-            URL url = new URL(remoteURL);
-            int contentLength = contentLength(url);
-
-            if (contentLength < 0) {
-                LOG.warn("WARNING: Remote URL is not a file! {}", remoteURL);
-                return;
-            }
-
-            WebBrowser wb = new WebBrowser();
-            HttpURLConnection connection = (HttpURLConnection) wb.openProxiedConnection(url);
+            ResumableDownloader downloader = new ResumableDownloader(new URL(remoteURL), new File(localPath));
 
             if (remoteURL.toLowerCase().contains(".apple.")) {
                 LOG.debug("Using Apple user agent - '{}'", USER_AGENT_APPLE);
-                connection.setRequestProperty("User-Agent", USER_AGENT_APPLE);
+                downloader.setUserAgent(USER_AGENT_APPLE);
             } else {
                 LOG.debug("Using normal user agent - '{}'", USER_AGENT_NORMAL);
-                connection.setRequestProperty("User-Agent", USER_AGENT_NORMAL);
+                downloader.setUserAgent(USER_AGENT_NORMAL);
             }
 
-            try (ReadableByteChannel rbc = new RBCWrapper(Channels.newChannel(connection.getInputStream()), contentLength, this);
-                 FileOutputStream fos = new FileOutputStream(localPath))
-            {
-                fos.getChannel().transferFrom(rbc, 0, Long.MAX_VALUE);
-                fos.flush();
+            downloader.setSegmentCount(SEGMENTS);
+            downloader.setRetries(RETRIES);
+            downloader.setMaxBytesPerSecond(MAX_RATE * 1024L);
+            downloader.setProgressListener(this);
+
+            downloadOk = downloader.download();
+            if (showProgress) {
+                System.out.println();
             }
         } catch (MalformedURLException ex) {
             LOG.debug("Failed to transform URL: {}", ex.getMessage());
-        } catch (IOException ex) {
-            LOG.debug("Output error: {}", ex.getMessage());
         }
 
-        downloadOk = Boolean.TRUE;
-
         // Calculate the download time.
         downloadTime = System.currentTimeMillis() - startTime;
     }
@@ -116,40 +104,14 @@ public final class Downloader implements RBCWrapperDelegate {
     }
 
     @Override
-    public void rbcProgressCallback(RBCWrapper rbc, double progress) {
+    public void downloadProgress(long downloaded, long totalSize) {
         if (showProgress) {
-            if (progress > 0) {
-                System.out.print(String.format(FORMAT_PERCENTAGE, rbc.getKbReadSoFar(), progress));
+            if (totalSize > 0) {
+                System.out.print(String.format(FORMAT_PERCENTAGE, downloaded / 1024, (double) downloaded / (double) totalSize * 100.0));
             } else {
-                System.out.print(String.format(FORMAT_NOPER, rbc.getKbReadSoFar()));
-            }
-        }
-    }
-
-    /**
-     * Get the content length from the header
-     *
-     * @param url
-     * @return
-     */
-    private static int contentLength(URL url) {
-        HttpURLConnection connection = null;
-        int contentLength = -1;
-
-        try {
-            HttpURLConnection.setFollowRedirects(false);
-            connection = (HttpURLConnection) url.openConnection(YamjHttpClientBuilder.getProxy());
-            connection.setRequestMethod("HEAD");
-            contentLength = connection.getContentLength();
-        } catch (IOException ex) {
-            LOG.trace("Failed to get length from header: {}", ex.getMessage());
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
+                System.out.print(String.format(FORMAT_NOPER, downloaded / 1024));
             }
         }
-
-        return contentLength;
     }
 
     public boolean isDownloadOk() {
@@ -1,38 +0,0 @@
-/*
- *      Copyright (c) 2004-2016 YAMJ Members
- *      https://github.com/orgs/YAMJ/people
- *
- *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
- *
- *      YAMJ is free software: you can redistribute it and/or modify
- *      it under the terms of the GNU General Public License as published by
- *      the Free Software Foundation, either version 3 of the License, or
- *      any later version.
- *
- *      YAMJ is distributed in the hope that it will be useful,
- *      but WITHOUT ANY WARRANTY; without even the implied warranty of
- *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
- *      GNU General Public License for more details.
- *
- *      You should have received a copy of the GNU General Public License
- *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
- *
- *      Web: https://github.com/YAMJ/yamj-v2
- *
- */
-package com.moviejukebox.tools.downloader;
-
-/**
- * This is the interface for the RBCWrapper class
- *
- * It will get the progress as a percentage, if known, otherwise it will return
- * -1.0 to indicate indeterminate progress.
- *
- * Taken from http://stackoverflow.com/a/11068356/443283
- *
- * @author stuart.boston
- */
-public interface RBCWrapperDelegate {
-
-    void rbcProgressCallback(RBCWrapper rbc, double progress);
-}
@@ -0,0 +1,661 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools.downloader;
+
+import com.moviejukebox.tools.WebBrowser;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Download a large file in a resumable way.
+ *
+ * The file is downloaded into a ".part" file next to the target, the progress is saved in a ".part.state" file. If the
+ * download is interrupted, the next download of the same file continues where it stopped using HTTP Range requests, as long
+ * as the size and the ETag / Last-Modified of the remote file are unchanged. Only a complete and verified file is renamed
+ * to the target.
+ *
+ * Optionally the file is fetched in several segments at the same time, each with its own connection, and the throughput is
+ * limited.
+ */
+public class ResumableDownloader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ResumableDownloader.class);
+    private static final String PART_EXTENSION = ".part";
+    private static final String STATE_EXTENSION = ".state";
+    private static final String STATE_VERSION = "#YAMJ download state v1";
+    private static final String DEFAULT_CHARSET = "UTF-8";
+    private static final char SEPARATOR = '\t';
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Don't split files into segments smaller than this
+    private static final long MIN_SEGMENT_SIZE = 1024L * 1024L;
+    // Save the state after this many bytes of a segment
+    private static final long STATE_INTERVAL = 1024L * 1024L;
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
+    private final URL url;
+    private final File target;
+    private final File partFile;
+    private final File stateFile;
+    private String userAgent = null;
+    private int segmentCount = 1;
+    private int retries = 3;
+    private long maxBytesPerSecond = 0;
+    private String expectedMd5 = null;
+    private ProgressListener listener = null;
+    // The state of the current download
+    private long totalSize = -1;
+    private String validator = "";
+    private final List<Segment> segments = new ArrayList<>();
+    private final AtomicLong downloaded = new AtomicLong(0);
+    private RateLimiter rateLimiter = null;
+
+    /**
+     * Get informed of the progress of the download
+     */
+    public interface ProgressListener {
+
+        /**
+         * Called after each block that was received
+         *
+         * @param downloaded the bytes of the file that are downloaded, including the bytes of an earlier download
+         * @param totalSize the size of the file or -1 if it is unknown
+         */
+        void downloadProgress(long downloaded, long totalSize);
+    }
+
+    public ResumableDownloader(URL url, File target) {
+        this.url = url;
+        this.target = target;
+        this.partFile = new File(target.getAbsolutePath() + PART_EXTENSION);
+        this.stateFile = new File(partFile.getAbsolutePath() + STATE_EXTENSION);
+    }
+
+    public void setUserAgent(String userAgent) {
+        this.userAgent = userAgent;
+    }
+
+    /**
+     * Set the number of segments that are downloaded at the same time
+     *
+     * @param segmentCount
+     */
+    public void setSegmentCount(int segmentCount) {
+        this.segmentCount = Math.max(1, segmentCount);
+    }
+
+    /**
+     * Set how often a failed download is continued
+     *
+     * @param retries
+     */
+    public void setRetries(int retries) {
+        this.retries = Math.max(0, retries);
+    }
+
+    /**
+     * Limit the throughput of the download
+     *
+     * @param maxBytesPerSecond the limit or 0 for no limit
+     */
+    public void setMaxBytesPerSecond(long maxBytesPerSecond) {
+        this.maxBytesPerSecond = Math.max(0, maxBytesPerSecond);
+    }
+
+    /**
+     * Verify the downloaded file against the MD5 checksum
+     *
+     * @param expectedMd5 the checksum as hex string or null to only verify the size
+     */
+    public void setExpectedMd5(String expectedMd5) {
+        this.expectedMd5 = expectedMd5;
+    }
+
+    public void setProgressListener(ProgressListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Is the file the saved state of an unfinished download
+     *
+     * @param filename
+     * @return
+     */
+    public static boolean isStateFile(String filename) {
+        return filename.endsWith(PART_EXTENSION + STATE_EXTENSION);
+    }
+
+    /**
+     * Delete an unfinished download together with its state
+     *
+     * @param stateFile the saved state of the download
+     */
+    public static void deletePartial(File stateFile) {
+        FileUtils.deleteQuietly(new File(StringUtils.removeEnd(stateFile.getAbsolutePath(), STATE_EXTENSION)));
+        FileUtils.deleteQuietly(stateFile);
+    }
+
+    public File getPartFile() {
+        return partFile;
+    }
+
+    public File getStateFile() {
+        return stateFile;
+    }
+
+    /**
+     * Get the size of the file
+     *
+     * @return the size or -1 if it is not known
+     */
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    /**
+     * Download the file, continuing an earlier interrupted download
+     *
+     * @return true if the file was downloaded and verified
+     */
+    public boolean download() {
+        rateLimiter = maxBytesPerSecond > 0 ? new RateLimiter(maxBytesPerSecond) : null;
+
+        for (int attempt = 0; attempt <= retries; attempt++) {
+            if (attempt > 0) {
+                LOG.debug("Continuing download of {} ({}/{})", url, attempt, retries);
+                try {
+                    TimeUnit.SECONDS.sleep(attempt);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+
+            try {
+                downloadSegments();
+                return complete();
+            } catch (IOException ex) {
+                LOG.debug("Download of {} failed: {}", url, ex.getMessage());
+                saveState();
+            }
+        }
+
+        LOG.warn("Failed to download {}, it will be continued on the next run", url);
+        return false;
+    }
+
+    /**
+     * Download all the segments that are not complete
+     *
+     * @throws IOException
+     */
+    private void downloadSegments() throws IOException {
+        if (!readState()) {
+            reset();
+        }
+
+        Segment lead = getFirstIncomplete();
+        if (lead == null) {
+            // Completed, but not verified on the last run
+            return;
+        }
+
+        HttpURLConnection connection = openConnection(lead.position, lead.end, !segments.isEmpty());
+        try {
+            int code = connection.getResponseCode();
+            if (code == HttpURLConnection.HTTP_OK) {
+                // The whole file, either a new download, no range support or the file has changed
+                if (!segments.isEmpty()) {
+                    LOG.debug("Restarting download of {}, the server sent the whole file", url);
+                }
+                reset();
+                totalSize = connection.getContentLengthLong();
+                validator = getValidator(connection);
+                lead = new Segment(0, totalSize);
+                segments.add(lead);
+            } else if (code == HttpURLConnection.HTTP_PARTIAL) {
+                long remoteSize = getTotalSize(connection);
+                String remoteValidator = getValidator(connection);
+                if (segments.isEmpty()) {
+                    totalSize = remoteSize;
+                    validator = remoteValidator;
+                    createSegments();
+                    lead = segments.get(0);
+                } else if (remoteSize != totalSize || (StringUtils.isNotBlank(validator) && !validator.equals(remoteValidator))) {
+                    reset();
+                    throw new IOException("The remote file has changed");
+                }
+            } else if (code == HTTP_RANGE_NOT_SATISFIABLE) {
+                reset();
+                throw new IOException("The saved state doesn't match the remote file");
+            } else {
+                throw new IOException("HTTP error " + code + " " + connection.getResponseMessage());
+            }
+
+            try (RandomAccessFile file = new RandomAccessFile(partFile, "rw")) {
+                FileChannel channel = file.getChannel();
+                saveState();
+
+                List<Segment> others = new ArrayList<>();
+                for (Segment segment : segments) {
+                    if (segment != lead && !segment.isComplete()) {
+                        others.add(segment);
+                    }
+                }
+
+                if (others.isEmpty()) {
+                    readSegment(connection, lead, channel);
+                } else {
+                    downloadParallel(connection, lead, others, channel);
+                }
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Download the other segments on their own threads while the lead segment is read on this thread
+     */
+    private void downloadParallel(HttpURLConnection connection, Segment lead, List<Segment> others, final FileChannel channel) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(others.size());
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (final Segment segment : others) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        HttpURLConnection segmentConnection = openConnection(segment.position, segment.end, true);
+                        try {
+                            if (segmentConnection.getResponseCode() != HttpURLConnection.HTTP_PARTIAL) {
+                                throw new IOException("No partial content for segment at " + segment.position);
+                            }
+                            readSegment(segmentConnection, segment, channel);
+                        } finally {
+                            segmentConnection.disconnect();
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            IOException failure = null;
+            try {
+                readSegment(connection, lead, channel);
+            } catch (IOException ex) {
+                failure = ex;
+            }
+
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException ex) {
+                    if (failure == null) {
+                        failure = ex.getCause() instanceof IOException ? (IOException) ex.getCause() : new IOException(ex.getCause());
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted", ex);
+                }
+            }
+
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Read the data of the segment from the connection into the part file
+     */
+    private void readSegment(HttpURLConnection connection, Segment segment, FileChannel channel) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long lastSaved = segment.position;
+
+        try (InputStream in = connection.getInputStream()) {
+            while (segment.end < 0 || segment.position < segment.end) {
+                int length = segment.end < 0 ? buffer.length : (int) Math.min(buffer.length, segment.end - segment.position);
+                int read = in.read(buffer, 0, length);
+                if (read < 0) {
+                    break;
+                }
+
+                ByteBuffer data = ByteBuffer.wrap(buffer, 0, read);
+                long position = segment.position;
+                while (data.hasRemaining()) {
+                    position += channel.write(data, position);
+                }
+                segment.position = position;
+
+                long done = downloaded.addAndGet(read);
+                if (listener != null) {
+                    listener.downloadProgress(done, totalSize);
+                }
+                if (rateLimiter != null) {
+                    rateLimiter.acquire(read);
+                }
+                if (segment.position - lastSaved >= STATE_INTERVAL) {
+                    saveState();
+                    lastSaved = segment.position;
+                }
+            }
+        }
+
+        if (segment.end < 0) {
+            // Unknown size, the end of the stream is the end of the file
+            segment.end = segment.position;
+            totalSize = segment.position;
+        } else if (segment.position < segment.end) {
+            throw new IOException("Connection closed after " + segment.position + " of " + segment.end + " bytes");
+        }
+    }
+
+    /**
+     * Verify the downloaded file and rename it to the target
+     *
+     * @return
+     * @throws IOException
+     */
+    private boolean complete() throws IOException {
+        if (totalSize >= 0 && partFile.length() != totalSize) {
+            reset();
+            throw new IOException("Downloaded " + partFile.length() + " bytes instead of " + totalSize);
+        }
+
+        if (StringUtils.isNotBlank(expectedMd5)) {
+            String md5;
+            try (InputStream in = new FileInputStream(partFile)) {
+                md5 = DigestUtils.md5Hex(in);
+            }
+            if (!expectedMd5.equalsIgnoreCase(md5)) {
+                LOG.warn("Checksum of {} is wrong, deleting the download", target.getName());
+                reset();
+                return false;
+            }
+        }
+
+        FileUtils.deleteQuietly(stateFile);
+        if (target.exists() && !target.delete()) {
+            throw new IOException("Failed to delete " + target.getName());
+        }
+        if (!partFile.renameTo(target)) {
+            throw new IOException("Failed to rename " + partFile.getName() + " to " + target.getName());
+        }
+        return true;
+    }
+
+    private HttpURLConnection openConnection(long start, long end, boolean resume) throws IOException {
+        URLConnection urlConnection = new WebBrowser().openProxiedConnection(url);
+        if (!(urlConnection instanceof HttpURLConnection)) {
+            throw new IOException("Not a HTTP URL: " + url);
+        }
+
+        HttpURLConnection connection = (HttpURLConnection) urlConnection;
+        connection.setInstanceFollowRedirects(true);
+        if (userAgent != null) {
+            connection.setRequestProperty("User-Agent", userAgent);
+        }
+
+        // Always ask for a range, so the server tells if it supports them
+        connection.setRequestProperty("Range", "bytes=" + start + "-" + (end > 0 ? Long.toString(end - 1) : ""));
+        if (resume && StringUtils.isNotBlank(validator)) {
+            // Send the whole file if it has changed
+            connection.setRequestProperty("If-Range", validator);
+        }
+        return connection;
+    }
+
+    /**
+     * Get the total size from the Content-Range header ("bytes 0-99/1234")
+     */
+    private static long getTotalSize(HttpURLConnection connection) {
+        String range = connection.getHeaderField("Content-Range");
+        if (range == null || range.indexOf('/') < 0) {
+            return -1;
+        }
+        return NumberUtils.toLong(StringUtils.substringAfterLast(range, "/").trim(), -1);
+    }
+
+    /**
+     * Get the strong ETag or the Last-Modified date of the file, used to check that it is the same file when resuming
+     */
+    private static String getValidator(HttpURLConnection connection) {
+        String etag = connection.getHeaderField("ETag");
+        if (StringUtils.isNotBlank(etag) && !etag.startsWith("W/")) {
+            return etag.trim();
+        }
+        String lastModified = connection.getHeaderField("Last-Modified");
+        return StringUtils.isBlank(lastModified) ? "" : lastModified.trim();
+    }
+
+    /**
+     * Split the file into segments, only if the size is known and the segments are not too small
+     */
+    private void createSegments() {
+        segments.clear();
+        int count = totalSize > 0 ? (int) Math.max(1, Math.min(segmentCount, totalSize / MIN_SEGMENT_SIZE)) : 1;
+        if (count == 1) {
+            segments.add(new Segment(0, totalSize));
+            return;
+        }
+
+        long size = totalSize / count;
+        long start = 0;
+        for (int i = 0; i < count; i++) {
+            long end = (i == count - 1) ? totalSize : start + size;
+            segments.add(new Segment(start, end));
+            start = end;
+        }
+        LOG.debug("Downloading {} in {} segments", url, count);
+    }
+
+    private Segment getFirstIncomplete() {
+        for (Segment segment : segments) {
+            if (!segment.isComplete()) {
+                return segment;
+            }
+        }
+        return segments.isEmpty() ? new Segment(0, -1) : null;
+    }
+
+    /**
+     * Delete the partial download
+     */
+    private void reset() {
+        segments.clear();
+        totalSize = -1;
+        validator = "";
+        downloaded.set(0);
+        FileUtils.deleteQuietly(partFile);
+        FileUtils.deleteQuietly(stateFile);
+    }
+
+    /**
+     * Read the state of an earlier download
+     *
+     * @return true if the state was read and matches the part file
+     */
+    private boolean readState() {
+        segments.clear();
+        if (!stateFile.exists() || !partFile.exists()) {
+            return false;
+        }
+
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(stateFile), DEFAULT_CHARSET))) {
+            if (!STATE_VERSION.equals(in.readLine())) {
+                return false;
+            }
+            totalSize = NumberUtils.toLong(in.readLine(), -1);
+            validator = StringUtils.trimToEmpty(in.readLine());
+
+            String line;
+            long done = 0;
+            while ((line = in.readLine()) != null) {
+                String[] values = StringUtils.split(line, SEPARATOR);
+                if (values.length != 3) {
+                    return false;
+                }
+                Segment segment = new Segment(NumberUtils.toLong(values[0], -1), NumberUtils.toLong(values[1], -1));
+                segment.position = NumberUtils.toLong(values[2], -1);
+                if (segment.start < 0 || segment.position < segment.start || (segment.end >= 0 && segment.position > segment.end)) {
+                    return false;
+                }
+                segments.add(segment);
+                done += segment.position - segment.start;
+            }
+
+            if (segments.isEmpty() || totalSize < 0) {
+                // Without the size it can't be checked that the file is the same
+                return false;
+            }
+            downloaded.set(done);
+            LOG.debug("Continuing download of {} at {} of {} bytes", target.getName(), done, totalSize);
+            return true;
+        } catch (IOException ex) {
+            LOG.debug("Failed to read download state {}: {}", stateFile.getName(), ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Save the state of the download, so that it can be continued
+     */
+    private synchronized void saveState() {
+        if (segments.isEmpty() || totalSize < 0 || !partFile.exists()) {
+            return;
+        }
+
+        File tempFile = new File(stateFile.getAbsolutePath() + ".tmp");
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(tempFile), DEFAULT_CHARSET))) {
+            out.println(STATE_VERSION);
+            out.println(totalSize);
+            out.println(validator);
+            for (Segment segment : segments) {
+                out.println(StringUtils.join(new Object[]{segment.start, segment.end, segment.position}, SEPARATOR));
+            }
+        } catch (IOException ex) {
+            LOG.debug("Failed to write download state {}: {}", tempFile.getName(), ex.getMessage());
+            return;
+        }
+
+        if (stateFile.exists() && !stateFile.delete()) {
+            LOG.debug("Failed to delete {}", stateFile.getName());
+            return;
+        }
+        if (!tempFile.renameTo(stateFile)) {
+            LOG.debug("Failed to rename {} to {}", tempFile.getName(), stateFile.getName());
+        }
+    }
+
+    /**
+     * A part of the file from start (inclusive) to end (exclusive)
+     */
+    private static final class Segment {
+
+        private final long start;
+        private volatile long end;
+        private volatile long position;
+
+        public Segment(long start, long end) {
+            this.start = start;
+            this.end = end;
+            this.position = start;
+        }
+
+        public boolean isComplete() {
+            return end >= 0 && position >= end;
+        }
+    }
+
+    /**
+     * Limit the throughput of all segments of the download
+     */
+    static final class RateLimiter {
+
+        private final long bytesPerSecond;
+        private final long startTime;
+        private long bytes = 0;
+
+        public RateLimiter(long bytesPerSecond) {
+            this(bytesPerSecond, System.nanoTime());
+        }
+
+        RateLimiter(long bytesPerSecond, long startTime) {
+            this.bytesPerSecond = bytesPerSecond;
+            this.startTime = startTime;
+        }
+
+        public void acquire(int count) {
+            long wait = reserve(count, System.nanoTime());
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        /**
+         * Count the bytes and get how long to wait before they are within the limit
+         *
+         * @param count the bytes that were read
+         * @param now the current time in nanoseconds
+         * @return the nanoseconds to wait
+         */
+        synchronized long reserve(int count, long now) {
+            bytes += count;
+            long expected = bytes * TimeUnit.SECONDS.toNanos(1) / bytesPerSecond;
+            return Math.max(0, expected - (now - startTime));
+        }
+    }
+}
@@ -26,10 +26,15 @@ import com.moviejukebox.model.*;
 import com.moviejukebox.model.enumerations.DirtyFlag;
 import com.moviejukebox.tools.*;
 import java.io.*;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
@@ -59,6 +64,8 @@ public class MovieJukeboxHTMLWriter {
     private String peopleFolder;
     private static final String SKIN_HOME = SkinProperties.getSkinHome();
     private static final TransformerFactory TRANSFORMER = TransformerFactory.newInstance();
+    private static final Map<String, Templates> TEMPLATES = new ConcurrentHashMap<>();
+    private static volatile List<Entry<String, String>> transformerParameters = null;
     private static final String PLAYLIST_IGNORE_EXT = PropertiesUtil.getProperty("mjb.playlist.IgnoreExtensions", "iso,img");
     private static final File PLAYLIST_FILE = new File("playlist.xsl");
     private static final String INDEX_HTML_FILE = "../" + PropertiesUtil.getProperty("mjb.indexFile", "index.htm");
@@ -653,39 +660,22 @@ public class MovieJukeboxHTMLWriter {
     }
 
     /**
-     * Creates and caches Transformer, one for every thread/xsl file.
+     * Creates a new Transformer for the XSL file from the compiled stylesheet.
+     *
+     * Each call gets its own Transformer, so the documents loaded during a transformation are released with it.
      *
      * @param xslFile
      * @param styleSheetTargetRootPath
      * @return
      */
     public static Transformer getTransformer(File xslFile, String styleSheetTargetRootPath) {
-        /*
-         * Removed caching of transformer, as saxon keeps all parsed documents in memory, causing memory leaks.
-         * Creating a new transformer every time doesn't consume too much time and has no impact on performance.
-         * It lets YAMJ save lot of memory.
-         * @author Vincent
-         */
-        Source xslSource = new StreamSource(xslFile);
-
-        // Sometimes the StreamSource doesn't return an object and we get a null pointer exception, so check it and try loading it again
-        for (int looper = 1; looper < 5; looper++) {
-            xslSource = new StreamSource(xslFile);
-            if (xslSource != null) {
-                // looks ok, so quit the loop
-                break;
-            }
-        }
-
         Transformer transformer = null;
         try {
-            transformer = TRANSFORMER.newTransformer(xslSource);
+            transformer = getTemplates(xslFile).newTransformer();
             transformer.setParameter("homePage", INDEX_HTML_FILE);
             transformer.setParameter("rootPath", new File(styleSheetTargetRootPath).getAbsolutePath().replace('\\', '/'));
-            for (Entry<Object, Object> e : PropertiesUtil.getEntrySet()) {
-                if (e.getKey() != null && e.getValue() != null) {
-                    transformer.setParameter(e.getKey().toString(), e.getValue().toString());
-                }
+            for (Entry<String, String> e : getTransformerParameters()) {
+                transformer.setParameter(e.getKey(), e.getValue());
             }
         } catch (TransformerConfigurationException ex) {
             LOG.error("Failed to get transformer for XSL: " + xslFile.getAbsolutePath());
@@ -694,6 +684,56 @@ public class MovieJukeboxHTMLWriter {
         return transformer;
     }
 
+    /**
+     * Get the compiled stylesheet of the XSL file, the stylesheet is compiled on first use
+     *
+     * @param xslFile
+     * @return
+     * @throws TransformerConfigurationException
+     */
+    static Templates getTemplates(File xslFile) throws TransformerConfigurationException {
+        String key = xslFile.getAbsolutePath();
+        Templates templates = TEMPLATES.get(key);
+        if (templates == null) {
+            synchronized (TEMPLATES) {
+                templates = TEMPLATES.get(key);
+                if (templates == null) {
+                    LOG.debug("Compiling XSL: {}", key);
+                    templates = TRANSFORMER.newTemplates(new StreamSource(xslFile));
+                    TEMPLATES.put(key, templates);
+                }
+            }
+        }
+        return templates;
+    }
+
+    /**
+     * Get the properties to pass to the stylesheets, built once from the properties
+     *
+     * @return
+     */
+    private static List<Entry<String, String>> getTransformerParameters() {
+        List<Entry<String, String>> parameters = transformerParameters;
+        if (parameters == null) {
+            parameters = new ArrayList<>();
+            for (Entry<Object, Object> e : PropertiesUtil.getEntrySet()) {
+                if (e.getKey() != null && e.getValue() != null) {
+                    parameters.add(new SimpleImmutableEntry<>(e.getKey().toString(), e.getValue().toString()));
+                }
+            }
+            transformerParameters = Collections.unmodifiableList(parameters);
+        }
+        return parameters;
+    }
+
+    /**
+     * Clear the compiled stylesheets and parameters, e.g. after the skin or the properties have been changed
+     */
+    public static void clearTransformerCache() {
+        TEMPLATES.clear();
+        transformerParameters = null;
+    }
+
     /**
      * Try to safely perform the transformation. Will retry up to maxRetryCount times before throwing the error
      *
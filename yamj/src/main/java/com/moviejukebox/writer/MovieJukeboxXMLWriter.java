@@ -90,6 +90,7 @@ public class MovieJukeboxXMLWriter {
     public static final String ORIGINAL_NAME = "originalName";
     public static final String DETAILS = "details";
     public static final String SOURCE = "source";
+    public static final String LIBRARY = "library";
     private static final boolean FORCE_XML_OVERWRITE = PropertiesUtil.getBooleanProperty("mjb.forceXMLOverwrite", Boolean.FALSE);
     private static final boolean FORCE_INDEX_OVERWRITE = PropertiesUtil.getBooleanProperty("mjb.forceIndexOverwrite", Boolean.FALSE);
     private final int nbMoviesPerPage;
@@ -229,8 +230,7 @@ public class MovieJukeboxXMLWriter {
         FileTools.addJukeboxFile(filename + EXT_XML);
 
         Document xmlDoc = DOMHelper.createDocument();
-        Element eLibrary = xmlDoc.createElement("library");
-        int libraryCount = 0;
+        List<Element> categories = new ArrayList<>();
 
         // Issue 1148, generate category in the order specified in properties
         LOG.info("  Indexing {}...", filename);
@@ -321,47 +321,79 @@ public class MovieJukeboxXMLWriter {
                             // Add the correct count to the index
                             eCategory.setAttribute(COUNT, String.valueOf(categoryCount));
                         }
-                        eLibrary.appendChild(eCategory);
-                        libraryCount++;
+                        categories.add(eCategory);
                     }
                 }
             }
         }
 
-        // Add the movie count to the library
-        eLibrary.setAttribute(COUNT, String.valueOf(libraryCount));
+        // For the Categories file we want to split out a version without the movies for Eversion
+        if (includeMoviesInCategories && Library.INDEX_CATEGORIES.equals(filename)) {
+            LOG.debug("Writing non-movie categories file...");
+            // Create the eversion filename
+            File xmlEvFile = new File(jukebox.getJukeboxTempLocationDetailsFile(), filename + EV_FILE_SUFFIX + EXT_XML);
+            // Add the eversion file to the cleanup list
+            FileTools.addJukeboxFile(xmlEvFile.getName());
+
+            try (DocumentStreamWriter writer = new DocumentStreamWriter(xmlEvFile)) {
+                writeLibraryStart(writer, categories);
+                writer.writeEndDocument();
+            } catch (XMLStreamException | DOMException error) {
+                logWriteError(xmlEvFile, error);
+            }
+        }
 
-        // Add the library node to the document
-        xmlDoc.appendChild(eLibrary);
+        try (DocumentStreamWriter writer = new DocumentStreamWriter(xmlFile)) {
+            writeLibraryStart(writer, categories);
 
-        // Add in the movies to the categories if needed
-        if (includeMoviesInCategories) {
-            // For the Categories file we want to split out a version without the movies for Eversion
-            if (Library.INDEX_CATEGORIES.equals(filename)) {
-                LOG.debug("Writing non-movie categories file...");
-                // Create the eversion filename
-                File xmlEvFile = new File(jukebox.getJukeboxTempLocationDetailsFile(), filename + EV_FILE_SUFFIX + EXT_XML);
-                // Add the eversion file to the cleanup list
-                FileTools.addJukeboxFile(xmlEvFile.getName());
-
-                // Write out the current index before adding the movies
-                DOMHelper.writeDocumentToFile(xmlDoc, xmlEvFile);
+            // Add in the movies to the categories if needed, one at a time
+            if (includeMoviesInCategories) {
+                for (Movie movie : library.getMoviesList()) {
+                    if (fullMovieInfoInIndexes) {
+                        writeElement(writer, writeMovie(xmlDoc, movie, library));
+                    } else {
+                        writeElement(writer, writeMovieForIndex(xmlDoc, movie));
+                    }
+                }
             }
+            writer.writeEndDocument();
+        } catch (XMLStreamException | DOMException error) {
+            logWriteError(xmlFile, error);
+        }
+    }
 
-            Element eMovie;
-            for (Movie movie : library.getMoviesList()) {
-                if (fullMovieInfoInIndexes) {
-                    eMovie = writeMovie(xmlDoc, movie, library);
-                } else {
-                    eMovie = writeMovieForIndex(xmlDoc, movie);
-                }
+    /**
+     * Write the start of the library node with the count of the categories, followed by the categories
+     *
+     * @param writer
+     * @param categories
+     * @throws XMLStreamException
+     */
+    private static void writeLibraryStart(DocumentStreamWriter writer, List<Element> categories) throws XMLStreamException {
+        writer.writeStartDocument();
+        writer.writeStartElement(LIBRARY);
+        writer.writeAttribute(COUNT, String.valueOf(categories.size()));
+        for (Element eCategory : categories) {
+            writer.writeElement(eCategory);
+        }
+    }
 
-                // Add the movie
-                eLibrary.appendChild(eMovie);
-            }
+    /**
+     * Write the element to the stream, it is not added to the document so it can be released straight away
+     *
+     * @param writer
+     * @param element
+     * @throws XMLStreamException
+     */
+    private static void writeElement(DocumentStreamWriter writer, Element element) throws XMLStreamException {
+        if (element != null) {
+            writer.writeElement(element);
         }
+    }
 
-        DOMHelper.writeDocumentToFile(xmlDoc, xmlFile);
+    private static void logWriteError(File xmlFile, Exception error) {
+        LOG.error("Error writing the document to {}", xmlFile);
+        LOG.error("Message: {}", error.getMessage());
     }
 
     private Element processCategoryIndex(Document doc, String indexName, String indexOriginalName, List<Movie> indexMovies, String categoryKey,
@@ -420,6 +452,23 @@ public class MovieJukeboxXMLWriter {
 
         final boolean setReindex = PropertiesUtil.getBooleanProperty("mjb.sets.reindex", Boolean.TRUE);
 
+        // Look up the set masters and the dirty people once, rather than searching all of them for every index
+        final Map<String, Movie> setMasters = new HashMap<>();
+        for (Movie m : library.getMoviesList()) {
+            if (m.isSetMaster() && !setMasters.containsKey(m.getTitle())) {
+                setMasters.put(m.getTitle(), m);
+            }
+        }
+        final Set<String> dirtyPeople = new HashSet<>();
+        for (Person person : library.getPeople()) {
+            if (person.isDirty()) {
+                dirtyPeople.add(person.getName().toLowerCase(Locale.ENGLISH));
+            }
+        }
+
+        // The index pages show the other indexes, so they change when an index is added or removed
+        final String navigation = (IndexState.isEnabled() && fullCategoriesInIndexes) ? IndexState.createNavigationFingerprint(library.getIndexes()) : "";
+
         StringBuilder loggerString;
 
         tasks.restart();
@@ -482,11 +531,9 @@ public class MovieJukeboxXMLWriter {
                                     nbVideosPerPage = nbSetMoviesPerPage;
                                     nbVideosPerLine = nbSetMoviesPerLine;
                                     // Issue 1886: HTML indexes recreated every time
-                                    for (Movie m : library.getMoviesList()) {
-                                        if (m.isSetMaster() && m.getTitle().equals(key)) {
-                                            skipIndex &= !m.isDirty(DirtyFlag.INFO);
-                                            break;
-                                        }
+                                    Movie setMaster = setMasters.get(key);
+                                    if (setMaster != null) {
+                                        skipIndex &= !setMaster.isDirty(DirtyFlag.INFO);
                                     }
                                 }
                             }
@@ -569,6 +616,14 @@ public class MovieJukeboxXMLWriter {
                         skipIndex = (skipIndex && Library.INDEX_LIBRARY.equalsIgnoreCase(categoryName)) ? !library.isDirtyLibrary(group.getKey()) : skipIndex;
                         IndexInfo idx = new IndexInfo(categoryName, key, last, nbVideosPerPage, nbVideosPerLine, skipIndex);
 
+                        // Write the index if its videos have changed since the last run, even if none of them is dirty
+                        if (IndexState.isEnabled()
+                                && IndexState.hasChanged(idx.baseName, IndexState.createFingerprint(tmpMovieList, nbVideosPerPage, nbVideosPerLine, navigation))) {
+                            LOG.debug("Category '{}' - videos changed since the last run", categoryPath);
+                            skipIndex = false;
+                            idx.canSkip = false;
+                        }
+
                         // Don't skip the indexing for sets as this overwrites the set files
                         if (Library.INDEX_SET.equalsIgnoreCase(categoryName) && setReindex) {
                             LOG.trace("Forcing generation of set index.");
@@ -584,17 +639,8 @@ public class MovieJukeboxXMLWriter {
                             }
                         }
 
-                        if (skipIndex && Library.INDEX_PERSON.equalsIgnoreCase(idx.categoryName)) {
-                            for (Person person : library.getPeople()) {
-                                if (!person.getName().equalsIgnoreCase(idx.key)) {
-                                    continue;
-                                }
-                                if (!person.isDirty()) {
-                                    continue;
-                                }
-                                skipIndex = false;
-                                break;
-                            }
+                        if (skipIndex && Library.INDEX_PERSON.equalsIgnoreCase(idx.categoryName) && dirtyPeople.contains(idx.key.toLowerCase(Locale.ENGLISH))) {
+                            skipIndex = false;
                         }
 
                         if (skipIndex) {
@@ -662,8 +708,7 @@ public class MovieJukeboxXMLWriter {
         FileTools.addJukeboxFile(xmlFile.getName());
         boolean isCurrentKey;
 
-        Element eLibrary = xmlDoc.createElement("library");
-        int libraryCount = 0;
+        List<Element> categories = new ArrayList<>();
 
         for (Map.Entry<String, Index> category : library.getIndexes().entrySet()) {
             Element eCategory;
@@ -739,62 +784,45 @@ public class MovieJukeboxXMLWriter {
             if (categoryCount > 0) {
                 // Write the actual count of the category
                 eCategory.setAttribute(COUNT, String.valueOf(categoryCount));
-                eLibrary.appendChild(eCategory);
-                libraryCount++;
+                categories.add(eCategory);
             }
         }
 
+        Element ePerson = null;
         if (ENABLE_PEOPLE && ADD_PEOPLE_INFO && (Library.INDEX_PERSON + Library.INDEX_CAST + Library.INDEX_DIRECTOR + Library.INDEX_WRITER).contains(idx.categoryName)) {
-            for (Person person : library.getPeople()) {
-                if (!person.getName().equalsIgnoreCase(idx.key) && !person.getTitle().equalsIgnoreCase(idx.key)) {
-                    boolean found = false;
-                    if (!Library.INDEX_PERSON.equals(idx.categoryName)) {
-                        for (String name : person.getAka()) {
-                            if (name.equalsIgnoreCase(idx.key)) {
-                                found = true;
-                                break;
-                            }
-                        }
-                    }
-                    if (!found) {
-                        continue;
-                    }
-                }
-                eLibrary.appendChild(writePerson(xmlDoc, person, false));
-                break;
+            Person person = library.getPersonByIndexKey(idx.key, !Library.INDEX_PERSON.equals(idx.categoryName));
+            if (person != null) {
+                ePerson = writePerson(xmlDoc, person, false);
             }
         }
 
-        // FIXME: The count here is off. It needs to be correct
-        Element eMovies = xmlDoc.createElement("movies");
-        eMovies.setAttribute("cols", String.valueOf(idx.videosPerLine));
-        eMovies.setAttribute(COUNT, String.valueOf(idx.videosPerPage));
+        // Stream the document to file, so only one movie is held in memory at a time
+        try (DocumentStreamWriter writer = new DocumentStreamWriter(xmlFile)) {
+            writeLibraryStart(writer, categories);
+            writeElement(writer, ePerson);
 
-        //eMovies.setAttribute("indexCount", String.valueOf(library.getMovieCountForIndex(idx.categoryName, idx.key)));
-        eMovies.setAttribute("indexCount", String.valueOf(indexCount));
-        eMovies.setAttribute("totalCount", String.valueOf(library.getMovieCountForIndex(Library.INDEX_OTHER, Library.INDEX_ALL)));
+            // FIXME: The count here is off. It needs to be correct
+            writer.writeStartElement("movies");
+            writer.writeAttribute("cols", String.valueOf(idx.videosPerLine));
+            writer.writeAttribute(COUNT, String.valueOf(idx.videosPerPage));
 
-        if (fullMovieInfoInIndexes) {
-            for (Movie movie : movies) {
-                eMovies.appendChild(writeMovie(xmlDoc, movie, library));
-            }
-        } else {
-            for (Movie movie : movies) {
-                eMovies.appendChild(writeMovieForIndex(xmlDoc, movie));
+            //writer.writeAttribute("indexCount", String.valueOf(library.getMovieCountForIndex(idx.categoryName, idx.key)));
+            writer.writeAttribute("indexCount", String.valueOf(indexCount));
+            writer.writeAttribute("totalCount", String.valueOf(library.getMovieCountForIndex(Library.INDEX_OTHER, Library.INDEX_ALL)));
+
+            if (fullMovieInfoInIndexes) {
+                for (Movie movie : movies) {
+                    writeElement(writer, writeMovie(xmlDoc, movie, library));
+                }
+            } else {
+                for (Movie movie : movies) {
+                    writeElement(writer, writeMovieForIndex(xmlDoc, movie));
+                }
             }
+            writer.writeEndDocument();
+        } catch (XMLStreamException | DOMException error) {
+            logWriteError(xmlFile, error);
         }
-
-        // Add the movies node to the Library node
-        eLibrary.appendChild(eMovies);
-
-        // Add the correct count to the library node
-        eLibrary.setAttribute(COUNT, String.valueOf(libraryCount));
-
-        // Add the Library node to the document
-        xmlDoc.appendChild(eLibrary);
-
-        // Save the document to file
-        DOMHelper.writeDocumentToFile(xmlDoc, xmlFile);
     }
 
     private Element processIndexCategory(Document doc, String categoryName, String categoryKey, boolean isCurrentKey, IndexInfo idx, int indexSize,
@@ -1544,6 +1572,7 @@ public class MovieJukeboxXMLWriter {
         File tempXmlFile = new File(jukebox.getJukeboxTempLocationDetails() + File.separator + baseName + EXT_XML);
 
         FileTools.addJukeboxFile(finalXmlFile.getName());
+        XMLSnapshot.markUsed(finalXmlFile);
 
         LOG.debug("DirtyFlags for {} are: {}", movie.getBaseName(), movie.showDirty());
         if (!finalXmlFile.exists() || FORCE_XML_OVERWRITE || movie.isDirty(DirtyFlag.INFO) || movie.isDirty(DirtyFlag.RECHECK) || movie.isDirty(DirtyFlag.WATCHED)) {
@@ -1556,17 +1585,15 @@ public class MovieJukeboxXMLWriter {
                 return;
             }
 
-            Element eDetails = xmlDoc.createElement(DETAILS);
-            xmlDoc.appendChild(eDetails);
-
-            Element eMovie = writeMovie(xmlDoc, movie, library);
-
-            if (eMovie != null) {
-                eDetails.appendChild(eMovie);
+            try (DocumentStreamWriter writer = new DocumentStreamWriter(tempXmlFile)) {
+                writer.writeStartDocument();
+                writer.writeStartElement(DETAILS);
+                writeElement(writer, writeMovie(xmlDoc, movie, library));
+                writer.writeEndDocument();
+            } catch (XMLStreamException | DOMException error) {
+                logWriteError(tempXmlFile, error);
             }
 
-            DOMHelper.writeDocumentToFile(xmlDoc, tempXmlFile);
-
             if (WRITE_NFO_FILES) {
                 MovieNFOWriter.writeNfoFile(jukebox, movie);
             }
@@ -26,7 +26,14 @@ import com.moviejukebox.AbstractTests;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import com.moviejukebox.model.comparator.MovieRatingComparator;
+import com.moviejukebox.model.comparator.MovieReleaseComparator;
+import com.moviejukebox.model.comparator.MovieTitleComparator;
+import com.moviejukebox.tools.ThreadExecutor;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 import org.junit.BeforeClass;
@@ -91,6 +98,126 @@ public class LibraryTest extends AbstractTests {
         assertEquals(4, index.get("The Sopranos").size());
     }
 
+    @Test
+    public void testMatchingMoviesList() throws Throwable {
+        LOG.info("testMatchingMoviesList");
+        Library library = createSeriesLibrary();
+        Index sets = library.getIndexes().get(Library.INDEX_SET);
+        assertEquals(2, sets.size());
+
+        List<Movie> seriesA = sets.get("Series A");
+        assertEquals(seriesA, library.getMatchingMoviesList(Library.INDEX_TITLE, seriesA, "S"));
+        assertEquals(2, library.getMatchingMoviesList(Library.INDEX_TITLE, sets.get("Series B"), "S").size());
+
+        // Movies of another library and unknown categories don't match
+        assertTrue(library.getMatchingMoviesList(Library.INDEX_TITLE, Arrays.asList(tv("Series C", 1)), "S").isEmpty());
+        assertTrue(library.getMatchingMoviesList(Library.INDEX_TITLE, seriesA, "X").isEmpty());
+    }
+
+    @Test
+    public void testMoviesByIndexKey() throws Throwable {
+        LOG.info("testMoviesByIndexKey");
+        Library library = createSeriesLibrary();
+        assertEquals(library.getIndexes().get(Library.INDEX_SET).get("Series A"), library.getMoviesByIndexKey("Series A"));
+    }
+
+    @Test
+    public void testPersonLookup() {
+        LOG.info("testPersonLookup");
+        Library library = new Library();
+        Person person = new Person();
+        person.setName("Person Name");
+        library.addPerson(person);
+
+        assertEquals(person, library.getPersonByName("person name"));
+        assertEquals(person, library.getPersonByIndexKey("PERSON NAME", false));
+        assertEquals(null, library.getPersonByName("Unknown Person"));
+    }
+
+    @Test
+    public void testIndexList() {
+        LOG.info("testIndexList");
+        Movie a = movie("A");
+        Movie b = movie("B");
+        Movie c = movie("C");
+        Movie d = movie("D");
+
+        IndexList list = new IndexList();
+        assertTrue(list.add(c));
+        assertTrue(list.add(a));
+        assertEquals(false, list.add(c));
+        list.add(0, b);
+        list.add(1, a);
+        assertEquals(Arrays.asList(b, c, a), list);
+
+        Collections.sort(list, new Comparator<Movie>() {
+            @Override
+            public int compare(Movie m1, Movie m2) {
+                return m1.getTitle().compareTo(m2.getTitle());
+            }
+        });
+        assertEquals(Arrays.asList(a, b, c), list);
+        assertTrue(list.contains(b));
+        assertEquals(false, list.contains(d));
+
+        list.add(d);
+        assertTrue(list.removeAll(Arrays.asList(b, d)));
+        assertEquals(Arrays.asList(a, c), list);
+        assertEquals(false, list.contains(b));
+        assertTrue(list.add(b));
+
+        list.subList(0, 2).clear();
+        assertEquals(Arrays.asList(b), list);
+        assertEquals(false, list.contains(a));
+        assertTrue(list.remove(b));
+        assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void testSortComparators() {
+        LOG.info("testSortComparators");
+        Movie movie1 = createSortMovie("Beta", "2001", "2001-05-12", 70);
+        Movie movie2 = createSortMovie("Alpha", "2001", "2001-02-03", 90);
+        Movie movie3 = createSortMovie("Gamma", "1999", "1999-12-31", 50);
+        Movie movie4 = createSortMovie("Delta", Movie.UNKNOWN, Movie.UNKNOWN, 60);
+
+        List<Movie> movies = new ArrayList<>(Arrays.asList(movie1, movie2, movie3, movie4));
+        Collections.sort(movies, new MovieReleaseComparator(true));
+        assertEquals(Arrays.asList(movie4, movie3, movie2, movie1), movies);
+
+        Collections.sort(movies, new MovieReleaseComparator(false));
+        assertEquals(Arrays.asList(movie1, movie2, movie3, movie4), movies);
+
+        Collections.sort(movies, new MovieRatingComparator(false));
+        assertEquals(Arrays.asList(movie2, movie1, movie4, movie3), movies);
+
+        Collections.sort(movies, new MovieTitleComparator(true));
+        assertEquals(Arrays.asList(movie2, movie1, movie4, movie3), movies);
+    }
+
+    private static Movie createSortMovie(String title, String year, String releaseDate, int rating) {
+        Movie movie = new Movie();
+        movie.setTitle(title, Movie.UNKNOWN);
+        movie.setTitleSort(title);
+        movie.setYear(year, Movie.UNKNOWN);
+        movie.setReleaseDate(releaseDate, Movie.UNKNOWN);
+        movie.addRating("test", rating);
+        return movie;
+    }
+
+    private static Library createSeriesLibrary() throws Throwable {
+        Library library = new Library();
+        library.addMovie(tv("Series A", 1));
+        library.addMovie(tv("Series A", 2));
+        library.addMovie(tv("Series A", 3));
+        library.addMovie(tv("Series B", 1));
+        library.addMovie(tv("Series B", 2));
+
+        Library.setSingleSeriesPage(true);
+        library.buildIndex(new ThreadExecutor<Void>(1, 1));
+        return library;
+    }
+
     private static void addMovies(Index index, int number) {
         for (int i = 0; i < number; i++) {
             index.addMovie("i" + i, new Movie());
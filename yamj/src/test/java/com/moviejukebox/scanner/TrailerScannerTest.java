@@ -0,0 +1,135 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.moviejukebox.AbstractTests;
+import com.moviejukebox.model.Movie;
+import com.moviejukebox.model.MovieFile;
+import com.moviejukebox.tools.PropertiesUtil;
+import java.io.File;
+import java.io.IOException;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class TrailerScannerTest extends AbstractTests {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TrailerScannerTest.class);
+    private static TrailerScanner trailerScanner;
+    private File movieDir;
+    private Movie movie;
+
+    @BeforeClass
+    public static void configure() {
+        doConfiguration();
+        // No trailer sites are searched
+        PropertiesUtil.setProperty("trailers.scanner", "");
+        trailerScanner = new TrailerScanner();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        movieDir = File.createTempFile("yamj-trailers", "");
+        FileUtils.deleteQuietly(movieDir);
+        assertTrue(movieDir.mkdirs());
+        File videoFile = new File(movieDir, "Avatar.avi");
+        FileUtils.touch(videoFile);
+
+        movie = new Movie();
+        movie.setMovieType(Movie.TYPE_MOVIE);
+        movie.setBaseName("Avatar");
+        MovieFile mf = new MovieFile();
+        mf.setFirstPart(1);
+        mf.setLastPart(1);
+        mf.setFile(videoFile);
+        mf.setFilename(videoFile.getAbsolutePath());
+        movie.addMovieFile(mf);
+
+        // The trailers have just been checked
+        movie.setTrailerExchange(Boolean.TRUE);
+        movie.setTrailerLastScan(System.currentTimeMillis());
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(movieDir);
+    }
+
+    @Test
+    public void testRescanUnfinishedDownload() throws IOException {
+        LOG.info("testRescanUnfinishedDownload");
+        createPartialDownload("Avatar.[TRAILER-Teaser].mov");
+        assertEquals(true, trailerScanner.isTrailersNeedRescan(movie));
+    }
+
+    @Test
+    public void testOtherUnfinishedDownload() throws IOException {
+        LOG.info("testOtherUnfinishedDownload");
+        // An unfinished download of another video doesn't matter
+        createPartialDownload("Avatar 2.[TRAILER-Teaser].mov");
+        assertEquals(false, trailerScanner.isTrailersNeedRescan(movie));
+    }
+
+    @Test
+    public void testDeleteOldDownload() throws IOException {
+        LOG.info("testDeleteOldDownload");
+        File recent = createPartialDownload("Avatar.[TRAILER-Teaser].mov", System.currentTimeMillis() - 60000L);
+        File old = createPartialDownload("Avatar.[TRAILER-Trailer].mov", System.currentTimeMillis() - 31L * 24 * 60 * 60 * 1000);
+
+        // No site could be checked, so only the download that was not continued for too long is deleted
+        assertEquals(true, trailerScanner.isTrailersNeedRescan(movie));
+        assertEquals(false, trailerScanner.getTrailers(movie));
+        assertEquals(true, recent.exists());
+        assertEquals(true, new File(recent.getAbsolutePath() + ".state").exists());
+        assertEquals(false, old.exists());
+        assertEquals(false, new File(old.getAbsolutePath() + ".state").exists());
+        assertEquals(true, trailerScanner.isTrailersNeedRescan(movie));
+    }
+
+    /**
+     * Create the part and state file of an unfinished download
+     */
+    private File createPartialDownload(String trailerName) throws IOException {
+        return createPartialDownload(trailerName, System.currentTimeMillis());
+    }
+
+    /**
+     * Create the part and state file of an unfinished download that was last continued at the time
+     */
+    private File createPartialDownload(String trailerName, long lastModified) throws IOException {
+        File partFile = new File(movieDir, trailerName + ".part");
+        File stateFile = new File(partFile.getAbsolutePath() + ".state");
+        FileUtils.writeStringToFile(partFile, "partial", "UTF-8");
+        FileUtils.writeStringToFile(stateFile, "#YAMJ download state v1", "UTF-8");
+        assertTrue(partFile.setLastModified(lastModified));
+        assertTrue(stateFile.setLastModified(lastModified));
+        return partFile;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.moviejukebox.AbstractTests;
+import java.io.File;
+import java.io.IOException;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+public class DocumentStreamWriterTest extends AbstractTests {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DocumentStreamWriterTest.class);
+    private File domFile;
+    private File streamFile;
+
+    @BeforeClass
+    public static void configure() {
+        doConfiguration();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        domFile = File.createTempFile("yamj-dom", ".xml");
+        streamFile = File.createTempFile("yamj-stream", ".xml");
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(domFile);
+        FileUtils.deleteQuietly(streamFile);
+    }
+
+    /**
+     * The streamed file must be the same as the file written from the same document, including the form of empty elements
+     *
+     * @throws ParserConfigurationException
+     * @throws XMLStreamException
+     * @throws IOException
+     */
+    @Test
+    public void testSameAsDocument() throws ParserConfigurationException, XMLStreamException, IOException {
+        LOG.info("testSameAsDocument");
+        Document doc = DOMHelper.createDocument();
+        Element library = doc.createElement("library");
+        library.setAttribute("count", "2");
+        doc.appendChild(library);
+
+        Element category = doc.createElement("category");
+        category.setAttribute("name", "Title");
+        category.setAttribute("current", "true");
+        DOMHelper.appendChild(doc, category, "index", "A & B <C> \"D\"", "originalName", "A \"&\" <B>");
+        library.appendChild(category);
+
+        Element movies = doc.createElement("movies");
+        library.appendChild(movies);
+        for (int i = 0; i < 2; i++) {
+            Element movie = doc.createElement("movie");
+            movie.setAttribute("isTV", "false");
+            movie.setAttribute("isExtra", "false");
+            movie.setAttribute("isSet", "false");
+            DOMHelper.appendChild(doc, movie, "title", "Amélie " + i + " 日本");
+            DOMHelper.appendChild(doc, movie, "plot", "Line 1\nLine 2\ttab");
+            DOMHelper.appendChild(doc, movie, "empty", "");
+            movie.appendChild(doc.createElement("noChildren"));
+            movie.appendChild(doc.createComment(" comment "));
+            movies.appendChild(movie);
+        }
+        library.appendChild(doc.createElement("person"));
+
+        DOMHelper.writeDocumentToFile(doc, domFile);
+
+        // Write the same document, with the movies streamed one by one
+        DocumentStreamWriter writer = new DocumentStreamWriter(streamFile);
+        try {
+            writer.writeStartDocument();
+            writer.writeStartElement("library");
+            writer.writeAttribute("count", "2");
+            writer.writeElement(category);
+            writer.writeStartElement("movies");
+            Element movie = (Element) movies.getFirstChild();
+            while (movie != null) {
+                writer.writeElement(movie);
+                movie = (Element) movie.getNextSibling();
+            }
+            writer.writeEndElement();
+            writer.writeEmptyElement("person");
+            writer.writeEndElement();
+            writer.writeEndDocument();
+        } finally {
+            writer.close();
+        }
+
+        String expected = FileUtils.readFileToString(domFile, "UTF-8");
+        assertTrue(expected.contains("<empty></empty>"));
+        assertTrue(expected.contains("<noChildren/>"));
+        assertEquals(expected, FileUtils.readFileToString(streamFile, "UTF-8"));
+    }
+
+    /**
+     * A document that is not ended, e.g. because writing a movie failed, must not replace the existing file
+     *
+     * @throws XMLStreamException
+     * @throws IOException
+     */
+    @Test
+    public void testUnfinishedKeepsFile() throws XMLStreamException, IOException {
+        LOG.info("testUnfinishedKeepsFile");
+        FileUtils.writeStringToFile(streamFile, "<library/>", "UTF-8");
+
+        DocumentStreamWriter writer = new DocumentStreamWriter(streamFile);
+        try {
+            writer.writeStartDocument();
+            writer.writeStartElement("library");
+            writer.writeStartElement("movies");
+            writer.writeCharacters("partial");
+        } finally {
+            writer.close();
+        }
+
+        assertEquals("<library/>", FileUtils.readFileToString(streamFile, "UTF-8"));
+        assertFalse(new File(streamFile.getPath() + ".tmp").exists());
+    }
+}
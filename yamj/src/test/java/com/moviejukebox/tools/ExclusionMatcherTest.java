@@ -0,0 +1,129 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.moviejukebox.AbstractTests;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ExclusionMatcherTest extends AbstractTests {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExclusionMatcherTest.class);
+    private static final String SEP = File.separator;
+
+    @BeforeClass
+    public static void configure() {
+        doConfiguration();
+    }
+
+    @Test
+    public void testNoExclusions() {
+        LOG.info("testNoExclusions");
+        ExclusionMatcher matcher = new ExclusionMatcher(Collections.<String>emptyList());
+        assertTrue(matcher.isEmpty());
+        assertFalse(matcher.isExcluded("movies" + SEP + "avatar.mkv"));
+    }
+
+    @Test
+    public void testTextExclusions() {
+        LOG.info("testTextExclusions");
+        ExclusionMatcher matcher = new ExclusionMatcher(Arrays.asList("sample", "tmp/", "Recycler\\", "abcd", "bc"));
+        assertTrue(matcher.isExcluded("movies" + SEP + "avatar-sample.mkv"));
+        assertTrue(matcher.isExcluded("tmp" + SEP + "avatar.mkv"));
+        assertTrue(matcher.isExcluded("recycler" + SEP + "avatar.mkv"));
+        assertTrue(matcher.isExcluded("movies" + SEP + "xabce.mkv"));
+        assertFalse(matcher.isExcluded("movies" + SEP + "tmp.mkv"));
+        assertFalse(matcher.isExcluded("movies" + SEP + "avatar.mkv"));
+    }
+
+    @Test
+    public void testRegexExclusions() {
+        LOG.info("testRegexExclusions");
+        ExclusionMatcher matcher = new ExclusionMatcher(Arrays.asList("^extras", "\\.TS$", "(a)\\1x", "[invalid"));
+        assertTrue(matcher.isExcluded("extras" + SEP + "avatar.mkv"));
+        assertFalse(matcher.isExcluded("movies" + SEP + "extras.mkv"));
+        assertTrue(matcher.isExcluded("movies" + SEP + "avatar.ts"));
+        assertFalse(matcher.isExcluded("movies" + SEP + "avatar.tsx"));
+        assertTrue(matcher.isExcluded("movies" + SEP + "aax.mkv"));
+        // An invalid pattern is still used as text
+        assertTrue(matcher.isExcluded("movies" + SEP + "[invalid].mkv"));
+    }
+
+    /**
+     * The compiled matcher gives the same result as checking each exclusion separately, the way the scanner used to do it.
+     */
+    @Test
+    public void testSameAsSeparately() {
+        LOG.info("testSameAsSeparately");
+        List<String> exclusions = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            exclusions.add("exclude" + i + "/");
+            exclusions.add("^skip" + i + "\\b.*\\.(avi|mkv)$");
+        }
+
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            paths.add(("movies" + SEP + "folder" + (i % 5) + SEP + "the movie " + i + " (2010).mkv").toLowerCase());
+        }
+        paths.add("exclude3" + SEP + "movie.mkv");
+        paths.add("skip3 movie.avi");
+        paths.add("skip3movie.avi");
+
+        ExclusionMatcher matcher = new ExclusionMatcher(exclusions);
+        int excludedCount = 0;
+        for (String path : paths) {
+            boolean excluded = matcher.isExcluded(path);
+            assertEquals(path, isExcludedSeparately(exclusions, path), excluded);
+            if (excluded) {
+                excludedCount++;
+            }
+        }
+        assertEquals(2, excludedCount);
+    }
+
+    private static boolean isExcludedSeparately(Collection<String> exclusions, String path) {
+        for (String excluded : exclusions) {
+            if (Pattern.compile(excluded, Pattern.CASE_INSENSITIVE).matcher(path).find()) {
+                return true;
+            }
+            String text = excluded.replace("/", File.separator).replace("\\", File.separator);
+            if (path.contains(text.toLowerCase())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.moviejukebox.AbstractTests;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+import org.apache.commons.io.FileUtils;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class GraphicToolsTest extends AbstractTests {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GraphicToolsTest.class);
+
+    @BeforeClass
+    public static void configure() {
+        doConfiguration();
+    }
+
+    @Test
+    public void testCopyImage() {
+        LOG.info("testCopyImage");
+        assertNull(GraphicTools.copyImage(null));
+
+        BufferedImage image = new BufferedImage(30, 20, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setColor(Color.BLUE);
+        g2d.fillRect(0, 0, 10, 10);
+        g2d.dispose();
+
+        BufferedImage copy = GraphicTools.copyImage(image);
+        assertNotSame(image, copy);
+        assertEquals(image.getType(), copy.getType());
+        assertEquals(image.getRGB(5, 5), copy.getRGB(5, 5));
+
+        // Drawing on the copy doesn't change the original
+        g2d = copy.createGraphics();
+        g2d.setColor(Color.RED);
+        g2d.fillRect(0, 0, 30, 20);
+        g2d.dispose();
+        assertEquals(Color.BLUE.getRGB(), image.getRGB(5, 5));
+        assertEquals(Color.BLACK.getRGB(), image.getRGB(20, 15));
+    }
+
+    @Test
+    public void testScaleProgressive() {
+        LOG.info("testScaleProgressive");
+        BufferedImage image = createImage(1000, 1500, BufferedImage.TYPE_3BYTE_BGR, Color.ORANGE, Color.ORANGE);
+        BufferedImage scaled = GraphicTools.scaleProgressive(image, 200, 300);
+        assertEquals(200, scaled.getWidth());
+        assertEquals(300, scaled.getHeight());
+        assertEquals(Color.ORANGE.getRGB(), scaled.getRGB(100, 150));
+
+        image = createImage(1000, 1500, BufferedImage.TYPE_INT_RGB, Color.ORANGE, Color.ORANGE);
+        scaled = GraphicTools.scaleProgressive(image, 250, 375);
+        assertEquals(250, scaled.getWidth());
+        assertEquals(375, scaled.getHeight());
+        assertEquals(Color.ORANGE.getRGB(), scaled.getRGB(100, 150));
+
+        // Transparent pixels don't darken the colour
+        image = new BufferedImage(400, 400, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setColor(Color.RED);
+        for (int x = 0; x < 400; x += 2) {
+            g2d.fillRect(x, 0, 1, 400);
+        }
+        g2d.dispose();
+        scaled = GraphicTools.scaleProgressive(image, 100, 100);
+        int pixel = scaled.getRGB(50, 50);
+        assertEquals(0xFF0000, pixel & 0xFFFFFF);
+        assertTrue("Alpha " + (pixel >>> 24), Math.abs((pixel >>> 24) - 128) <= 1);
+
+        // Upscaling
+        scaled = GraphicTools.scaleProgressive(createImage(100, 150, BufferedImage.TYPE_INT_RGB, Color.BLUE, Color.BLUE), 400, 600);
+        assertEquals(400, scaled.getWidth());
+        assertEquals(Color.BLUE.getRGB(), scaled.getRGB(200, 300));
+    }
+
+    @Test
+    public void testSubsampledRead() throws IOException {
+        LOG.info("testSubsampledRead");
+        assertEquals(1, JpegReader.getSubsampling(2000, 3000, 0, 0));
+        assertEquals(1, JpegReader.getSubsampling(1000, 1500, 800, 1200));
+        assertEquals(2, JpegReader.getSubsampling(2000, 3000, 800, 1200));
+        assertEquals(2, JpegReader.getSubsampling(1920, 1080, 800, 500));
+
+        File imageFile = File.createTempFile("yamj-graphictools", ".jpg");
+        try {
+            ImageIO.write(createImage(2000, 3000, BufferedImage.TYPE_INT_RGB, Color.GREEN, Color.BLUE), "jpeg", imageFile);
+
+            BufferedImage image = GraphicTools.loadJPEGImage(imageFile);
+            assertEquals(2000, image.getWidth());
+
+            image = GraphicTools.loadJPEGImage(imageFile, 400, 600);
+            assertEquals(1000, image.getWidth());
+            assertEquals(1500, image.getHeight());
+
+            image = GraphicTools.loadJPEGImage(imageFile, 1200, 1800);
+            assertEquals(2000, image.getWidth());
+        } finally {
+            FileUtils.deleteQuietly(imageFile);
+        }
+    }
+
+    private static BufferedImage createImage(int width, int height, int type, Color from, Color to) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setPaint(new GradientPaint(0, 0, from, width, height, to));
+        g2d.fillRect(0, 0, width, height);
+        g2d.dispose();
+        return image;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.moviejukebox.AbstractTests;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class HttpDiskCacheTest extends AbstractTests {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HttpDiskCacheTest.class);
+    private static final long ONE_HOUR = 60L * 60L * 1000L;
+    private File cacheDir;
+
+    @BeforeClass
+    public static void configure() {
+        doConfiguration();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        cacheDir = new File(FileUtils.getTempDirectory(), "yamj-httpcache-" + System.nanoTime());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(cacheDir);
+    }
+
+    @Test
+    public void testPutAndGet() {
+        LOG.info("testPutAndGet");
+        HttpDiskCache cache = new HttpDiskCache(cacheDir, 1024L * 1024L, ONE_HOUR);
+        cache.initialise();
+
+        assertNull(cache.get("http://www.example.com/page?id=1"));
+        cache.put("http://www.example.com/page?id=1", "line 1\nline 2 é");
+        assertEquals("line 1\nline 2 é", cache.get("http://www.example.com/page?id=1"));
+        assertNull(cache.get("http://www.example.com/page?id=2"));
+
+        // A new cache on the same directory still has the page
+        HttpDiskCache nextRun = new HttpDiskCache(cacheDir, 1024L * 1024L, ONE_HOUR);
+        nextRun.initialise();
+        assertEquals("line 1\nline 2 é", nextRun.get("http://www.example.com/page?id=1"));
+    }
+
+    @Test
+    public void testConcurrentPut() throws InterruptedException {
+        LOG.info("testConcurrentPut");
+        final HttpDiskCache cache = new HttpDiskCache(cacheDir, 1024L * 1024L, ONE_HOUR);
+        cache.initialise();
+        final String url = "http://www.example.com/page?id=1";
+        final CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final String content = "content " + i;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                    for (int j = 0; j < 20; j++) {
+                        cache.put(url, content);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(cache.get(url).startsWith("content "));
+        // Only the page is left, no temporary files
+        File[] hostFiles = new File(cacheDir, "www.example.com").listFiles();
+        assertEquals(1, hostFiles.length);
+        assertTrue(hostFiles[0].getName().endsWith(".cache"));
+    }
+
+    @Test
+    public void testHostRules() {
+        LOG.info("testHostRules");
+        HttpDiskCache cache = new HttpDiskCache(cacheDir, 1024L * 1024L, ONE_HOUR);
+        cache.addHostTtl(".*nocache.*", 0);
+        cache.initialise();
+
+        cache.put("http://www.nocache.com/page", "content");
+        assertNull(cache.get("http://www.nocache.com/page"));
+        cache.put("http://www.example.com/page", "content");
+        assertEquals("content", cache.get("http://www.example.com/page"));
+    }
+
+    @Test
+    public void testMaxSize() {
+        LOG.info("testMaxSize");
+        HttpDiskCache cache = new HttpDiskCache(cacheDir, 1000L, ONE_HOUR);
+        cache.initialise();
+
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 400; i++) {
+            content.append('x');
+        }
+        for (int i = 0; i < 5; i++) {
+            cache.put("http://www.example.com/page" + i, content.toString());
+        }
+
+        long size = 0;
+        for (File file : FileUtils.listFiles(cacheDir, null, true)) {
+            size += file.length();
+        }
+        LOG.info("Cache size: {}", size);
+        assertEquals(true, size <= 1000L);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import com.moviejukebox.AbstractTests;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import javax.imageio.ImageIO;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ImageFetcherTest extends AbstractTests {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ImageFetcherTest.class);
+    private File imageFile;
+    private File savedFile;
+    private File cacheFile;
+
+    @BeforeClass
+    public static void configure() {
+        doConfiguration();
+        ImageFetcher.setCacheEnabled(true);
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        ImageFetcher.setCacheEnabled(false);
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        imageFile = File.createTempFile("yamj-imagefetch", ".jpg");
+        savedFile = File.createTempFile("yamj-imagefetch", ".saved");
+        cacheFile = File.createTempFile("yamj-imagedimensions", ".txt");
+        FileUtils.deleteQuietly(cacheFile);
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(imageFile);
+        FileUtils.deleteQuietly(savedFile);
+        FileUtils.deleteQuietly(cacheFile);
+    }
+
+    @Test
+    public void testSniffFormat() throws IOException {
+        LOG.info("testSniffFormat");
+        assertEquals("jpeg", ImageFetcher.sniffFormat(createImage("jpeg", 10, 20)));
+        assertEquals("png", ImageFetcher.sniffFormat(createImage("png", 10, 20)));
+        assertEquals("gif", ImageFetcher.sniffFormat(createImage("gif", 10, 20)));
+        assertEquals("bmp", ImageFetcher.sniffFormat(createImage("bmp", 10, 20)));
+        assertNull(ImageFetcher.sniffFormat("<html>".getBytes("UTF-8")));
+        assertNull(ImageFetcher.sniffFormat(new byte[0]));
+    }
+
+    @Test
+    public void testReadDimensions() throws IOException {
+        LOG.info("testReadDimensions");
+        // The content decides the type, not the extension
+        assertEquals(new Dimension(120, 180), ImageFetcher.readDimensions(createImage("png", 120, 180), "jpg"));
+        assertEquals(new Dimension(300, 200), ImageFetcher.readDimensions(createImage("jpeg", 300, 200), "png"));
+        assertEquals(new Dimension(0, 0), ImageFetcher.readDimensions("<html>".getBytes("UTF-8"), "jpg"));
+    }
+
+    @Test
+    public void testFetchOnce() throws IOException {
+        LOG.info("testFetchOnce");
+        byte[] imageBytes = createImage("png", 40, 60);
+        FileUtils.writeByteArrayToFile(imageFile, imageBytes);
+        String imageUrl = imageFile.toURI().toURL().toExternalForm();
+
+        ImageFetcher.readCacheFile(cacheFile);
+        assertEquals(new Dimension(40, 60), ImageFetcher.getDimensions(imageUrl));
+
+        // The saved image is the fetched one, even though the source has changed since
+        FileUtils.writeByteArrayToFile(imageFile, createImage("png", 10, 10));
+        assertEquals(true, ImageFetcher.saveFetched(savedFile, ImageFetcher.createUrl(imageUrl)));
+        assertArrayEquals(imageBytes, FileUtils.readFileToByteArray(savedFile));
+        // But only once
+        assertEquals(false, ImageFetcher.saveFetched(savedFile, ImageFetcher.createUrl(imageUrl)));
+
+        // The dimensions are kept for the next run
+        ImageFetcher.writeCacheFile(cacheFile);
+        FileUtils.deleteQuietly(imageFile);
+        ImageFetcher.readCacheFile(cacheFile);
+        assertEquals(new Dimension(40, 60), ImageFetcher.getDimensions(imageUrl));
+    }
+
+    @Test
+    public void testDropFailedDownload() throws IOException {
+        LOG.info("testDropFailedDownload");
+        FileUtils.writeByteArrayToFile(imageFile, createImage("png", 40, 60));
+        String imageUrl = imageFile.toURI().toURL().toExternalForm();
+
+        ImageFetcher.readCacheFile(cacheFile);
+        assertEquals(new Dimension(40, 60), ImageFetcher.getDimensions(imageUrl));
+        assertEquals(true, FileTools.downloadImage(savedFile, imageUrl));
+        assertEquals(new Dimension(40, 60), ImageFetcher.getDimensions(imageUrl));
+
+        // The image is gone, so the saved dimensions are dropped
+        FileUtils.deleteQuietly(imageFile);
+        try {
+            FileTools.downloadImage(savedFile, imageUrl);
+            fail("The image should not be downloaded");
+        } catch (IOException ex) {
+            LOG.debug("Expected: {}", ex.getMessage());
+        }
+        assertEquals(new Dimension(0, 0), ImageFetcher.getDimensions(imageUrl));
+
+        // Also for the next run
+        ImageFetcher.writeCacheFile(cacheFile);
+        FileUtils.writeByteArrayToFile(imageFile, createImage("png", 10, 20));
+        ImageFetcher.readCacheFile(cacheFile);
+        assertEquals(new Dimension(10, 20), ImageFetcher.getDimensions(imageUrl));
+    }
+
+    @Test
+    public void testExpiredDimensions() throws IOException {
+        LOG.info("testExpiredDimensions");
+        FileUtils.writeByteArrayToFile(imageFile, createImage("png", 40, 60));
+        String imageUrl = imageFile.toURI().toURL().toExternalForm();
+        long now = System.currentTimeMillis();
+        long old = now - 100L * 24 * 60 * 60 * 1000;
+        FileUtils.writeLines(cacheFile, "UTF-8", Arrays.asList("#YAMJ image dimensions v2",
+                "http://example.com/recent.jpg\t100\t150\t" + now,
+                imageUrl + "\t100\t150\t" + old));
+
+        ImageFetcher.readCacheFile(cacheFile);
+        assertEquals(new Dimension(100, 150), ImageFetcher.getDimensions("http://example.com/recent.jpg"));
+        // The old dimensions have expired, so the image is fetched again
+        assertEquals(new Dimension(40, 60), ImageFetcher.getDimensions(imageUrl));
+    }
+
+    private static byte[] createImage(String format, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools;
+
+import static org.junit.Assert.assertEquals;
+
+import com.moviejukebox.AbstractTests;
+import com.moviejukebox.model.Movie;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class IndexStateTest extends AbstractTests {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IndexStateTest.class);
+    private File stateFile;
+
+    @BeforeClass
+    public static void configure() {
+        doConfiguration();
+        PropertiesUtil.setProperty("mjb.indexState", true);
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        stateFile = File.createTempFile("yamj-indexstate", ".txt");
+        FileUtils.deleteQuietly(stateFile);
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(stateFile);
+    }
+
+    @Test
+    public void testHasChanged() {
+        LOG.info("testHasChanged");
+        assertEquals(true, IndexState.isEnabled());
+        List<Movie> movies = createMovies("Avatar", "Alien", "Amelie");
+        String fingerprint = IndexState.createFingerprint(movies, 10, 5, "");
+
+        // Without a previous state nothing is reported as changed
+        IndexState.readStateFile(stateFile);
+        assertEquals(false, IndexState.hasChanged("Title_A_", fingerprint));
+        assertEquals(false, IndexState.hasChanged("Title_B_", fingerprint));
+        IndexState.writeStateFile(stateFile);
+
+        IndexState.readStateFile(stateFile);
+        assertEquals(false, IndexState.hasChanged("Title_A_", fingerprint));
+        // A movie was removed
+        assertEquals(true, IndexState.hasChanged("Title_B_", IndexState.createFingerprint(movies.subList(0, 2), 10, 5, "")));
+        // A new index
+        assertEquals(true, IndexState.hasChanged("Title_C_", fingerprint));
+        IndexState.writeStateFile(stateFile);
+
+        IndexState.readStateFile(stateFile);
+        assertEquals(false, IndexState.hasChanged("Title_B_", IndexState.createFingerprint(movies.subList(0, 2), 10, 5, "")));
+        assertEquals(false, IndexState.hasChanged("Title_C_", fingerprint));
+    }
+
+    @Test
+    public void testCreateFingerprint() {
+        LOG.info("testCreateFingerprint");
+        List<Movie> movies = createMovies("Avatar", "Alien", "Amelie");
+        String fingerprint = IndexState.createFingerprint(movies, 10, 5, "");
+        assertEquals(fingerprint, IndexState.createFingerprint(createMovies("Avatar", "Alien", "Amelie"), 10, 5, ""));
+
+        // Changes in the order, the page layout or the navigation
+        assertEquals(false, fingerprint.equals(IndexState.createFingerprint(createMovies("Alien", "Avatar", "Amelie"), 10, 5, "")));
+        assertEquals(false, fingerprint.equals(IndexState.createFingerprint(movies, 20, 5, "")));
+        assertEquals(false, fingerprint.equals(IndexState.createFingerprint(movies, 10, 5, "navigation")));
+    }
+
+    private static List<Movie> createMovies(String... baseNames) {
+        List<Movie> movies = new ArrayList<>();
+        for (String baseName : baseNames) {
+            Movie movie = new Movie();
+            movie.setBaseName(baseName);
+            movies.add(movie);
+        }
+        return movies;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools;
+
+import static org.junit.Assert.assertEquals;
+
+import com.moviejukebox.AbstractTests;
+import java.io.File;
+import java.io.IOException;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class JukeboxPublisherTest extends AbstractTests {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JukeboxPublisherTest.class);
+    private static final long OLD_DATE = 1000000000000L;
+    private File srcDir;
+    private File dstDir;
+
+    @BeforeClass
+    public static void configure() {
+        doConfiguration();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        File tempDir = FileUtils.getTempDirectory();
+        srcDir = new File(tempDir, "yamj-publish-src-" + System.nanoTime());
+        dstDir = new File(tempDir, "yamj-publish-dst-" + System.nanoTime());
+        FileTools.addJukeboxFile("movie.xml");
+        FileTools.addJukeboxFile("movie.html");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(srcDir);
+        FileUtils.deleteDirectory(dstDir);
+    }
+
+    @Test
+    public void testPublish() throws IOException {
+        LOG.info("testPublish");
+        write(new File(srcDir, "movie.xml"), "<movie/>");
+        write(new File(srcDir, "movie.html"), "<html/>");
+        write(new File(srcDir, "people" + File.separator + "person.xml"), "<person/>");
+
+        JukeboxPublisher.publish(srcDir, dstDir, 2);
+        assertEquals("<movie/>", read(new File(dstDir, "movie.xml")));
+        assertEquals("<html/>", read(new File(dstDir, "movie.html")));
+        assertEquals("<person/>", read(new File(dstDir, "people" + File.separator + "person.xml")));
+        assertEquals(true, new File(dstDir, "jukebox_publish.txt").exists());
+
+        // Unchanged files are not copied again, but are kept at least as new as the generated file
+        File dstXml = new File(dstDir, "movie.xml");
+        File dstHtml = new File(dstDir, "movie.html");
+        assertEquals(true, dstXml.setLastModified(OLD_DATE));
+        assertEquals(true, dstHtml.setLastModified(OLD_DATE));
+        assertEquals(true, new File(srcDir, "movie.xml").setLastModified(OLD_DATE));
+        write(new File(srcDir, "movie.html"), "<html>changed</html>");
+
+        JukeboxPublisher.publish(srcDir, dstDir, 2);
+        assertEquals("<movie/>", read(dstXml));
+        assertEquals(OLD_DATE, dstXml.lastModified());
+        assertEquals("<html>changed</html>", read(dstHtml));
+
+        // A target file changed by something else is replaced, even if it has the same size
+        write(dstXml, "<other/>");
+        JukeboxPublisher.publish(srcDir, dstDir, 2);
+        assertEquals("<movie/>", read(dstXml));
+        assertEquals(false, new File(dstDir, "movie.xml.publish").exists());
+    }
+
+    private static void write(File file, String content) throws IOException {
+        FileUtils.writeStringToFile(file, content, "UTF-8");
+    }
+
+    private static String read(File file) throws IOException {
+        return FileUtils.readFileToString(file, "UTF-8");
+    }
+}
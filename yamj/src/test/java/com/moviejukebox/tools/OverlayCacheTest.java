@@ -0,0 +1,111 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import com.moviejukebox.AbstractTests;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class OverlayCacheTest extends AbstractTests {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OverlayCacheTest.class);
+    private File logoFile;
+
+    @BeforeClass
+    public static void configure() {
+        doConfiguration();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        logoFile = File.createTempFile("yamj-overlay", ".png");
+        BufferedImage logo = new BufferedImage(40, 20, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = logo.createGraphics();
+        g2d.setColor(Color.RED);
+        g2d.fillRect(0, 0, 20, 20);
+        g2d.dispose();
+        ImageIO.write(logo, "png", logoFile);
+        OverlayCache.clear();
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(logoFile);
+        OverlayCache.clear();
+    }
+
+    @Test
+    public void testGetImage() throws IOException {
+        LOG.info("testGetImage");
+        BufferedImage image = OverlayCache.getImage(logoFile.getAbsolutePath());
+        assertEquals(40, image.getWidth());
+        assertEquals(20, image.getHeight());
+        assertSame(image, OverlayCache.getImage(logoFile));
+        // The original size is the decoded image
+        assertSame(image, OverlayCache.getImage(logoFile.getAbsolutePath(), 40, 20));
+    }
+
+    @Test
+    public void testGetScaledImage() throws IOException {
+        LOG.info("testGetScaledImage");
+        BufferedImage image = OverlayCache.getImage(logoFile.getAbsolutePath());
+        BufferedImage scaled = OverlayCache.getImage(logoFile.getAbsolutePath(), 20, 10);
+        assertNotSame(image, scaled);
+        assertEquals(20, scaled.getWidth());
+        assertEquals(10, scaled.getHeight());
+        assertSame(scaled, OverlayCache.getImage(logoFile.getAbsolutePath(), 20, 10));
+
+        // The scaled image looks the same as drawing the original image at that size
+        BufferedImage drawn = new BufferedImage(20, 10, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = drawn.createGraphics();
+        g2d.drawImage(image, 0, 0, 20, 10, null);
+        g2d.dispose();
+        for (int x = 0; x < 20; x++) {
+            for (int y = 0; y < 10; y++) {
+                assertEquals(drawn.getRGB(x, y), scaled.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void testMissingImage() throws IOException {
+        LOG.info("testMissingImage");
+        OverlayCache.getImage(logoFile.getAbsolutePath() + ".missing");
+    }
+}
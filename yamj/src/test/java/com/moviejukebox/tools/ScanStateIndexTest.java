@@ -0,0 +1,119 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.moviejukebox.AbstractTests;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ScanStateIndexTest extends AbstractTests {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ScanStateIndexTest.class);
+    private File stateFile;
+    private File rootDir;
+
+    @BeforeClass
+    public static void configure() {
+        doConfiguration();
+        PropertiesUtil.setProperty("mjb.scanner.stateIndex", true);
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        stateFile = File.createTempFile("yamj-scanstate", ".txt");
+        FileUtils.deleteQuietly(stateFile);
+        rootDir = File.createTempFile("yamj-scanroot", "");
+        FileUtils.deleteQuietly(rootDir);
+        assertTrue(rootDir.mkdirs());
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(stateFile);
+        FileUtils.deleteQuietly(rootDir);
+    }
+
+    @Test
+    public void testNestedDirectoryChanged() throws IOException {
+        LOG.info("testNestedDirectoryChanged");
+        assertEquals(true, ScanStateIndex.isEnabled());
+
+        File seriesDir = new File(rootDir, "Series");
+        assertTrue(seriesDir.mkdirs());
+        FileUtils.touch(new File(seriesDir, "Series.S01E01.avi"));
+        // Move the directory dates into the past, so the new file below changes the date of the series directory
+        long past = System.currentTimeMillis() - 60000L;
+        assertTrue(seriesDir.setLastModified(past));
+        assertTrue(rootDir.setLastModified(past));
+
+        ScanStateIndex.readStateFile(stateFile);
+        assertEquals(1, scan().size());
+        ScanStateIndex.writeStateFile(stateFile);
+
+        // Nothing changed, so the same listing is restored
+        ScanStateIndex.readStateFile(stateFile);
+        assertEquals(1, scan().size());
+        ScanStateIndex.writeStateFile(stateFile);
+
+        // Adding a file only changes the date of the nested directory
+        FileUtils.touch(new File(seriesDir, "Series.S01E02.avi"));
+        assertEquals(past, rootDir.lastModified());
+
+        ScanStateIndex.readStateFile(stateFile);
+        Set<String> names = scan();
+        assertEquals(2, names.size());
+        assertTrue(names.contains("Series.S01E02.avi"));
+    }
+
+    /**
+     * Scan the root directory and the directories below and return the names of the files found
+     */
+    private Set<String> scan() {
+        Set<String> names = new HashSet<>();
+        File[] dirs = ScanStateIndex.listFiles(rootDir);
+        assertNotNull(dirs);
+        for (File dir : dirs) {
+            assertTrue(dir.isDirectory());
+            File[] files = ScanStateIndex.listFiles(dir);
+            assertNotNull(files);
+            for (File file : files) {
+                names.add(file.getName());
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.moviejukebox.AbstractTests;
+import com.moviejukebox.model.Movie;
+import com.moviejukebox.model.MovieFile;
+import com.moviejukebox.plugin.TheTvDBPlugin;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class SeriesTaskGroupsTest extends AbstractTests {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SeriesTaskGroupsTest.class);
+
+    @BeforeClass
+    public static void configure() {
+        doConfiguration();
+    }
+
+    @Test
+    public void testSeriesKey() {
+        LOG.info("testSeriesKey");
+        assertNull("Movies are not grouped", SeriesTaskGroups.getSeriesKey(createMovie("Film", -1, null)));
+        assertEquals("title:show", SeriesTaskGroups.getSeriesKey(createMovie("Show", 1, null)));
+        assertEquals("tvdb:1234", SeriesTaskGroups.getSeriesKey(createMovie("Show", 1, "1234")));
+    }
+
+    @Test
+    public void testGroupedOrder() throws Throwable {
+        LOG.info("testGroupedOrder");
+        final List<String> processed = Collections.synchronizedList(new ArrayList<String>());
+        SeriesTaskGroups groups = new SeriesTaskGroups(true);
+        addTask(groups, processed, createMovie("Show", 3, null), "Show 3");
+        addTask(groups, processed, createMovie("Film", -1, null), "Film");
+        addTask(groups, processed, createMovie("Show", 1, null), "Show 1");
+        addTask(groups, processed, createMovie("Other", 2, "99"), "Other 2");
+        addTask(groups, processed, createMovie("Show", 2, null), "Show 2");
+        addTask(groups, processed, createMovie("Other", 1, "99"), "Other 1");
+
+        // One thread, so the groups run one after the other
+        ThreadExecutor<Void> tasks = new ThreadExecutor<>(1, 1);
+        groups.submitTo(tasks);
+        tasks.waitFor();
+
+        assertEquals(6, processed.size());
+        // The largest group first, each group in season order
+        assertEquals("Show 1", processed.get(0));
+        assertEquals("Show 2", processed.get(1));
+        assertEquals("Show 3", processed.get(2));
+        assertTrue(processed.indexOf("Other 1") < processed.indexOf("Other 2"));
+        assertEquals("Film", processed.get(5));
+    }
+
+    @Test
+    public void testUngroupedOrder() throws Throwable {
+        LOG.info("testUngroupedOrder");
+        final List<String> processed = Collections.synchronizedList(new ArrayList<String>());
+        SeriesTaskGroups groups = new SeriesTaskGroups(false);
+        addTask(groups, processed, createMovie("Show", 3, null), "Show 3");
+        addTask(groups, processed, createMovie("Film", -1, null), "Film");
+        addTask(groups, processed, createMovie("Show", 1, null), "Show 1");
+
+        ThreadExecutor<Void> tasks = new ThreadExecutor<>(1, 1);
+        groups.submitTo(tasks);
+        tasks.waitFor();
+
+        assertEquals("Show 3", processed.get(0));
+        assertEquals("Film", processed.get(1));
+        assertEquals("Show 1", processed.get(2));
+    }
+
+    private static void addTask(SeriesTaskGroups groups, final List<String> processed, Movie movie, final String name) {
+        groups.add(movie, new Callable<Void>() {
+            @Override
+            public Void call() {
+                processed.add(name);
+                return null;
+            }
+        });
+    }
+
+    private static Movie createMovie(String title, int season, String tvdbId) {
+        Movie movie = new Movie();
+        movie.setTitle(title, Movie.UNKNOWN);
+        if (season >= 0) {
+            MovieFile movieFile = new MovieFile();
+            movieFile.setSeason(season);
+            movie.addMovieFile(movieFile);
+        }
+        if (tvdbId != null) {
+            movie.setId(TheTvDBPlugin.THETVDB_PLUGIN_ID, tvdbId);
+        }
+        return movie;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.moviejukebox.AbstractTests;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import org.apache.commons.io.FileUtils;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+
+public class XMLElementTest extends AbstractTests {
+
+    private static final Logger LOG = LoggerFactory.getLogger(XMLElementTest.class);
+
+    @BeforeClass
+    public static void configure() {
+        doConfiguration();
+    }
+
+    @Test
+    public void testSameAsDOM() throws IOException, XMLStreamException, ParserConfigurationException, SAXException {
+        LOG.info("testSameAsDOM");
+        File xmlFile = getTestFile("ExampleMovieXML.xml");
+        assertSame(XMLElement.fromDOM(DOMHelper.getDocFromFile(xmlFile).getDocumentElement()), XMLElement.parse(xmlFile));
+
+        File tempFile = File.createTempFile("yamj-element", ".xml");
+        try {
+            FileUtils.writeStringToFile(tempFile, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                    + "<details>\n"
+                    + "  <movie isTV=\"true\" isExtra=\"false\">\n"
+                    + "    <id moviedb=\"imdb\">tt<!-- comment -->123</id>\n"
+                    + "    <title source=\"NFO\">A &amp; B &#233; <![CDATA[<cdata>]]> end</title>\n"
+                    + "    <plot>Line 1\nLine 2</plot>\n"
+                    + "    <originalTitle><!-- first -->Original</originalTitle>\n"
+                    + "    <outline/>\n"
+                    + "    <mixed>text <b>bold</b> tail</mixed>\n"
+                    + "  </movie>\n"
+                    + "</details>\n", "UTF-8");
+
+            XMLElement domElement = XMLElement.fromDOM(DOMHelper.getDocFromFile(tempFile).getDocumentElement());
+            XMLElement element = XMLElement.parse(tempFile);
+            assertSame(domElement, element);
+
+            XMLElement movie = element.getElementByName("movie");
+            assertEquals("tt123", movie.getElementByName("id").getTextContent());
+            assertEquals("tt", movie.getValue("id"));
+            assertEquals("A & B é ", movie.getValue("title"));
+            assertEquals("A & B é <cdata> end", movie.getElementByName("title").getTextContent());
+            assertEquals("NFO", movie.getElementByName("title").getAttribute("source"));
+            assertEquals("", movie.getElementByName("title").getAttribute("missing"));
+            assertEquals(" first ", movie.getValue("originalTitle"));
+            assertEquals("", movie.getValue("outline"));
+            assertEquals("", movie.getValue("missing"));
+            assertNull(movie.getElementByName("missing"));
+        } finally {
+            FileUtils.deleteQuietly(tempFile);
+        }
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException, XMLStreamException {
+        LOG.info("testWriteAndRead");
+        XMLElement element = XMLElement.parse(getTestFile("ExampleMovieXML.xml"));
+        assertSame(element, writeAndRead(element));
+
+        File tempFile = File.createTempFile("yamj-element", ".xml");
+        try {
+            FileUtils.writeStringToFile(tempFile, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                    + "<movie>\n"
+                    + "    <id moviedb=\"imdb\">tt<!-- comment -->123</id>\n"
+                    + "    <title>A &amp; B <![CDATA[<cdata>]]> end</title>\n"
+                    + "    <originalTitle><!-- first -->Original</originalTitle>\n"
+                    + "    <mixed>text <b>bold <i>italic</i></b> tail <c/>end</mixed>\n"
+                    + "    <outline/>\n"
+                    + "</movie>\n", "UTF-8");
+
+            element = XMLElement.parse(tempFile);
+            XMLElement readElement = writeAndRead(element);
+            assertSame(element, readElement);
+            assertEquals("text bold italic tail end", readElement.getElementByName("mixed").getTextContent());
+            assertEquals("text ", readElement.getValue("mixed"));
+            assertEquals(" first ", readElement.getValue("originalTitle"));
+            assertEquals("imdb", readElement.getElementByName("id").getAttribute("moviedb"));
+        } finally {
+            FileUtils.deleteQuietly(tempFile);
+        }
+    }
+
+    private static XMLElement writeAndRead(XMLElement element) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        element.write(new DataOutputStream(bytes));
+        return XMLElement.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    static void assertSame(XMLElement expected, XMLElement actual) {
+        assertEquals(expected.getNodeName(), actual.getNodeName());
+        assertEquals(expected.getNodeName(), expected.getAttributes(), actual.getAttributes());
+        assertEquals(expected.getNodeName(), expected.getTextContent(), actual.getTextContent());
+        assertEquals(expected.getNodeName(), expected.hasChildNodes(), actual.hasChildNodes());
+        assertEquals(expected.getNodeName(), expected.getFirstChildValue(), actual.getFirstChildValue());
+
+        List<XMLElement> expectedChildren = expected.getChildElements();
+        List<XMLElement> actualChildren = actual.getChildElements();
+        assertEquals(expected.getNodeName(), expectedChildren.size(), actualChildren.size());
+        for (int i = 0; i < expectedChildren.size(); i++) {
+            assertSame(expectedChildren.get(i), actualChildren.get(i));
+        }
+    }
+}
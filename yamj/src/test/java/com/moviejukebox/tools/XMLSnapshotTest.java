@@ -0,0 +1,124 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.moviejukebox.AbstractTests;
+import java.io.File;
+import java.io.IOException;
+import javax.xml.stream.XMLStreamException;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class XMLSnapshotTest extends AbstractTests {
+
+    private static final Logger LOG = LoggerFactory.getLogger(XMLSnapshotTest.class);
+    private File tempDir;
+    private File snapshotFile;
+    private File xmlFile;
+
+    @BeforeClass
+    public static void configure() {
+        doConfiguration();
+        PropertiesUtil.setProperty("mjb.xmlSnapshot", true);
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = new File(FileUtils.getTempDirectory(), "yamj-snapshot-" + System.nanoTime());
+        snapshotFile = new File(tempDir, "jukebox_snapshot.bin");
+        xmlFile = new File(tempDir, "movie.xml");
+        FileUtils.copyFile(getTestFile("ExampleMovieXML.xml"), xmlFile);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException, XMLStreamException {
+        LOG.info("testWriteAndRead");
+        assertEquals(true, XMLSnapshot.isEnabled());
+
+        XMLSnapshot.readSnapshot(snapshotFile);
+        assertNull(XMLSnapshot.getElement(xmlFile));
+        XMLSnapshot.writeSnapshot(snapshotFile);
+        assertEquals(true, snapshotFile.exists());
+
+        // The next run decodes the unchanged file from the snapshot
+        XMLSnapshot.readSnapshot(snapshotFile);
+        XMLElement element = XMLSnapshot.getElement(xmlFile);
+        assertNotNull(element);
+        XMLElementTest.assertSame(XMLElement.parse(xmlFile), element);
+
+        // Unchanged files are copied to the next snapshot
+        XMLSnapshot.writeSnapshot(snapshotFile);
+        XMLSnapshot.readSnapshot(snapshotFile);
+        assertNotNull(XMLSnapshot.getElement(xmlFile));
+
+        // Files that were not used are dropped
+        XMLSnapshot.writeSnapshot(snapshotFile);
+        XMLSnapshot.readSnapshot(snapshotFile);
+        XMLSnapshot.writeSnapshot(snapshotFile);
+        XMLSnapshot.readSnapshot(snapshotFile);
+        assertNull(XMLSnapshot.getElement(xmlFile));
+    }
+
+    @Test
+    public void testChangedFile() throws IOException {
+        LOG.info("testChangedFile");
+        XMLSnapshot.readSnapshot(snapshotFile);
+        XMLSnapshot.markUsed(xmlFile);
+        XMLSnapshot.writeSnapshot(snapshotFile);
+
+        FileUtils.writeStringToFile(xmlFile, "<details><movie><title>Changed</title></movie></details>", "UTF-8");
+        assertEquals(true, xmlFile.setLastModified(xmlFile.lastModified() + 2000L));
+
+        XMLSnapshot.readSnapshot(snapshotFile);
+        assertNull(XMLSnapshot.getElement(xmlFile));
+
+        // The snapshot of this run has the new content
+        XMLSnapshot.writeSnapshot(snapshotFile);
+        XMLSnapshot.readSnapshot(snapshotFile);
+        XMLElement element = XMLSnapshot.getElement(xmlFile);
+        assertNotNull(element);
+        assertEquals("Changed", element.getValue("title"));
+    }
+
+    @Test
+    public void testInvalidSnapshot() throws IOException {
+        LOG.info("testInvalidSnapshot");
+        FileUtils.writeStringToFile(snapshotFile, "not a snapshot", "UTF-8");
+        XMLSnapshot.readSnapshot(snapshotFile);
+        assertNull(XMLSnapshot.getElement(xmlFile));
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.moviejukebox.AbstractTests;
+import com.moviejukebox.model.JukeboxStatistics;
+import com.moviejukebox.model.enumerations.JukeboxStatistic;
+import com.moviejukebox.tools.PropertiesUtil;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class CacheMemoryTest extends AbstractTests {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheMemoryTest.class);
+
+    @BeforeClass
+    public static void configure() {
+        doConfiguration();
+        PropertiesUtil.setProperty("mjb.cache.maxWeight.Small", 3);
+        CacheMemory.setCacheState(true);
+    }
+
+    @After
+    public void cleanUp() {
+        CacheMemory.clear();
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        LOG.info("testLeastRecentlyUsedEviction");
+        CacheMemory.addToCache(CacheMemory.generateCacheKey("Small", "1"), "one");
+        CacheMemory.addToCache(CacheMemory.generateCacheKey("Small", "2"), "two");
+        CacheMemory.addToCache(CacheMemory.generateCacheKey("Small", "3"), "three");
+
+        // Use the first one, so the second is the least recently used
+        assertNotNull(CacheMemory.getFromCache(CacheMemory.generateCacheKey("Small", "1")));
+        CacheMemory.addToCache(CacheMemory.generateCacheKey("Small", "4"), "four");
+
+        assertNotNull(CacheMemory.getFromCache(CacheMemory.generateCacheKey("Small", "1")));
+        assertNull(CacheMemory.getFromCache(CacheMemory.generateCacheKey("Small", "2")));
+        assertNotNull(CacheMemory.getFromCache(CacheMemory.generateCacheKey("Small", "3")));
+        assertNotNull(CacheMemory.getFromCache(CacheMemory.generateCacheKey("Small", "4")));
+    }
+
+    @Test
+    public void testWeightAndNamespaces() {
+        LOG.info("testWeightAndNamespaces");
+        CacheMemory.addToCache(CacheMemory.generateCacheKey("Other", "1"), "other");
+        CacheMemory.addToCache(CacheMemory.generateCacheKey("Small", "1"), "one");
+        // The list weighs as much as the namespace can hold
+        CacheMemory.addToCache(CacheMemory.generateCacheKey("Small", "list"), Arrays.asList("a", "b", "c"));
+
+        assertNull(CacheMemory.getFromCache(CacheMemory.generateCacheKey("Small", "1")));
+        assertNotNull(CacheMemory.getFromCache(CacheMemory.generateCacheKey("Small", "list")));
+        // Other namespaces are not affected
+        assertEquals("other", CacheMemory.getFromCache(CacheMemory.generateCacheKey("Other", "1")));
+    }
+
+    @Test
+    public void testOversizeObject() {
+        LOG.info("testOversizeObject");
+        CacheMemory.addToCache(CacheMemory.generateCacheKey("Small", "1"), "one");
+        CacheMemory.addToCache(CacheMemory.generateCacheKey("Small", "list"), "old");
+        // The list is heavier than the namespace can hold, so it is not cached and the old value is dropped
+        CacheMemory.addToCache(CacheMemory.generateCacheKey("Small", "list"), Arrays.asList("a", "b", "c", "d"));
+
+        assertNull(CacheMemory.getFromCache(CacheMemory.generateCacheKey("Small", "list")));
+        assertEquals("one", CacheMemory.getFromCache(CacheMemory.generateCacheKey("Small", "1")));
+    }
+
+    @Test
+    public void testImageWeight() {
+        LOG.info("testImageWeight");
+        // 10x10 pixels weigh 1, 100x100 pixels weigh 9
+        CacheMemory.addToCache(CacheMemory.generateCacheKey("Small", "thumb"), new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB));
+        CacheMemory.addToCache(CacheMemory.generateCacheKey("Small", "poster"), new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB));
+        CacheMemory.addToCache(CacheMemory.generateCacheKey("Small", "bytes"), new byte[40000]);
+
+        assertNotNull(CacheMemory.getFromCache(CacheMemory.generateCacheKey("Small", "thumb")));
+        assertNull(CacheMemory.getFromCache(CacheMemory.generateCacheKey("Small", "poster")));
+        assertNull(CacheMemory.getFromCache(CacheMemory.generateCacheKey("Small", "bytes")));
+    }
+
+    @Test
+    public void testEvictionStatistics() {
+        LOG.info("testEvictionStatistics");
+        CacheMemory.updateStatistics();
+        int evictions = JukeboxStatistics.getStatistic(JukeboxStatistic.CACHE_EVICTIONS);
+
+        CacheMemory.addToCache(CacheMemory.generateCacheKey("Small", "1"), "one");
+        CacheMemory.addToCache(CacheMemory.generateCacheKey("Small", "2"), "two");
+        CacheMemory.addToCache(CacheMemory.generateCacheKey("Small", "3"), "three");
+        CacheMemory.addToCache(CacheMemory.generateCacheKey("Small", "4"), "four");
+        CacheMemory.updateStatistics();
+        assertEquals(evictions + 1, JukeboxStatistics.getStatistic(JukeboxStatistic.CACHE_EVICTIONS));
+
+        // Purging keeps half of the namespace weight, so two more objects are removed
+        CacheMemory.purgeCache();
+        CacheMemory.updateStatistics();
+        assertEquals(evictions + 3, JukeboxStatistics.getStatistic(JukeboxStatistic.CACHE_EVICTIONS));
+
+        // Clearing the cache doesn't copy the counters to the statistics, the new evictions are not reported yet
+        CacheMemory.addToCache(CacheMemory.generateCacheKey("Small", "5"), "five");
+        CacheMemory.addToCache(CacheMemory.generateCacheKey("Small", "6"), "six");
+        CacheMemory.addToCache(CacheMemory.generateCacheKey("Small", "7"), "seven");
+        CacheMemory.clear();
+        assertEquals(evictions + 3, JukeboxStatistics.getStatistic(JukeboxStatistic.CACHE_EVICTIONS));
+    }
+
+    @Test
+    public void testStatistics() {
+        LOG.info("testStatistics");
+        CacheMemory.updateStatistics();
+        int hits = JukeboxStatistics.getStatistic(JukeboxStatistic.CACHE_HITS);
+        int misses = JukeboxStatistics.getStatistic(JukeboxStatistic.CACHE_MISSES);
+
+        CacheMemory.addToCache(CacheMemory.generateCacheKey("Stats", "1"), "one");
+        CacheMemory.getFromCache(CacheMemory.generateCacheKey("Stats", "1"));
+        CacheMemory.getFromCache(CacheMemory.generateCacheKey("Stats", "2"));
+        CacheMemory.updateStatistics();
+
+        assertEquals(hits + 1, JukeboxStatistics.getStatistic(JukeboxStatistic.CACHE_HITS));
+        assertEquals(misses + 1, JukeboxStatistics.getStatistic(JukeboxStatistic.CACHE_MISSES));
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.moviejukebox.AbstractTests;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class SingleFlightTest extends AbstractTests {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SingleFlightTest.class);
+    private static final int THREADS = 15;
+
+    @BeforeClass
+    public static void configure() {
+        doConfiguration();
+    }
+
+    @Test
+    public void testConcurrentRequests() throws Exception {
+        LOG.info("testConcurrentRequests");
+        final AtomicInteger calls = new AtomicInteger(0);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Object result = new Object();
+
+        final Callable<Object> request = new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                calls.incrementAndGet();
+                started.countDown();
+                release.await(10, TimeUnit.SECONDS);
+                return result;
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            futures.add(executor.submit(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    return SingleFlight.execute("Test-Series-1", request);
+                }
+            }));
+            assertTrue("Request not started", started.await(10, TimeUnit.SECONDS));
+
+            int waitingBefore = SingleFlight.getCoalescedCount();
+            for (int i = 1; i < THREADS; i++) {
+                futures.add(executor.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        return SingleFlight.execute("Test-Series-1", request);
+                    }
+                }));
+            }
+
+            // Wait until all the other threads are waiting for the running request
+            long end = System.currentTimeMillis() + 10000;
+            while (SingleFlight.getCoalescedCount() - waitingBefore < THREADS - 1 && System.currentTimeMillis() < end) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            for (Future<Object> future : futures) {
+                assertSame(result, future.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals("Wrong number of requests", 1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testException() throws Exception {
+        LOG.info("testException");
+        try {
+            SingleFlight.execute("Test-Error", new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    throw new IOException("Failed");
+                }
+            });
+            fail("No exception thrown");
+        } catch (IOException ex) {
+            assertEquals("Failed", ex.getMessage());
+        }
+
+        // The failed request is not kept
+        assertEquals("OK", SingleFlight.execute("Test-Error", new Callable<String>() {
+            @Override
+            public String call() {
+                return "OK";
+            }
+        }));
+    }
+
+    @Test
+    public void testNestedRequest() throws Exception {
+        LOG.info("testNestedRequest");
+        String result = SingleFlight.execute("Test-Nested", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return SingleFlight.execute("Test-Nested", new Callable<String>() {
+                    @Override
+                    public String call() {
+                        return "Nested";
+                    }
+                });
+            }
+        });
+        assertEquals("Nested", result);
+    }
+}
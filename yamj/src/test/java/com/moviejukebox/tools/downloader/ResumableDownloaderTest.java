@@ -0,0 +1,259 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.tools.downloader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.moviejukebox.AbstractTests;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ResumableDownloaderTest extends AbstractTests {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ResumableDownloaderTest.class);
+    private static final int FILE_SIZE = 3 * 1024 * 1024 + 123;
+    private static byte[] content;
+    private HttpServer server;
+    private TrailerHandler handler;
+    private File target;
+
+    @BeforeClass
+    public static void configure() {
+        doConfiguration();
+        content = new byte[FILE_SIZE];
+        new Random(42).nextBytes(content);
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        handler = new TrailerHandler();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/trailer.mov", handler);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        target = File.createTempFile("yamj-trailer", ".mov");
+        FileUtils.deleteQuietly(target);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        FileUtils.deleteQuietly(target);
+        FileUtils.deleteQuietly(new File(target.getAbsolutePath() + ".part"));
+        FileUtils.deleteQuietly(new File(target.getAbsolutePath() + ".part.state"));
+    }
+
+    @Test
+    public void testDownload() throws IOException {
+        LOG.info("testDownload");
+        ResumableDownloader downloader = createDownloader();
+        assertTrue("Download failed", downloader.download());
+        assertArrayEquals(content, FileUtils.readFileToByteArray(target));
+        assertEquals(FILE_SIZE, downloader.getTotalSize());
+        assertFalse(downloader.getPartFile().exists());
+        assertFalse(downloader.getStateFile().exists());
+    }
+
+    @Test
+    public void testResume() throws IOException {
+        LOG.info("testResume");
+        handler.breakAfter = 1500 * 1024;
+        ResumableDownloader downloader = createDownloader();
+        downloader.setRetries(0);
+        assertFalse("Download should fail", downloader.download());
+        assertFalse(target.exists());
+        assertTrue(downloader.getPartFile().exists());
+        assertTrue(downloader.getStateFile().exists());
+
+        // The next run continues where the download stopped
+        handler.breakAfter = -1;
+        handler.sent.set(0);
+        downloader = createDownloader();
+        assertTrue("Download failed", downloader.download());
+        assertArrayEquals(content, FileUtils.readFileToByteArray(target));
+        assertTrue("Sent " + handler.sent.get() + " bytes again", handler.sent.get() < FILE_SIZE);
+    }
+
+    @Test
+    public void testRetry() throws IOException {
+        LOG.info("testRetry");
+        handler.breakAfter = 1024 * 1024;
+        handler.breakCount = 1;
+        ResumableDownloader downloader = createDownloader();
+        downloader.setRetries(2);
+        assertTrue("Download failed", downloader.download());
+        assertArrayEquals(content, FileUtils.readFileToByteArray(target));
+    }
+
+    @Test
+    public void testChangedFile() throws IOException {
+        LOG.info("testChangedFile");
+        handler.breakAfter = 1500 * 1024;
+        ResumableDownloader downloader = createDownloader();
+        downloader.setRetries(0);
+        assertFalse(downloader.download());
+
+        // The file has changed, so it is downloaded again from the start
+        handler.breakAfter = -1;
+        handler.etag = "\"v2\"";
+        handler.sent.set(0);
+        downloader = createDownloader();
+        assertTrue("Download failed", downloader.download());
+        assertArrayEquals(content, FileUtils.readFileToByteArray(target));
+        assertEquals(FILE_SIZE, handler.sent.get());
+    }
+
+    @Test
+    public void testSegments() throws IOException {
+        LOG.info("testSegments");
+        ResumableDownloader downloader = createDownloader();
+        downloader.setSegmentCount(3);
+        assertTrue("Download failed", downloader.download());
+        assertArrayEquals(content, FileUtils.readFileToByteArray(target));
+        assertEquals(3, handler.requests.get());
+    }
+
+    @Test
+    public void testNoRangeSupport() throws IOException {
+        LOG.info("testNoRangeSupport");
+        handler.ranges = false;
+        ResumableDownloader downloader = createDownloader();
+        downloader.setSegmentCount(3);
+        assertTrue("Download failed", downloader.download());
+        assertArrayEquals(content, FileUtils.readFileToByteArray(target));
+        assertEquals(1, handler.requests.get());
+    }
+
+    @Test
+    public void testChecksum() throws IOException {
+        LOG.info("testChecksum");
+        ResumableDownloader downloader = createDownloader();
+        downloader.setExpectedMd5(DigestUtils.md5Hex(content));
+        assertTrue("Download failed", downloader.download());
+
+        FileUtils.deleteQuietly(target);
+        downloader = createDownloader();
+        downloader.setExpectedMd5(DigestUtils.md5Hex("wrong"));
+        assertFalse("Wrong checksum not found", downloader.download());
+        assertFalse(target.exists());
+        assertFalse(downloader.getPartFile().exists());
+    }
+
+    @Test
+    public void testRateLimit() throws IOException {
+        LOG.info("testRateLimit");
+        ResumableDownloader downloader = createDownloader();
+        downloader.setMaxBytesPerSecond(FILE_SIZE * 10L);
+        assertTrue("Download failed", downloader.download());
+        assertArrayEquals(content, FileUtils.readFileToByteArray(target));
+
+        // 1000 bytes per second, started at 0
+        ResumableDownloader.RateLimiter limiter = new ResumableDownloader.RateLimiter(1000, 0);
+        long millis = TimeUnit.MILLISECONDS.toNanos(1);
+        assertEquals(0, limiter.reserve(500, 500 * millis));
+        assertEquals(500 * millis, limiter.reserve(500, 500 * millis));
+        // Time that passed without reading is not waited for
+        assertEquals(0, limiter.reserve(1000, 3000 * millis));
+        assertEquals(1000 * millis, limiter.reserve(2000, 3000 * millis));
+    }
+
+    private ResumableDownloader createDownloader() throws IOException {
+        URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/trailer.mov");
+        return new ResumableDownloader(url, target);
+    }
+
+    /**
+     * Serve the content with optional range support, breaking the connection if required
+     */
+    private static class TrailerHandler implements HttpHandler {
+
+        private volatile boolean ranges = true;
+        private volatile String etag = "\"v1\"";
+        private volatile long breakAfter = -1;
+        private volatile int breakCount = Integer.MAX_VALUE;
+        private final AtomicLong sent = new AtomicLong(0);
+        private final AtomicInteger requests = new AtomicInteger(0);
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            requests.incrementAndGet();
+            long start = 0;
+            long end = FILE_SIZE;
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+            boolean partial = ranges && range != null && (ifRange == null || ifRange.equals(etag));
+            if (partial) {
+                String[] values = range.substring("bytes=".length()).split("-", -1);
+                start = Long.parseLong(values[0]);
+                if (!values[1].isEmpty()) {
+                    end = Long.parseLong(values[1]) + 1;
+                }
+                exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + (end - 1) + "/" + FILE_SIZE);
+            }
+            exchange.getResponseHeaders().add("ETag", etag);
+            exchange.sendResponseHeaders(partial ? 206 : 200, end - start);
+
+            try (OutputStream out = exchange.getResponseBody()) {
+                long position = start;
+                while (position < end) {
+                    int length = (int) Math.min(16 * 1024, end - position);
+                    if (breakAfter >= 0 && breakCount > 0 && position + length > breakAfter) {
+                        breakCount--;
+                        // Drop the connection in the middle of the file
+                        out.flush();
+                        exchange.close();
+                        return;
+                    }
+                    out.write(content, (int) position, length);
+                    sent.addAndGet(length);
+                    position += length;
+                }
+            } catch (IOException ex) {
+                exchange.close();
+            }
+        }
+    }
+}
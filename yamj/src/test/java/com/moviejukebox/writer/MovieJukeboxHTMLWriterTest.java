@@ -0,0 +1,113 @@
+/*
+ *      Copyright (c) 2004-2016 YAMJ Members
+ *      https://github.com/orgs/YAMJ/people
+ *
+ *      This file is part of the Yet Another Movie Jukebox (YAMJ) project.
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v2
+ *
+ */
+package com.moviejukebox.writer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import com.moviejukebox.AbstractTests;
+import com.moviejukebox.tools.PropertiesUtil;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Map.Entry;
+import javax.xml.transform.Templates;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import org.apache.commons.io.FileUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class MovieJukeboxHTMLWriterTest extends AbstractTests {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MovieJukeboxHTMLWriterTest.class);
+    private static final String XML = "<details><movie><title>Avatar</title></movie></details>";
+    private static File xslFile;
+
+    @BeforeClass
+    public static void configure() throws IOException {
+        doConfiguration();
+        loadMainProperties();
+
+        xslFile = File.createTempFile("yamj-test", ".xsl");
+        FileUtils.writeStringToFile(xslFile, "<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">"
+                + "<xsl:output method=\"html\"/>"
+                + "<xsl:param name=\"homePage\"/>"
+                + "<xsl:template match=\"/\"><html><body><a href=\"{$homePage}\"><xsl:value-of select=\"details/movie/title\"/></a></body></html></xsl:template>"
+                + "</xsl:stylesheet>", "UTF-8");
+    }
+
+    @AfterClass
+    public static void cleanUp() {
+        FileUtils.deleteQuietly(xslFile);
+        MovieJukeboxHTMLWriter.clearTransformerCache();
+    }
+
+    @Test
+    public void testGetTransformer() throws TransformerException {
+        LOG.info("testGetTransformer");
+        Transformer first = MovieJukeboxHTMLWriter.getTransformer(xslFile, ".");
+        Transformer second = MovieJukeboxHTMLWriter.getTransformer(xslFile, ".");
+        assertNotNull(first);
+        assertNotNull(second);
+        // Each call must get its own transformer
+        assertEquals(false, first == second);
+        assertEquals(first.getParameter("homePage"), second.getParameter("homePage"));
+
+        assertEquals(transform(first), transform(second));
+    }
+
+    /**
+     * The stylesheet is compiled once and gives the same pages as compiling it for every page
+     *
+     * @throws TransformerException
+     */
+    @Test
+    public void testCachedTemplates() throws TransformerException {
+        LOG.info("testCachedTemplates");
+        Templates templates = MovieJukeboxHTMLWriter.getTemplates(xslFile);
+        assertSame(templates, MovieJukeboxHTMLWriter.getTemplates(xslFile));
+
+        Transformer compiled = TransformerFactory.newInstance().newTransformer(new StreamSource(xslFile));
+        compiled.setParameter("homePage", MovieJukeboxHTMLWriter.getTransformer(xslFile, ".").getParameter("homePage"));
+        for (Entry<Object, Object> e : PropertiesUtil.getEntrySet()) {
+            compiled.setParameter(e.getKey().toString(), e.getValue().toString());
+        }
+        assertEquals(transform(compiled), transform(MovieJukeboxHTMLWriter.getTransformer(xslFile, ".")));
+        assertSame(templates, MovieJukeboxHTMLWriter.getTemplates(xslFile));
+    }
+
+    private static String transform(Transformer transformer) throws TransformerException {
+        StringWriter writer = new StringWriter();
+        transformer.transform(new StreamSource(new StringReader(XML)), new StreamResult(writer));
+        return writer.toString();
+    }
+}